@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.ast.decompilation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import org.teavm.ast.AsyncMethodNode;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Decompiles methods in worker threads ahead of code generation. Code generation itself stays sequential,
+ * since backends assign string constants, call site ids, etc. in order, so generator takes methods from the queue
+ * in the same order as it would decompile them, and output does not depend on scheduling.</p>
+ *
+ * <p>Result of regular method decompilation is produced by a function given to constructor, so that backends
+ * can do additional per-method work in worker threads as well.</p>
+ *
+ * @param <T> result of regular method decompilation.
+ */
+public class DecompilationQueue<T> implements AutoCloseable {
+    private ForkJoinPool pool;
+    private ThreadLocal<Decompiler> decompilers;
+    private BiFunction<Decompiler, MethodHolder, T> regularDecompilation;
+    private Map<MethodReference, ForkJoinTask<T>> regularTasks = new HashMap<>();
+    private Map<MethodReference, ForkJoinTask<AsyncMethodNode>> asyncTasks = new HashMap<>();
+
+    public DecompilationQueue(ClassHolderSource classes, Set<MethodReference> splitMethods,
+            boolean friendlyToDebugger, int threads, BiFunction<Decompiler, MethodHolder, T> regularDecompilation) {
+        pool = new ForkJoinPool(threads);
+        decompilers = ThreadLocal.withInitial(() -> new Decompiler(classes, splitMethods, friendlyToDebugger));
+        this.regularDecompilation = regularDecompilation;
+    }
+
+    public void scheduleRegular(MethodHolder method) {
+        regularTasks.put(method.getReference(),
+                pool.submit(() -> regularDecompilation.apply(decompilers.get(), method)));
+    }
+
+    public void scheduleAsync(MethodHolder method) {
+        asyncTasks.put(method.getReference(), pool.submit(() -> decompilers.get().decompileAsync(method)));
+    }
+
+    /**
+     * Returns decompiled method. If method was not scheduled, decompiles it in the calling thread
+     * with the given decompiler.
+     */
+    public T takeRegular(MethodHolder method, Decompiler decompiler) {
+        ForkJoinTask<T> task = regularTasks.remove(method.getReference());
+        return task != null ? task.join() : regularDecompilation.apply(decompiler, method);
+    }
+
+    public AsyncMethodNode takeAsync(MethodHolder method, Decompiler decompiler) {
+        ForkJoinTask<AsyncMethodNode> task = asyncTasks.remove(method.getReference());
+        return task != null ? task.join() : decompiler.decompileAsync(method);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.teavm.backend.c;
 
+import com.carrotsearch.hppc.IntArrayList;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -31,6 +32,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.teavm.ast.InvocationExpr;
+import org.teavm.ast.RegularMethodNode;
+import org.teavm.ast.decompilation.DecompilationQueue;
 import org.teavm.ast.decompilation.Decompiler;
 import org.teavm.backend.c.analyze.CDependencyListener;
 import org.teavm.backend.c.analyze.InteropDependencyListener;
@@ -54,6 +57,7 @@ import org.teavm.backend.c.generators.GeneratorFactory;
 import org.teavm.backend.c.generators.ReferenceQueueGenerator;
 import org.teavm.backend.c.generators.WeakReferenceGenerator;
 import org.teavm.backend.c.intrinsic.AddressIntrinsic;
+import org.teavm.backend.c.intrinsic.AllocationProfilerIntrinsic;
 import org.teavm.backend.c.intrinsic.AllocatorIntrinsic;
 import org.teavm.backend.c.intrinsic.ConsoleIntrinsic;
 import org.teavm.backend.c.intrinsic.ExceptionHandlingIntrinsic;
@@ -102,6 +106,7 @@ import org.teavm.model.FieldReference;
 import org.teavm.model.ListableClassHolderSource;
 import org.teavm.model.ListableClassReaderSource;
 import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHolder;
 import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
@@ -114,6 +119,7 @@ import org.teavm.model.lowlevel.Characteristics;
 import org.teavm.model.lowlevel.ClassInitializerEliminator;
 import org.teavm.model.lowlevel.ClassInitializerTransformer;
 import org.teavm.model.lowlevel.ExportDependencyListener;
+import org.teavm.model.lowlevel.LeafMethodFinder;
 import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
 import org.teavm.model.lowlevel.ShadowStackTransformer;
 import org.teavm.model.lowlevel.WriteBarrierInsertion;
@@ -135,6 +141,7 @@ import org.teavm.runtime.RuntimeArray;
 import org.teavm.runtime.RuntimeClass;
 import org.teavm.runtime.RuntimeObject;
 import org.teavm.vm.BuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
 import org.teavm.vm.spi.TeaVMHostExtension;
@@ -143,11 +150,12 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private static final Set<MethodReference> VIRTUAL_METHODS = new HashSet<>(Arrays.asList(
             new MethodReference(Object.class, "clone", Object.class)
     ));
-    private static final String[] RUNTIME_FILES = { "core.c", "core.h", "date.c", "date.h", "definitions.h",
-            "exceptions.h", "fiber.c", "fiber.h", "file.c", "file.h", "heapdump.c", "heapdump.h", "heaptrace.c",
-            "heaptrace.h", "log.c", "log.h", "memory.c", "memory.h", "references.c", "references.h",
-            "resource.c", "resource.h", "runtime.h", "stack.c", "stack.h", "string.c", "string.h",
-            "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h"
+    private static final int DECOMPILATION_WINDOW_PER_THREAD = 4;
+    private static final String[] RUNTIME_FILES = { "allocprofile.c", "allocprofile.h", "core.c", "core.h",
+            "date.c", "date.h", "definitions.h", "exceptions.h", "fiber.c", "fiber.h", "file.c", "file.h", "gcmark.c",
+            "gcmark.h", "heapdump.c", "heapdump.h", "heaptrace.c", "heaptrace.h", "log.c", "log.h", "memory.c",
+            "memory.h", "references.c", "references.h", "resource.c", "resource.h", "runtime.h", "stack.c", "stack.h",
+            "string.c", "string.h", "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h"
     };
 
     private TeaVMTargetController controller;
@@ -162,6 +170,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private ExportDependencyListener exportDependencyListener = new ExportDependencyListener();
     private int minHeapSize = 4 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
+    private int gcMarkThreads = 1;
+    private int gcPauseBudget;
+    private int allocationSamplingInterval;
+    private int translationUnitCount;
     private List<IntrinsicFactory> intrinsicFactories = new ArrayList<>();
     private List<GeneratorFactory> generatorFactories = new ArrayList<>();
     private Characteristics characteristics;
@@ -169,6 +181,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private boolean hasThreads;
     private MethodNodeCache astCache = EmptyMethodNodeCache.INSTANCE;
     private boolean incremental;
+    private boolean leafCallsOptimized = true;
     private boolean lineNumbersGenerated;
     private SimpleStringPool stringPool;
     private boolean heapDump;
@@ -187,10 +200,59 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         this.maxHeapSize = maxHeapSize;
     }
 
+    /**
+     * Sets number of threads that mark live objects during garbage collection. When greater than one,
+     * generated code marks heap in parallel using native threads, so it should be linked against
+     * a thread library (i.e. pthreads on Unix-like systems).
+     */
+    public void setGcMarkThreads(int gcMarkThreads) {
+        this.gcMarkThreads = gcMarkThreads;
+    }
+
+    /**
+     * Sets desired upper bound of a single GC pause, in microseconds. When set to a positive value,
+     * old generation is marked incrementally, in small steps interleaved with program execution.
+     * Zero (default) means that old generation is collected in a single pause.
+     */
+    public void setGcPauseBudget(int gcPauseBudget) {
+        this.gcPauseBudget = gcPauseBudget;
+    }
+
+    /**
+     * Enables sampling allocation profiler. When set to a positive value, stack of approximately each
+     * allocation that crosses given number of bytes is recorded, and aggregated profile is written
+     * to <code>teavm-allocation-profile.txt</code> in folded stacks format on exit.
+     * Zero (default) disables profiler.
+     */
+    public void setAllocationSamplingInterval(int allocationSamplingInterval) {
+        this.allocationSamplingInterval = allocationSamplingInterval;
+    }
+
+    /**
+     * Sets number of translation units to group generated files into. When set to a positive value,
+     * generator produces files <code>unit0.c</code>, <code>unit1.c</code>, etc., each including a part of
+     * generated files of roughly same size, and <code>units.txt</code> listing them. Compiling these units
+     * instead of each file separately saves time spent on parsing headers and lets C compiler inline
+     * across classes. Regardless of this setting, <code>all.c</code> includes all generated files
+     * and can be compiled as a single translation unit.
+     */
+    public void setTranslationUnitCount(int translationUnitCount) {
+        this.translationUnitCount = translationUnitCount;
+    }
+
     public void setIncremental(boolean incremental) {
         this.incremental = incremental;
     }
 
+    /**
+     * Enables calls to methods that never reach a call site without storing GC roots to shadow stack,
+     * see {@link LeafMethodFinder}. Enabled by default, but has no effect in incremental mode
+     * and with {@link TeaVMOptimizationLevel#SIMPLE}.
+     */
+    public void setLeafCallsOptimized(boolean leafCallsOptimized) {
+        this.leafCallsOptimized = leafCallsOptimized;
+    }
+
     public void setLineNumbersGenerated(boolean lineNumbersGenerated) {
         this.lineNumbersGenerated = lineNumbersGenerated;
     }
@@ -334,6 +396,12 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         asyncMethods = new HashSet<>(asyncFinder.getAsyncMethods());
         asyncMethods.addAll(asyncFinder.getAsyncFamilyMethods());
         hasThreads = asyncFinder.hasAsyncMethods();
+
+        // Leaf methods make callers depend on callee bodies, which is not tracked by incremental compilation
+        if (leafCallsOptimized && !incremental
+                && controller.getOptimizationLevel() != TeaVMOptimizationLevel.SIMPLE) {
+            characteristics.setLeafMethods(new LeafMethodFinder(classSource, characteristics, asyncMethods).find());
+        }
     }
 
     @Override
@@ -377,6 +445,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         intrinsics.add(new PlatformClassMetadataIntrinsic());
         intrinsics.add(new GCIntrinsic());
         intrinsics.add(new MemoryTraceIntrinsic());
+        intrinsics.add(new AllocationProfilerIntrinsic());
         intrinsics.add(new MutatorIntrinsic());
         intrinsics.add(new ExceptionHandlingIntrinsic());
         intrinsics.add(new FunctionIntrinsic(characteristics, exportDependencyListener.getResolvedMethods()));
@@ -421,6 +490,16 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         if (gcStats) {
             configHeaderWriter.println("#define TEAVM_GC_STATS 1");
         }
+        if (gcMarkThreads > 1) {
+            configHeaderWriter.println("#define TEAVM_GC_PARALLEL_MARK 1");
+            configHeaderWriter.println("#define TEAVM_GC_MARK_THREADS " + gcMarkThreads);
+        }
+        if (gcPauseBudget > 0) {
+            configHeaderWriter.println("#define TEAVM_GC_PAUSE_BUDGET " + gcPauseBudget);
+        }
+        if (allocationSamplingInterval > 0) {
+            configHeaderWriter.println("#define TEAVM_ALLOCATION_SAMPLING_INTERVAL " + allocationSamplingInterval);
+        }
 
         ClassGenerator classGenerator = new ClassGenerator(context, tagRegistry, decompiler,
                 controller.getCacheStatus());
@@ -454,6 +533,9 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
                 .collect(Collectors.toList());
         generateMainFile(context, classes, types, buildTarget);
         generateAllFile(classes, types, buildTarget);
+        if (translationUnitCount > 0) {
+            generateTranslationUnits(classes, types, buildTarget);
+        }
     }
 
     private void copyResource(String name, BuildTarget buildTarget) throws IOException {
@@ -482,19 +564,26 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
             BuildTarget buildTarget) throws IOException {
         classGenerator.prepare(classes);
 
-        for (String className : classes.getClassNames()) {
-            BufferedCodeWriter writer = new BufferedCodeWriter(lineNumbersGenerated);
-            BufferedCodeWriter headerWriter = new BufferedCodeWriter(false);
-            ClassHolder cls = classes.get(className);
-            if (cls != null) {
-                classGenerator.generateClass(writer, headerWriter, cls);
-            }
-            String name = fileNames.fileName(className);
-            OutputFileUtil.write(writer, name + ".c", buildTarget);
-            OutputFileUtil.write(headerWriter, name + ".h", buildTarget);
-            if (incremental) {
-                stringPool.reset();
+        List<String> classNames = new ArrayList<>(classes.getClassNames());
+        int threads = controller.getOptimizationThreads();
+        try (DecompilationQueue<RegularMethodNode> decompilationQueue = threads > 1
+                ? new DecompilationQueue<>(classes, Set.of(), controller.isFriendlyToDebugger(), threads,
+                        Decompiler::decompileRegular)
+                : null) {
+            classGenerator.setDecompilationQueue(decompilationQueue);
+            int decompilationWindow = decompilationQueue != null ? threads * DECOMPILATION_WINDOW_PER_THREAD : 0;
+            for (int i = 0; i < classNames.size() + decompilationWindow; ++i) {
+                if (i < classNames.size()) {
+                    ClassHolder cls = classes.get(classNames.get(i));
+                    if (cls != null) {
+                        classGenerator.scheduleDecompilation(cls);
+                    }
+                }
+                if (i >= decompilationWindow) {
+                    generateClass(classes, classNames.get(i - decompilationWindow), classGenerator, buildTarget);
+                }
             }
+            classGenerator.setDecompilationQueue(null);
         }
 
         for (ValueType type : classGenerator.getTypes()) {
@@ -513,6 +602,22 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         }
     }
 
+    private void generateClass(ListableClassHolderSource classes, String className, ClassGenerator classGenerator,
+            BuildTarget buildTarget) throws IOException {
+        BufferedCodeWriter writer = new BufferedCodeWriter(lineNumbersGenerated);
+        BufferedCodeWriter headerWriter = new BufferedCodeWriter(false);
+        ClassHolder cls = classes.get(className);
+        if (cls != null) {
+            classGenerator.generateClass(writer, headerWriter, cls);
+        }
+        String name = fileNames.fileName(className);
+        OutputFileUtil.write(writer, name + ".c", buildTarget);
+        OutputFileUtil.write(headerWriter, name + ".h", buildTarget);
+        if (incremental) {
+            stringPool.reset();
+        }
+    }
+
     private void generateCallSites(BuildTarget buildTarget, GenerationContext context,
             Collection<? extends String> classNames) throws IOException {
         BufferedCodeWriter writer = new BufferedCodeWriter(false);
@@ -705,34 +810,116 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private void generateAllFile(ListableClassHolderSource classes, List<? extends ValueType> types,
             BuildTarget buildTarget) throws IOException {
         List<String> allFiles = getGeneratedFiles(classes, types);
+        generateUnitFile("all.c", allFiles, buildTarget);
+
+        BufferedCodeWriter writer = new BufferedCodeWriter(false);
+        for (String file : allFiles) {
+            writer.println(file);
+        }
+        OutputFileUtil.write(writer, "all.txt", buildTarget);
+    }
 
+    private void generateUnitFile(String name, List<String> files, BuildTarget buildTarget) throws IOException {
         BufferedCodeWriter writer = new BufferedCodeWriter(false);
         writer.println("#define _XOPEN_SOURCE");
         writer.println("#define __USE_XOPEN");
         writer.println("#define _GNU_SOURCE");
 
         IncludeManager includes = new SimpleIncludeManager(fileNames, writer);
-        includes.init("all.c");
-        for (String file : allFiles) {
+        includes.init(name);
+        for (String file : files) {
             includes.includePath(file);
         }
 
-        OutputFileUtil.write(writer, "all.c", buildTarget);
+        OutputFileUtil.write(writer, name, buildTarget);
+    }
 
-        writer = new BufferedCodeWriter(false);
-        for (String file : allFiles) {
-            writer.println(file);
+    /*
+     * Splits generated files into contiguous groups of roughly equal size. Classes are ordered by name,
+     * so that classes of the same package, which tend to call each other, get into the same unit.
+     * Size of a class is estimated by number of instructions in its methods.
+     */
+    private void generateTranslationUnits(ListableClassHolderSource classes, List<? extends ValueType> types,
+            BuildTarget buildTarget) throws IOException {
+        Set<String> classFiles = new HashSet<>();
+        List<String> files = new ArrayList<>();
+        IntArrayList weights = new IntArrayList();
+        List<String> classNames = new ArrayList<>(classes.getClassNames());
+        classNames.sort(String::compareTo);
+        for (String className : classNames) {
+            String file = fileNames.fileName(className) + ".c";
+            classFiles.add(file);
+            files.add(file);
+            weights.add(classWeight(classes.get(className)));
         }
-        OutputFileUtil.write(writer, "all.txt", buildTarget);
+        for (String file : getGeneratedFiles(classes, types)) {
+            if (classFiles.contains(file)) {
+                continue;
+            }
+            files.add(file);
+            switch (file) {
+                case "callsites.c":
+                    weights.add(1 + callSites.size());
+                    break;
+                case "strings.c":
+                    weights.add(1 + stringPool.getStrings().size());
+                    break;
+                default:
+                    weights.add(1);
+                    break;
+            }
+        }
+
+        long totalWeight = 0;
+        for (int i = 0; i < weights.size(); ++i) {
+            totalWeight += weights.get(i);
+        }
+
+        BufferedCodeWriter listWriter = new BufferedCodeWriter(false);
+        List<String> unitFiles = new ArrayList<>();
+        long weight = 0;
+        int unitIndex = 0;
+        for (int i = 0; i < files.size(); ++i) {
+            unitFiles.add(files.get(i));
+            weight += weights.get(i);
+            boolean last = i == files.size() - 1;
+            if (last || (unitIndex < translationUnitCount - 1
+                    && weight * translationUnitCount >= totalWeight * (unitIndex + 1))) {
+                String unitName = "unit" + unitIndex++ + ".c";
+                generateUnitFile(unitName, unitFiles, buildTarget);
+                listWriter.println(unitName);
+                unitFiles.clear();
+            }
+        }
+        OutputFileUtil.write(listWriter, "units.txt", buildTarget);
+    }
+
+    private static int classWeight(ClassHolder cls) {
+        int weight = 1;
+        if (cls == null) {
+            return weight;
+        }
+        for (MethodHolder method : cls.getMethods()) {
+            Program program = method.getProgram();
+            if (program == null) {
+                continue;
+            }
+            for (int i = 0; i < program.basicBlockCount(); ++i) {
+                weight += program.basicBlockAt(i).instructionCount();
+            }
+        }
+        return weight;
     }
 
     private List<String> getGeneratedFiles(ListableClassHolderSource classes, List<? extends ValueType> types) {
         List<String> files = new ArrayList<>();
+        files.add("allocprofile.c");
         files.add("callsites.c");
         files.add("core.c");
         files.add("date.c");
         files.add("fiber.c");
         files.add("file.c");
+        files.add("gcmark.c");
         files.add("heapdump.c");
         files.add("heaptrace.c");
         files.add("log.c");
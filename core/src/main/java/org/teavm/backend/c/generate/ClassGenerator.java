@@ -28,6 +28,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.teavm.ast.ControlFlowEntry;
 import org.teavm.ast.RegularMethodNode;
+import org.teavm.ast.decompilation.DecompilationQueue;
 import org.teavm.ast.decompilation.Decompiler;
 import org.teavm.backend.c.generators.Generator;
 import org.teavm.backend.c.util.InteropUtil;
@@ -107,6 +108,7 @@ public class ClassGenerator {
     private IncludeManager includes;
     private IncludeManager headerIncludes;
     private MethodNodeCache astCache = EmptyMethodNodeCache.INSTANCE;
+    private DecompilationQueue<RegularMethodNode> decompilationQueue;
     private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
     private List<CallSiteDescriptor> callSites;
     private ClassMetadataRequirements metadataRequirements;
@@ -129,6 +131,24 @@ public class ClassGenerator {
         this.callSites = callSites;
     }
 
+    public void setDecompilationQueue(DecompilationQueue<RegularMethodNode> decompilationQueue) {
+        this.decompilationQueue = decompilationQueue;
+    }
+
+    public void scheduleDecompilation(ClassHolder cls) {
+        if (decompilationQueue == null) {
+            return;
+        }
+        for (MethodHolder method : cls.getMethods()) {
+            if (method.getProgram() == null || method.hasModifier(ElementModifier.ABSTRACT)
+                    || method.hasModifier(ElementModifier.NATIVE)
+                    || !cacheStatus.isStaleMethod(method.getReference())) {
+                continue;
+            }
+            decompilationQueue.scheduleRegular(method);
+        }
+    }
+
     public void prepare(ListableClassHolderSource classes) {
         for (String className : classes.getClassNames()) {
             ClassHolder cls = classes.get(className);
@@ -334,7 +354,9 @@ public class ClassGenerator {
                     ? astCache.get(method.getReference(), cacheStatus)
                     : null;
             if (entry == null) {
-                methodNode = decompiler.decompileRegular(method);
+                methodNode = decompilationQueue != null
+                        ? decompilationQueue.takeRegular(method, decompiler)
+                        : decompiler.decompileRegular(method);
                 astCache.store(method.getReference(), new AstCacheEntry(methodNode, new ControlFlowEntry[0]),
                         () -> dependencyExtractor.extract(methodNode));
             } else {
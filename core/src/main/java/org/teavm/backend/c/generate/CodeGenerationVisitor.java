@@ -56,6 +56,7 @@ import org.teavm.ast.IdentifiedStatement;
 import org.teavm.ast.InitClassStatement;
 import org.teavm.ast.InstanceOfExpr;
 import org.teavm.ast.InvocationExpr;
+import org.teavm.ast.InvocationType;
 import org.teavm.ast.MonitorEnterStatement;
 import org.teavm.ast.MonitorExitStatement;
 import org.teavm.ast.NewArrayExpr;
@@ -151,7 +152,7 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
     private ObjectIntMap<IdentifiedStatement> labelMap = new ObjectIntHashMap<>();
     private Set<IdentifiedStatement> usedAsBreakTarget = new HashSet<>();
     private Set<IdentifiedStatement> usedAsContinueTarget = new HashSet<>();
-    private Map<IdentifiedStatement, Integer> tryDepthByStatements = new HashMap<>();
+    private ObjectIntMap<IdentifiedStatement> tryDepthByStatements = new ObjectIntHashMap<>();
     private int tryDepth;
 
     static {
@@ -472,6 +473,14 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
         return managed;
     }
 
+    private boolean isCallSite(InvocationExpr expr) {
+        if (!isManagedMethodCall(context.getCharacteristics(), expr.getMethod())) {
+            return false;
+        }
+        return expr.getType() == InvocationType.DYNAMIC || expr.getType() == InvocationType.CONSTRUCTOR
+                || !context.getCharacteristics().isLeaf(expr.getMethod());
+    }
+
     @Override
     public void visit(InvocationExpr expr) {
         ClassReader cls = context.getClassSource().get(expr.getMethod().getClassName());
@@ -488,7 +497,7 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
         Intrinsic intrinsic = context.getIntrinsic(expr.getMethod());
         if (intrinsic != null) {
             pushLocation(expr.getLocation());
-            if (needsCallSiteId() && isManagedMethodCall(context.getCharacteristics(), expr.getMethod())) {
+            if (needsCallSiteId() && isCallSite(expr)) {
                 needParenthesis = true;
                 withCallSite();
             }
@@ -502,7 +511,7 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
 
         pushLocation(expr.getLocation());
 
-        if (needsCallSiteId() && isManagedMethodCall(context.getCharacteristics(), expr.getMethod())) {
+        if (needsCallSiteId() && isCallSite(expr)) {
             needParenthesis = true;
             withCallSite();
         }
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.c.intrinsic;
+
+import org.teavm.ast.InvocationExpr;
+import org.teavm.model.MethodReference;
+import org.teavm.runtime.AllocationProfiler;
+
+public class AllocationProfilerIntrinsic implements Intrinsic {
+    @Override
+    public boolean canHandle(MethodReference method) {
+        if (!method.getClassName().equals(AllocationProfiler.class.getName())) {
+            return false;
+        }
+
+        switch (method.getName()) {
+            case "sampleStarted":
+            case "sampleFrame":
+            case "sampleUnknownFrame":
+            case "sampleCompleted":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void apply(IntrinsicContext context, InvocationExpr invocation) {
+        context.includes().includePath("allocprofile.h");
+        context.writer().print("teavm_allocationProfile_").print(invocation.getMethod().getName()).print("(");
+        for (int i = 0; i < invocation.getArguments().size(); ++i) {
+            if (i > 0) {
+                context.writer().print(", ");
+            }
+            context.emit(invocation.getArguments().get(i));
+        }
+        context.writer().print(")");
+    }
+}
@@ -40,6 +40,11 @@ public class GCIntrinsic implements Intrinsic {
             case "cardTable":
             case "writeBarrier":
             case "canShrinkHeap":
+            case "isParallelMarkEnabled":
+            case "markParallel":
+            case "pauseBudget":
+            case "pauseClock":
+            case "allocationSamplingInterval":
                 return true;
             default:
                 return false;
@@ -65,6 +70,35 @@ public class GCIntrinsic implements Intrinsic {
                 context.writer().print("1");
                 break;
 
+            case "isParallelMarkEnabled":
+                context.writer().print("TEAVM_GC_PARALLEL_MARK");
+                break;
+
+            case "pauseBudget":
+                context.writer().print("TEAVM_GC_PAUSE_BUDGET");
+                break;
+
+            case "pauseClock":
+                context.includes().includePath("time.h");
+                context.writer().print("(TEAVM_GC_PAUSE_BUDGET > 0 ? teavm_currentTimeNano() : 0)");
+                break;
+
+            case "allocationSamplingInterval":
+                context.writer().print("TEAVM_ALLOCATION_SAMPLING_INTERVAL");
+                break;
+
+            case "markParallel":
+                context.includes().includePath("gcmark.h");
+                context.writer().print("teavm_gc_markParallel(");
+                for (int i = 0; i < invocation.getArguments().size(); ++i) {
+                    if (i > 0) {
+                        context.writer().print(", ");
+                    }
+                    context.emit(invocation.getArguments().get(i));
+                }
+                context.writer().print(")");
+                break;
+
             default:
                 context.includes().includePath("heaptrace.h");
                 context.writer().print("teavm_gc_").print(invocation.getMethod().getName());
@@ -51,7 +51,11 @@ import org.teavm.backend.javascript.intrinsics.ref.ReferenceQueueTransformer;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceDependencyListener;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceGenerator;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceTransformer;
+import org.teavm.backend.javascript.intrinsics.split.SplitPointDependencyListener;
+import org.teavm.backend.javascript.intrinsics.split.SplitPointInjector;
+import org.teavm.backend.javascript.intrinsics.split.SplitPointTransformer;
 import org.teavm.backend.javascript.rendering.NameFrequencyEstimator;
+import org.teavm.backend.javascript.rendering.RenderedClassCache;
 import org.teavm.backend.javascript.rendering.Renderer;
 import org.teavm.backend.javascript.rendering.RenderingContext;
 import org.teavm.backend.javascript.rendering.RenderingUtil;
@@ -62,6 +66,8 @@ import org.teavm.backend.javascript.spi.InjectedBy;
 import org.teavm.backend.javascript.spi.Injector;
 import org.teavm.backend.javascript.spi.MethodContributor;
 import org.teavm.backend.javascript.spi.MethodContributorContext;
+import org.teavm.backend.javascript.splitting.Chunk;
+import org.teavm.backend.javascript.splitting.CodeSplitter;
 import org.teavm.backend.javascript.templating.JavaScriptTemplateFactory;
 import org.teavm.cache.EmptyMethodNodeCache;
 import org.teavm.cache.MethodNodeCache;
@@ -79,6 +85,7 @@ import org.teavm.interop.Platforms;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.CallLocation;
 import org.teavm.model.ClassHolderTransformer;
+import org.teavm.model.ClassReader;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ElementModifier;
 import org.teavm.model.FieldReference;
@@ -134,12 +141,17 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private JSModuleType moduleType = JSModuleType.UMD;
     private List<ExportedDeclaration> exports = new ArrayList<>();
     private int maxTopLevelNames = 80_000;
+    private boolean codeSplitting;
+    private boolean lazyMetadata;
+    private int lazyMetadataMinClasses = 300;
+    private RenderedClassCache renderedClassCache;
 
     @Override
     public List<ClassHolderTransformer> getTransformers() {
         return List.of(
                 new WeakReferenceTransformer(),
-                new ReferenceQueueTransformer()
+                new ReferenceQueueTransformer(),
+                new SplitPointTransformer()
         );
     }
 
@@ -164,6 +176,8 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         var refQueueGenerator = new ReferenceQueueGenerator();
         methodGenerators.put(new MethodReference(ReferenceQueue.class, "<init>", void.class), refQueueGenerator);
         methodGenerators.put(new MethodReference(ReferenceQueue.class, "poll", Reference.class), refQueueGenerator);
+
+        methodInjectors.put(SplitPointDependencyListener.RUN, new SplitPointInjector());
     }
 
     @Override
@@ -208,6 +222,18 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.astCache = methodAstCache;
     }
 
+    /**
+     * Specifies cache of rendered classes, which allows to replay code of unchanged classes
+     * instead of rendering it again. Intended for repeated builds in the same process,
+     * together with in-memory AST cache. It's caller's responsibility to commit or discard cache
+     * after each build.
+     *
+     * @param renderedClassCache cache of rendered classes or {@code null} to render all classes.
+     */
+    public void setRenderedClassCache(RenderedClassCache renderedClassCache) {
+        this.renderedClassCache = renderedClassCache;
+    }
+
     public DebugInformationEmitter getDebugEmitter() {
         return debugEmitter;
     }
@@ -237,6 +263,40 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    /**
+     * Specifies whether code reachable only from actions passed to {@link org.teavm.interop.SplitPoint}
+     * should be moved to separate files, which are loaded on demand. These files are placed next to the main file
+     * and are fetched relatively to its URL, unless {@code $rt_loadChunkCustom} global function is defined.
+     * Chunks are evaluated in the scope of the main file with {@code eval}.
+     *
+     * @param codeSplitting whether to split code.
+     */
+    public void setCodeSplitting(boolean codeSplitting) {
+        this.codeSplitting = codeSplitting;
+    }
+
+    /**
+     * Specifies whether class metadata (names, supertypes and other reflective information) of large programs
+     * should be decoded on first use instead of during startup. Prototypes and virtual methods are still
+     * installed eagerly. This reduces parse and evaluation time of large bundles; small programs keep
+     * eager metadata anyway.
+     *
+     * @param lazyMetadata whether to decode class metadata lazily.
+     */
+    public void setLazyMetadata(boolean lazyMetadata) {
+        this.lazyMetadata = lazyMetadata;
+    }
+
+    /**
+     * Specifies minimal number of classes for lazy metadata to be used, 300 by default.
+     * Smaller programs get eager metadata even if {@link #setLazyMetadata(boolean)} is on.
+     *
+     * @param lazyMetadataMinClasses minimal number of classes.
+     */
+    public void setLazyMetadataMinClasses(int lazyMetadataMinClasses) {
+        this.lazyMetadataMinClasses = lazyMetadataMinClasses;
+    }
+
     @Override
     public List<TeaVMHostExtension> getHostExtensions() {
         return Collections.singletonList(this);
@@ -308,6 +368,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         });
 
         dependencyAnalyzer.addDependencyListener(new WeakReferenceDependencyListener());
+        dependencyAnalyzer.addDependencyListener(new SplitPointDependencyListener());
     }
 
     public static void includeStackTraceMethods(DependencyAnalyzer dependencyAnalyzer) {
@@ -334,6 +395,14 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
     @Override
     public void emit(ListableClassHolderSource classes, BuildTarget target, String outputName) {
+        if (codeSplitting) {
+            try {
+                emitWithChunks(classes, target, outputName);
+            } catch (IOException e) {
+                throw new RenderingException(e);
+            }
+            return;
+        }
         try (OutputStream output = target.createResource(outputName);
                 Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
             emit(classes, writer, target);
@@ -361,54 +430,13 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     }
 
     private void emit(ListableClassHolderSource classes, Writer writer, BuildTarget target) {
-        var aliasProvider = obfuscated
-                ? new MinifyingAliasProvider(maxTopLevelNames)
-                : new DefaultAliasProvider(maxTopLevelNames);
-        DefaultNamingStrategy naming = new DefaultNamingStrategy(aliasProvider, controller.getUnprocessedClassSource());
-        DebugInformationEmitter debugEmitterToUse = debugEmitter;
-        if (debugEmitterToUse == null) {
-            debugEmitterToUse = new DummyDebugInformationEmitter();
-        }
-
-        var methodContributorContext = new MethodContributorContextImpl(classes);
-        RenderingContext renderingContext = new RenderingContext(debugEmitterToUse,
-                controller.getUnprocessedClassSource(), classes, controller.getResourceProvider(),
-                controller.getClassLoader(), controller.getServices(), controller.getProperties(), naming,
-                controller.getDependencyInfo(),
-                m -> isVirtual(methodContributorContext, m),
-                m -> isForcedFunction(methodContributorContext, m),
-                controller.getClassInitializerInfo(), strict
-        ) {
-            @Override
-            public String importModule(String name) {
-                return JavaScriptTarget.this.importModule(name);
-            }
-        };
-        renderingContext.setMinifying(obfuscated);
-
-        if (controller.wasCancelled()) {
+        var emission = prepareEmission(classes);
+        if (emission == null) {
             return;
         }
-
-        var builder = new OutputSourceWriterBuilder(naming);
-        builder.setMinified(obfuscated);
-
-        for (var className : classes.getClassNames()) {
-            var cls = classes.get(className);
-            for (var method : cls.getMethods()) {
-                preprocessNativeMethod(method);
-            }
-        }
-        for (var entry : methodInjectors.entrySet()) {
-            renderingContext.addInjector(entry.getKey(), entry.getValue());
-        }
-
-        var rememberingWriter = new RememberingSourceWriter(debugEmitter != null);
-        var renderer = new Renderer(rememberingWriter, asyncMethods, renderingContext, controller.getDiagnostics(),
-                methodGenerators, astCache, controller.getCacheStatus(), templateFactory, exports,
-                controller.getEntryPoint());
-        renderer.setProperties(controller.getProperties());
-        renderer.setProgressConsumer(controller::reportProgress);
+        var naming = emission.naming;
+        var rememberingWriter = emission.rememberingWriter;
+        var renderer = emission.renderer;
 
         for (var listener : rendererListeners) {
             listener.begin(renderer, target);
@@ -422,20 +450,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         renderer.renderStringPool();
         renderer.renderStringConstants();
         renderer.renderCompatibilityStubs();
-
-        var alias = "$rt_export_main";
-        var ref = new MethodReference(controller.getEntryPoint(), "main", ValueType.parse(String[].class),
-                ValueType.parse(void.class));
-        if (classes.resolve(ref) != null) {
-            rememberingWriter.startVariableDeclaration().appendFunction(alias)
-                    .appendFunction("$rt_mainStarter").append("(").appendMethod(ref);
-            rememberingWriter.append(")").endDeclaration();
-            rememberingWriter.appendFunction(alias).append(".")
-                    .append("javaException").ws().append("=").ws().appendFunction("$rt_javaException")
-                    .append(";").newLine();
-            exports.add(new ExportedDeclaration(w -> w.appendFunction(alias),
-                    n -> n.functionName(alias), controller.getEntryPointName()));
-        }
+        renderMainStarter(classes, rememberingWriter);
 
         for (var listener : rendererListeners) {
             listener.complete();
@@ -455,23 +470,15 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         var runtimeEpilogue = rememberingWriter.save();
         rememberingWriter.clear();
 
-        naming.additionalScopeName();
-        naming.functionName("$rt_exports");
-        for (var module : importedModules.values()) {
-            naming.functionName(module);
-        }
-        for (var export : exports) {
-            export.nameFreq.accept(naming);
-        }
         var frequencyEstimator = new NameFrequencyEstimator();
         runtime.replay(frequencyEstimator, RememberedSource.FILTER_REF);
         runtimeEpilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
         declarations.replay(frequencyEstimator, RememberedSource.FILTER_REF);
         epilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
-        frequencyEstimator.apply(naming);
+        assignNames(naming, frequencyEstimator);
 
-        var sourceWriter = builder.build(writer);
-        sourceWriter.setDebugInformationEmitter(debugEmitterToUse);
+        var sourceWriter = emission.builder.build(writer);
+        sourceWriter.setDebugInformationEmitter(emission.debugEmitter);
         printWrapperStart(sourceWriter);
         if (frequencyEstimator.hasAdditionalScope()) {
             sourceWriter.append("let ").append(naming.additionalScopeName()).ws().append('=').ws()
@@ -491,6 +498,319 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         printStats(sourceWriter, totalSize);
     }
 
+    private void emitWithChunks(ListableClassHolderSource classes, BuildTarget target, String outputName)
+            throws IOException {
+        var emission = prepareEmission(classes);
+        if (emission == null) {
+            return;
+        }
+        var naming = emission.naming;
+        var rememberingWriter = emission.rememberingWriter;
+        var renderer = emission.renderer;
+        var splitter = new CodeSplitter(rememberingWriter, classes);
+        renderer.setFragmentListener(splitter);
+
+        for (var listener : rendererListeners) {
+            listener.begin(renderer, target);
+        }
+        if (!renderer.render(classes, controller.isFriendlyToDebugger())) {
+            return;
+        }
+        rememberingWriter.clear();
+
+        var runtimeRenderer = new RuntimeRenderer(classes, rememberingWriter, controller.getClassInitializerInfo());
+        runtimeRenderer.prepareAstParts(renderer.isThreadLibraryUsed());
+        for (var className : splitter.getClassNames()) {
+            renderer.renderClassMetadata(List.of(classes.get(className)), (cls, method) -> true);
+            var metadata = rememberingWriter.save();
+            rememberingWriter.clear();
+            splitter.addClassReferences(className, metadata);
+            metadata.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
+        }
+        splitter.replayFragments(runtimeRenderer.sink);
+        addSplitPointActions(classes, splitter);
+
+        renderer.renderStringPool();
+        var stringPool = rememberingWriter.save();
+        rememberingWriter.clear();
+        renderer.renderCompatibilityStubs();
+        renderMainStarter(classes, rememberingWriter);
+        for (var listener : rendererListeners) {
+            listener.complete();
+        }
+        var epilogue = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        runtimeRenderer.sink.appendFunction("$rt_addVirtualMethods");
+        runtimeRenderer.sink.appendFunction("$rt_chunkClasses");
+        epilogue.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
+        runtimeRenderer.removeUnusedParts();
+        runtimeRenderer.renderRuntime();
+        var runtime = rememberingWriter.save();
+        rememberingWriter.clear();
+        runtimeRenderer.renderEpilogue();
+        var runtimeEpilogue = rememberingWriter.save();
+        rememberingWriter.clear();
+
+        splitter.addMainReferences(runtime);
+        splitter.addMainReferences(runtimeEpilogue);
+        splitter.addMainReferences(epilogue);
+        for (var export : exports) {
+            export.name.accept(rememberingWriter);
+            splitter.addMainReferences(rememberingWriter.save());
+            rememberingWriter.clear();
+        }
+        splitter.split();
+
+        var chunks = new ArrayList<Chunk>();
+        chunks.add(splitter.getMainChunk());
+        chunks.addAll(splitter.getChunks());
+        for (var chunk : splitter.getChunks()) {
+            chunk.setName(chunkFileName(outputName, chunk.getIndex()));
+        }
+
+        var metadataByChunk = new HashMap<Chunk, RememberedSource>();
+        var constantsByChunk = new HashMap<Chunk, RememberedSource>();
+        var patches = new HashMap<Chunk, Map<String, List<MethodReference>>>();
+        for (var chunk : chunks) {
+            if (!chunk.getClassNames().isEmpty()) {
+                var classReaders = new ArrayList<ClassReader>();
+                for (var className : chunk.getClassNames()) {
+                    classReaders.add(classes.get(className));
+                }
+                renderer.renderClassMetadata(classReaders, (className, method) -> {
+                    var methodChunk = splitter.getChunk(method);
+                    if (methodChunk == null || methodChunk.isMain() || methodChunk == chunk) {
+                        return true;
+                    }
+                    patches.computeIfAbsent(methodChunk, c -> new LinkedHashMap<>())
+                            .computeIfAbsent(className, c -> new ArrayList<>())
+                            .add(method);
+                    return false;
+                });
+            }
+            renderChunkClasses(chunk, splitter, rememberingWriter);
+            metadataByChunk.put(chunk, rememberingWriter.save());
+            rememberingWriter.clear();
+
+            renderer.renderStringConstants(className -> splitter.getChunk(className) == chunk);
+            constantsByChunk.put(chunk, rememberingWriter.save());
+            rememberingWriter.clear();
+        }
+        var patchesByChunk = new HashMap<Chunk, RememberedSource>();
+        for (var chunk : splitter.getChunks()) {
+            var chunkPatches = patches.get(chunk);
+            if (chunkPatches != null) {
+                for (var entry : chunkPatches.entrySet()) {
+                    renderer.renderVirtualMethods(entry.getKey(), entry.getValue());
+                }
+            }
+            patchesByChunk.put(chunk, rememberingWriter.save());
+            rememberingWriter.clear();
+        }
+
+        var frequencyEstimator = new NameFrequencyEstimator();
+        runtime.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        runtimeEpilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        splitter.replayFragments(frequencyEstimator);
+        for (var chunk : chunks) {
+            metadataByChunk.get(chunk).replay(frequencyEstimator, RememberedSource.FILTER_REF);
+            constantsByChunk.get(chunk).replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        }
+        for (var chunkPatches : patchesByChunk.values()) {
+            chunkPatches.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        }
+        epilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        assignNames(naming, frequencyEstimator);
+
+        var mainChunk = splitter.getMainChunk();
+        try (var output = target.createResource(outputName);
+                var writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            var sourceWriter = emission.builder.build(writer);
+            sourceWriter.setDebugInformationEmitter(emission.debugEmitter);
+            printWrapperStart(sourceWriter);
+            if (frequencyEstimator.hasAdditionalScope()) {
+                sourceWriter.append("let ").append(naming.additionalScopeName()).ws().append('=').ws()
+                        .append("{};").softNewLine();
+            }
+
+            int start = sourceWriter.getOffset();
+            runtime.write(sourceWriter, 0);
+            if (moduleType == JSModuleType.ES2015) {
+                // document.currentScript is not available in modules, resolve chunks against module URL
+                sourceWriter.appendFunction("$rt_chunkBaseUrl").ws().append("=").ws()
+                        .append("import.meta.url;").softNewLine();
+            }
+            for (var fragment : mainChunk.getFragments()) {
+                fragment.write(sourceWriter, 0);
+            }
+            metadataByChunk.get(mainChunk).write(sourceWriter, 0);
+            runtimeEpilogue.write(sourceWriter, 0);
+            stringPool.write(sourceWriter, 0);
+            constantsByChunk.get(mainChunk).write(sourceWriter, 0);
+            epilogue.write(sourceWriter, 0);
+
+            printModuleEnd(sourceWriter);
+            sourceWriter.finish();
+
+            int totalSize = sourceWriter.getOffset() - start;
+            printStats(sourceWriter, totalSize);
+        }
+
+        for (var chunk : splitter.getChunks()) {
+            var directoryEnd = outputName.lastIndexOf('/') + 1;
+            try (var output = target.createResource(outputName.substring(0, directoryEnd) + chunk.getName());
+                    var writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                var sourceWriter = emission.builder.build(writer);
+                sourceWriter.setDebugInformationEmitter(new DummyDebugInformationEmitter());
+                for (var fragment : chunk.getFragments()) {
+                    fragment.write(sourceWriter, 0);
+                }
+                metadataByChunk.get(chunk).write(sourceWriter, 0);
+                constantsByChunk.get(chunk).write(sourceWriter, 0);
+                patchesByChunk.get(chunk).write(sourceWriter, 0);
+                sourceWriter.finish();
+                if (isStatsEnabled()) {
+                    System.out.println("Chunk '" + chunk.getName() + "' size: "
+                            + STATS_NUM_FORMAT.format(sourceWriter.getOffset()));
+                }
+            }
+        }
+    }
+
+    private void addSplitPointActions(ListableClassHolderSource classes, CodeSplitter splitter) {
+        var runMethod = controller.getDependencyInfo().getMethod(SplitPointDependencyListener.RUN);
+        if (runMethod == null) {
+            return;
+        }
+        for (var type : runMethod.getVariable(1).getTypes()) {
+            if (!(type instanceof ValueType.Object)) {
+                continue;
+            }
+            var className = ((ValueType.Object) type).getClassName();
+            var implementation = classes.resolveImplementation(className, SplitPointDependencyListener.ACTION_METHOD);
+            if (implementation != null) {
+                splitter.addAction(className, implementation.getReference());
+            }
+        }
+    }
+
+    private void renderChunkClasses(Chunk chunk, CodeSplitter splitter, SourceWriter writer) {
+        var first = true;
+        for (var className : splitter.getActionClasses()) {
+            var actionChunk = splitter.getActionChunk(className);
+            if (splitter.getChunk(className) != chunk || actionChunk == null || actionChunk.isMain()) {
+                continue;
+            }
+            if (first) {
+                writer.appendFunction("$rt_chunkClasses").append("([");
+                first = false;
+            } else {
+                writer.append(",").ws();
+            }
+            writer.appendClass(className).append(",").ws().append("\"")
+                    .append(RenderingUtil.escapeString(actionChunk.getName())).append("\"");
+        }
+        if (!first) {
+            writer.append("]);").newLine();
+        }
+    }
+
+    private static String chunkFileName(String outputName, int index) {
+        var fileName = outputName.substring(outputName.lastIndexOf('/') + 1);
+        var extensionStart = fileName.lastIndexOf('.');
+        if (extensionStart <= 0) {
+            return fileName + "-" + index + ".js";
+        }
+        return fileName.substring(0, extensionStart) + "-" + index + fileName.substring(extensionStart);
+    }
+
+    private Emission prepareEmission(ListableClassHolderSource classes) {
+        var emission = new Emission();
+        var aliasProvider = obfuscated
+                ? new MinifyingAliasProvider(maxTopLevelNames)
+                : new DefaultAliasProvider(maxTopLevelNames);
+        var naming = new DefaultNamingStrategy(aliasProvider, controller.getUnprocessedClassSource());
+        emission.naming = naming;
+        emission.debugEmitter = debugEmitter;
+        if (emission.debugEmitter == null) {
+            emission.debugEmitter = new DummyDebugInformationEmitter();
+        }
+
+        var methodContributorContext = new MethodContributorContextImpl(classes);
+        RenderingContext renderingContext = new RenderingContext(emission.debugEmitter,
+                controller.getUnprocessedClassSource(), classes, controller.getResourceProvider(),
+                controller.getClassLoader(), controller.getServices(), controller.getProperties(), naming,
+                controller.getDependencyInfo(),
+                m -> isVirtual(methodContributorContext, m),
+                m -> isForcedFunction(methodContributorContext, m),
+                controller.getClassInitializerInfo(), strict
+        ) {
+            @Override
+            protected String importModuleImpl(String name) {
+                return JavaScriptTarget.this.importModule(name);
+            }
+        };
+        renderingContext.setMinifying(obfuscated);
+
+        if (controller.wasCancelled()) {
+            return null;
+        }
+
+        emission.builder = new OutputSourceWriterBuilder(naming);
+        emission.builder.setMinified(obfuscated);
+
+        for (var className : classes.getClassNames()) {
+            var cls = classes.get(className);
+            for (var method : cls.getMethods()) {
+                preprocessNativeMethod(method);
+            }
+        }
+        for (var entry : methodInjectors.entrySet()) {
+            renderingContext.addInjector(entry.getKey(), entry.getValue());
+        }
+
+        emission.rememberingWriter = new RememberingSourceWriter(debugEmitter != null);
+        emission.renderer = new Renderer(emission.rememberingWriter, asyncMethods, renderingContext,
+                controller.getDiagnostics(), methodGenerators, astCache, controller.getCacheStatus(),
+                templateFactory, exports, controller.getEntryPoint());
+        emission.renderer.setProperties(controller.getProperties());
+        emission.renderer.setProgressConsumer(controller::reportProgress);
+        emission.renderer.setLazyMetadata(lazyMetadata);
+        emission.renderer.setLazyMetadataMinClasses(lazyMetadataMinClasses);
+        emission.renderer.setDecompilationThreads(controller.getOptimizationThreads());
+        emission.renderer.setRenderedClassCache(renderedClassCache);
+        return emission;
+    }
+
+    private void renderMainStarter(ListableClassHolderSource classes, SourceWriter writer) {
+        var alias = "$rt_export_main";
+        var ref = new MethodReference(controller.getEntryPoint(), "main", ValueType.parse(String[].class),
+                ValueType.parse(void.class));
+        if (classes.resolve(ref) != null) {
+            writer.startVariableDeclaration().appendFunction(alias)
+                    .appendFunction("$rt_mainStarter").append("(").appendMethod(ref);
+            writer.append(")").endDeclaration();
+            writer.appendFunction(alias).append(".")
+                    .append("javaException").ws().append("=").ws().appendFunction("$rt_javaException")
+                    .append(";").newLine();
+            exports.add(new ExportedDeclaration(w -> w.appendFunction(alias),
+                    n -> n.functionName(alias), controller.getEntryPointName()));
+        }
+    }
+
+    private void assignNames(DefaultNamingStrategy naming, NameFrequencyEstimator frequencyEstimator) {
+        naming.additionalScopeName();
+        naming.functionName("$rt_exports");
+        for (var module : importedModules.values()) {
+            naming.functionName(module);
+        }
+        for (var export : exports) {
+            export.nameFreq.accept(naming);
+        }
+        frequencyEstimator.apply(naming);
+    }
+
     private void printWrapperStart(SourceWriter writer) {
         writer.append("\"use strict\";").newLine();
         printModuleStart(writer);
@@ -656,7 +976,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     }
 
     private void printStats(OutputSourceWriter writer, int totalSize) {
-        if (!Boolean.parseBoolean(System.getProperty("teavm.js.stats", "false"))) {
+        if (!isStatsEnabled()) {
             return;
         }
 
@@ -681,6 +1001,10 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         }
     }
 
+    private static boolean isStatsEnabled() {
+        return Boolean.parseBoolean(System.getProperty("teavm.js.stats", "false"));
+    }
+
     private String getSizeWithPercentage(int size, int totalSize) {
         return STATS_NUM_FORMAT.format(size) + " (" + STATS_PERCENT_FORMAT.format((double) size / totalSize) + ")";
     }
@@ -824,6 +1148,14 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         return true;
     }
 
+    private static class Emission {
+        DefaultNamingStrategy naming;
+        DebugInformationEmitter debugEmitter;
+        OutputSourceWriterBuilder builder;
+        RememberingSourceWriter rememberingWriter;
+        Renderer renderer;
+    }
+
     private boolean isVirtual(MethodContributorContext context, MethodReference method) {
         if (controller.isVirtual(method)) {
             return true;
@@ -78,11 +78,16 @@ public class RememberingSourceWriter extends SourceWriter {
     private ObjectIntMap<MethodReference> methodIndexes = new ObjectIntHashMap<>();
 
     private boolean isInDeclaration;
+    private RememberingSourceWriter captureOuter;
 
     public RememberingSourceWriter(boolean debug) {
         this.debug = debug;
     }
 
+    public boolean isDebug() {
+        return debug;
+    }
+
     public void clear() {
         sb.setLength(0);
         lastWrittenChar = 0;
@@ -405,6 +410,82 @@ public class RememberingSourceWriter extends SourceWriter {
                 !methods.isEmpty() ? methods.toArray(new MethodReference[0]) : null);
     }
 
+    /**
+     * Starts capturing of written commands into a separate fragment, which can be obtained later
+     * by {@link #endCapture()}. Captures can't be nested.
+     */
+    public void startCapture() {
+        if (captureOuter != null) {
+            throw new IllegalStateException("Capture already started");
+        }
+        flush();
+        captureOuter = new RememberingSourceWriter(debug);
+        swapBuffers(captureOuter);
+    }
+
+    /**
+     * Finishes capture, started by {@link #startCapture()}. Captured commands are written to this writer
+     * as well, so capturing does not affect its content.
+     *
+     * @return fragment containing commands written since capture start.
+     */
+    public RememberedSource endCapture() {
+        if (captureOuter == null) {
+            throw new IllegalStateException("Capture not started");
+        }
+        var fragment = save();
+        swapBuffers(captureOuter);
+        captureOuter = null;
+        fragment.replay(this, RememberedSource.FILTER_ALL);
+        return fragment;
+    }
+
+    private void swapBuffers(RememberingSourceWriter other) {
+        var sb = this.sb;
+        this.sb = other.sb;
+        other.sb = sb;
+
+        var lastWrittenChar = this.lastWrittenChar;
+        this.lastWrittenChar = other.lastWrittenChar;
+        other.lastWrittenChar = lastWrittenChar;
+
+        var intArgs = this.intArgs;
+        this.intArgs = other.intArgs;
+        other.intArgs = intArgs;
+
+        var commands = this.commands;
+        this.commands = other.commands;
+        other.commands = commands;
+
+        var strings = this.strings;
+        this.strings = other.strings;
+        other.strings = strings;
+        var stringIndexes = this.stringIndexes;
+        this.stringIndexes = other.stringIndexes;
+        other.stringIndexes = stringIndexes;
+
+        var fields = this.fields;
+        this.fields = other.fields;
+        other.fields = fields;
+        var fieldIndexes = this.fieldIndexes;
+        this.fieldIndexes = other.fieldIndexes;
+        other.fieldIndexes = fieldIndexes;
+
+        var methodDescriptors = this.methodDescriptors;
+        this.methodDescriptors = other.methodDescriptors;
+        other.methodDescriptors = methodDescriptors;
+        var methodDescriptorIndexes = this.methodDescriptorIndexes;
+        this.methodDescriptorIndexes = other.methodDescriptorIndexes;
+        other.methodDescriptorIndexes = methodDescriptorIndexes;
+
+        var methods = this.methods;
+        this.methods = other.methods;
+        other.methods = methods;
+        var methodIndexes = this.methodIndexes;
+        this.methodIndexes = other.methodIndexes;
+        other.methodIndexes = methodIndexes;
+    }
+
     private void appendStringArg(String arg) {
         var index = stringIndexes.getOrDefault(arg, -1);
         if (index < 0) {
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.intrinsics.split;
+
+import org.teavm.dependency.AbstractDependencyListener;
+import org.teavm.dependency.DependencyAgent;
+import org.teavm.dependency.MethodDependency;
+import org.teavm.interop.SplitPoint;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+
+public class SplitPointDependencyListener extends AbstractDependencyListener {
+    public static final MethodReference RUN = new MethodReference(SplitPoint.class, "run", Runnable.class,
+            void.class);
+    public static final MethodDescriptor ACTION_METHOD = new MethodDescriptor("run", void.class);
+
+    @Override
+    public void methodReached(DependencyAgent agent, MethodDependency method) {
+        if (!method.getReference().equals(RUN)) {
+            return;
+        }
+        method.getVariable(1).addConsumer(type -> {
+            if (!(type.getValueType() instanceof ValueType.Object)) {
+                return;
+            }
+            var className = ((ValueType.Object) type.getValueType()).getClassName();
+            var implementation = agent.getClassSource().resolveImplementation(className, ACTION_METHOD);
+            if (implementation != null) {
+                var actionMethod = agent.linkMethod(implementation.getReference());
+                actionMethod.getVariable(0).propagate(type);
+                actionMethod.use();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import org.teavm.model.MethodReference;
+
+/**
+ * Notified by {@link Renderer} each time it finishes a piece of code that can be placed in the output
+ * independently of other pieces. Listener is supposed to take the piece from the writer.
+ * When a listener is present, renderer does not produce class metadata, which should be requested separately
+ * for every group of classes via {@link Renderer#renderClassMetadata}.
+ */
+public interface FragmentListener {
+    /**
+     * Called after class constructor, static fields and class initializer wrapper are written.
+     */
+    void classDeclarationRendered(String className);
+
+    /**
+     * Called after method body and, for constructors, the corresponding initializer function are written.
+     */
+    void methodRendered(MethodReference method);
+}
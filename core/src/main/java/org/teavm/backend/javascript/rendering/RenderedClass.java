@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.util.Set;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+import org.teavm.backend.javascript.codegen.SourceWriter;
+import org.teavm.model.MethodDescriptor;
+
+final class RenderedClass {
+    final RememberedSource source;
+    final Set<MethodDescriptor> methods;
+    final String[] dependencies;
+    final boolean threadLibraryUsed;
+    private final String[] strings;
+    private final int[] stringIndexes;
+    private final String[] modules;
+    private final String[] moduleAliases;
+
+    RenderedClass(RememberedSource source, Set<MethodDescriptor> methods, String[] dependencies,
+            boolean threadLibraryUsed, String[] strings, int[] stringIndexes, String[] modules,
+            String[] moduleAliases) {
+        this.source = source;
+        this.methods = methods;
+        this.dependencies = dependencies;
+        this.threadLibraryUsed = threadLibraryUsed;
+        this.strings = strings;
+        this.stringIndexes = stringIndexes;
+        this.modules = modules;
+        this.moduleAliases = moduleAliases;
+    }
+
+    /**
+     * Writes remembered source to the given writer, if possible. String constants and imported modules
+     * are written as literal indexes and aliases, so replay is only possible when the context
+     * assigns the same ones. Lookups are repeated in the original order, therefore unchanged
+     * sequence of classes always produces same indexes.
+     *
+     * @return {@code true} if source was written, {@code false} if class should be rendered again.
+     */
+    boolean replay(RenderingContext context, SourceWriter writer) {
+        for (var i = 0; i < strings.length; ++i) {
+            if (context.lookupString(strings[i]) != stringIndexes[i]) {
+                return false;
+            }
+        }
+        for (var i = 0; i < modules.length; ++i) {
+            if (!context.importModule(modules[i]).equals(moduleAliases[i])) {
+                return false;
+            }
+        }
+        source.replay(writer, RememberedSource.FILTER_ALL);
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.teavm.cache.CacheStatus;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+/**
+ * Keeps rendered method bodies of classes between builds, so that classes which did not change
+ * are replayed instead of being decompiled and rendered again. Entries are invalidated
+ * when any of classes referenced by AST of class methods changes, the same way
+ * {@link org.teavm.cache.InMemoryMethodNodeCache} does, when any of rendered methods is stale,
+ * or when the set of rendered methods changes, i.e. some method became reachable or unreachable.
+ * All entries are dropped when global rendering settings (async methods, class initializers, etc) change.
+ */
+public class RenderedClassCache {
+    private Map<String, RenderedClass> cache = new HashMap<>();
+    private Map<String, RenderedClass> newItems = new HashMap<>();
+    private RenderingEnvironment environment;
+    private RenderingEnvironment newEnvironment;
+
+    void setEnvironment(RenderingEnvironment environment) {
+        newEnvironment = environment;
+    }
+
+    RenderedClass get(String className, Set<MethodDescriptor> methods, CacheStatus cacheStatus) {
+        if (!Objects.equals(environment, newEnvironment)) {
+            return null;
+        }
+        var item = cache.get(className);
+        if (item == null || !item.methods.equals(methods)
+                || Arrays.stream(item.dependencies).anyMatch(cacheStatus::isStaleClass)) {
+            return null;
+        }
+        for (var method : methods) {
+            if (cacheStatus.isStaleMethod(new MethodReference(className, method))) {
+                return null;
+            }
+        }
+        return item;
+    }
+
+    void store(String className, RenderedClass item) {
+        newItems.put(className, item);
+    }
+
+    public void commit() {
+        if (newEnvironment != null && !newEnvironment.equals(environment)) {
+            cache.clear();
+            environment = newEnvironment;
+        }
+        cache.putAll(newItems);
+        newItems.clear();
+    }
+
+    public void discard() {
+        newItems.clear();
+        newEnvironment = environment;
+    }
+
+    public void invalidate() {
+        cache.clear();
+        newItems.clear();
+        environment = null;
+        newEnvironment = null;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import com.carrotsearch.hppc.IntArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+import org.teavm.model.MethodDescriptor;
+
+class RenderedClassRecorder {
+    private Set<String> dependencies = new LinkedHashSet<>();
+    private List<String> strings = new ArrayList<>();
+    private IntArrayList stringIndexes = new IntArrayList();
+    private List<String> modules = new ArrayList<>();
+    private List<String> moduleAliases = new ArrayList<>();
+
+    RenderedClassRecorder(String className) {
+        dependencies.add(className);
+    }
+
+    void addDependencies(String[] classNames) {
+        Collections.addAll(dependencies, classNames);
+    }
+
+    void stringLookedUp(String string, int index) {
+        strings.add(string);
+        stringIndexes.add(index);
+    }
+
+    void moduleImported(String name, String alias) {
+        modules.add(name);
+        moduleAliases.add(alias);
+    }
+
+    RenderedClass build(RememberedSource source, Set<MethodDescriptor> methods, boolean threadLibraryUsed) {
+        return new RenderedClass(source, Set.copyOf(methods), dependencies.toArray(new String[0]),
+                threadLibraryUsed,
+                strings.toArray(new String[0]), stringIndexes.toArray(),
+                modules.toArray(new String[0]), moduleAliases.toArray(new String[0]));
+    }
+}
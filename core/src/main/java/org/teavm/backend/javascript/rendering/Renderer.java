@@ -29,15 +29,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
 import org.teavm.ast.MethodNode;
 import org.teavm.ast.RegularMethodNode;
 import org.teavm.ast.analysis.LocationGraphBuilder;
 import org.teavm.ast.decompilation.DecompilationException;
+import org.teavm.ast.decompilation.DecompilationQueue;
 import org.teavm.ast.decompilation.Decompiler;
 import org.teavm.backend.javascript.ExportedDeclaration;
+import org.teavm.backend.javascript.codegen.RememberingSourceWriter;
 import org.teavm.backend.javascript.codegen.SourceWriter;
 import org.teavm.backend.javascript.spi.GeneratedBy;
 import org.teavm.backend.javascript.spi.Generator;
@@ -96,8 +100,17 @@ public class Renderer implements RenderingManager {
     private List<ExportedDeclaration> exports;
     private String entryPoint;
     private VariableNameGenerator variableNameGenerator;
+    private FragmentListener fragmentListener;
+    private boolean lazyMetadata;
+    private int lazyMetadataMinClasses = LAZY_METADATA_MIN_CLASSES;
+    private int decompilationThreads = 1;
+    private DecompilationQueue<AstCacheEntry> decompilationQueue;
+    private RenderedClassCache renderedClassCache;
+    private RenderedClassRecorder recorder;
 
     public static final MethodDescriptor CLINIT_METHOD = new MethodDescriptor("<clinit>", ValueType.VOID);
+    private static final int LAZY_METADATA_MIN_CLASSES = 300;
+    private static final int DECOMPILATION_WINDOW_PER_THREAD = 4;
 
     public Renderer(SourceWriter writer, Set<MethodReference> asyncMethods, RenderingContext context,
             Diagnostics diagnostics, Map<MethodReference, Generator> generators,
@@ -182,6 +195,42 @@ public class Renderer implements RenderingManager {
         this.properties.putAll(properties);
     }
 
+    public void setFragmentListener(FragmentListener fragmentListener) {
+        this.fragmentListener = fragmentListener;
+    }
+
+    /**
+     * Specifies number of threads that decompile and optimize method ASTs ahead of rendering.
+     * Rendering itself is sequential, so output does not depend on this number.
+     */
+    public void setDecompilationThreads(int decompilationThreads) {
+        this.decompilationThreads = decompilationThreads;
+    }
+
+    /**
+     * Specifies whether class metadata (names, supertypes, flags) should be decoded lazily, on first access
+     * to {@code $meta} of any class in a portion. Prototypes and virtual methods are still set up eagerly.
+     * Small sets of classes are always rendered eagerly, since lazy form does not pay off for them.
+     */
+    public void setLazyMetadata(boolean lazyMetadata) {
+        this.lazyMetadata = lazyMetadata;
+    }
+
+    /**
+     * Specifies how many classes a program should have to get lazy metadata, 300 by default.
+     */
+    public void setLazyMetadataMinClasses(int lazyMetadataMinClasses) {
+        this.lazyMetadataMinClasses = lazyMetadataMinClasses;
+    }
+
+    /**
+     * Specifies cache of rendered method bodies, which is reused between builds.
+     * Only takes effect when rendering into {@link RememberingSourceWriter} without code splitting.
+     */
+    public void setRenderedClassCache(RenderedClassCache renderedClassCache) {
+        this.renderedClassCache = renderedClassCache;
+    }
+
     public void renderStringPool() throws RenderingException {
         if (context.getStringPool().isEmpty()) {
             return;
@@ -199,7 +248,14 @@ public class Renderer implements RenderingManager {
     }
 
     public void renderStringConstants() throws RenderingException {
+        renderStringConstants(className -> true);
+    }
+
+    public void renderStringConstants(Predicate<String> classFilter) throws RenderingException {
         for (PostponedFieldInitializer initializer : postponedFieldInitializers) {
+            if (!classFilter.test(initializer.field.getClassName())) {
+                continue;
+            }
             writer.markSectionStart(SECTION_STRING_POOL);
             writer.appendStaticField(initializer.field).ws().append("=").ws();
             context.constantToString(writer, initializer.value);
@@ -254,21 +310,162 @@ public class Renderer implements RenderingManager {
         splitMethods.addAll(asyncFinder.getAsyncFamilyMethods());
 
         var decompiler = new Decompiler(classes, splitMethods, isFriendlyToDebugger);
+        if (isRenderedClassCacheUsed()) {
+            renderedClassCache.setEnvironment(createEnvironment(classes, splitMethods, isFriendlyToDebugger));
+        }
 
-        int index = 0;
-        for (var cls : sequence) {
-            writer.markClassStart(cls.getName());
-            renderDeclaration(cls);
-            renderMethodBodies(cls, decompiler);
-            writer.markClassEnd();
-            if (progressConsumer.apply(1000 * ++index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
-                return false;
+        try (var queue = decompilationThreads > 1
+                ? new DecompilationQueue<>(classes, splitMethods, isFriendlyToDebugger, decompilationThreads,
+                        Renderer::decompileRegular)
+                : null) {
+            decompilationQueue = queue;
+            int window = queue != null ? decompilationThreads * DECOMPILATION_WINDOW_PER_THREAD : 0;
+            for (int i = 0; i < sequence.size() + window; ++i) {
+                if (queue != null && i < sequence.size()) {
+                    scheduleDecompilation(sequence.get(i));
+                }
+                if (i < window) {
+                    continue;
+                }
+                var cls = sequence.get(i - window);
+                if (fragmentListener != null) {
+                    renderFragments(cls, decompiler);
+                } else {
+                    writer.markClassStart(cls.getName());
+                    renderDeclaration(cls);
+                    if (isRenderedClassCacheUsed()) {
+                        renderMethodBodiesCached(cls, decompiler);
+                    } else {
+                        renderMethodBodies(cls, decompiler);
+                    }
+                    writer.markClassEnd();
+                }
+                int index = i - window + 1;
+                if (progressConsumer.apply(1000 * index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
+                    return false;
+                }
             }
+        } finally {
+            decompilationQueue = null;
+        }
+        if (fragmentListener == null) {
+            renderClassMetadata(sequence, (className, method) -> true);
         }
-        renderClassMetadata(sequence);
         return true;
     }
 
+    private boolean isRenderedClassCacheUsed() {
+        return renderedClassCache != null && fragmentListener == null && writer instanceof RememberingSourceWriter;
+    }
+
+    private RenderingEnvironment createEnvironment(ListableClassHolderSource classes,
+            Set<MethodReference> splitMethods, boolean isFriendlyToDebugger) {
+        var forcedFunctions = new HashSet<MethodReference>();
+        var dynamicInitializers = new HashSet<String>();
+        for (var className : classes.getClassNames()) {
+            if (context.isDynamicInitializer(className)) {
+                dynamicInitializers.add(className);
+            }
+            for (var method : classes.get(className).getMethods()) {
+                if (context.isForcedFunction(method.getReference())) {
+                    forcedFunctions.add(method.getReference());
+                }
+            }
+        }
+        return new RenderingEnvironment(context.isMinifying(), context.isStrict(),
+                ((RememberingSourceWriter) writer).isDebug(), isFriendlyToDebugger, new HashSet<>(asyncMethods),
+                splitMethods, forcedFunctions, dynamicInitializers);
+    }
+
+    private void renderMethodBodiesCached(ClassHolder cls, Decompiler decompiler) {
+        if (cls.getMethods().stream().anyMatch(method -> method.hasModifier(ElementModifier.NATIVE))) {
+            renderMethodBodies(cls, decompiler);
+            return;
+        }
+
+        var methods = getRenderedMethods(cls);
+        var cached = renderedClassCache.get(cls.getName(), methods, cacheStatus);
+        if (cached != null && cached.replay(context, writer)) {
+            threadLibraryUsed |= cached.threadLibraryUsed;
+            return;
+        }
+
+        var rememberingWriter = (RememberingSourceWriter) writer;
+        var threadLibraryUsedBefore = threadLibraryUsed;
+        threadLibraryUsed = false;
+        recorder = new RenderedClassRecorder(cls.getName());
+        context.setRecorder(recorder);
+        rememberingWriter.startCapture();
+        try {
+            renderMethodBodies(cls, decompiler);
+        } finally {
+            context.setRecorder(null);
+        }
+        var source = rememberingWriter.endCapture();
+        renderedClassCache.store(cls.getName(), recorder.build(source, methods, threadLibraryUsed));
+        recorder = null;
+        threadLibraryUsed |= threadLibraryUsedBefore;
+    }
+
+    private Set<MethodDescriptor> getRenderedMethods(ClassHolder cls) {
+        var methods = new HashSet<MethodDescriptor>();
+        for (var method : cls.getMethods()) {
+            if (filterMethod(method)) {
+                methods.add(method.getDescriptor());
+            }
+        }
+        return methods;
+    }
+
+    private void scheduleDecompilation(ClassHolder cls) {
+        // Class is likely to be replayed from cache, so don't waste time decompiling it
+        if (isRenderedClassCacheUsed() && fragmentListener == null
+                && cls.getMethods().stream().noneMatch(method -> method.hasModifier(ElementModifier.NATIVE))
+                && renderedClassCache.get(cls.getName(), getRenderedMethods(cls), cacheStatus) != null) {
+            return;
+        }
+        for (var method : cls.getMethods()) {
+            if (!filterMethod(method) || method.hasModifier(ElementModifier.NATIVE)) {
+                continue;
+            }
+            var reference = method.getReference();
+            if (astCache != null && !cacheStatus.isStaleMethod(reference)) {
+                continue;
+            }
+            if (asyncMethods.contains(reference)) {
+                decompilationQueue.scheduleAsync(method);
+            } else {
+                decompilationQueue.scheduleRegular(method);
+            }
+        }
+    }
+
+    private void renderFragments(ClassHolder cls, Decompiler decompiler) {
+        writer.markClassStart(cls.getName());
+        renderDeclaration(cls);
+        writer.emitClass(cls.getName());
+        var clinit = classSource.get(cls.getName()).getMethod(CLINIT_METHOD);
+        if (clinit != null && context.isDynamicInitializer(cls.getName())) {
+            renderCallClinit(clinit, cls);
+        }
+        writer.emitClass(null);
+        writer.markClassEnd();
+        fragmentListener.classDeclarationRendered(cls.getName());
+
+        var needsInitializers = needsInitializers(cls);
+        for (var method : cls.getMethods()) {
+            if (!filterMethod(method)) {
+                continue;
+            }
+            writer.markClassStart(cls.getName());
+            writer.emitClass(cls.getName());
+            renderMethod(method, decompiler, needsInitializers);
+            writer.emitClass(null);
+            writer.markClassEnd();
+            fragmentListener.methodRendered(method.getReference());
+        }
+    }
+
     private void orderClasses(ClassHolderSource classes, String className, Set<String> visited,
             List<ClassHolder> order) {
         if (!visited.add(className)) {
@@ -375,29 +572,36 @@ public class Renderer implements RenderingManager {
             renderCallClinit(clinit, cls);
         }
 
-        var needsInitializers = !cls.hasModifier(ElementModifier.INTERFACE)
-            && !cls.hasModifier(ElementModifier.ABSTRACT);
+        var needsInitializers = needsInitializers(cls);
         for (var method : cls.getMethods()) {
             if (!filterMethod(method)) {
                 continue;
             }
-            var isFunction = context.isForcedFunction(method.getReference());
-            if (isFunction) {
-                writer.startFunctionDeclaration();
-            } else {
-                writer.startVariableDeclaration();
-            }
-            renderBody(method, decompiler, isFunction);
-            writer.endDeclaration();
-            if (needsInitializers && !method.hasModifier(ElementModifier.STATIC)
-                    && method.getName().equals("<init>")) {
-                renderInitializer(method);
-            }
+            renderMethod(method, decompiler, needsInitializers);
         }
 
         writer.emitClass(null);
     }
 
+    private static boolean needsInitializers(ClassHolder cls) {
+        return !cls.hasModifier(ElementModifier.INTERFACE) && !cls.hasModifier(ElementModifier.ABSTRACT);
+    }
+
+    private void renderMethod(MethodHolder method, Decompiler decompiler, boolean needsInitializers) {
+        var isFunction = context.isForcedFunction(method.getReference());
+        if (isFunction) {
+            writer.startFunctionDeclaration();
+        } else {
+            writer.startVariableDeclaration();
+        }
+        renderBody(method, decompiler, isFunction);
+        writer.endDeclaration();
+        if (needsInitializers && !method.hasModifier(ElementModifier.STATIC)
+                && method.getName().equals("<init>")) {
+            renderInitializer(method);
+        }
+    }
+
     private boolean filterMethod(MethodReader method) {
         if (method.hasModifier(ElementModifier.ABSTRACT)) {
             return false;
@@ -473,7 +677,16 @@ public class Renderer implements RenderingManager {
                 .appendClass(cls.getName()).append(");").softNewLine();
     }
 
-    private void renderClassMetadata(List<? extends ClassReader> classReaders) {
+    /**
+     * Writes metadata of given classes.
+     *
+     * @param classReaders classes to write metadata for, superclasses and interfaces first.
+     * @param virtualMethodFilter tells which of the virtual methods should be put into prototypes of
+     *                            the given classes. The rest of them can be added later
+     *                            via {@link #renderVirtualMethods(String, Collection)}.
+     */
+    public void renderClassMetadata(List<? extends ClassReader> classReaders,
+            BiPredicate<String, MethodReference> virtualMethodFilter) {
         ClassMetadataRequirements metadataRequirements = new ClassMetadataRequirements(context.getDependencyInfo());
 
         writer.markSectionStart(SECTION_METADATA);
@@ -482,16 +695,23 @@ public class Renderer implements RenderingManager {
         ObjectIntMap<String> packageIndexes = generatePackageMetadata(classReaders, metadataRequirements);
         writer.append("]);").newLine();
 
+        boolean lazy = lazyMetadata && classReaders.size() >= lazyMetadataMinClasses;
         for (int i = 0; i < classReaders.size(); i += 50) {
             int j = Math.min(i + 50, classReaders.size());
-            renderClassMetadataPortion(classReaders.subList(i, j), packageIndexes, metadataRequirements);
+            if (lazy) {
+                renderLazyClassMetadataPortion(classReaders.subList(i, j), packageIndexes, metadataRequirements,
+                        virtualMethodFilter);
+            } else {
+                renderClassMetadataPortion(classReaders.subList(i, j), packageIndexes, metadataRequirements,
+                        virtualMethodFilter);
+            }
         }
 
         writer.markSectionEnd();
     }
 
     private void renderClassMetadataPortion(List<? extends ClassReader> classes, ObjectIntMap<String> packageIndexes,
-            ClassMetadataRequirements metadataRequirements) {
+            ClassMetadataRequirements metadataRequirements, BiPredicate<String, MethodReference> virtualMethodFilter) {
         writer.appendFunction("$rt_metadata").append("([");
         boolean first = true;
         for (var cls : classes) {
@@ -501,97 +721,163 @@ public class Renderer implements RenderingManager {
             first = false;
             writer.emitClass(cls.getName());
             writer.appendClass(cls.getName()).append(",").ws();
-
-            var className = cls.getName();
-            var requiredMetadata = metadataRequirements.getInfo(className);
-            if (requiredMetadata.name()) {
-                int dotIndex = className.lastIndexOf('.') + 1;
-                String packageName = className.substring(0, dotIndex);
-                className = className.substring(dotIndex);
-                writer.append("\"").append(RenderingUtil.escapeString(className)).append("\"").append(",").ws();
-                writer.append(String.valueOf(packageIndexes.getOrDefault(packageName, -1)));
-            } else {
-                writer.append("0");
-            }
+            renderClassName(cls, packageIndexes, metadataRequirements);
             writer.append(",").ws();
+            renderSuperclass(cls);
+            writer.append(',').ws();
+            renderClassDescription(cls, metadataRequirements);
+            writer.append(",").ws();
+            renderClinitReference(cls);
+            writer.append(',').ws();
+            renderClassVirtualMethods(cls, virtualMethodFilter);
+            writer.emitClass(null);
+        }
+        writer.append("]);").newLine();
+    }
 
-            if (cls.getParent() != null) {
-                writer.appendClass(cls.getParent());
-            } else {
-                writer.append("0");
+    private void renderLazyClassMetadataPortion(List<? extends ClassReader> classes,
+            ObjectIntMap<String> packageIndexes, ClassMetadataRequirements metadataRequirements,
+            BiPredicate<String, MethodReference> virtualMethodFilter) {
+        writer.appendFunction("$rt_lazyMetadata").append("([");
+        boolean first = true;
+        for (var cls : classes) {
+            if (!first) {
+                writer.append(',').softNewLine();
             }
+            first = false;
+            writer.emitClass(cls.getName());
+            writer.appendClass(cls.getName()).append(",").ws();
+            renderSuperclass(cls);
             writer.append(',').ws();
-            writer.append("[");
-            var interfaces = new ArrayList<>(cls.getInterfaces());
-            for (int i = 0; i < interfaces.size(); ++i) {
-                String iface = interfaces.get(i);
-                if (i > 0) {
-                    writer.append(",").ws();
-                }
-                writer.appendClass(iface);
+            renderClinitReference(cls);
+            writer.append(',').ws();
+            renderClassVirtualMethods(cls, virtualMethodFilter);
+            writer.emitClass(null);
+        }
+        writer.append("],").ws().append("()").sameLineWs().append("=>").ws().append("[");
+        first = true;
+        for (var cls : classes) {
+            if (!first) {
+                writer.append(',').softNewLine();
             }
-            writer.append("],").ws();
+            first = false;
+            renderClassName(cls, packageIndexes, metadataRequirements);
+            writer.append(",").ws();
+            renderClassDescription(cls, metadataRequirements);
+        }
+        writer.append("]);").newLine();
+    }
 
-            var flags = ElementModifier.pack(cls.readModifiers());
-            if (cls.hasModifier(ElementModifier.ANNOTATION)) {
-                var retention = cls.getAnnotations().get(Retention.class.getName());
-                if (retention != null && retention.getValue("value").getEnumValue().getFieldName().equals("RUNTIME")) {
-                    if (cls.getAnnotations().get(Inherited.class.getName()) != null) {
-                        flags |= 32768;
-                    }
+    private void renderClassName(ClassReader cls, ObjectIntMap<String> packageIndexes,
+            ClassMetadataRequirements metadataRequirements) {
+        var className = cls.getName();
+        var requiredMetadata = metadataRequirements.getInfo(className);
+        if (requiredMetadata.name()) {
+            int dotIndex = className.lastIndexOf('.') + 1;
+            String packageName = className.substring(0, dotIndex);
+            className = className.substring(dotIndex);
+            writer.append("\"").append(RenderingUtil.escapeString(className)).append("\"").append(",").ws();
+            writer.append(String.valueOf(packageIndexes.getOrDefault(packageName, -1)));
+        } else {
+            writer.append("0");
+        }
+    }
+
+    private void renderSuperclass(ClassReader cls) {
+        if (cls.getParent() != null) {
+            writer.appendClass(cls.getParent());
+        } else {
+            writer.append("0");
+        }
+    }
+
+    private void renderClassDescription(ClassReader cls, ClassMetadataRequirements metadataRequirements) {
+        var requiredMetadata = metadataRequirements.getInfo(cls.getName());
+        writer.append("[");
+        var interfaces = new ArrayList<>(cls.getInterfaces());
+        for (int i = 0; i < interfaces.size(); ++i) {
+            String iface = interfaces.get(i);
+            if (i > 0) {
+                writer.append(",").ws();
+            }
+            writer.appendClass(iface);
+        }
+        writer.append("],").ws();
+
+        var flags = ElementModifier.pack(cls.readModifiers());
+        if (cls.hasModifier(ElementModifier.ANNOTATION)) {
+            var retention = cls.getAnnotations().get(Retention.class.getName());
+            if (retention != null && retention.getValue("value").getEnumValue().getFieldName().equals("RUNTIME")) {
+                if (cls.getAnnotations().get(Inherited.class.getName()) != null) {
+                    flags |= 32768;
                 }
             }
-            writer.append(flags).append(',').ws();
-            writer.append(cls.getLevel().ordinal()).append(',').ws();
+        }
+        writer.append(flags).append(',').ws();
+        writer.append(cls.getLevel().ordinal()).append(',').ws();
 
-            if (!requiredMetadata.enclosingClass() && !requiredMetadata.declaringClass()
-                    && !requiredMetadata.simpleName()) {
-                writer.append("0");
+        if (!requiredMetadata.enclosingClass() && !requiredMetadata.declaringClass()
+                && !requiredMetadata.simpleName()) {
+            writer.append("0");
+        } else {
+            writer.append('[');
+            if (requiredMetadata.enclosingClass() && cls.getOwnerName() != null) {
+                writer.appendClass(cls.getOwnerName());
             } else {
-                writer.append('[');
-                if (requiredMetadata.enclosingClass() && cls.getOwnerName() != null) {
-                    writer.appendClass(cls.getOwnerName());
-                } else {
-                    writer.append('0');
-                }
-                writer.append(',');
-                if (requiredMetadata.declaringClass() && cls.getDeclaringClassName() != null) {
-                    writer.appendClass(cls.getDeclaringClassName());
-                } else {
-                    writer.append('0');
-                }
-                writer.append(',');
-                if (requiredMetadata.simpleName() && cls.getSimpleName() != null) {
-                    writer.append("\"").append(RenderingUtil.escapeString(cls.getSimpleName()))
-                            .append("\"");
-                } else {
-                    writer.append('0');
-                }
-                writer.append(']');
+                writer.append('0');
             }
-            writer.append(",").ws();
-
-            MethodReader clinit = classSource.get(cls.getName()).getMethod(CLINIT_METHOD);
-            if (clinit != null && context.isDynamicInitializer(cls.getName())) {
-                writer.appendClassInit(cls.getName());
+            writer.append(',');
+            if (requiredMetadata.declaringClass() && cls.getDeclaringClassName() != null) {
+                writer.appendClass(cls.getDeclaringClassName());
             } else {
                 writer.append('0');
             }
-            writer.append(',').ws();
+            writer.append(',');
+            if (requiredMetadata.simpleName() && cls.getSimpleName() != null) {
+                writer.append("\"").append(RenderingUtil.escapeString(cls.getSimpleName()))
+                        .append("\"");
+            } else {
+                writer.append('0');
+            }
+            writer.append(']');
+        }
+    }
 
-            Map<MethodDescriptor, MethodReference> virtualMethods = new LinkedHashMap<>();
-            collectMethodsToCopyFromInterfaces(classSource.get(cls.getName()), virtualMethods);
-            for (var method : cls.getMethods()) {
-                if (filterMethod(method) && !method.readModifiers().contains(ElementModifier.STATIC)
-                        && method.getLevel() != AccessLevel.PRIVATE) {
-                    virtualMethods.put(method.getDescriptor(), method.getReference());
-                }
+    private void renderClinitReference(ClassReader cls) {
+        MethodReader clinit = classSource.get(cls.getName()).getMethod(CLINIT_METHOD);
+        if (clinit != null && context.isDynamicInitializer(cls.getName())) {
+            writer.appendClassInit(cls.getName());
+        } else {
+            writer.append('0');
+        }
+    }
+
+    private void renderClassVirtualMethods(ClassReader cls, BiPredicate<String, MethodReference> virtualMethodFilter) {
+        Map<MethodDescriptor, MethodReference> virtualMethods = new LinkedHashMap<>();
+        collectMethodsToCopyFromInterfaces(classSource.get(cls.getName()), virtualMethods);
+        for (var method : cls.getMethods()) {
+            if (filterMethod(method) && !method.readModifiers().contains(ElementModifier.STATIC)
+                    && method.getLevel() != AccessLevel.PRIVATE) {
+                virtualMethods.put(method.getDescriptor(), method.getReference());
             }
+        }
 
-            renderVirtualDeclarations(virtualMethods.values());
-            writer.emitClass(null);
+        virtualMethods.values().removeIf(method -> !virtualMethodFilter.test(cls.getName(), method));
+        renderVirtualDeclarations(virtualMethods.values());
+    }
+
+    /**
+     * Adds virtual methods to the prototype of a class which metadata is already written.
+     */
+    public void renderVirtualMethods(String className, Collection<MethodReference> methods) {
+        if (methods.stream().noneMatch(this::isVirtual)) {
+            return;
         }
-        writer.append("]);").newLine();
+        writer.emitClass(className);
+        writer.appendFunction("$rt_addVirtualMethods").append("(").appendClass(className).append(",").ws();
+        renderVirtualDeclarations(methods);
+        writer.append(");").newLine();
+        writer.emitClass(null);
     }
 
     private ObjectIntMap<String> generatePackageMetadata(List<? extends ClassReader> classes,
@@ -924,6 +1210,12 @@ public class Renderer implements RenderingManager {
             node = entry.method;
         }
 
+        if (recorder != null) {
+            recorder.addDependencies(async
+                    ? dependencyExtractor.extract((AsyncMethodNode) node)
+                    : dependencyExtractor.extract((RegularMethodNode) node));
+        }
+
         methodBodyRenderer.setCurrentMethod(node);
         renderMethodPrologue(method.getReference(), method.getModifiers(), isFunction);
         methodBodyRenderer.render(node, async);
@@ -955,6 +1247,12 @@ public class Renderer implements RenderingManager {
     }
 
     private AstCacheEntry decompileRegularCacheMiss(Decompiler decompiler, MethodHolder method) {
+        return decompilationQueue != null
+                ? decompilationQueue.takeRegular(method, decompiler)
+                : decompileRegular(decompiler, method);
+    }
+
+    private static AstCacheEntry decompileRegular(Decompiler decompiler, MethodHolder method) {
         RegularMethodNode node = decompiler.decompileRegular(method);
         ControlFlowEntry[] cfg = LocationGraphBuilder.build(node.getBody());
         return new AstCacheEntry(node, cfg);
@@ -962,20 +1260,26 @@ public class Renderer implements RenderingManager {
 
     private AsyncMethodNode decompileAsync(Decompiler decompiler, MethodHolder method) {
         if (astCache == null) {
-            return decompiler.decompileAsync(method);
+            return decompileAsyncCacheMiss(decompiler, method);
         }
 
         AsyncMethodNode node = !cacheStatus.isStaleMethod(method.getReference())
                 ? astCache.getAsync(method.getReference(), cacheStatus)
                 : null;
         if (node == null) {
-            node = decompiler.decompileAsync(method);
+            node = decompileAsyncCacheMiss(decompiler, method);
             AsyncMethodNode finalNode = node;
             astCache.storeAsync(method.getReference(), node, () -> dependencyExtractor.extract(finalNode));
         }
         return node;
     }
 
+    private AsyncMethodNode decompileAsyncCacheMiss(Decompiler decompiler, MethodHolder method) {
+        return decompilationQueue != null
+                ? decompilationQueue.takeAsync(method, decompiler)
+                : decompiler.decompileAsync(method);
+    }
+
     static void renderAsyncPrologue(SourceWriter writer, RenderingContext context) {
         writer.append(context.mainLoopName()).append(":").ws().append("while").ws().append("(true)")
                 .ws().append("{").ws();
@@ -15,6 +15,8 @@
  */
 package org.teavm.backend.javascript.rendering;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -54,13 +56,14 @@ public abstract class RenderingContext {
     private DependencyInfo dependencyInfo;
     private Predicate<MethodReference> virtualPredicate;
     private Predicate<MethodReference> forcedFunctionPredicate;
-    private final Map<String, Integer> stringPoolMap = new HashMap<>();
+    private final ObjectIntMap<String> stringPoolMap = new ObjectIntHashMap<>();
     private final List<String> stringPool = new ArrayList<>();
     private final List<String> readonlyStringPool = Collections.unmodifiableList(stringPool);
     private final Map<MethodReference, InjectorHolder> injectorMap = new HashMap<>();
     private boolean minifying;
     private ClassInitializerInfo classInitializerInfo;
     private boolean strict;
+    private RenderedClassRecorder recorder;
 
     public RenderingContext(DebugInformationEmitter debugEmitter,
             ClassReaderSource initialClassSource, ListableClassReaderSource classSource,
@@ -143,10 +146,16 @@ public abstract class RenderingContext {
     }
 
     public int lookupString(String string) {
-        return stringPoolMap.computeIfAbsent(string, key -> {
-            stringPool.add(key);
-            return stringPool.size() - 1;
-        });
+        int index = stringPoolMap.getOrDefault(string, -1);
+        if (index < 0) {
+            index = stringPool.size();
+            stringPool.add(string);
+            stringPoolMap.put(string, index);
+        }
+        if (recorder != null) {
+            recorder.stringLookedUp(string, index);
+        }
+        return index;
     }
 
     public List<String> getStringPool() {
@@ -329,7 +338,19 @@ public abstract class RenderingContext {
         return strict;
     }
 
-    public abstract String importModule(String name);
+    public String importModule(String name) {
+        var alias = importModuleImpl(name);
+        if (recorder != null) {
+            recorder.moduleImported(name, alias);
+        }
+        return alias;
+    }
+
+    protected abstract String importModuleImpl(String name);
+
+    void setRecorder(RenderedClassRecorder recorder) {
+        this.recorder = recorder;
+    }
 
     @PlatformMarker
     private static boolean isBootstrap() {
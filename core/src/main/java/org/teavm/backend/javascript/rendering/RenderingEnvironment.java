@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.util.Objects;
+import java.util.Set;
+import org.teavm.model.MethodReference;
+
+final class RenderingEnvironment {
+    private final boolean minifying;
+    private final boolean strict;
+    private final boolean debug;
+    private final boolean friendlyToDebugger;
+    private final Set<MethodReference> asyncMethods;
+    private final Set<MethodReference> splitMethods;
+    private final Set<MethodReference> forcedFunctions;
+    private final Set<String> dynamicInitializers;
+
+    RenderingEnvironment(boolean minifying, boolean strict, boolean debug, boolean friendlyToDebugger,
+            Set<MethodReference> asyncMethods, Set<MethodReference> splitMethods,
+            Set<MethodReference> forcedFunctions, Set<String> dynamicInitializers) {
+        this.minifying = minifying;
+        this.strict = strict;
+        this.debug = debug;
+        this.friendlyToDebugger = friendlyToDebugger;
+        this.asyncMethods = asyncMethods;
+        this.splitMethods = splitMethods;
+        this.forcedFunctions = forcedFunctions;
+        this.dynamicInitializers = dynamicInitializers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RenderingEnvironment)) {
+            return false;
+        }
+        var that = (RenderingEnvironment) o;
+        return minifying == that.minifying
+                && strict == that.strict
+                && debug == that.debug
+                && friendlyToDebugger == that.friendlyToDebugger
+                && asyncMethods.equals(that.asyncMethods)
+                && splitMethods.equals(that.splitMethods)
+                && forcedFunctions.equals(that.forcedFunctions)
+                && dynamicInitializers.equals(that.dynamicInitializers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minifying, strict, debug, friendlyToDebugger, asyncMethods, splitMethods,
+                forcedFunctions, dynamicInitializers);
+    }
+}
@@ -67,7 +67,6 @@ import org.teavm.ast.UnaryExpr;
 import org.teavm.ast.UnwrapArrayExpr;
 import org.teavm.ast.VariableExpr;
 import org.teavm.ast.WhileStatement;
-import org.teavm.backend.javascript.codegen.NamingStrategy;
 import org.teavm.backend.javascript.codegen.SourceWriter;
 import org.teavm.backend.javascript.spi.Injector;
 import org.teavm.backend.javascript.spi.InjectorContext;
@@ -90,7 +89,6 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
     private boolean async;
     private boolean minifying;
     private Precedence precedence;
-    private NamingStrategy naming;
     private boolean end;
     private final Map<String, String> blockIdMap = new HashMap<>();
     private int currentPart;
@@ -107,7 +105,6 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
         this.writer = writer;
         this.classSource = context.getClassSource();
         this.minifying = context.isMinifying();
-        this.naming = context.getNaming();
         this.variableNameGenerator = variableNameGenerator;
     }
 
@@ -1101,7 +1098,6 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
                 expr.getArguments().get(0).acceptVisitor(this);
             }
             MethodReference method = expr.getMethod();
-            String name = naming.instanceMethodName(method.getDescriptor());
             switch (expr.getType()) {
                 case STATIC:
                     writer.appendMethod(method).append("(");
@@ -1124,7 +1120,7 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
                     }
                     break;
                 case DYNAMIC:
-                    writer.append(".").append(name).append("(");
+                    writer.append(".").appendVirtualMethod(method.getDescriptor()).append("(");
                     for (int i = 1; i < expr.getArguments().size(); ++i) {
                         if (i > 1) {
                             writer.append(",").ws();
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+
+/**
+ * Part of the JavaScript output produced by {@link CodeSplitter}: either the main file or a file loaded on demand.
+ */
+public class Chunk {
+    final int index;
+    String name;
+    final List<RememberedSource> fragments = new ArrayList<>();
+    final List<String> classNames = new ArrayList<>();
+
+    Chunk(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Position of the chunk, starting from 1. Main chunk has index 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isMain() {
+        return index == 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Pieces of code assigned to this chunk, in the order they should be written.
+     */
+    public List<RememberedSource> getFragments() {
+        return Collections.unmodifiableList(fragments);
+    }
+
+    /**
+     * Classes which declarations belong to this chunk, superclasses first.
+     */
+    public List<String> getClassNames() {
+        return Collections.unmodifiableList(classNames);
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+import org.teavm.backend.javascript.codegen.RememberingSourceWriter;
+import org.teavm.backend.javascript.codegen.SourceWriterSink;
+import org.teavm.backend.javascript.rendering.FragmentListener;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Distributes rendered code between the main file and chunks loaded on demand.</p>
+ *
+ * <p>Splitter receives code from {@link org.teavm.backend.javascript.rendering.Renderer} piece by piece:
+ * one piece per class declaration and one piece per method. Dependencies between pieces are taken from
+ * references to classes, methods and static fields that renderer writes, so they reflect the exact code that
+ * ends up in the output, including code produced by generators and injectors.</p>
+ *
+ * <p>Every method that implements an action passed to {@code SplitPoint.run} is a root of a chunk. A piece
+ * goes to a chunk if it is reachable from the chunk's root and neither from the main code nor from
+ * roots of other chunks. All other pieces stay in the main file.</p>
+ */
+public class CodeSplitter implements FragmentListener {
+    private static final int UNASSIGNED = -1;
+    private static final int SHARED = -2;
+
+    private final RememberingSourceWriter writer;
+    private final ClassReaderSource classSource;
+    private final List<Unit> units = new ArrayList<>();
+    private final Map<String, Unit> classUnits = new HashMap<>();
+    private final Map<MethodReference, Unit> methodUnits = new HashMap<>();
+    private final Map<MethodReference, Unit> resolvedMethods = new HashMap<>();
+    private final Map<FieldReference, Unit> resolvedFields = new HashMap<>();
+    private final Set<Unit> mainRoots = new LinkedHashSet<>();
+    private final Map<MethodReference, Set<String>> actions = new LinkedHashMap<>();
+    private final Map<String, MethodReference> actionClasses = new LinkedHashMap<>();
+    private Chunk mainChunk;
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    public CodeSplitter(RememberingSourceWriter writer, ClassReaderSource classSource) {
+        this.writer = writer;
+        this.classSource = classSource;
+    }
+
+    @Override
+    public void classDeclarationRendered(String className) {
+        var unit = new Unit(className, null, takeFragment());
+        units.add(unit);
+        classUnits.put(className, unit);
+    }
+
+    @Override
+    public void methodRendered(MethodReference method) {
+        var unit = new Unit(method.getClassName(), method, takeFragment());
+        units.add(unit);
+        methodUnits.put(method, unit);
+    }
+
+    private RememberedSource takeFragment() {
+        var fragment = writer.save();
+        writer.clear();
+        return fragment;
+    }
+
+    /**
+     * Classes which declarations were rendered, superclasses first.
+     */
+    public List<String> getClassNames() {
+        var result = new ArrayList<String>();
+        for (var unit : units) {
+            if (unit.method == null) {
+                result.add(unit.className);
+            }
+        }
+        return result;
+    }
+
+    public void replayFragments(SourceWriterSink sink) {
+        for (var unit : units) {
+            unit.fragment.replay(sink, RememberedSource.FILTER_REF);
+        }
+    }
+
+    /**
+     * Reports code that is written for the given class in addition to its declaration, i.e. class metadata.
+     */
+    public void addClassReferences(String className, RememberedSource source) {
+        var unit = classUnits.get(className);
+        if (unit != null) {
+            unit.extraSources.add(source);
+        }
+    }
+
+    /**
+     * Reports code that always goes to the main file, like runtime and exports.
+     */
+    public void addMainReferences(RememberedSource source) {
+        var collector = new ReferenceCollector();
+        source.replay(collector, RememberedSource.FILTER_REF);
+        mainRoots.addAll(collector.references);
+    }
+
+    /**
+     * Reports that instances of the given class are passed to {@code SplitPoint.run},
+     * so the given method is invoked on them.
+     */
+    public void addAction(String className, MethodReference method) {
+        actions.computeIfAbsent(method, m -> new LinkedHashSet<>()).add(className);
+        actionClasses.put(className, method);
+    }
+
+    public void split() {
+        buildGraph();
+
+        markMain(mainRoots);
+
+        var roots = new ArrayList<Unit>();
+        for (var method : actions.keySet()) {
+            var root = methodUnits.get(method);
+            if (root != null && root.chunk != 0) {
+                roots.add(root);
+            }
+        }
+        for (var i = 0; i < roots.size(); ++i) {
+            mark(roots.get(i), i + 1);
+        }
+
+        // Normally every piece is reachable from some root. If it's not, keep it in the main file,
+        // along with everything it refers to, rather than drop it
+        var unreached = new ArrayList<Unit>();
+        for (var unit : units) {
+            if (unit.chunk == UNASSIGNED) {
+                unreached.add(unit);
+            }
+        }
+        markMain(unreached);
+
+        mainChunk = new Chunk(0);
+        var chunksByRoot = new Chunk[roots.size() + 1];
+        chunksByRoot[0] = mainChunk;
+        for (var unit : units) {
+            if (unit.chunk == SHARED) {
+                unit.chunk = 0;
+            }
+        }
+        for (var unit : units) {
+            var chunk = chunksByRoot[unit.chunk];
+            if (chunk == null) {
+                chunk = new Chunk(chunks.size() + 1);
+                chunks.add(chunk);
+                chunksByRoot[unit.chunk] = chunk;
+            }
+            unit.target = chunk;
+            chunk.fragments.add(unit.fragment);
+            if (unit.method == null) {
+                chunk.classNames.add(unit.className);
+            }
+        }
+    }
+
+    private void buildGraph() {
+        var collector = new ReferenceCollector();
+        for (var unit : units) {
+            collector.references.clear();
+            unit.fragment.replay(collector, RememberedSource.FILTER_REF);
+            for (var source : unit.extraSources) {
+                source.replay(collector, RememberedSource.FILTER_REF);
+            }
+            collector.references.remove(unit);
+            unit.successors = collector.references.toArray(new Unit[0]);
+        }
+        for (var entry : actions.entrySet()) {
+            var root = methodUnits.get(entry.getKey());
+            if (root == null) {
+                continue;
+            }
+            var cutFrom = new HashSet<Unit>();
+            var successors = new ArrayList<Unit>();
+            Collections.addAll(successors, root.successors);
+            for (var className : entry.getValue()) {
+                classSource.getAncestors(className).forEach(cls -> {
+                    var unit = classUnits.get(cls.getName());
+                    if (unit != null) {
+                        cutFrom.add(unit);
+                    }
+                });
+                var actionClassUnit = classUnits.get(className);
+                if (actionClassUnit != null) {
+                    successors.add(actionClassUnit);
+                }
+            }
+            root.successors = successors.toArray(new Unit[0]);
+            for (var unit : cutFrom) {
+                var remaining = new ArrayList<Unit>();
+                for (var successor : unit.successors) {
+                    if (successor != root) {
+                        remaining.add(successor);
+                    }
+                }
+                unit.successors = remaining.toArray(new Unit[0]);
+            }
+        }
+    }
+
+    private void markMain(Collection<Unit> roots) {
+        var queue = new ArrayDeque<Unit>();
+        for (var root : roots) {
+            if (root.chunk != 0) {
+                root.chunk = 0;
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            var unit = queue.remove();
+            for (var successor : unit.successors) {
+                if (successor.chunk != 0) {
+                    successor.chunk = 0;
+                    queue.add(successor);
+                }
+            }
+        }
+    }
+
+    private void mark(Unit start, int chunk) {
+        var visited = new HashSet<Unit>();
+        var queue = new ArrayDeque<Unit>();
+        queue.add(start);
+        visited.add(start);
+        while (!queue.isEmpty()) {
+            var unit = queue.remove();
+            if (unit.chunk == 0) {
+                continue;
+            }
+            if (unit.chunk == UNASSIGNED || unit.chunk == chunk) {
+                unit.chunk = chunk;
+            } else {
+                unit.chunk = SHARED;
+            }
+            for (var successor : unit.successors) {
+                if (visited.add(successor)) {
+                    queue.add(successor);
+                }
+            }
+        }
+    }
+
+    public Chunk getMainChunk() {
+        return mainChunk;
+    }
+
+    /**
+     * Chunks loaded on demand, without the main one.
+     */
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Returns the chunk that contains the declaration of the given class, or {@code null} if class is not rendered.
+     */
+    public Chunk getChunk(String className) {
+        var unit = classUnits.get(className);
+        return unit != null ? unit.target : null;
+    }
+
+    /**
+     * Returns the chunk that contains body of the given method, or {@code null} if method has no body.
+     */
+    public Chunk getChunk(MethodReference method) {
+        var unit = methodUnits.get(method);
+        return unit != null ? unit.target : null;
+    }
+
+    /**
+     * Returns the chunk to load before invoking an action on instance of the given class.
+     */
+    public Chunk getActionChunk(String className) {
+        var method = actionClasses.get(className);
+        return method != null ? getChunk(method) : null;
+    }
+
+    public Set<String> getActionClasses() {
+        return Collections.unmodifiableSet(actionClasses.keySet());
+    }
+
+    static class Unit {
+        final String className;
+        final MethodReference method;
+        final RememberedSource fragment;
+        final List<RememberedSource> extraSources = new ArrayList<>();
+        Unit[] successors;
+        int chunk = UNASSIGNED;
+        Chunk target;
+
+        Unit(String className, MethodReference method, RememberedSource fragment) {
+            this.className = className;
+            this.method = method;
+            this.fragment = fragment;
+        }
+    }
+
+    class ReferenceCollector implements SourceWriterSink {
+        final Set<Unit> references = new LinkedHashSet<>();
+
+        @Override
+        public SourceWriterSink appendClass(String cls) {
+            addClass(cls);
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink appendClassInit(String className) {
+            addClass(className);
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink appendStaticField(FieldReference field) {
+            if (!resolvedFields.containsKey(field)) {
+                var fieldReader = classSource.resolve(field);
+                resolvedFields.put(field, classUnits.get(fieldReader != null
+                        ? fieldReader.getOwnerName()
+                        : field.getClassName()));
+            }
+            var unit = resolvedFields.get(field);
+            if (unit != null) {
+                references.add(unit);
+            }
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink appendMethod(MethodReference method) {
+            addMethod(method);
+            return this;
+        }
+
+        @Override
+        public SourceWriterSink appendInit(MethodReference method) {
+            addMethod(method);
+            return this;
+        }
+
+        private void addClass(String className) {
+            var unit = classUnits.get(className);
+            if (unit != null) {
+                references.add(unit);
+            }
+        }
+
+        private void addMethod(MethodReference method) {
+            var unit = methodUnits.get(method);
+            if (unit == null) {
+                if (!resolvedMethods.containsKey(method)) {
+                    var methodReader = classSource.resolve(method);
+                    resolvedMethods.put(method, methodReader != null
+                            ? methodUnits.get(methodReader.getReference())
+                            : null);
+                }
+                unit = resolvedMethods.get(method);
+            }
+            if (unit != null) {
+                references.add(unit);
+            }
+        }
+    }
+}
@@ -23,11 +23,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.teavm.backend.wasm.debug.CompositeDebugLines;
 import org.teavm.backend.wasm.debug.DebugLines;
 import org.teavm.backend.wasm.debug.ExternalDebugFile;
@@ -48,6 +50,8 @@ import org.teavm.backend.wasm.generators.gc.WasmGCCustomGenerators;
 import org.teavm.backend.wasm.intrinsics.gc.WasmGCIntrinsic;
 import org.teavm.backend.wasm.intrinsics.gc.WasmGCIntrinsicFactory;
 import org.teavm.backend.wasm.intrinsics.gc.WasmGCIntrinsics;
+import org.teavm.backend.wasm.model.WasmCollection;
+import org.teavm.backend.wasm.model.WasmCompositeType;
 import org.teavm.backend.wasm.model.WasmCustomSection;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
@@ -63,6 +67,7 @@ import org.teavm.backend.wasm.render.WasmBinaryStatsCollector;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.backend.wasm.render.WasmBinaryWriter;
 import org.teavm.backend.wasm.runtime.StringInternPool;
+import org.teavm.backend.wasm.splitting.WasmModuleSplitter;
 import org.teavm.backend.wasm.transformation.gc.BaseClassesTransformation;
 import org.teavm.backend.wasm.transformation.gc.ClassLoaderResourceTransformation;
 import org.teavm.backend.wasm.transformation.gc.EntryPointTransformation;
@@ -72,12 +77,16 @@ import org.teavm.dependency.DependencyInfo;
 import org.teavm.dependency.DependencyListener;
 import org.teavm.interop.Address;
 import org.teavm.interop.Platforms;
+import org.teavm.interop.SplitPoint;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReaderSource;
+import org.teavm.model.ElementModifier;
 import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.MethodDescriptor;
 import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
+import org.teavm.model.ValueType;
 import org.teavm.model.lowlevel.Characteristics;
 import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
 import org.teavm.model.transformation.BoundCheckInsertion;
@@ -90,6 +99,10 @@ import org.teavm.vm.TeaVMTargetController;
 import org.teavm.vm.spi.TeaVMHostExtension;
 
 public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
+    private static final MethodReference SPLIT_POINT_RUN = new MethodReference(SplitPoint.class, "run",
+            Runnable.class, void.class);
+    private static final MethodDescriptor SPLIT_POINT_ACTION = new MethodDescriptor("run", void.class);
+
     private TeaVMTargetController controller;
     private NullCheckInsertion nullCheckInsertion;
     private BoundCheckInsertion boundCheckInsertion = new BoundCheckInsertion();
@@ -112,6 +125,7 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
     private List<WasmGCClassConsumer> classConsumers = new ArrayList<>();
     private List<Supplier<Collection<MethodReference>>> additionalMethodsOnCallSites = new ArrayList<>();
     private boolean importedMemory;
+    private boolean moduleSplitting;
 
     public void setObfuscated(boolean obfuscated) {
         this.obfuscated = obfuscated;
@@ -157,6 +171,14 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         this.importedMemory = importedMemory;
     }
 
+    /**
+     * Moves code that is only reachable from {@link org.teavm.interop.SplitPoint} actions into secondary
+     * modules, which are loaded and instantiated by runtime when an action is run for the first time.
+     */
+    public void setModuleSplitting(boolean moduleSplitting) {
+        this.moduleSplitting = moduleSplitting;
+    }
+
     @Override
     public void addIntrinsicFactory(WasmGCIntrinsicFactory intrinsicFactory) {
         intrinsicFactories.add(intrinsicFactory);
@@ -338,8 +360,53 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         customGenerators.contributeToModule(module);
         generateExceptionExports(declarationsGenerator);
         adjustModuleMemory(module, moduleGenerator, buffersHeap);
+        var secondaryModules = moduleSplitting
+                ? splitModule(module, declarationsGenerator, classes)
+                : List.<WasmModule>of();
 
-        emitWasmFile(module, buildTarget, outputName, debugInfoBuilder);
+        emitWasmFile(module, buildTarget, outputName, debugInfoBuilder, secondaryModules);
+    }
+
+    private List<WasmModule> splitModule(WasmModule module, WasmGCDeclarationsGenerator declarationsGenerator,
+            ClassReaderSource classes) {
+        var actions = new HashSet<MethodReference>();
+        var splitPointMethod = controller.getDependencyInfo().getMethod(SPLIT_POINT_RUN);
+        if (splitPointMethod != null) {
+            for (var type : splitPointMethod.getVariable(1).getTypes()) {
+                if (!(type instanceof ValueType.Object)) {
+                    continue;
+                }
+                var className = ((ValueType.Object) type).getClassName();
+                var implementation = classes.resolveImplementation(className, SPLIT_POINT_ACTION);
+                if (implementation != null) {
+                    actions.add(implementation.getReference());
+                }
+            }
+        }
+        if (actions.isEmpty()) {
+            return List.of();
+        }
+
+        var splitter = new WasmModuleSplitter(module, declarationsGenerator.functionTypes);
+        for (var function : module.functions) {
+            var method = function.getJavaMethod();
+            if (method == null) {
+                continue;
+            }
+            if (actions.contains(method)) {
+                splitter.addRoot(function);
+                continue;
+            }
+            var methodReader = classes.resolve(method);
+            if (methodReader != null && !methodReader.hasModifier(ElementModifier.STATIC)) {
+                var structure = declarationsGenerator.classInfoProvider().getClassInfo(method.getClassName())
+                        .getStructure();
+                if (structure != null) {
+                    splitter.addVirtualMethod(function, structure);
+                }
+            }
+        }
+        return splitter.split();
     }
 
     private void generateExceptionExports(WasmGCDeclarationsGenerator declarationsGenerator) {
@@ -464,7 +531,7 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
     }
 
     private void emitWasmFile(WasmModule module, BuildTarget buildTarget, String outputName,
-            GCDebugInfoBuilder debugInfoBuilder) throws IOException {
+            GCDebugInfoBuilder debugInfoBuilder, List<WasmModule> secondaryModules) throws IOException {
         var binaryWriter = new WasmBinaryWriter();
         DebugLines debugLines = null;
         if (debugInfo) {
@@ -476,7 +543,10 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         } else if (sourceMapBuilder != null) {
             debugLines = sourceMapBuilder;
         }
-        if (!outputName.endsWith(".wasm")) {
+        var baseName = outputName;
+        if (baseName.endsWith(".wasm")) {
+            baseName = baseName.substring(0, baseName.length() - ".wasm".length());
+        } else {
             outputName += ".wasm";
         }
         if (sourceMapBuilder != null && sourceMapLocation != null) {
@@ -503,6 +573,39 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
                 }
             }
         }
+
+        // Secondary modules must declare exactly the same type section as the primary one,
+        // so that types are recognized as equivalent across modules. A type can only belong to one
+        // collection, so types are lent to each secondary module and given back to the primary one afterwards.
+        var types = module.types.stream().collect(Collectors.toList());
+        var owner = module.types;
+        try {
+            for (var i = 0; i < secondaryModules.size(); ++i) {
+                var secondaryModule = secondaryModules.get(i);
+                moveTypes(types, owner, secondaryModule.types);
+                owner = secondaryModule.types;
+                var secondaryWriter = new WasmBinaryWriter();
+                var secondaryRenderer = new WasmBinaryRenderer(secondaryWriter, WasmBinaryVersion.V_0x1,
+                        obfuscated, null, null, null, null, WasmBinaryStatsCollector.EMPTY);
+                secondaryRenderer.render(secondaryModule);
+                try (var output = buildTarget.createResource(baseName + "-" + (i + 1) + ".wasm")) {
+                    output.write(secondaryWriter.getData());
+                }
+            }
+        } finally {
+            moveTypes(types, owner, module.types);
+        }
+    }
+
+    private static void moveTypes(List<WasmCompositeType> types, WasmCollection<WasmCompositeType> from,
+            WasmCollection<WasmCompositeType> to) {
+        if (from == to) {
+            return;
+        }
+        from.clear();
+        for (var type : types) {
+            to.add(type);
+        }
     }
 
     private Supplier<Collection<? extends WasmCustomSection>> customSections(GCDebugInfoBuilder debugInfoBuilder,
@@ -153,6 +153,11 @@ public final class WasmRuntime {
         WasmSupport.printOutOfMemory();
     }
 
+    @Unmanaged
+    public static long nanoTime() {
+        return WasmSupport.nanoTime();
+    }
+
     @Unmanaged
     public static void fillZero(Address address, int count) {
         fill(address, (byte) 0, count);
@@ -55,6 +55,7 @@ import org.teavm.backend.wasm.generate.WasmStringPool;
 import org.teavm.backend.wasm.generators.ArrayGenerator;
 import org.teavm.backend.wasm.generators.WasmMethodGeneratorContext;
 import org.teavm.backend.wasm.intrinsics.AddressIntrinsic;
+import org.teavm.backend.wasm.intrinsics.AllocationProfilerIntrinsic;
 import org.teavm.backend.wasm.intrinsics.AllocatorIntrinsic;
 import org.teavm.backend.wasm.intrinsics.ClassIntrinsic;
 import org.teavm.backend.wasm.intrinsics.ConsoleIntrinsic;
@@ -204,6 +205,8 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private BoundCheckInsertion boundCheckInsertion = new BoundCheckInsertion();
     private int minHeapSize = 2 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
+    private int gcPauseBudget;
+    private int allocationSamplingInterval;
     private boolean obfuscated;
     private Set<MethodReference> asyncMethods;
     private boolean hasThreads;
@@ -312,6 +315,25 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         this.maxHeapSize = maxHeapSize;
     }
 
+    /**
+     * Sets desired upper bound of a single GC pause, in microseconds. When set to a positive value,
+     * old generation is marked incrementally, in small steps interleaved with program execution.
+     * Zero (default) means that old generation is collected in a single pause.
+     */
+    public void setGcPauseBudget(int gcPauseBudget) {
+        this.gcPauseBudget = gcPauseBudget;
+    }
+
+    /**
+     * Enables sampling allocation profiler. When set to a positive value, stack of approximately each
+     * allocation that crosses given number of bytes is reported to <code>teavmAllocationProfile</code>
+     * imports, which are implemented by JavaScript runtime. Zero (default) disables profiler.
+     * Not supported by WASI runtime.
+     */
+    public void setAllocationSamplingInterval(int allocationSamplingInterval) {
+        this.allocationSamplingInterval = allocationSamplingInterval;
+    }
+
     public void setObfuscated(boolean obfuscated) {
         this.obfuscated = obfuscated;
     }
@@ -379,6 +401,9 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "printInt",
                 int.class, void.class)).use();
         dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "printOutOfMemory", void.class)).use();
+        if (gcPauseBudget > 0) {
+            dependencyAnalyzer.linkMethod(new MethodReference(WasmRuntime.class, "nanoTime", long.class)).use();
+        }
 
         dependencyAnalyzer.linkMethod(INIT_HEAP_REF).use();
         dependencyAnalyzer.linkMethod(RESIZE_HEAP_REF).use();
@@ -545,13 +570,17 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         }
         context.addIntrinsic(new WasmHeapIntrinsic(vmAssertions));
         context.addIntrinsic(new FiberIntrinsic());
+        int samplingInterval = runtimeType == WasmRuntimeType.TEAVM ? allocationSamplingInterval : 0;
+        if (samplingInterval == 0) {
+            context.addIntrinsic(new AllocationProfilerIntrinsic());
+        }
 
         var intrinsicFactoryContext = new IntrinsicFactoryContext();
         for (WasmIntrinsicFactory additionalIntrinsicFactory : additionalIntrinsics) {
             context.addIntrinsic(additionalIntrinsicFactory.create(intrinsicFactoryContext));
         }
 
-        GCIntrinsic gcIntrinsic = new GCIntrinsic();
+        GCIntrinsic gcIntrinsic = new GCIntrinsic(gcPauseBudget, samplingInterval);
         context.addIntrinsic(gcIntrinsic);
         MutatorIntrinsic mutatorIntrinsic = new MutatorIntrinsic();
         context.addIntrinsic(mutatorIntrinsic);
@@ -15,8 +15,8 @@
  */
 package org.teavm.backend.wasm.generate;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import org.teavm.backend.wasm.binary.BinaryWriter;
 import org.teavm.backend.wasm.binary.DataArray;
 import org.teavm.backend.wasm.binary.DataPrimitives;
@@ -29,7 +29,7 @@ import org.teavm.runtime.RuntimeObject;
 public class WasmStringPool {
     private WasmClassGenerator classGenerator;
     private BinaryWriter binaryWriter;
-    private Map<String, Integer> stringMap = new HashMap<>();
+    private ObjectIntMap<String> stringMap = new ObjectIntHashMap<>();
     private DataStructure arrayHeaderType = new DataStructure((byte) 0,
             DataPrimitives.INT, /* class pointer */
             DataPrimitives.ADDRESS, /* monitor */
@@ -49,8 +49,8 @@ public class WasmStringPool {
     }
 
     public int getStringPointer(String value) {
-        Integer pointer = stringMap.get(value);
-        if (pointer == null) {
+        int pointer = stringMap.getOrDefault(value, -1);
+        if (pointer < 0) {
             pointer = generateStringPointer(value);
             stringMap.put(value, pointer);
         }
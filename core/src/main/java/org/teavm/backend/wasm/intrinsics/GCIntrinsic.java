@@ -27,6 +27,7 @@ import org.teavm.backend.wasm.model.expression.WasmConversion;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
 import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
 import org.teavm.backend.wasm.model.expression.WasmIntBinary;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
@@ -40,11 +41,20 @@ import org.teavm.runtime.GC;
 public class GCIntrinsic implements WasmIntrinsic {
     private static final MethodReference PRINT_OUT_OF_MEMORY = new MethodReference(
             WasmRuntime.class, "printOutOfMemory", void.class);
+    private static final MethodReference NANO_TIME = new MethodReference(
+            WasmRuntime.class, "nanoTime", long.class);
     private static final MethodReference RESIZE_HEAP = new MethodReference(
             WasmHeap.class, "resizeHeap", int.class, void.class);
     private static final FieldReference CARD_TABLE = new FieldReference(WasmHeap.class.getName(), "cardTable");
     private static final FieldReference HEAP_ADDRESS = new FieldReference(WasmHeap.class.getName(), "heapAddress");
     public final List<WasmInt32Constant> regionSizeExpressions = new ArrayList<>();
+    private final int pauseBudget;
+    private final int allocationSamplingInterval;
+
+    public GCIntrinsic(int pauseBudget, int allocationSamplingInterval) {
+        this.pauseBudget = pauseBudget;
+        this.allocationSamplingInterval = allocationSamplingInterval;
+    }
 
     public void setRegionSize(int regionSize) {
         for (WasmInt32Constant constant : regionSizeExpressions) {
@@ -73,6 +83,11 @@ public class GCIntrinsic implements WasmIntrinsic {
             case "resizeHeap":
             case "writeBarrier":
             case "canShrinkHeap":
+            case "isParallelMarkEnabled":
+            case "markParallel":
+            case "pauseBudget":
+            case "pauseClock":
+            case "allocationSamplingInterval":
                 return true;
             default:
                 return false;
@@ -132,11 +147,31 @@ public class GCIntrinsic implements WasmIntrinsic {
                         cardIndex);
                 return new WasmStoreInt32(1, card, new WasmInt32Constant(0), WasmInt32Subtype.INT8);
             }
-            case "canShrinkHeap": {
+            case "canShrinkHeap":
+            case "isParallelMarkEnabled": {
                 var expr = new WasmInt32Constant(0);
                 expr.setLocation(invocation.getLocation());
                 return expr;
             }
+            case "markParallel":
+                return new WasmUnreachable();
+            case "pauseBudget": {
+                var expr = new WasmInt32Constant(pauseBudget);
+                expr.setLocation(invocation.getLocation());
+                return expr;
+            }
+            case "pauseClock": {
+                WasmExpression expr = pauseBudget > 0
+                        ? new WasmCall(manager.getFunctions().forStaticMethod(NANO_TIME))
+                        : new WasmInt64Constant(0);
+                expr.setLocation(invocation.getLocation());
+                return expr;
+            }
+            case "allocationSamplingInterval": {
+                var expr = new WasmInt32Constant(allocationSamplingInterval);
+                expr.setLocation(invocation.getLocation());
+                return expr;
+            }
 
             default:
                 throw new IllegalArgumentException(invocation.getMethod().toString());
@@ -18,6 +18,8 @@ package org.teavm.backend.wasm.model;
 public class WasmTag extends WasmEntity {
     private WasmFunctionType type;
     private String exportName;
+    private String importName;
+    private String importModule;
 
     public WasmTag(WasmFunctionType type) {
         this.type = type;
@@ -35,7 +37,34 @@ public class WasmTag extends WasmEntity {
         this.exportName = exportName;
     }
 
+    public String getImportName() {
+        return importName;
+    }
+
+    public void setImportName(String importName) {
+        this.importName = importName;
+        if (collection != null) {
+            collection.invalidateIndexes();
+        }
+    }
+
+    public String getImportModule() {
+        return importModule;
+    }
+
+    public void setImportModule(String importModule) {
+        this.importModule = importModule;
+    }
+
+    @Override
+    boolean isImported() {
+        return importName != null;
+    }
+
     public int getIndex() {
+        if (collection != null) {
+            collection.ensureIndexes();
+        }
         return index;
     }
 }
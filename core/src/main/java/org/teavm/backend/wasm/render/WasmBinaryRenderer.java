@@ -31,6 +31,7 @@ import org.teavm.backend.wasm.model.WasmGlobal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
 import org.teavm.backend.wasm.model.WasmStructure;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 
 public class WasmBinaryRenderer {
@@ -160,13 +161,21 @@ public class WasmBinaryRenderer {
             globals.add(global);
         }
 
-        if (functions.isEmpty() && globals.isEmpty() && module.memoryImportName == null) {
+        var tags = new ArrayList<WasmTag>();
+        for (var tag : module.tags) {
+            if (tag.getImportName() == null) {
+                continue;
+            }
+            tags.add(tag);
+        }
+
+        if (functions.isEmpty() && globals.isEmpty() && tags.isEmpty() && module.memoryImportName == null) {
             return;
         }
 
         WasmBinaryWriter section = new WasmBinaryWriter();
 
-        var total = functions.size() + globals.size();
+        var total = functions.size() + globals.size() + tags.size();
         if (module.memoryImportName != null) {
             ++total;
         }
@@ -214,6 +223,17 @@ public class WasmBinaryRenderer {
             section.writeType(global.getType(), module);
             section.writeByte(global.isImmutable() ? 0 : 1);
         }
+        for (var tag : tags) {
+            var moduleName = tag.getImportModule();
+            if (moduleName == null) {
+                moduleName = "";
+            }
+            section.writeAsciiString(moduleName);
+            section.writeAsciiString(tag.getImportName());
+            section.writeByte(EXTERNAL_KIND_TAG);
+            section.writeByte(0);
+            section.writeLEB(module.types.indexOf(tag.getType()));
+        }
 
         writeSection(SECTION_IMPORT, "import", section.getData());
     }
@@ -535,13 +555,16 @@ public class WasmBinaryRenderer {
     }
 
     private void renderTags(WasmModule module) {
-        if (module.tags.isEmpty()) {
+        var tags = module.tags.stream()
+                .filter(tag -> tag.getImportName() == null)
+                .collect(Collectors.toList());
+        if (tags.isEmpty()) {
             return;
         }
 
         var section = new WasmBinaryWriter();
-        section.writeLEB(module.tags.size());
-        for (var tag : module.tags) {
+        section.writeLEB(tags.size());
+        for (var tag : tags) {
             section.writeByte(0);
             section.writeLEB(module.types.indexOf(tag.getType()));
         }
@@ -15,12 +15,12 @@
  */
 package org.teavm.backend.wasm.render;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.teavm.backend.wasm.debug.DebugLines;
@@ -101,7 +101,7 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
     private DebugLines debugLines;
     private int addressOffset;
     private int depth;
-    private Map<WasmBlock, Integer> blockDepths = new HashMap<>();
+    private ObjectIntMap<WasmBlock> blockDepths = new ObjectIntHashMap<>();
     private List<InliningInfo> methodStack = new ArrayList<>();
     private List<InliningInfo> currentMethodStack = new ArrayList<>();
     private TextLocation textLocationToEmit;
@@ -61,6 +61,13 @@ public class WasiSupport {
         return result.value / 1000000;
     }
 
+    @Unmanaged
+    public static long nanoTime() {
+        LongResult result = WasiBuffer.getBuffer().toStructure();
+        Wasi.clockTimeGet(Wasi.CLOCKID_MONOTONIC, 1, result);
+        return result.value;
+    }
+
     @Unmanaged
     public static void printString(String s) {
         int charsInChunk = 128;
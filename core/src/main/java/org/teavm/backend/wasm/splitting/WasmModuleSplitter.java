@@ -0,0 +1,572 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.splitting;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.teavm.backend.wasm.WasmFunctionTypes;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmGlobal;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmStructure;
+import org.teavm.backend.wasm.model.WasmTag;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCallReference;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmGetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmIsNull;
+import org.teavm.backend.wasm.model.expression.WasmNullConstant;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmStructNew;
+import org.teavm.backend.wasm.model.expression.WasmStructNewDefault;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Moves functions that are only needed by split point actions out of a module into secondary modules,
+ * which can be instantiated later, when an action is run for the first time.</p>
+ *
+ * <p>Every root is a function that implements an action. Functions that are reachable from a single root
+ * and are not needed by the primary module go to the secondary module of this root. Functions that are
+ * needed by several roots stay in the primary module. Direct calls are always followed, while instance methods
+ * referenced from virtual tables are only followed when a part of the program instantiates their receiver,
+ * since nobody else can call them. References to roots are never followed, roots are only entered through
+ * stubs that load their modules asynchronously.</p>
+ *
+ * <p>The primary module refers to functions of secondary modules through stubs that call a function stored
+ * in a global. A secondary module imports everything it needs from the primary module and fills these
+ * globals from its start function. Types are shared by declaring the same type section in every module,
+ * which is up to the caller.</p>
+ */
+public class WasmModuleSplitter {
+    public static final String PRIMARY_MODULE = "teavm.primary";
+    public static final String EXPORT_PREFIX = "teavm.split.";
+    public static final String SLOT_EXPORT_PREFIX = EXPORT_PREFIX + "slot";
+    private static final int MAIN = 0;
+
+    private WasmModule module;
+    private WasmFunctionTypes functionTypes;
+    private List<WasmFunction> roots = new ArrayList<>();
+    private Set<WasmFunction> rootSet = new HashSet<>();
+    private Map<WasmFunction, WasmStructure> receivers = new HashMap<>();
+    private Map<WasmStructure, List<WasmFunction>> virtualMethodsByReceiver = new HashMap<>();
+    private Map<WasmFunction, FunctionInfo> infos = new HashMap<>();
+    private FunctionInfo globalsInfo;
+    private ObjectIntMap<WasmFunction> owners = new ObjectIntHashMap<>();
+    private List<Part> parts = new ArrayList<>();
+    private Map<WasmFunction, Stub> stubs = new HashMap<>();
+    private WasmFunction loadFunction;
+    private int exportIndex;
+
+    public WasmModuleSplitter(WasmModule module, WasmFunctionTypes functionTypes) {
+        this.module = module;
+        this.functionTypes = functionTypes;
+    }
+
+    public void addRoot(WasmFunction function) {
+        if (rootSet.add(function)) {
+            roots.add(function);
+        }
+    }
+
+    /**
+     * Tells that given function is an instance method that can be called on instances of given structure
+     * or its subtypes.
+     */
+    public void addVirtualMethod(WasmFunction function, WasmStructure receiver) {
+        receivers.put(function, receiver);
+    }
+
+    /**
+     * Splits the module. Functions of secondary modules are removed from the original module,
+     * stubs and exports are added instead.
+     *
+     * @return secondary modules, the module of {@code i}-th element is referred as {@code i + 1} by
+     * the loader.
+     */
+    public List<WasmModule> split() {
+        collectInfo();
+        partition();
+        if (parts.isEmpty()) {
+            return List.of();
+        }
+
+        for (var function : module.functions) {
+            var owner = owner(function);
+            if (owner != MAIN) {
+                parts.get(owner - 1).functions.add(function);
+            }
+        }
+        module.functions.removeIf(function -> owner(function) != MAIN);
+        for (var part : parts) {
+            for (var function : part.functions) {
+                part.module.functions.add(function);
+            }
+        }
+
+        var primaryRewriter = new Rewriter(null);
+        for (var function : module.functions.stream().toArray(WasmFunction[]::new)) {
+            primaryRewriter.rewrite(function.getBody());
+        }
+        for (var global : module.globals) {
+            if (global.getInitialValue() != null) {
+                global.getInitialValue().acceptVisitor(primaryRewriter);
+            }
+        }
+        for (var part : parts) {
+            var rewriter = new Rewriter(part);
+            for (var function : part.functions) {
+                rewriter.rewrite(function.getBody());
+            }
+        }
+
+        var result = new ArrayList<WasmModule>();
+        for (var part : parts) {
+            createInitializer(part);
+            part.module.memoryExportName = null;
+            part.module.memoryImportModule = PRIMARY_MODULE;
+            part.module.memoryImportName = module.memoryExportName;
+            part.module.setMinMemorySize(module.getMinMemorySize());
+            part.module.setMaxMemorySize(module.getMaxMemorySize());
+            result.add(part.module);
+        }
+        return result;
+    }
+
+    private void collectInfo() {
+        var collector = new InfoCollector();
+        for (var function : module.functions) {
+            collector.info = new FunctionInfo();
+            for (var part : function.getBody()) {
+                part.acceptVisitor(collector);
+            }
+            infos.put(function, collector.info);
+        }
+        collector.info = new FunctionInfo();
+        for (var global : module.globals) {
+            if (global.getInitialValue() != null) {
+                global.getInitialValue().acceptVisitor(collector);
+            }
+        }
+        globalsInfo = collector.info;
+
+        var referenced = new LinkedHashSet<WasmFunction>(globalsInfo.references);
+        for (var info : infos.values()) {
+            referenced.addAll(info.references);
+        }
+        for (var function : referenced) {
+            var receiver = receivers.get(function);
+            if (receiver != null && !rootSet.contains(function)) {
+                virtualMethodsByReceiver.computeIfAbsent(receiver, k -> new ArrayList<>()).add(function);
+            }
+        }
+    }
+
+    private void partition() {
+        var mainRoots = new ArrayList<WasmFunction>();
+        for (var function : module.functions) {
+            if (function.getExportName() != null || function.getImportName() != null) {
+                mainRoots.add(function);
+            }
+        }
+        mainRoots.addAll(module.getFunctionTable());
+        if (module.getStartFunction() != null) {
+            mainRoots.add(module.getStartFunction());
+        }
+
+        // Moving shared functions to the primary module may instantiate more classes there, which in turn
+        // requires more methods in the primary module, so repeat until nothing is shared
+        var hoisted = new LinkedHashSet<WasmFunction>();
+        while (true) {
+            var start = new ArrayList<>(mainRoots);
+            start.addAll(hoisted);
+            var main = reach(start, globalsInfo, Set.of());
+
+            var candidates = new ArrayList<Set<WasmFunction>>();
+            var reachedBy = new HashMap<WasmFunction, Set<WasmFunction>>();
+            var shared = new LinkedHashSet<WasmFunction>();
+            for (var root : roots) {
+                if (main.contains(root)) {
+                    continue;
+                }
+                var reached = reach(List.of(root), null, main);
+                for (var function : reached) {
+                    var previous = reachedBy.putIfAbsent(function, reached);
+                    if (previous != null) {
+                        shared.add(function);
+                    }
+                }
+                candidates.add(reached);
+            }
+
+            if (shared.isEmpty()) {
+                for (var candidate : candidates) {
+                    var part = new Part(parts.size() + 1);
+                    parts.add(part);
+                    for (var function : candidate) {
+                        owners.put(function, part.index);
+                    }
+                }
+                break;
+            }
+            hoisted.addAll(shared);
+        }
+    }
+
+    private Set<WasmFunction> reach(Collection<WasmFunction> start, FunctionInfo additionalInfo,
+            Set<WasmFunction> excluded) {
+        var reachability = new Reachability(excluded);
+        for (var function : start) {
+            reachability.add(function);
+        }
+        if (additionalInfo != null) {
+            reachability.process(additionalInfo);
+        }
+        reachability.run();
+        return reachability.reached;
+    }
+
+    private int owner(WasmFunction function) {
+        return owners.getOrDefault(function, MAIN);
+    }
+
+    private WasmFunction map(Part part, WasmFunction function) {
+        var owner = owner(function);
+        if (part == null) {
+            return owner == MAIN ? function : stub(function).function;
+        }
+        if (owner == part.index) {
+            return function;
+        }
+        return importFunction(part, owner == MAIN ? function : stub(function).function);
+    }
+
+    private Stub stub(WasmFunction function) {
+        var stub = stubs.get(function);
+        if (stub == null) {
+            var part = parts.get(owner(function) - 1);
+            var type = function.getType();
+            var slotIndex = stubs.size();
+            var slot = new WasmGlobal(function.getName() != null ? function.getName() + "@slot" : null,
+                    type.getReference(), new WasmNullConstant(type.getReference()));
+            slot.setExportName(SLOT_EXPORT_PREFIX + slotIndex);
+            module.globals.add(slot);
+
+            var stubFunction = new WasmFunction(type);
+            stubFunction.setName(function.getName() != null ? function.getName() + "@stub" : null);
+            var parameters = new ArrayList<WasmLocal>();
+            for (var parameterType : type.getParameterTypes()) {
+                var parameter = new WasmLocal(parameterType);
+                stubFunction.add(parameter);
+                parameters.add(parameter);
+            }
+            if (rootSet.contains(function)) {
+                var notLoaded = new WasmConditional(new WasmIsNull(new WasmGetGlobal(slot)));
+                notLoaded.getThenBlock().getBody().add(new WasmCall(loadFunction(), new WasmInt32Constant(part.index),
+                        new WasmInt32Constant(slotIndex), new WasmGetLocal(parameters.get(0))));
+                notLoaded.getThenBlock().getBody().add(new WasmReturn());
+                stubFunction.getBody().add(notLoaded);
+            }
+            var call = new WasmCallReference(new WasmGetGlobal(slot), type);
+            for (var parameter : parameters) {
+                call.getArguments().add(new WasmGetLocal(parameter));
+            }
+            stubFunction.getBody().add(call);
+            module.functions.add(stubFunction);
+
+            stub = new Stub(function, stubFunction, slot);
+            stubs.put(function, stub);
+            part.stubs.add(stub);
+        }
+        return stub;
+    }
+
+    private WasmFunction loadFunction() {
+        if (loadFunction == null) {
+            loadFunction = new WasmFunction(functionTypes.of(null, WasmType.INT32, WasmType.INT32,
+                    WasmType.Reference.ANY));
+            loadFunction.setName("teavm.runInSplitModule");
+            loadFunction.setImportModule("teavm");
+            loadFunction.setImportName("runInSplitModule");
+            module.functions.add(loadFunction);
+        }
+        return loadFunction;
+    }
+
+    private WasmFunction importFunction(Part part, WasmFunction function) {
+        return part.functionImports.computeIfAbsent(function, f -> {
+            var proxy = new WasmFunction(f.getType());
+            proxy.setName(f.getName());
+            if (f.getImportName() != null) {
+                proxy.setImportModule(f.getImportModule());
+                proxy.setImportName(f.getImportName());
+            } else {
+                if (f.getExportName() == null) {
+                    f.setExportName(nextExportName());
+                }
+                proxy.setImportModule(PRIMARY_MODULE);
+                proxy.setImportName(f.getExportName());
+            }
+            part.module.functions.add(proxy);
+            return proxy;
+        });
+    }
+
+    private WasmGlobal importGlobal(Part part, WasmGlobal global) {
+        return part.globalImports.computeIfAbsent(global, g -> {
+            var proxy = new WasmGlobal(g.getName(), g.getType(), null);
+            proxy.setImmutable(g.isImmutable());
+            if (g.getImportName() != null) {
+                proxy.setImportModule(g.getImportModule());
+                proxy.setImportName(g.getImportName());
+            } else {
+                if (g.getExportName() == null) {
+                    g.setExportName(nextExportName());
+                }
+                proxy.setImportModule(PRIMARY_MODULE);
+                proxy.setImportName(g.getExportName());
+            }
+            part.module.globals.add(proxy);
+            return proxy;
+        });
+    }
+
+    private WasmTag importTag(Part part, WasmTag tag) {
+        return part.tagImports.computeIfAbsent(tag, t -> {
+            var proxy = new WasmTag(t.getType());
+            if (t.getImportName() != null) {
+                proxy.setImportModule(t.getImportModule());
+                proxy.setImportName(t.getImportName());
+            } else {
+                if (t.getExportName() == null) {
+                    t.setExportName(nextExportName());
+                }
+                proxy.setImportModule(PRIMARY_MODULE);
+                proxy.setImportName(t.getExportName());
+            }
+            part.module.tags.add(proxy);
+            return proxy;
+        });
+    }
+
+    private String nextExportName() {
+        return EXPORT_PREFIX + exportIndex++;
+    }
+
+    private void createInitializer(Part part) {
+        var initializer = new WasmFunction(functionTypes.of(null));
+        initializer.setName("teavm@splitInitializer");
+        for (var stub : part.stubs) {
+            stub.target.setReferenced(true);
+            initializer.getBody().add(new WasmSetGlobal(importGlobal(part, stub.slot),
+                    new WasmFunctionReference(stub.target)));
+        }
+        part.module.functions.add(initializer);
+        part.module.setStartFunction(initializer);
+    }
+
+    private class Reachability {
+        final Set<WasmFunction> excluded;
+        final Set<WasmFunction> reached = new LinkedHashSet<>();
+        final Set<WasmStructure> instantiated = new HashSet<>();
+        final Queue<WasmFunction> queue = new ArrayDeque<>();
+
+        Reachability(Set<WasmFunction> excluded) {
+            this.excluded = excluded;
+        }
+
+        void add(WasmFunction function) {
+            if (!excluded.contains(function) && reached.add(function)) {
+                queue.add(function);
+            }
+        }
+
+        void run() {
+            while (!queue.isEmpty()) {
+                var info = infos.get(queue.remove());
+                if (info != null) {
+                    process(info);
+                }
+            }
+        }
+
+        void process(FunctionInfo info) {
+            for (var function : info.calls) {
+                add(function);
+            }
+            for (var function : info.references) {
+                if (!rootSet.contains(function) && !receivers.containsKey(function)) {
+                    add(function);
+                }
+            }
+            for (var type : info.allocations) {
+                instantiate(type);
+            }
+        }
+
+        void instantiate(WasmStructure type) {
+            while (type != null && instantiated.add(type)) {
+                for (var method : virtualMethodsByReceiver.getOrDefault(type, List.of())) {
+                    add(method);
+                }
+                type = type.getSupertype();
+            }
+        }
+    }
+
+    private class Rewriter extends WasmDefaultExpressionVisitor {
+        private Part part;
+
+        Rewriter(Part part) {
+            this.part = part;
+        }
+
+        void rewrite(List<WasmExpression> body) {
+            for (var expression : body) {
+                expression.acceptVisitor(this);
+            }
+        }
+
+        @Override
+        public void visit(WasmCall expression) {
+            super.visit(expression);
+            expression.setFunction(map(part, expression.getFunction()));
+        }
+
+        @Override
+        public void visit(WasmFunctionReference expression) {
+            super.visit(expression);
+            var function = map(part, expression.getFunction());
+            if (function != expression.getFunction()) {
+                function.setReferenced(true);
+                expression.setFunction(function);
+            }
+        }
+
+        @Override
+        public void visit(WasmGetGlobal expression) {
+            super.visit(expression);
+            if (part != null) {
+                expression.setGlobal(importGlobal(part, expression.getGlobal()));
+            }
+        }
+
+        @Override
+        public void visit(WasmSetGlobal expression) {
+            super.visit(expression);
+            if (part != null) {
+                expression.setGlobal(importGlobal(part, expression.getGlobal()));
+            }
+        }
+
+        @Override
+        public void visit(WasmThrow expression) {
+            super.visit(expression);
+            if (part != null) {
+                expression.setTag(importTag(part, expression.getTag()));
+            }
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            if (part != null) {
+                for (var catchClause : expression.getCatches()) {
+                    catchClause.setTag(importTag(part, catchClause.getTag()));
+                }
+            }
+        }
+    }
+
+    private static class InfoCollector extends WasmDefaultExpressionVisitor {
+        FunctionInfo info;
+
+        @Override
+        public void visit(WasmCall expression) {
+            super.visit(expression);
+            info.calls.add(expression.getFunction());
+        }
+
+        @Override
+        public void visit(WasmFunctionReference expression) {
+            super.visit(expression);
+            info.references.add(expression.getFunction());
+        }
+
+        @Override
+        public void visit(WasmStructNew expression) {
+            super.visit(expression);
+            info.allocations.add(expression.getType());
+        }
+
+        @Override
+        public void visit(WasmStructNewDefault expression) {
+            super.visit(expression);
+            info.allocations.add(expression.getType());
+        }
+    }
+
+    private static class FunctionInfo {
+        final Set<WasmFunction> calls = new LinkedHashSet<>();
+        final Set<WasmFunction> references = new LinkedHashSet<>();
+        final Set<WasmStructure> allocations = new LinkedHashSet<>();
+    }
+
+    private static class Part {
+        final int index;
+        final WasmModule module = new WasmModule();
+        final List<WasmFunction> functions = new ArrayList<>();
+        final List<Stub> stubs = new ArrayList<>();
+        final Map<WasmFunction, WasmFunction> functionImports = new LinkedHashMap<>();
+        final Map<WasmGlobal, WasmGlobal> globalImports = new LinkedHashMap<>();
+        final Map<WasmTag, WasmTag> tagImports = new LinkedHashMap<>();
+
+        Part(int index) {
+            this.index = index;
+        }
+    }
+
+    private static class Stub {
+        final WasmFunction target;
+        final WasmFunction function;
+        final WasmGlobal slot;
+
+        Stub(WasmFunction target, WasmFunction function, WasmGlobal slot) {
+            this.target = target;
+            this.function = function;
+            this.slot = slot;
+        }
+    }
+}
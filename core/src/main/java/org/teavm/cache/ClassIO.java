@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.teavm.model.AccessLevel;
 import org.teavm.model.AnnotationContainerReader;
 import org.teavm.model.ClassReader;
@@ -34,10 +35,12 @@ import org.teavm.model.FieldReader;
 import org.teavm.model.FieldReference;
 import org.teavm.model.MethodDescriptor;
 import org.teavm.model.MethodReader;
+import org.teavm.model.ProgramReader;
 import org.teavm.model.ReferenceCache;
 import org.teavm.model.ValueType;
 
 public class ClassIO {
+    private static final int FORMAT = 0x54_56_01;
     private static AccessLevel[] accessLevels = AccessLevel.values();
     private static ElementModifier[] elementModifiers = ElementModifier.values();
     private ReferenceCache referenceCache;
@@ -53,8 +56,14 @@ public class ClassIO {
         annotationIO = new AnnotationIO(referenceCache, symbolTable);
     }
 
+    /**
+     * Writes class in the following format: first go class header and descriptions of members,
+     * where each method only specifies length of its body, then go method bodies, one after another.
+     * This allows reader to skip bodies quickly and to decode each of them independently on demand.
+     */
     public void writeClass(OutputStream stream, ClassReader cls) throws IOException {
         VarDataOutput output = new VarDataOutput(stream);
+        output.writeUnsigned(FORMAT);
         output.writeUnsigned(cls.getLevel().ordinal());
         output.writeUnsigned(packModifiers(cls.readModifiers()));
         output.writeUnsigned(cls.getParent() != null ? symbolTable.lookup(cls.getParent()) + 1 : 0);
@@ -72,17 +81,32 @@ public class ClassIO {
             writeField(output, field);
         }
         output.writeUnsigned(cls.getMethods().size());
+        ByteArrayOutputStream programs = new ByteArrayOutputStream();
         for (MethodReader method : cls.getMethods()) {
-            writeMethod(output, method);
+            writeMethod(output, method, programs);
         }
         output.writeUnsigned(cls.getInnerClasses().size());
         for (var innerClass : cls.getInnerClasses()) {
             output.writeUnsigned(symbolTable.lookup(innerClass));
         }
+        programs.writeTo(stream);
     }
 
     public ClassReader readClass(InputStream stream, String name) throws IOException {
+        return readClass(stream.readAllBytes(), name);
+    }
+
+    /**
+     * Reads class from data written by {@link #writeClass(OutputStream, ClassReader)}. Method bodies
+     * are not decoded here, instead, each method refers to its part of {@code data} and decodes it
+     * when its program is requested.
+     */
+    public ClassReader readClass(byte[] data, String name) throws IOException {
+        ByteArrayInputStream stream = new ByteArrayInputStream(data);
         VarDataInput input = new VarDataInput(stream);
+        if (input.readUnsigned() != FORMAT) {
+            throw new IOException("Unsupported format of cached class " + name);
+        }
         CachedClassReader cls = new CachedClassReader();
         cls.name = name;
         cls.level = accessLevels[input.readUnsigned()];
@@ -114,9 +138,11 @@ public class ClassIO {
 
         Map<MethodDescriptor, CachedMethod> methods = new LinkedHashMap<>();
         int methodCount = input.readUnsigned();
+        int[] programLengths = new int[methodCount];
         for (int i = 0; i < methodCount; ++i) {
             CachedMethod method = readMethod(cls.name, input);
             methods.put(method.reference.getDescriptor(), method);
+            programLengths[i] = input.readUnsigned();
         }
         cls.methods = methods;
 
@@ -125,9 +151,34 @@ public class ClassIO {
             cls.innerClasses.add(symbolTable.at(input.readUnsigned()));
         }
 
+        int offset = data.length - stream.available();
+        int index = 0;
+        for (CachedMethod method : methods.values()) {
+            int length = programLengths[index++];
+            if (length == 0) {
+                continue;
+            }
+            length--;
+            if (length > data.length - offset) {
+                throw new IOException("Unexpected end of cached class " + name);
+            }
+            method.programSupplier = createProgramSupplier(data, offset, length);
+            offset += length;
+        }
+
         return cls;
     }
 
+    private Supplier<ProgramReader> createProgramSupplier(byte[] data, int offset, int length) {
+        return () -> {
+            try {
+                return programIO.read(new ByteArrayInputStream(data, offset, length));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
     private void writeField(VarDataOutput output, FieldReader field) throws IOException {
         output.writeUnsigned(symbolTable.lookup(field.getName()));
         output.writeUnsigned(symbolTable.lookup(field.getType().toString()));
@@ -191,7 +242,8 @@ public class ClassIO {
         }
     }
 
-    private void writeMethod(VarDataOutput output, MethodReader method) throws IOException {
+    private void writeMethod(VarDataOutput output, MethodReader method, ByteArrayOutputStream programs)
+            throws IOException {
         output.writeUnsigned(symbolTable.lookup(method.getDescriptor().toString()));
         output.writeUnsigned(method.getLevel().ordinal());
         output.writeUnsigned(packModifiers(method.readModifiers()));
@@ -209,11 +261,9 @@ public class ClassIO {
         }
 
         if (method.getProgram() != null) {
-            output.writeUnsigned(1);
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            VarDataOutput programOutput = new VarDataOutput(buffer);
-            programIO.write(method.getProgram(), programOutput);
-            output.writeBytes(buffer.toByteArray());
+            int start = programs.size();
+            programIO.write(method.getProgram(), new VarDataOutput(programs));
+            output.writeUnsigned(programs.size() - start + 1);
         } else {
             output.writeUnsigned(0);
         }
@@ -238,18 +288,6 @@ public class ClassIO {
         if (input.readUnsigned() != 0) {
             method.annotationDefault = annotationIO.readAnnotationValue(input);
         }
-
-        if (input.readUnsigned() != 0) {
-            byte[] programData = input.readBytes();
-            method.programSupplier = () -> {
-                VarDataInput programInput = new VarDataInput(new ByteArrayInputStream(programData));
-                try {
-                    return programIO.read(programInput);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            };
-        }
         return method;
     }
 
@@ -15,14 +15,12 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -34,6 +32,7 @@ import org.teavm.model.ClassReaderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.ClassDateProvider;
+import org.teavm.parsing.ClassDigestProvider;
 
 public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus {
     private File directory;
@@ -42,6 +41,9 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
     private Map<String, Item> cache = new LinkedHashMap<>();
     private Set<String> newClasses = new HashSet<>();
     private ClassIO classIO;
+    private SharedClassCache sharedCache;
+    private ClassDigestProvider classDigestProvider;
+    private Map<String, String> newSharedClasses = new LinkedHashMap<>();
 
     public DiskCachedClassReaderSource(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
@@ -52,6 +54,15 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
+    /**
+     * Sets cache which is consulted for classes missing in this cache. Unlike this cache, shared cache
+     * identifies classes by digests of their contents, so it can be shared by different projects.
+     */
+    public void setSharedCache(SharedClassCache sharedCache, ClassDigestProvider classDigestProvider) {
+        this.sharedCache = sharedCache;
+        this.classDigestProvider = classDigestProvider;
+    }
+
     @Override
     public ClassReader get(String name) {
         return getItemFromCache(name).cls;
@@ -76,8 +87,8 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
             if (classFile.exists()) {
                 Date classDate = classDateProvider.getModificationDate(name);
                 if (classDate != null && classDate.before(new Date(classFile.lastModified()))) {
-                    try (InputStream input = new BufferedInputStream(new FileInputStream(classFile))) {
-                        item.cls = classIO.readClass(input, name);
+                    try {
+                        item.cls = classIO.readClass(Files.readAllBytes(classFile.toPath()), name);
                     } catch (IOException e) {
                         // We could not access cache file, so let's parse class file
                         item.cls = null;
@@ -86,13 +97,28 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
             }
             if (item.cls == null) {
                 item.dirty = true;
-                item.cls = innerSource.get(name);
+                item.cls = getFromSharedCache(name);
                 newClasses.add(name);
             }
         }
         return item;
     }
 
+    private ClassReader getFromSharedCache(String name) {
+        var digest = sharedCache != null ? classDigestProvider.getDigest(name) : null;
+        if (digest == null) {
+            return innerSource.get(name);
+        }
+        var cls = sharedCache.get(digest, name);
+        if (cls == null) {
+            cls = innerSource.get(name);
+            if (cls != null && !sharedCache.isReadOnly()) {
+                newSharedClasses.put(digest, name);
+            }
+        }
+        return cls;
+    }
+
     private static class Item {
         ClassReader cls;
         boolean dirty;
@@ -109,5 +135,9 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
                 }
             }
         }
+        for (var entry : newSharedClasses.entrySet()) {
+            sharedCache.store(entry.getKey(), cache.get(entry.getValue()).cls);
+        }
+        newSharedClasses.clear();
     }
 }
@@ -15,17 +15,11 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Supplier;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
@@ -35,15 +29,18 @@ import org.teavm.model.ReferenceCache;
 
 public class DiskMethodNodeCache implements MethodNodeCache {
     private final File directory;
+    private final IndexedCacheStorage storage;
+    private final IndexedCacheStorage asyncStorage;
     private final AstIO astIO;
     private final Map<MethodReference, Item> cache = new HashMap<>();
     private final Map<MethodReference, AsyncItem> asyncCache = new HashMap<>();
-    private final Set<MethodReference> newMethods = new HashSet<>();
-    private final Set<MethodReference> newAsyncMethods = new HashSet<>();
+    private boolean legacyFilesDeleted;
 
     public DiskMethodNodeCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
         this.directory = directory;
+        storage = new IndexedCacheStorage(directory, "ast");
+        asyncStorage = new IndexedCacheStorage(directory, "ast-async");
         astIO = new AstIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -53,17 +50,21 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new Item();
             cache.put(methodReference, item);
-            File file = getMethodFile(methodReference, false);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            String key = methodReference.toString();
+            InputStream stream = storage.get(key);
+            if (stream != null) {
+                try {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         RegularMethodNode node = astIO.read(input, methodReference);
                         ControlFlowEntry[] cfg = astIO.readControlFlow(input);
                         item.entry = new AstCacheEntry(node, cfg);
+                    } else {
+                        storage.invalidate(key);
                     }
                 } catch (IOException e) {
                     // we could not read program, just leave it empty
+                    storage.invalidate(key);
                 }
             }
         }
@@ -76,7 +77,12 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         item.entry = entry;
         item.dependencies = dependencies.get().clone();
         cache.put(methodReference, item);
-        newMethods.add(methodReference);
+        storage.put(methodReference.toString(), output -> {
+            VarDataOutput data = new VarDataOutput(output);
+            writeDependencies(data, item.dependencies);
+            astIO.write(data, item.entry.method);
+            astIO.write(data, item.entry.cfg);
+        });
     }
 
     @Override
@@ -85,15 +91,19 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new AsyncItem();
             asyncCache.put(methodReference, item);
-            File file = getMethodFile(methodReference, true);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            String key = methodReference.toString();
+            InputStream stream = asyncStorage.get(key);
+            if (stream != null) {
+                try {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         item.node = astIO.readAsync(input, methodReference);
+                    } else {
+                        asyncStorage.invalidate(key);
                     }
                 } catch (IOException e) {
                     // we could not read program, just leave it empty
+                    asyncStorage.invalidate(key);
                 }
             }
         }
@@ -111,45 +121,33 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         return false;
     }
 
+    private static void writeDependencies(VarDataOutput output, String[] dependencies) throws IOException {
+        output.writeUnsigned(dependencies.length);
+        for (String dependency : dependencies) {
+            output.write(dependency);
+        }
+    }
+
     @Override
     public void storeAsync(MethodReference methodReference, AsyncMethodNode node, Supplier<String[]> depenencies) {
         AsyncItem item = new AsyncItem();
         item.node = node;
         item.dependencies = depenencies.get().clone();
         asyncCache.put(methodReference, item);
-        newAsyncMethods.add(methodReference);
+        asyncStorage.put(methodReference.toString(), output -> {
+            VarDataOutput data = new VarDataOutput(output);
+            writeDependencies(data, item.dependencies);
+            astIO.writeAsync(data, item.node);
+        });
     }
 
     public void flush() throws IOException {
-        for (MethodReference method : newMethods) {
-            File file = getMethodFile(method, true);
-            Item item = cache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
-                output.writeUnsigned(item.dependencies.length);
-                for (String dependency : item.dependencies) {
-                    output.write(dependency);
-                }
-                astIO.write(output, item.entry.method);
-                astIO.write(output, item.entry.cfg);
-            }
+        if (!legacyFilesDeleted) {
+            legacyFilesDeleted = true;
+            LegacyCacheFiles.delete(directory, "ast.legacy-deleted", ".teavm-ast", ".teavm-ast-async");
         }
-        for (MethodReference method : newAsyncMethods) {
-            File file = getMethodFile(method, true);
-            AsyncItem item = asyncCache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
-                output.writeUnsigned(item.dependencies.length);
-                for (String dependency : item.dependencies) {
-                    output.write(dependency);
-                }
-                astIO.writeAsync(output, item.node);
-            }
-        }
-    }
-
-    private File getMethodFile(MethodReference method, boolean async) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-ast"
-                + (async ? "-async" : ""));
+        storage.flush();
+        asyncStorage.flush();
     }
 
     private static class Item {
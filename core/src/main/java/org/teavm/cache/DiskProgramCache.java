@@ -15,22 +15,15 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Supplier;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
@@ -39,13 +32,15 @@ import org.teavm.model.ReferenceCache;
 
 public class DiskProgramCache implements ProgramCache {
     private File directory;
+    private IndexedCacheStorage storage;
+    private boolean legacyFilesDeleted;
     private ProgramIO programIO;
     private Map<MethodReference, Item> cache = new HashMap<>();
-    private Set<MethodReference> newMethods = new HashSet<>();
 
     public DiskProgramCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
         this.directory = directory;
+        storage = new IndexedCacheStorage(directory, "programs");
         programIO = new ProgramIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -55,9 +50,10 @@ public class DiskProgramCache implements ProgramCache {
         if (item == null) {
             item = new Item();
             cache.put(method, item);
-            File file = getMethodFile(method);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            String key = method.toString();
+            InputStream stream = storage.get(key);
+            if (stream != null) {
+                try {
                     DataInput input = new DataInputStream(stream);
                     int depCount = input.readShort();
                     boolean dependenciesChanged = false;
@@ -70,9 +66,12 @@ public class DiskProgramCache implements ProgramCache {
                     }
                     if (!dependenciesChanged) {
                         item.program = programIO.read(stream);
+                    } else {
+                        storage.invalidate(key);
                     }
                 } catch (IOException e) {
                     // we could not read program, just leave it empty
+                    storage.invalidate(key);
                 }
             }
         }
@@ -85,30 +84,22 @@ public class DiskProgramCache implements ProgramCache {
         cache.put(method, item);
         item.program = program;
         item.dependencies = dependencies.get().clone();
-        newMethods.add(method);
+        storage.put(method.toString(), output -> {
+            DataOutput data = new DataOutputStream(output);
+            data.writeShort(item.dependencies.length);
+            for (String dep : item.dependencies) {
+                data.writeUTF(dep);
+            }
+            programIO.write(item.program, output);
+        });
     }
 
     public void flush() throws IOException {
-        for (MethodReference method : newMethods) {
-            Item item = cache.get(method);
-            File file = getMethodFile(method);
-            file.getParentFile().mkdirs();
-
-            try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-                DataOutput output = new DataOutputStream(stream);
-
-                output.writeShort(item.dependencies.length);
-                for (String dep : item.dependencies) {
-                    output.writeUTF(dep);
-                }
-                programIO.write(item.program, stream);
-            }
+        if (!legacyFilesDeleted) {
+            legacyFilesDeleted = true;
+            LegacyCacheFiles.delete(directory, "programs.legacy-deleted", ".teavm-opt");
         }
-    }
-
-    private File getMethodFile(MethodReference method) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-opt");
+        storage.flush();
     }
 
     static class Item {
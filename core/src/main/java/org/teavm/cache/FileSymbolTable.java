@@ -15,16 +15,16 @@
  */
 package org.teavm.cache;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.io.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class FileSymbolTable implements SymbolTable {
     private File file;
     private List<String> symbols = new ArrayList<>();
-    private Map<String, Integer> symbolMap = new HashMap<>();
+    private ObjectIntMap<String> symbolMap = new ObjectIntHashMap<>();
     private int firstUnstoredIndex;
 
     public FileSymbolTable(File file) {
@@ -79,8 +79,8 @@ public class FileSymbolTable implements SymbolTable {
 
     @Override
     public int lookup(String symbol) {
-        Integer index = symbolMap.get(symbol);
-        if (index == null) {
+        int index = symbolMap.getOrDefault(symbol, -1);
+        if (index < 0) {
             index = symbols.size();
             symbolMap.put(symbol, index);
             symbols.add(symbol);
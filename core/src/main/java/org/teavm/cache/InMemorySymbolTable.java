@@ -15,14 +15,14 @@
  */
 package org.teavm.cache;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemorySymbolTable implements SymbolTable {
     private List<String> symbols = new ArrayList<>();
-    private Map<String, Integer> indexes = new HashMap<>();
+    private ObjectIntMap<String> indexes = new ObjectIntHashMap<>();
 
     @Override
     public String at(int index) {
@@ -31,8 +31,8 @@ public class InMemorySymbolTable implements SymbolTable {
 
     @Override
     public int lookup(String symbol) {
-        Integer index = indexes.get(symbol);
-        if (index == null) {
+        int index = indexes.getOrDefault(symbol, -1);
+        if (index < 0) {
             index = symbols.size();
             symbols.add(symbol);
             indexes.put(symbol, index);
@@ -40,6 +40,10 @@ public class InMemorySymbolTable implements SymbolTable {
         return index;
     }
 
+    public int size() {
+        return symbols.size();
+    }
+
     public void invalidate() {
         symbols.clear();
         indexes.clear();
@@ -0,0 +1,381 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import com.carrotsearch.hppc.IntArrayList;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Stores cache entries by string keys in a few segment files instead of a file per entry.</p>
+ *
+ * <p>A segment consists of entry data followed by an index. Segments are memory-mapped when the storage is
+ * first accessed, only the indexes are parsed at that moment, while entry data is read when requested.
+ * On flush, new entries are written into a new segment, entries of newer segments take precedence over
+ * entries of older ones. When there are too many segments, or when most of their data is overridden
+ * or invalidated, all live entries are rewritten into a single segment and the old segments are deleted.</p>
+ *
+ * <p>Invalidated entries are recorded as tombstones in the index of the next segment, so that they don't
+ * come back from older segments when the storage is opened again.</p>
+ */
+class IndexedCacheStorage {
+    private static final int MAGIC = 0x5456_4D43;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 16;
+    private static final int MAX_SEGMENTS = 8;
+    private static final int TOMBSTONE_LENGTH = -1;
+    private static final String EXTENSION = ".teavm-cache";
+
+    private final File directory;
+    private final String name;
+    private List<File> segmentFiles;
+    private Map<String, Entry> entries;
+    private Map<String, EntryWriter> newEntries = new LinkedHashMap<>();
+    private Set<String> removedKeys = new HashSet<>();
+    private Set<String> newRemovedKeys = new LinkedHashSet<>();
+    private long liveBytes;
+    private long deadBytes;
+    private int nextSegmentIndex;
+
+    IndexedCacheStorage(File directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    InputStream get(String key) {
+        ensureLoaded();
+        var entry = entries.get(key);
+        return entry != null ? new ByteBufferInputStream(entry.data()) : null;
+    }
+
+    /**
+     * Marks entry as no longer valid. Invalidation is written to disk on next flush.
+     */
+    void invalidate(String key) {
+        ensureLoaded();
+        newEntries.remove(key);
+        var entry = entries.remove(key);
+        if (entry != null) {
+            liveBytes -= entry.length;
+            deadBytes += entry.length;
+            removedKeys.add(key);
+            newRemovedKeys.add(key);
+        }
+    }
+
+    void put(String key, EntryWriter writer) {
+        invalidate(key);
+        removedKeys.remove(key);
+        newRemovedKeys.remove(key);
+        newEntries.put(key, writer);
+    }
+
+    void flush() throws IOException {
+        ensureLoaded();
+        var compact = segmentFiles.size() >= MAX_SEGMENTS || deadBytes > liveBytes;
+        if (newEntries.isEmpty() && newRemovedKeys.isEmpty() && (!compact || deadBytes == 0)) {
+            return;
+        }
+
+        var oldFiles = List.copyOf(segmentFiles);
+        var retainedEntries = compact ? List.copyOf(entries.values()) : List.<Entry>of();
+        // Compacted segment repeats all known tombstones, since some of the old segments may survive deletion
+        var tombstones = List.copyOf(compact ? removedKeys : newRemovedKeys);
+        var file = writeSegment(retainedEntries, tombstones);
+        newEntries.clear();
+        newRemovedKeys.clear();
+        if (compact) {
+            var allDeleted = true;
+            for (var oldFile : oldFiles) {
+                // Deletion may fail on some platforms while segment is still mapped. This is harmless,
+                // as the new segment overrides all entries of old ones, so just try next time
+                if (oldFile.delete()) {
+                    segmentFiles.remove(oldFile);
+                } else {
+                    allDeleted = false;
+                }
+            }
+            if (allDeleted) {
+                removedKeys.clear();
+            }
+            deadBytes = 0;
+        }
+
+        // Re-read index of the segment to refer to mapped data instead of entry writers
+        var segment = readSegment(file);
+        segmentFiles.add(file);
+        for (var entry : segment) {
+            if (entry.isTombstone()) {
+                continue;
+            }
+            var previous = entries.put(entry.key, entry);
+            if (previous != null) {
+                liveBytes -= previous.length;
+                if (!compact) {
+                    deadBytes += previous.length;
+                }
+            }
+            liveBytes += entry.length;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (entries != null) {
+            return;
+        }
+        entries = new HashMap<>();
+        segmentFiles = new ArrayList<>();
+        var files = directory.listFiles((dir, fileName) -> fileName.startsWith(name + "-")
+                && fileName.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        var indexedFiles = new ArrayList<IndexedFile>();
+        for (var file : files) {
+            var indexString = file.getName().substring(name.length() + 1,
+                    file.getName().length() - EXTENSION.length());
+            try {
+                indexedFiles.add(new IndexedFile(Integer.parseInt(indexString), file));
+            } catch (NumberFormatException e) {
+                // not a segment file, ignore it
+            }
+        }
+        indexedFiles.sort(Comparator.comparingInt(f -> f.index));
+
+        for (var indexedFile : indexedFiles) {
+            segmentFiles.add(indexedFile.file);
+            nextSegmentIndex = Math.max(nextSegmentIndex, indexedFile.index + 1);
+            List<Entry> segment;
+            try {
+                segment = readSegment(indexedFile.file);
+            } catch (IOException e) {
+                // damaged segment, ignore its content, it will be deleted on next compaction
+                deadBytes += indexedFile.file.length();
+                continue;
+            }
+            for (var entry : segment) {
+                Entry previous;
+                if (entry.isTombstone()) {
+                    previous = entries.remove(entry.key);
+                    removedKeys.add(entry.key);
+                } else {
+                    previous = entries.put(entry.key, entry);
+                    removedKeys.remove(entry.key);
+                    liveBytes += entry.length;
+                }
+                if (previous != null) {
+                    liveBytes -= previous.length;
+                    deadBytes += previous.length;
+                }
+            }
+        }
+    }
+
+    private List<Entry> readSegment(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid cache segment size: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        var trailerOffset = buffer.capacity() - TRAILER_SIZE;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(trailerOffset + 12) != MAGIC) {
+            throw new IOException("Invalid cache segment: " + file);
+        }
+        var indexOffset = buffer.getLong(trailerOffset);
+        var count = buffer.getInt(trailerOffset + 8);
+        if (indexOffset < HEADER_SIZE || indexOffset > trailerOffset) {
+            throw new IOException("Invalid cache segment index: " + file);
+        }
+
+        var indexBuffer = buffer.duplicate();
+        indexBuffer.position((int) indexOffset);
+        indexBuffer.limit(trailerOffset);
+        var input = new DataInputStream(new ByteBufferInputStream(indexBuffer));
+        var result = new ArrayList<Entry>(count);
+        for (var i = 0; i < count; ++i) {
+            var key = input.readUTF();
+            var offset = input.readInt();
+            var length = input.readInt();
+            if (length == TOMBSTONE_LENGTH) {
+                result.add(new Entry(key, null, 0, length));
+                continue;
+            }
+            if (offset < HEADER_SIZE || length < 0 || offset + (long) length > indexOffset) {
+                throw new IOException("Invalid cache segment entry: " + file);
+            }
+            result.add(new Entry(key, buffer, offset, length));
+        }
+        return result;
+    }
+
+    private File writeSegment(List<Entry> retainedEntries, List<String> tombstones) throws IOException {
+        directory.mkdirs();
+        var file = new File(directory, name + "-" + nextSegmentIndex++ + EXTENSION);
+        var tmpFile = new File(directory, file.getName() + ".tmp");
+        var keys = new ArrayList<String>();
+        var offsets = new IntArrayList();
+        var lengths = new IntArrayList();
+        try (var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            var bytes = new byte[4096];
+            for (var entry : retainedEntries) {
+                keys.add(entry.key);
+                offsets.add(output.size());
+                lengths.add(entry.length);
+                var data = entry.data();
+                while (data.hasRemaining()) {
+                    var chunkSize = Math.min(bytes.length, data.remaining());
+                    data.get(bytes, 0, chunkSize);
+                    output.write(bytes, 0, chunkSize);
+                }
+            }
+            var buffer = new ByteArrayOutputStream();
+            for (var newEntry : newEntries.entrySet()) {
+                buffer.reset();
+                newEntry.getValue().write(buffer);
+                keys.add(newEntry.getKey());
+                offsets.add(output.size());
+                lengths.add(buffer.size());
+                buffer.writeTo(output);
+            }
+            for (var tombstone : tombstones) {
+                keys.add(tombstone);
+                offsets.add(0);
+                lengths.add(TOMBSTONE_LENGTH);
+            }
+
+            var indexOffset = output.size();
+            for (var i = 0; i < keys.size(); ++i) {
+                output.writeUTF(keys.get(i));
+                output.writeInt(offsets.get(i));
+                output.writeInt(lengths.get(i));
+            }
+            if (output.size() == Integer.MAX_VALUE) {
+                throw new IOException("Cache segment is too large: " + file);
+            }
+            output.writeLong(indexOffset);
+            output.writeInt(keys.size());
+            output.writeInt(MAGIC);
+        }
+
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    interface EntryWriter {
+        void write(OutputStream output) throws IOException;
+    }
+
+    private static class Entry {
+        final String key;
+        final ByteBuffer buffer;
+        final int offset;
+        final int length;
+
+        Entry(String key, ByteBuffer buffer, int offset, int length) {
+            this.key = key;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        boolean isTombstone() {
+            return buffer == null;
+        }
+
+        ByteBuffer data() {
+            var result = buffer.duplicate();
+            result.position(offset);
+            result.limit(offset + length);
+            return result;
+        }
+    }
+
+    private static class IndexedFile {
+        final int index;
+        final File file;
+
+        IndexedFile(int index, File file) {
+            this.index = index;
+            this.file = file;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
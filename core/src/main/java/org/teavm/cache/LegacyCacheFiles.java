@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Removes per-method files that were written by caches before they moved to {@link IndexedCacheStorage}.
+ * Once done, a marker file is written to cache directory, so that subsequent builds don't walk it again.
+ */
+final class LegacyCacheFiles {
+    private LegacyCacheFiles() {
+    }
+
+    static void delete(File directory, String markerName, String... extensions) throws IOException {
+        var marker = new File(directory, markerName);
+        if (marker.exists()) {
+            return;
+        }
+        deleteRecursively(directory, extensions);
+        directory.mkdirs();
+        marker.createNewFile();
+    }
+
+    private static void deleteRecursively(File directory, String... extensions) {
+        var files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (var file : files) {
+            if (file.isDirectory()) {
+                deleteRecursively(file, extensions);
+                var remaining = file.list();
+                if (remaining != null && remaining.length == 0) {
+                    file.delete();
+                }
+            } else {
+                for (var extension : extensions) {
+                    if (file.getName().endsWith(extension)) {
+                        file.delete();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -15,7 +15,6 @@
  */
 package org.teavm.cache;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collection;
@@ -67,9 +66,8 @@ public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheSt
 
         ClassReader cls = entry.reader;
         if (cls == null) {
-            ByteArrayInputStream input = new ByteArrayInputStream(entry.data);
             try {
-                cls = classIO.readClass(input, name);
+                cls = classIO.readClass(entry.data, name);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
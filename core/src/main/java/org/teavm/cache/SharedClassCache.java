@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * <p>Stores parsed classes by digests of their contents, so that a single cache directory can be shared
+ * between different projects, builds running in parallel, and even different machines.</p>
+ *
+ * <p>Each entry is self-contained, i.e. it has its own symbol tables, and is written to a temporary file
+ * which is then atomically moved to its place, so that readers never observe partially written entries.
+ * Checksum covers both symbol tables and class data. Any entry that can't be read, or that was written
+ * by another version of compiler, is treated as missing.</p>
+ */
+public class SharedClassCache {
+    private static final int MAGIC = 0x5456_4D53;
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".teavm-cls";
+    private static final String COMPILER_VERSION = getCompilerVersion();
+
+    private final File directory;
+    private final ReferenceCache referenceCache;
+    private final boolean readOnly;
+    private final String compilerVersion;
+
+    public SharedClassCache(File directory, ReferenceCache referenceCache, boolean readOnly) {
+        this(directory, referenceCache, readOnly, COMPILER_VERSION);
+    }
+
+    SharedClassCache(File directory, ReferenceCache referenceCache, boolean readOnly, String compilerVersion) {
+        this.directory = directory;
+        this.referenceCache = referenceCache;
+        this.readOnly = readOnly;
+        this.compilerVersion = compilerVersion;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public ClassReader get(String digest, String className) {
+        var file = getFile(digest);
+        if (!file.exists()) {
+            return null;
+        }
+        try (var stream = new BufferedInputStream(new FileInputStream(file))) {
+            var input = new VarDataInput(stream);
+            if (input.readUnsigned() != MAGIC || input.readUnsigned() != VERSION
+                    || !compilerVersion.equals(input.read()) || !className.equals(input.read())) {
+                return null;
+            }
+            var payload = input.readBytes();
+            var checksum = new CRC32();
+            checksum.update(payload);
+            if (input.readUnsignedLong() != checksum.getValue()) {
+                return null;
+            }
+            var payloadInput = new VarDataInput(new ByteArrayInputStream(payload));
+            var symbolTable = readSymbolTable(payloadInput);
+            var fileTable = readSymbolTable(payloadInput);
+            var variableTable = readSymbolTable(payloadInput);
+            var data = payloadInput.readBytes();
+            var classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
+            return classIO.readClass(data, className);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void store(String digest, ClassReader cls) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Shared class cache is read-only");
+        }
+        var file = getFile(digest);
+        if (file.exists()) {
+            return;
+        }
+
+        var symbolTable = new InMemorySymbolTable();
+        var fileTable = new InMemorySymbolTable();
+        var variableTable = new InMemorySymbolTable();
+        var buffer = new ByteArrayOutputStream();
+        new ClassIO(referenceCache, symbolTable, fileTable, variableTable).writeClass(buffer, cls);
+        var payloadBuffer = new ByteArrayOutputStream();
+        var payloadOutput = new VarDataOutput(payloadBuffer);
+        writeSymbolTable(payloadOutput, symbolTable);
+        writeSymbolTable(payloadOutput, fileTable);
+        writeSymbolTable(payloadOutput, variableTable);
+        payloadOutput.writeBytes(buffer.toByteArray());
+        var payload = payloadBuffer.toByteArray();
+        var checksum = new CRC32();
+        checksum.update(payload);
+
+        file.getParentFile().mkdirs();
+        var tmpFile = Files.createTempFile(file.getParentFile().toPath(), digest, ".tmp");
+        try {
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+                var output = new VarDataOutput(stream);
+                output.writeUnsigned(MAGIC);
+                output.writeUnsigned(VERSION);
+                output.write(compilerVersion);
+                output.write(cls.getName());
+                output.writeBytes(payload);
+                output.writeUnsigned(checksum.getValue());
+            }
+            try {
+                Files.move(tmpFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private File getFile(String digest) {
+        return new File(directory, digest.substring(0, 2) + "/" + digest + EXTENSION);
+    }
+
+    private static void writeSymbolTable(VarDataOutput output, InMemorySymbolTable table) throws IOException {
+        output.writeUnsigned(table.size());
+        for (var i = 0; i < table.size(); ++i) {
+            output.write(table.at(i));
+        }
+    }
+
+    private static SymbolTable readSymbolTable(VarDataInput input) throws IOException {
+        var table = new InMemorySymbolTable();
+        var size = input.readUnsigned();
+        for (var i = 0; i < size; ++i) {
+            table.lookup(input.read());
+        }
+        return table;
+    }
+
+    private static String getCompilerVersion() {
+        var version = SharedClassCache.class.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+        var codeSource = SharedClassCache.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null) {
+            try {
+                var location = new File(codeSource.getLocation().toURI());
+                return "dev-" + location.lastModified();
+            } catch (Exception e) {
+                // fall through
+            }
+        }
+        return "unknown";
+    }
+}
@@ -21,12 +21,14 @@ import com.carrotsearch.hppc.cursors.IntCursor;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +36,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import org.objectweb.asm.tree.ClassNode;
+import org.teavm.cache.CacheStatus;
 import org.teavm.cache.IncrementalDependencyProvider;
 import org.teavm.cache.IncrementalDependencyRegistration;
 import org.teavm.callgraph.CallGraph;
@@ -727,6 +730,103 @@ public abstract class DependencyAnalyzer implements DependencyInfo {
         }
     }
 
+    /**
+     * Captures reached methods and fields along with their types. Should be called after
+     * {@link #processDependencies()} and before {@link #cleanup(ClassSourcePacker)}.
+     */
+    public DependencySnapshot createSnapshot() {
+        var builder = new DependencySnapshot.Builder();
+        for (var methodRef : getReachableMethods()) {
+            var dep = getMethod(methodRef);
+            if (dep != null && !dep.isMissing()) {
+                builder.addMethod(dep);
+            }
+        }
+        for (var fieldRef : getReachableFields()) {
+            var dep = getField(fieldRef);
+            if (dep != null && !dep.isMissing()) {
+                builder.addField(dep);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * <p>Seeds analysis with the result of a previous build. Methods and fields of classes that are not stale
+     * are reached again right away, and types recorded for their nodes are propagated in bulk, instead of
+     * being discovered one by one from the entry point. Types of stale classes are not restored,
+     * they are propagated from the changed code as usual. Staleness is checked per class both for methods
+     * and fields, so that a class is either restored as a whole or analyzed from scratch.</p>
+     *
+     * <p>Should be called after entry points are set and before {@link #processDependencies()}.
+     * The result may include methods that stale classes no longer refer to.</p>
+     */
+    public void restoreSnapshot(DependencySnapshot snapshot, CacheStatus cacheStatus) {
+        var types = new DependencyType[snapshot.typeSets.size()][];
+        for (int i = 0; i < types.length; ++i) {
+            types[i] = restoreTypes(snapshot.typeSets.get(i), cacheStatus);
+        }
+        var restoredNodes = new IdentityHashMap<DependencyNode, BitSet>();
+
+        for (var entry : snapshot.methods.entrySet()) {
+            if (cacheStatus.isStaleClass(entry.getKey().getClassName())) {
+                continue;
+            }
+            var dep = linkMethod(entry.getKey());
+            if (dep.isMissing()) {
+                continue;
+            }
+            var methodEntry = entry.getValue();
+            int parameterCount = Math.min(methodEntry.parameters.length, dep.getParameterCount());
+            for (int i = 0; i < parameterCount; ++i) {
+                restoreNode(dep.getVariable(i), methodEntry.parameters[i], types, restoredNodes);
+            }
+            restoreNode(dep.getResult(), methodEntry.result, types, restoredNodes);
+            restoreNode(dep.getThrown(), methodEntry.thrown, types, restoredNodes);
+            if (methodEntry.used) {
+                dep.use(methodEntry.called);
+            }
+        }
+
+        for (var entry : snapshot.fields.entrySet()) {
+            if (cacheStatus.isStaleClass(entry.getKey().getClassName())) {
+                continue;
+            }
+            var dep = linkField(entry.getKey());
+            if (!dep.isMissing()) {
+                restoreNode(dep.getValue(), entry.getValue(), types, restoredNodes);
+            }
+        }
+    }
+
+    private DependencyType[] restoreTypes(ValueType[] valueTypes, CacheStatus cacheStatus) {
+        var result = new ArrayList<DependencyType>(valueTypes.length);
+        for (var valueType : valueTypes) {
+            var itemType = valueType;
+            while (itemType instanceof ValueType.Array) {
+                itemType = ((ValueType.Array) itemType).getItemType();
+            }
+            if (itemType instanceof ValueType.Object
+                    && cacheStatus.isStaleClass(((ValueType.Object) itemType).getClassName())) {
+                continue;
+            }
+            result.add(getType(valueType));
+        }
+        return result.toArray(new DependencyType[0]);
+    }
+
+    private void restoreNode(DependencyNode node, int typeSetIndex, DependencyType[][] types,
+            Map<DependencyNode, BitSet> restoredNodes) {
+        if (node == null || typeSetIndex < 0) {
+            return;
+        }
+        var restored = restoredNodes.computeIfAbsent(node, n -> new BitSet());
+        if (!restored.get(typeSetIndex)) {
+            restored.set(typeSetIndex);
+            node.propagate(types[typeSetIndex]);
+        }
+    }
+
     private void reportDependencies() {
         List<ReportEntry> report = new ArrayList<>();
         int domainCount = 0;
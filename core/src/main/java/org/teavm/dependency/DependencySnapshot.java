@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+
+/**
+ * <p>Result of dependency analysis retained between builds: reached methods and fields and types that
+ * reached their nodes. Created by {@link DependencyAnalyzer#createSnapshot()} and consumed by
+ * {@link DependencyAnalyzer#restoreSnapshot(DependencySnapshot, org.teavm.cache.CacheStatus)}.</p>
+ *
+ * <p>Identical type sets are stored once, whether they come from one node shared between methods
+ * (like in {@link FastDependencyAnalyzer}) or from distinct nodes that received the same types.</p>
+ */
+public class DependencySnapshot {
+    final List<ValueType[]> typeSets;
+    final Map<MethodReference, MethodEntry> methods;
+    final Map<FieldReference, Integer> fields;
+
+    DependencySnapshot(List<ValueType[]> typeSets, Map<MethodReference, MethodEntry> methods,
+            Map<FieldReference, Integer> fields) {
+        this.typeSets = typeSets;
+        this.methods = methods;
+        this.fields = fields;
+    }
+
+    public int getMethodCount() {
+        return methods.size();
+    }
+
+    public int getFieldCount() {
+        return fields.size();
+    }
+
+    /**
+     * Returns names of classes that declare reached methods and fields.
+     */
+    public Set<String> getClassNames() {
+        var result = new LinkedHashSet<String>();
+        for (var method : methods.keySet()) {
+            result.add(method.getClassName());
+        }
+        for (var field : fields.keySet()) {
+            result.add(field.getClassName());
+        }
+        return result;
+    }
+
+    static class MethodEntry {
+        final boolean used;
+        final boolean called;
+        final int[] parameters;
+        final int result;
+        final int thrown;
+
+        MethodEntry(boolean used, boolean called, int[] parameters, int result, int thrown) {
+            this.used = used;
+            this.called = called;
+            this.parameters = parameters;
+            this.result = result;
+            this.thrown = thrown;
+        }
+    }
+
+    static class Builder {
+        private List<ValueType[]> typeSets = new ArrayList<>();
+        private Map<DependencyNode, Integer> typeSetIndexes = new IdentityHashMap<>();
+        private Map<Set<ValueType>, Integer> typeSetIndexesByContent = new HashMap<>();
+        private Map<MethodReference, MethodEntry> methods = new LinkedHashMap<>();
+        private Map<FieldReference, Integer> fields = new LinkedHashMap<>();
+
+        void addMethod(MethodDependency dep) {
+            var parameters = new int[dep.getParameterCount()];
+            for (int i = 0; i < parameters.length; ++i) {
+                parameters[i] = typeSetIndex(dep.getVariable(i));
+            }
+            methods.put(dep.getReference(), new MethodEntry(dep.isUsed(), dep.isCalled(), parameters,
+                    typeSetIndex(dep.getResult()), typeSetIndex(dep.getThrown())));
+        }
+
+        void addField(FieldDependency dep) {
+            fields.put(dep.getReference(), typeSetIndex(dep.getValue()));
+        }
+
+        private int typeSetIndex(DependencyNode node) {
+            if (node == null) {
+                return -1;
+            }
+            return typeSetIndexes.computeIfAbsent(node, n -> {
+                var types = n.getTypes();
+                if (types.length == 0) {
+                    return -1;
+                }
+                return typeSetIndexesByContent.computeIfAbsent(new HashSet<>(Arrays.asList(types)), t -> {
+                    typeSets.add(types);
+                    return typeSets.size() - 1;
+                });
+            });
+        }
+
+        DependencySnapshot build() {
+            return new DependencySnapshot(Collections.unmodifiableList(typeSets),
+                    Collections.unmodifiableMap(methods), Collections.unmodifiableMap(fields));
+        }
+    }
+}
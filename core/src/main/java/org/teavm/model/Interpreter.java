@@ -116,6 +116,51 @@ public class Interpreter {
         return false;
     }
 
+    /**
+     * Reads value of a field. By default, reads field of a JVM class loaded by the class loader,
+     * {@code instance} is {@code null} for static fields.
+     */
+    protected Object readField(Object instance, FieldReference field) {
+        Field jvmField = getJvmField(field);
+        try {
+            return jvmField.get(instance);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Can't get field value: " + field);
+        }
+    }
+
+    /**
+     * Writes value to a field. By default, writes field of a JVM class loaded by the class loader,
+     * {@code instance} is {@code null} for static fields.
+     */
+    protected void writeField(Object instance, FieldReference field, Object value) {
+        Field jvmField = getJvmField(field);
+        try {
+            jvmField.set(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Can't set field value: " + field);
+        }
+    }
+
+    private Field getJvmField(FieldReference field) {
+        Class<?> cls;
+        try {
+            cls = Class.forName(field.getClassName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Class not found: " + field.getClassName());
+        }
+
+        Field jvmField;
+        try {
+            jvmField = cls.getDeclaredField(field.getFieldName());
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException("Field not found: " + field);
+        }
+
+        jvmField.setAccessible(true);
+        return jvmField;
+    }
+
     private InstructionReader reader = new InstructionReader() {
         @Override
         public void location(TextLocation location) {
@@ -179,7 +224,7 @@ public class Interpreter {
                             result = a * b;
                             break;
                         case DIVIDE:
-                            result = a * b;
+                            result = a / b;
                             break;
                         case MODULO:
                             result = a % b;
@@ -196,6 +241,15 @@ public class Interpreter {
                         case XOR:
                             result = a ^ b;
                             break;
+                        case SHIFT_LEFT:
+                            result = a << b;
+                            break;
+                        case SHIFT_RIGHT:
+                            result = a >> b;
+                            break;
+                        case SHIFT_RIGHT_UNSIGNED:
+                            result = a >>> b;
+                            break;
                         default:
                             throw new IllegalArgumentException("Unknown operation: " + op);
                     }
@@ -204,35 +258,44 @@ public class Interpreter {
                 }
                 case LONG: {
                     long a = (Long) variables[first.getIndex()];
-                    long b = (Long) variables[second.getIndex()];
-                    long result;
+                    Object secondValue = variables[second.getIndex()];
+                    Object result;
                     switch (op) {
                         case ADD:
-                            result = a + b;
+                            result = a + (Long) secondValue;
                             break;
                         case SUBTRACT:
-                            result = a - b;
+                            result = a - (Long) secondValue;
                             break;
                         case MULTIPLY:
-                            result = a * b;
+                            result = a * (Long) secondValue;
                             break;
                         case DIVIDE:
-                            result = a * b;
+                            result = a / (Long) secondValue;
                             break;
                         case MODULO:
-                            result = a % b;
+                            result = a % (Long) secondValue;
                             break;
                         case COMPARE:
-                            result = Long.compare(a, b);
+                            result = Long.compare(a, (Long) secondValue);
                             break;
                         case AND:
-                            result = a & b;
+                            result = a & (Long) secondValue;
                             break;
                         case OR:
-                            result = a | b;
+                            result = a | (Long) secondValue;
                             break;
                         case XOR:
-                            result = a ^ b;
+                            result = a ^ (Long) secondValue;
+                            break;
+                        case SHIFT_LEFT:
+                            result = a << ((Number) secondValue).intValue();
+                            break;
+                        case SHIFT_RIGHT:
+                            result = a >> ((Number) secondValue).intValue();
+                            break;
+                        case SHIFT_RIGHT_UNSIGNED:
+                            result = a >>> ((Number) secondValue).intValue();
                             break;
                         default:
                             throw new IllegalArgumentException("Unknown operation: " + op);
@@ -243,7 +306,7 @@ public class Interpreter {
                 case FLOAT: {
                     float a = (Float) variables[first.getIndex()];
                     float b = (Float) variables[second.getIndex()];
-                    float result;
+                    Object result;
                     switch (op) {
                         case ADD:
                             result = a + b;
@@ -255,21 +318,17 @@ public class Interpreter {
                             result = a * b;
                             break;
                         case DIVIDE:
-                            result = a * b;
+                            result = a / b;
                             break;
                         case MODULO:
                             result = a % b;
                             break;
                         case COMPARE:
-                            result = Float.compare(a, b);
+                            result = a > b ? 1 : a < b ? -1 : a == b ? 0 : 1;
                             break;
-                        case AND:
-                        case OR:
-                        case XOR:
+                        default:
                             throw new IllegalArgumentException("Unsupported operation " + op
                                     + " for operands of type" + type);
-                        default:
-                            throw new IllegalArgumentException("Unknown operation: " + op);
                     }
                     variables[receiver.getIndex()] = result;
                     break;
@@ -277,7 +336,7 @@ public class Interpreter {
                 case DOUBLE: {
                     double a = (Double) variables[first.getIndex()];
                     double b = (Double) variables[second.getIndex()];
-                    double result;
+                    Object result;
                     switch (op) {
                         case ADD:
                             result = a + b;
@@ -289,21 +348,17 @@ public class Interpreter {
                             result = a * b;
                             break;
                         case DIVIDE:
-                            result = a * b;
+                            result = a / b;
                             break;
                         case MODULO:
                             result = a % b;
                             break;
                         case COMPARE:
-                            result = Double.compare(a, b);
+                            result = a > b ? 1 : a < b ? -1 : a == b ? 0 : 1;
                             break;
-                        case AND:
-                        case OR:
-                        case XOR:
+                        default:
                             throw new IllegalArgumentException("Unsupported operation " + op
                                     + " for operands of type" + type);
-                        default:
-                            throw new IllegalArgumentException("Unknown operation: " + op);
                     }
                     variables[receiver.getIndex()] = result;
                     break;
@@ -572,7 +627,7 @@ public class Interpreter {
         @Override
         public void exit(VariableReader valueToReturn) {
             state = State.EXITED;
-            result = variables[valueToReturn.getIndex()];
+            result = valueToReturn != null ? variables[valueToReturn.getIndex()] : null;
         }
 
         @Override
@@ -626,48 +681,14 @@ public class Interpreter {
         @Override
         public void getField(VariableReader receiver, VariableReader instance, FieldReference field,
                 ValueType fieldType) {
-            Field jvmField = getJvmField(field);
-
             Object jvmInstance = instance != null ? variables[instance.getIndex()] : null;
-            Object result;
-            try {
-                result = jvmField.get(jvmInstance);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Can't get field value: " + field);
-            }
-
-            variables[receiver.getIndex()] = result;
+            variables[receiver.getIndex()] = readField(jvmInstance, field);
         }
 
         @Override
         public void putField(VariableReader instance, FieldReference field, VariableReader value, ValueType fieldType) {
-            Field jvmField = getJvmField(field);
-
             Object jvmInstance = instance != null ? variables[instance.getIndex()] : null;
-            try {
-                jvmField.set(jvmInstance, variables[value.getIndex()]);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Can't get field value: " + field);
-            }
-        }
-
-        private Field getJvmField(FieldReference field) {
-            Class<?> cls;
-            try {
-                cls = Class.forName(field.getClassName(), false, classLoader);
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException("Class not found: " + field.getClassName());
-            }
-
-            Field jvmField;
-            try {
-                jvmField = cls.getDeclaredField(field.getFieldName());
-            } catch (NoSuchFieldException e) {
-                throw new RuntimeException("Field not found: " + field);
-            }
-
-            jvmField.setAccessible(true);
-            return jvmField;
+            writeField(jvmInstance, field, variables[value.getIndex()]);
         }
 
         @Override
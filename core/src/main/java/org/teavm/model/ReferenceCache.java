@@ -15,27 +15,32 @@
  */
 package org.teavm.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Canonicalizes references, so that equal references share the same instance. Safe for concurrent use,
+ * which allows to parse classes in several threads.
+ */
 public class ReferenceCache {
-    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new HashMap<>();
-    private Map<FieldReference, FieldReference> fieldRefenceCache = new HashMap<>();
-    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new HashMap<>();
-    private Map<ValueType, ValueType> valueTypeCache = new HashMap<>();
-    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new HashMap<>();
-    private Map<String, String> stringCache = new HashMap<>();
-    private Map<String, MethodDescriptor> descriptorParseCache = new HashMap<>();
-    private Map<String, ValueType> valueTypeParseCache = new HashMap<>();
+    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new ConcurrentHashMap<>();
+    private Map<FieldReference, FieldReference> fieldRefenceCache = new ConcurrentHashMap<>();
+    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new ConcurrentHashMap<>();
+    private Map<ValueType, ValueType> valueTypeCache = new ConcurrentHashMap<>();
+    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new ConcurrentHashMap<>();
+    private Map<String, String> stringCache = new ConcurrentHashMap<>();
+    private Map<String, MethodDescriptor> descriptorParseCache = new ConcurrentHashMap<>();
+    private Map<String, ValueType> valueTypeParseCache = new ConcurrentHashMap<>();
 
     public MethodReference getCached(MethodReference reference) {
         return getCached(reference.getClassName(), reference.getDescriptor());
     }
 
     public MethodReference getCached(String className, MethodDescriptor descriptor) {
+        var cachedDescriptor = getCached(descriptor);
         return referenceCache
-                .computeIfAbsent(className, key -> new HashMap<>())
-                .computeIfAbsent(getCached(descriptor), key -> new MethodReference(className, key));
+                .computeIfAbsent(className, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(cachedDescriptor, key -> new MethodReference(className, key));
     }
 
     public MethodDescriptor getCached(MethodDescriptor descriptor) {
@@ -58,7 +63,7 @@ public class ReferenceCache {
             if (signatureChanged) {
                 result = new MethodDescriptor(descriptor.getName(), signature);
             }
-            descriptorCache.put(result, result);
+            result = putIfAbsent(descriptorCache, result);
         }
         return result;
     }
@@ -72,13 +77,13 @@ public class ReferenceCache {
             if (classNameCached != reference.getClassName() || fieldNameCached != reference.getFieldName()) {
                 result = new FieldReference(classNameCached, fieldNameCached);
             }
-            fieldRefenceCache.put(result, result);
+            result = putIfAbsent(fieldRefenceCache, result);
         }
         return result;
     }
 
     public ValueType getCached(ValueType valueType) {
-        if (valueType instanceof ValueType.Primitive) {
+        if (valueType == null || valueType instanceof ValueType.Primitive) {
             return valueType;
         }
 
@@ -98,13 +103,13 @@ public class ReferenceCache {
                     result = ValueType.arrayOf(cachedItem);
                 }
             }
-            valueTypeCache.put(result, result);
+            result = putIfAbsent(valueTypeCache, result);
         }
         return result;
     }
 
     public GenericValueType getCached(GenericValueType valueType) {
-        if (valueType instanceof GenericValueType.Primitive
+        if (valueType == null || valueType instanceof GenericValueType.Primitive
                 || valueType instanceof GenericValueType.Variable
                 || valueType instanceof GenericValueType.Void) {
             return valueType;
@@ -158,26 +163,24 @@ public class ReferenceCache {
                     result = new GenericValueType.Array(cachedItem);
                 }
             }
-            genericValueTypeCache.put(result, result);
+            result = putIfAbsent(genericValueTypeCache, result);
         }
 
         return result;
     }
 
     public String getCached(String s) {
-        String result = stringCache.get(s);
-        if (result == null) {
-            result = s;
-            stringCache.put(result, result);
+        if (s == null) {
+            return null;
         }
-        return result;
+        return putIfAbsent(stringCache, s);
     }
 
     public MethodDescriptor parseDescriptorCached(String value) {
         MethodDescriptor result = descriptorParseCache.get(value);
         if (result == null) {
             result = getCached(MethodDescriptor.parse(value));
-            descriptorParseCache.put(value, result);
+            descriptorParseCache.putIfAbsent(value, result);
         }
         return result;
     }
@@ -186,8 +189,19 @@ public class ReferenceCache {
         ValueType result = valueTypeParseCache.get(value);
         if (result == null) {
             result = getCached(ValueType.parse(value));
-            valueTypeParseCache.put(value, result);
+            valueTypeParseCache.putIfAbsent(value, result);
         }
         return result;
     }
+
+    private static <T> T putIfAbsent(Map<T, T> map, T value) {
+        var existing = map.get(value);
+        if (existing == null) {
+            existing = map.putIfAbsent(value, value);
+            if (existing == null) {
+                existing = value;
+            }
+        }
+        return existing;
+    }
 }
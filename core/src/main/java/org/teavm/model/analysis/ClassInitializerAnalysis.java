@@ -18,6 +18,7 @@ package org.teavm.model.analysis;
 import com.carrotsearch.hppc.ObjectByteHashMap;
 import com.carrotsearch.hppc.ObjectByteMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -91,6 +92,14 @@ public class ClassInitializerAnalysis implements ClassInitializerInfo {
         return readonlyOrder;
     }
 
+    /**
+     * Removes classes from initialization order, for example when their static initializers
+     * were evaluated at build time and no longer exist.
+     */
+    public void removeFromInitializationOrder(Collection<String> classNames) {
+        order.removeAll(classNames);
+    }
+
     private void analyze(String className) {
         var classStatus = classStatuses.get(className);
         switch (classStatus) {
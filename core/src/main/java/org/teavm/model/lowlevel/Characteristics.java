@@ -17,6 +17,8 @@ package org.teavm.model.lowlevel;
 
 import com.carrotsearch.hppc.ObjectByteHashMap;
 import com.carrotsearch.hppc.ObjectByteMap;
+import java.util.Collections;
+import java.util.Set;
 import org.teavm.interop.Address;
 import org.teavm.interop.Function;
 import org.teavm.interop.StaticInit;
@@ -34,6 +36,7 @@ public class Characteristics {
     private ObjectByteMap<String> isFunction = new ObjectByteHashMap<>();
     private ObjectByteMap<String> isResource = new ObjectByteHashMap<>();
     private ObjectByteMap<MethodReference> isManaged = new ObjectByteHashMap<>();
+    private Set<MethodReference> leafMethods = Collections.emptySet();
 
     public Characteristics(ClassReaderSource classSource) {
         this.classSource = classSource;
@@ -139,4 +142,16 @@ public class Characteristics {
         }
         return method.getAnnotations().get(Unmanaged.class.getName()) == null;
     }
+
+    public void setLeafMethods(Set<MethodReference> leafMethods) {
+        this.leafMethods = leafMethods;
+    }
+
+    /**
+     * Tells whether method is known to never reach a call site, see {@link LeafMethodFinder}.
+     * Only applicable to non-virtual calls.
+     */
+    public boolean isLeaf(MethodReference methodReference) {
+        return leafMethods.contains(methodReference);
+    }
 }
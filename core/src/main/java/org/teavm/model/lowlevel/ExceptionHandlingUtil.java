@@ -24,6 +24,7 @@ import org.teavm.model.instructions.ConstructArrayInstruction;
 import org.teavm.model.instructions.ConstructInstruction;
 import org.teavm.model.instructions.ConstructMultiArrayInstruction;
 import org.teavm.model.instructions.InitClassInstruction;
+import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
 import org.teavm.model.instructions.MonitorEnterInstruction;
 import org.teavm.model.instructions.MonitorExitInstruction;
@@ -48,7 +49,9 @@ public final class ExceptionHandlingUtil {
         } else if (insn instanceof CastInstruction) {
             return !((CastInstruction) insn).isWeak();
         } else if (insn instanceof InvokeInstruction) {
-            return isManagedMethodCall(characteristics, ((InvokeInstruction) insn).getMethod());
+            InvokeInstruction invoke = (InvokeInstruction) insn;
+            return isManagedMethodCall(characteristics, invoke.getMethod())
+                    && (invoke.getType() == InvocationType.VIRTUAL || !characteristics.isLeaf(invoke.getMethod()));
         }
         return false;
     }
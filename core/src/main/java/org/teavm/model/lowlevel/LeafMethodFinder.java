@@ -0,0 +1,251 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.lowlevel;
+
+import com.carrotsearch.hppc.ObjectByteHashMap;
+import com.carrotsearch.hppc.ObjectByteMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.teavm.model.BasicBlockReader;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldReference;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHandle;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ProgramReader;
+import org.teavm.model.RuntimeConstant;
+import org.teavm.model.ValueType;
+import org.teavm.model.VariableReader;
+import org.teavm.model.instructions.AbstractInstructionReader;
+import org.teavm.model.instructions.ArrayElementType;
+import org.teavm.model.instructions.InvocationType;
+
+/**
+ * <p>Finds methods that never reach a call site, i.e. don't allocate memory, don't throw exceptions
+ * and don't call methods that can do this. Non-virtual calls to such methods can't trigger garbage collection
+ * or unwind stack, so callers don't need to store GC roots in shadow stack and to record call site
+ * before calling them.</p>
+ *
+ * <p>The analysis runs on programs before optimizations, so it predicts checks that are inserted later,
+ * i.e. null checks for all receivers except <code>this</code>, bound checks for all array accesses
+ * and class initialization for static methods and constructors.</p>
+ */
+public class LeafMethodFinder {
+    private static final byte IN_PROGRESS = 2;
+    private static final MethodDescriptor CLINIT = new MethodDescriptor("<clinit>", void.class);
+    private ListableClassReaderSource classSource;
+    private Characteristics characteristics;
+    private Set<MethodReference> asyncMethods;
+    private ObjectByteMap<MethodReference> cache = new ObjectByteHashMap<>();
+
+    public LeafMethodFinder(ListableClassReaderSource classSource, Characteristics characteristics,
+            Set<MethodReference> asyncMethods) {
+        this.classSource = classSource;
+        this.characteristics = characteristics;
+        this.asyncMethods = asyncMethods;
+    }
+
+    public Set<MethodReference> find() {
+        for (String className : classSource.getClassNames()) {
+            ClassReader cls = classSource.get(className);
+            for (MethodReader method : cls.getMethods()) {
+                isLeaf(method.getReference());
+            }
+        }
+
+        Set<MethodReference> result = new HashSet<>();
+        for (var entry : cache) {
+            if (entry.value == 1) {
+                result.add(entry.key);
+            }
+        }
+        return result;
+    }
+
+    private boolean isLeaf(MethodReference methodRef) {
+        byte state = cache.getOrDefault(methodRef, (byte) -1);
+        if (state >= 0) {
+            return state == 1;
+        }
+
+        // Recursive calls are considered as non-leaf
+        cache.put(methodRef, IN_PROGRESS);
+        boolean result = computeIsLeaf(methodRef);
+        cache.put(methodRef, result ? (byte) 1 : 0);
+        return result;
+    }
+
+    private boolean computeIsLeaf(MethodReference methodRef) {
+        MethodReader method = classSource.resolve(methodRef);
+        if (method == null || method.getProgram() == null || method.getProgram().basicBlockCount() == 0) {
+            return false;
+        }
+        if (!characteristics.isManaged(method.getReference()) || asyncMethods.contains(method.getReference())
+                || method.hasModifier(ElementModifier.SYNCHRONIZED)) {
+            return false;
+        }
+        if (method.hasModifier(ElementModifier.STATIC) || method.getName().equals("<init>")) {
+            ClassReader cls = classSource.get(method.getOwnerName());
+            if (cls.getMethod(CLINIT) != null) {
+                return false;
+            }
+        }
+
+        ProgramReader program = method.getProgram();
+        var reader = new LeafInstructionReader(method.hasModifier(ElementModifier.STATIC));
+        for (BasicBlockReader block : program.getBasicBlocks()) {
+            if (!block.readTryCatchBlocks().isEmpty()) {
+                return false;
+            }
+            block.readAllInstructions(reader);
+            if (!reader.leaf) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class LeafInstructionReader extends AbstractInstructionReader {
+        private final boolean isStatic;
+        boolean leaf = true;
+
+        LeafInstructionReader(boolean isStatic) {
+            this.isStatic = isStatic;
+        }
+
+        private boolean isThis(VariableReader variable) {
+            return !isStatic && variable.getIndex() == 0;
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, ValueType targetType, boolean weak) {
+            if (!weak) {
+                leaf = false;
+            }
+        }
+
+        @Override
+        public void raise(VariableReader exception) {
+            leaf = false;
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType, VariableReader size) {
+            leaf = false;
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType,
+                List<? extends VariableReader> dimensions) {
+            leaf = false;
+        }
+
+        @Override
+        public void create(VariableReader receiver, String type) {
+            leaf = false;
+        }
+
+        @Override
+        public void getField(VariableReader receiver, VariableReader instance, FieldReference field,
+                ValueType fieldType) {
+            if (instance != null && !isThis(instance)) {
+                leaf = false;
+            }
+        }
+
+        @Override
+        public void putField(VariableReader instance, FieldReference field, VariableReader value,
+                ValueType fieldType) {
+            if (instance != null && !isThis(instance)) {
+                leaf = false;
+            }
+        }
+
+        @Override
+        public void arrayLength(VariableReader receiver, VariableReader array) {
+            leaf = false;
+        }
+
+        @Override
+        public void cloneArray(VariableReader receiver, VariableReader array) {
+            leaf = false;
+        }
+
+        @Override
+        public void unwrapArray(VariableReader receiver, VariableReader array, ArrayElementType elementType) {
+            leaf = false;
+        }
+
+        @Override
+        public void getElement(VariableReader receiver, VariableReader array, VariableReader index,
+                ArrayElementType type) {
+            leaf = false;
+        }
+
+        @Override
+        public void putElement(VariableReader array, VariableReader index, VariableReader value,
+                ArrayElementType type) {
+            leaf = false;
+        }
+
+        @Override
+        public void invoke(VariableReader receiver, VariableReader instance, MethodReference method,
+                List<? extends VariableReader> arguments, InvocationType type) {
+            if (type == InvocationType.VIRTUAL || (instance != null && !isThis(instance))) {
+                leaf = false;
+            } else if (characteristics.isManaged(method.getClassName()) && !isLeaf(method)) {
+                leaf = false;
+            }
+        }
+
+        @Override
+        public void invokeDynamic(VariableReader receiver, VariableReader instance, MethodDescriptor method,
+                List<? extends VariableReader> arguments, MethodHandle bootstrapMethod,
+                List<RuntimeConstant> bootstrapArguments) {
+            leaf = false;
+        }
+
+        @Override
+        public void initClass(String className) {
+            leaf = false;
+        }
+
+        @Override
+        public void nullCheck(VariableReader receiver, VariableReader value) {
+            leaf = false;
+        }
+
+        @Override
+        public void monitorEnter(VariableReader objectRef) {
+            leaf = false;
+        }
+
+        @Override
+        public void monitorExit(VariableReader objectRef) {
+            leaf = false;
+        }
+
+        @Override
+        public void boundCheck(VariableReader receiver, VariableReader index, VariableReader array,
+                boolean lower) {
+            leaf = false;
+        }
+    }
+}
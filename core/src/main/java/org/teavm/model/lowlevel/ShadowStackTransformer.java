@@ -64,6 +64,10 @@ public class ShadowStackTransformer {
         }
 
         if (shadowStackSize > 0 || exceptions) {
+            if (characteristics.isLeaf(method.getReference())) {
+                throw new IllegalStateException("Method " + method.getReference() + " was expected "
+                        + "to have no call sites");
+            }
             addStackAllocation(program, shadowStackSize);
             addStackRelease(program, shadowStackSize);
         }
@@ -15,6 +15,7 @@
  */
 package org.teavm.model.optimization;
 
+import com.carrotsearch.hppc.IntArrayDeque;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.ObjectIntHashMap;
 import com.carrotsearch.hppc.ObjectIntMap;
@@ -22,6 +23,7 @@ import com.carrotsearch.hppc.cursors.ObjectCursor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -30,6 +32,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.callgraph.CallGraphNode;
+import org.teavm.callgraph.CallSite;
+import org.teavm.common.Graph;
+import org.teavm.common.GraphBuilder;
+import org.teavm.common.GraphUtils;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.BasicBlockReader;
@@ -62,26 +70,24 @@ import org.teavm.model.util.InstructionVariableMapper;
 import org.teavm.model.util.ProgramUtils;
 import org.teavm.model.util.TransitionExtractor;
 
+/**
+ * <p>Inlines methods either sequentially, in order of {@link #getOrder()}, or according to {@link InliningSchedule},
+ * which goes from callers to callees, so callees are always inlined in their original form. Methods are processed
+ * by {@link Worker}s, each worker must be used by a single thread at a time.</p>
+ */
 public class Inlining {
-    private IntArrayList depthsByBlock;
-    private Set<Instruction> instructionsToSkip;
-    private ClassHierarchy hierarchy;
     private ListableClassReaderSource classes;
     private DependencyInfo dependencyInfo;
-    private InliningStrategy strategy;
     private MethodUsageCounter usageCounter;
     private Set<MethodReference> methodsUsedOnce = new HashSet<>();
     private boolean devirtualization;
-    private ClassInference classInference;
     private InliningFilterFactory filterFactory;
 
-    public Inlining(ClassHierarchy hierarchy, DependencyInfo dependencyInfo, InliningStrategy strategy,
-            ListableClassReaderSource classes, Predicate<MethodReference> externalMethods,
-            boolean devirtualization, InliningFilterFactory filterFactory) {
-        this.hierarchy = hierarchy;
+    public Inlining(DependencyInfo dependencyInfo, ListableClassReaderSource classes,
+            Predicate<MethodReference> externalMethods, boolean devirtualization,
+            InliningFilterFactory filterFactory) {
         this.classes = classes;
         this.dependencyInfo = dependencyInfo;
-        this.strategy = strategy;
         this.devirtualization = devirtualization;
         this.filterFactory = filterFactory;
         usageCounter = new MethodUsageCounter(externalMethods);
@@ -106,6 +112,11 @@ public class Inlining {
         }
     }
 
+    /**
+     * Returns methods in order in which they should be processed by a single worker, from callers to callees.
+     * Unlike {@link #createSchedule(CallGraph)}, the order does not guarantee that callees are inlined in their
+     * original form.
+     */
     public List<MethodReference> getOrder() {
         List<MethodReference> order = new ArrayList<>();
         Set<MethodReference> visited = new HashSet<>();
@@ -134,8 +145,135 @@ public class Inlining {
         order.add(method);
     }
 
+    /**
+     * Builds schedule of inlining. Besides direct calls found in programs, all edges of the given call graph
+     * are taken into account, since devirtualization may turn virtual calls into direct ones.
+     */
+    public InliningSchedule createSchedule(CallGraph callGraph) {
+        var methods = new ArrayList<MethodReference>();
+        var methodIndexes = new ObjectIntHashMap<MethodReference>();
+        for (String className : classes.getClassNames()) {
+            ClassReader cls = classes.get(className);
+            for (MethodReader method : cls.getMethods()) {
+                if (method.getProgram() != null) {
+                    methodIndexes.put(method.getReference(), methods.size());
+                    methods.add(method.getReference());
+                }
+            }
+        }
+
+        var graphBuilder = new GraphBuilder(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            var method = methods.get(i);
+            var invokedMethods = usageCounter.invokedMethods.get(method);
+            if (invokedMethods != null) {
+                for (var invokedMethod : invokedMethods) {
+                    int index = methodIndexes.getOrDefault(invokedMethod, -1);
+                    if (index >= 0) {
+                        graphBuilder.addEdge(i, index);
+                    }
+                }
+            }
+            CallGraphNode node = callGraph != null ? callGraph.getNode(method) : null;
+            if (node != null) {
+                for (CallSite callSite : node.getCallSites()) {
+                    for (CallGraphNode calledMethod : callSite.getCalledMethods()) {
+                        int index = methodIndexes.getOrDefault(calledMethod.getMethod(), -1);
+                        if (index >= 0) {
+                            graphBuilder.addEdge(i, index);
+                        }
+                    }
+                }
+            }
+        }
+        Graph graph = graphBuilder.build();
+
+        int[] groupByMethod = new int[methods.size()];
+        Arrays.fill(groupByMethod, -1);
+        List<int[]> groupMembers = new ArrayList<>();
+        for (int[] component : GraphUtils.findStronglyConnectedComponents(graph)) {
+            Arrays.sort(component);
+            for (int member : component) {
+                groupByMethod[member] = groupMembers.size();
+            }
+            groupMembers.add(component);
+        }
+        for (int i = 0; i < methods.size(); ++i) {
+            if (groupByMethod[i] < 0) {
+                groupByMethod[i] = groupMembers.size();
+                groupMembers.add(new int[] { i });
+            }
+        }
+        int[] groupOrder = new int[groupMembers.size()];
+        int groupOrderSize = 0;
+        for (int i = 0; i < methods.size(); ++i) {
+            if (groupMembers.get(groupByMethod[i])[0] == i) {
+                groupOrder[groupOrderSize++] = groupByMethod[i];
+            }
+        }
+
+        var condensedBuilder = new GraphBuilder(groupMembers.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            for (int callee : graph.outgoingEdges(i)) {
+                if (groupByMethod[callee] != groupByMethod[i]) {
+                    condensedBuilder.addEdge(groupByMethod[i], groupByMethod[callee]);
+                }
+            }
+        }
+        Graph condensed = condensedBuilder.build();
+
+        int[] levels = new int[groupMembers.size()];
+        int[] pendingCallers = new int[groupMembers.size()];
+        var queue = new IntArrayDeque();
+        for (int i = 0; i < pendingCallers.length; ++i) {
+            pendingCallers[i] = condensed.incomingEdgesCount(i);
+            if (pendingCallers[i] == 0) {
+                queue.addLast(i);
+            }
+        }
+        int maxLevel = 0;
+        while (!queue.isEmpty()) {
+            int group = queue.removeFirst();
+            maxLevel = Math.max(maxLevel, levels[group]);
+            for (int callee : condensed.outgoingEdges(group)) {
+                levels[callee] = Math.max(levels[callee], levels[group] + 1);
+                if (--pendingCallers[callee] == 0) {
+                    queue.addLast(callee);
+                }
+            }
+        }
+
+        var scheduleLevels = new ArrayList<List<InliningSchedule.Group>>();
+        for (int i = 0; i <= maxLevel; ++i) {
+            scheduleLevels.add(new ArrayList<>());
+        }
+        for (int groupIndex : groupOrder) {
+            var members = groupMembers.get(groupIndex);
+            var groupMethods = new ArrayList<MethodReference>();
+            for (int member : members) {
+                groupMethods.add(methods.get(member));
+            }
+            boolean recursive = members.length > 1;
+            for (int callee : graph.outgoingEdges(members[0])) {
+                if (callee == members[0]) {
+                    recursive = true;
+                    break;
+                }
+            }
+            var group = new InliningSchedule.Group(groupMethods, levels[groupIndex], recursive);
+            scheduleLevels.get(group.level).add(group);
+        }
+        return new InliningSchedule(scheduleLevels, methods.size());
+    }
+
+    public Worker createWorker(ClassHierarchy hierarchy) {
+        return new Worker(hierarchy);
+    }
+
     public boolean hasUsages(MethodReference method) {
-        return usageCounter.methodUsageCount.getOrDefault(method, -1) != 0;
+        synchronized (usageCounter) {
+            return usageCounter.methodUsageCount.getOrDefault(method, -1) != 0;
+        }
     }
 
     public void removeUsages(Program program) {
@@ -150,59 +288,127 @@ public class Inlining {
                     continue;
                 }
 
-                int usageCount = usageCounter.methodUsageCount.getOrDefault(invoke.getMethod(), -1);
-                if (usageCount > 0) {
-                    usageCounter.methodUsageCount.put(invoke.getMethod(), usageCount - 1);
-                }
+                changeUsageCount(invoke.getMethod(), -1);
             }
         }
     }
 
-    public void apply(Program program, MethodReference method) {
-        depthsByBlock = new IntArrayList(program.basicBlockCount());
-        for (int i = 0; i < program.basicBlockCount(); ++i) {
-            depthsByBlock.add(0);
+    /*
+     * Counters only grow when a call is copied by inlining and only decrease when a call is
+     * removed, so they never hit zero prematurely. Therefore, updates commute and the resulting
+     * values don't depend on the order in which concurrent workers apply them.
+     */
+    private void changeUsageCount(MethodReference method, int delta) {
+        synchronized (usageCounter) {
+            int usageCount = usageCounter.methodUsageCount.getOrDefault(method, -1);
+            if (delta < 0 ? usageCount > 0 : usageCount >= 0) {
+                usageCounter.methodUsageCount.put(method, usageCount + delta);
+            }
+        }
+    }
+
+    /**
+     * <p>Keeps state that should not be shared between threads: class inference, which is expensive to create,
+     * so it is reused across groups, and inlining strategy along with original bodies of the current group.</p>
+     *
+     * <p>Methods of recursive groups may call each other, so their bodies are copied before the group
+     * is processed and callees are inlined from these copies. This way, inlined code never contains
+     * code inlined earlier, and the depth limit of strategy is respected.</p>
+     */
+    public class Worker {
+        private final ClassHierarchy hierarchy;
+        private ClassInference classInference;
+        private InliningStrategy strategy;
+        private Map<MethodReference, ProgramReader> originalPrograms = Collections.emptyMap();
+
+        Worker(ClassHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+        }
+
+        /**
+         * Prepares worker to process all methods in order of {@link Inlining#getOrder()}. The strategy is shared
+         * between methods and callees are inlined as they are at the moment, possibly with code inlined into
+         * them earlier.
+         */
+        public void startSequence(InliningStrategy strategy) {
+            this.strategy = strategy;
+            originalPrograms = Collections.emptyMap();
+        }
+
+        /**
+         * Prepares worker to process methods of the given group. Strategy should not be shared with other groups,
+         * otherwise the result depends on the order in which groups are processed.
+         */
+        public void startGroup(InliningSchedule.Group group, InliningStrategy strategy) {
+            this.strategy = strategy;
+            originalPrograms = Collections.emptyMap();
+            if (group.isRecursive()) {
+                originalPrograms = new HashMap<>();
+                for (var method : group.getMethods()) {
+                    var program = getMethodProgram(method);
+                    if (program != null) {
+                        originalPrograms.put(method, ProgramUtils.copy(program));
+                    }
+                }
+            }
+        }
+
+        public void apply(Program program, MethodReference method) {
+            Inlining.this.apply(program, method, new ApplyState(program, this));
+        }
+
+        ProgramReader getProgram(MethodReference method) {
+            var program = originalPrograms.get(method);
+            return program != null ? program : getMethodProgram(method);
         }
-        instructionsToSkip = new HashSet<>();
 
+        ClassInference getClassInference() {
+            if (classInference == null) {
+                classInference = new ClassInference(dependencyInfo, hierarchy, classes.getClassNames(), 30);
+            }
+            return classInference;
+        }
+    }
+
+    private ProgramReader getMethodProgram(MethodReference method) {
+        MethodReader methodReader = getMethod(method);
+        return methodReader != null ? methodReader.getProgram() : null;
+    }
+
+    private void apply(Program program, MethodReference method, ApplyState state) {
         if (devirtualization) {
-            while (applyOnce(program, method)) {
-                devirtualize(program, method, dependencyInfo);
+            while (applyOnce(program, method, state)) {
+                devirtualize(program, method, state.worker.getClassInference());
             }
         } else {
-            applyOnce(program, method);
+            applyOnce(program, method, state);
         }
-        depthsByBlock = null;
-        instructionsToSkip = null;
 
         new UnreachableBasicBlockEliminator().optimize(program);
-        strategy.methodChanged(method);
+        state.strategy.methodChanged(method);
     }
 
-    private boolean applyOnce(Program program, MethodReference method) {
-        InliningStep step = strategy.start(method, program);
+    private boolean applyOnce(Program program, MethodReference method, ApplyState state) {
+        InliningStep step = state.strategy.start(method, program);
         if (step == null) {
             return false;
         }
-        List<PlanEntry> plan = buildPlan(program, -1, step, method, null);
+        List<PlanEntry> plan = buildPlan(program, -1, step, method, null, state);
         if (plan.isEmpty()) {
             return false;
         }
-        execPlan(program, plan, 0);
+        execPlan(program, plan, 0, state);
         return true;
     }
 
-    private void execPlan(Program program, List<PlanEntry> plan, int offset) {
+    private void execPlan(Program program, List<PlanEntry> plan, int offset, ApplyState state) {
         for (PlanEntry entry : plan) {
-            execPlanEntry(program, entry, offset);
+            execPlanEntry(program, entry, offset, state);
         }
     }
 
-    private void execPlanEntry(Program program, PlanEntry planEntry, int offset) {
-        int usageCount = usageCounter.methodUsageCount.getOrDefault(planEntry.method, -1);
-        if (usageCount > 0) {
-            usageCounter.methodUsageCount.put(planEntry.method, usageCount - 1);
-        }
+    private void execPlanEntry(Program program, PlanEntry planEntry, int offset, ApplyState state) {
+        changeUsageCount(planEntry.method, -1);
 
         BasicBlock block = program.basicBlockAt(planEntry.targetBlock + offset);
         InvokeInstruction invoke = (InvokeInstruction) planEntry.targetInstruction;
@@ -212,8 +418,8 @@ public class Inlining {
         for (int i = 1; i < inlineProgram.basicBlockCount(); ++i) {
             program.createBasicBlock();
         }
-        while (depthsByBlock.size() < program.basicBlockCount()) {
-            depthsByBlock.add(planEntry.depth + 1);
+        while (state.depthsByBlock.size() < program.basicBlockCount()) {
+            state.depthsByBlock.add(planEntry.depth + 1);
         }
 
         int variableOffset = program.variableCount();
@@ -246,10 +452,7 @@ public class Inlining {
                 if (insn instanceof InvokeInstruction) {
                     InvokeInstruction invokeInsn = (InvokeInstruction) insn;
                     if (invokeInsn.getType() == InvocationType.SPECIAL) {
-                        usageCount = usageCounter.methodUsageCount.getOrDefault(invokeInsn.getMethod(), -1);
-                        if (usageCount >= 0) {
-                            usageCounter.methodUsageCount.put(invokeInsn.getMethod(), usageCount + 1);
-                        }
+                        changeUsageCount(invokeInsn.getMethod(), 1);
                     }
                 }
 
@@ -337,27 +540,27 @@ public class Inlining {
             }
         }
 
-        execPlan(program, planEntry.innerPlan, firstInlineBlock.getIndex());
+        execPlan(program, planEntry.innerPlan, firstInlineBlock.getIndex(), state);
     }
 
     private List<PlanEntry> buildPlan(Program program, int depth, InliningStep step, MethodReference method,
-            InliningInfo inliningInfo) {
+            InliningInfo inliningInfo, ApplyState state) {
         List<PlanEntry> plan = new ArrayList<>();
         int originalDepth = depth;
         InliningFilter filter = filterFactory.createFilter(method);
 
-        ContextImpl context = new ContextImpl();
+        ContextImpl context = new ContextImpl(state);
         for (BasicBlock block : program.getBasicBlocks()) {
             if (!block.getTryCatchBlocks().isEmpty()) {
                 continue;
             }
 
             if (originalDepth < 0) {
-                depth = depthsByBlock.get(block.getIndex());
+                depth = state.depthsByBlock.get(block.getIndex());
             }
 
             for (Instruction insn : block) {
-                if (instructionsToSkip.contains(insn)) {
+                if (state.instructionsToSkip.contains(insn)) {
                     continue;
                 }
 
@@ -378,21 +581,22 @@ public class Inlining {
                 }
 
                 MethodReader invokedMethod = getMethod(invoke.getMethod());
-                if (invokedMethod == null || invokedMethod.getProgram() == null
-                        || invokedMethod.getProgram().basicBlockCount() == 0
+                ProgramReader originalProgram = invokedMethod != null
+                        ? state.worker.getProgram(invokedMethod.getReference())
+                        : null;
+                if (originalProgram == null || originalProgram.basicBlockCount() == 0
                         || invokedMethod.hasModifier(ElementModifier.SYNCHRONIZED)) {
-                    instructionsToSkip.add(insn);
+                    state.instructionsToSkip.add(insn);
                     continue;
                 }
 
                 context.depth = depth;
-                InliningStep innerStep = step.tryInline(invokedMethod.getReference(), invokedMethod.getProgram(),
-                        context);
+                InliningStep innerStep = step.tryInline(invokedMethod.getReference(), originalProgram, context);
                 if (innerStep == null) {
-                    instructionsToSkip.add(insn);
+                    state.instructionsToSkip.add(insn);
                     continue;
                 }
-                Program invokedProgram = ProgramUtils.copy(invokedMethod.getProgram());
+                Program invokedProgram = ProgramUtils.copy(originalProgram);
 
                 TextLocation location = insn.getLocation();
                 InliningInfo innerInliningInfo = new InliningInfo(
@@ -406,7 +610,7 @@ public class Inlining {
                 entry.targetInstruction = insn;
                 entry.program = invokedProgram;
                 entry.innerPlan.addAll(buildPlan(invokedProgram, depth + 1, innerStep, invokedMethod.getReference(),
-                        innerInliningInfo));
+                        innerInliningInfo, state));
                 entry.depth = depth;
                 entry.method = invokedMethod.getReference();
                 entry.locationInfo = innerInliningInfo;
@@ -423,10 +627,7 @@ public class Inlining {
         return cls != null ? cls.getMethod(methodRef.getDescriptor()) : null;
     }
 
-    private void devirtualize(Program program, MethodReference method, DependencyInfo dependencyInfo) {
-        if (classInference == null) {
-            classInference = new ClassInference(dependencyInfo, hierarchy, classes.getClassNames(), 30);
-        }
+    private void devirtualize(Program program, MethodReference method, ClassInference classInference) {
         classInference.infer(program, method);
 
         for (BasicBlock block : program.getBasicBlocks()) {
@@ -483,6 +684,22 @@ public class Inlining {
         }
     }
 
+    static class ApplyState {
+        final IntArrayList depthsByBlock;
+        final Set<Instruction> instructionsToSkip = new HashSet<>();
+        final Worker worker;
+        final InliningStrategy strategy;
+
+        ApplyState(Program program, Worker worker) {
+            depthsByBlock = new IntArrayList(program.basicBlockCount());
+            for (int i = 0; i < program.basicBlockCount(); ++i) {
+                depthsByBlock.add(0);
+            }
+            this.worker = worker;
+            strategy = worker.strategy;
+        }
+    }
+
     static class PlanEntry {
         int targetBlock;
         Instruction targetInstruction;
@@ -496,6 +713,7 @@ public class Inlining {
     static class MethodUsageCounter extends AbstractInstructionReader {
         ObjectIntMap<MethodReference> methodUsageCount = new ObjectIntHashMap<>();
         Map<MethodReference, Set<MethodReference>> methodDependencies = new LinkedHashMap<>();
+        Map<MethodReference, Set<MethodReference>> invokedMethods = new LinkedHashMap<>();
         Predicate<MethodReference> externalMethods;
         MethodReference currentMethod;
 
@@ -506,16 +724,24 @@ public class Inlining {
         @Override
         public void invoke(VariableReader receiver, VariableReader instance, MethodReference method,
                 List<? extends VariableReader> arguments, InvocationType type) {
-            if (type == InvocationType.SPECIAL && !externalMethods.test(method)) {
-                methodUsageCount.put(method, methodUsageCount.get(method) + 1);
-                methodDependencies.computeIfAbsent(currentMethod, k -> new LinkedHashSet<>()).add(method);
+            if (type == InvocationType.SPECIAL) {
+                invokedMethods.computeIfAbsent(currentMethod, k -> new LinkedHashSet<>()).add(method);
+                if (!externalMethods.test(method)) {
+                    methodUsageCount.put(method, methodUsageCount.get(method) + 1);
+                    methodDependencies.computeIfAbsent(currentMethod, k -> new LinkedHashSet<>()).add(method);
+                }
             }
         }
     }
 
     class ContextImpl implements InliningContext {
+        final ApplyState state;
         int depth;
 
+        ContextImpl(ApplyState state) {
+            this.state = state;
+        }
+
         @Override
         public boolean isUsedOnce(MethodReference method) {
             return methodsUsedOnce.contains(method);
@@ -523,12 +749,7 @@ public class Inlining {
 
         @Override
         public ProgramReader getProgram(MethodReference method) {
-            ClassReader cls = classes.get(method.getClassName());
-            if (cls == null) {
-                return null;
-            }
-            MethodReader methodReader = cls.getMethod(method.getDescriptor());
-            return methodReader != null ? methodReader.getProgram() : null;
+            return state.worker.getProgram(method);
         }
 
         @Override
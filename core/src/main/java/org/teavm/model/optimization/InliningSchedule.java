@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization;
+
+import java.util.Collections;
+import java.util.List;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Plan of inlining, produced by {@link Inlining#createSchedule}.</p>
+ *
+ * <p>Methods are split into groups, each group being a strongly connected component of a call graph.
+ * Groups are arranged into levels from callers to callees, so that every group is only called by groups
+ * of previous levels or by itself. This way, a group is processed when all methods that can inline its
+ * methods are already processed, and it only inlines methods that are not processed yet, i.e. that are
+ * in their original form. Methods within a group must be processed sequentially, in the given order.
+ * A level can be started only after all previous levels complete, while groups of the same level
+ * don't depend on each other and can be processed concurrently.</p>
+ */
+public class InliningSchedule {
+    private final List<List<Group>> levels;
+    private final int methodCount;
+
+    InliningSchedule(List<List<Group>> levels, int methodCount) {
+        this.levels = levels;
+        this.methodCount = methodCount;
+    }
+
+    public List<List<Group>> getLevels() {
+        return levels;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public static class Group {
+        final List<MethodReference> methods;
+        final int level;
+        final boolean recursive;
+
+        Group(List<MethodReference> methods, int level, boolean recursive) {
+            this.methods = Collections.unmodifiableList(methods);
+            this.level = level;
+            this.recursive = recursive;
+        }
+
+        public List<MethodReference> getMethods() {
+            return methods;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Tells whether methods of the group call each other, i.e. whether the group is a cycle of a call graph
+         * or consists of a single method that calls itself.
+         */
+        public boolean isRecursive() {
+            return recursive;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.transformation;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.teavm.common.Graph;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.FieldReference;
+import org.teavm.model.Instruction;
+import org.teavm.model.InterpretException;
+import org.teavm.model.Interpreter;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.BinaryBranchingInstruction;
+import org.teavm.model.instructions.BinaryInstruction;
+import org.teavm.model.instructions.BranchingInstruction;
+import org.teavm.model.instructions.CastIntegerInstruction;
+import org.teavm.model.instructions.CastNumberInstruction;
+import org.teavm.model.instructions.DoubleConstantInstruction;
+import org.teavm.model.instructions.EmptyInstruction;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.FloatConstantInstruction;
+import org.teavm.model.instructions.GetFieldInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+import org.teavm.model.instructions.JumpInstruction;
+import org.teavm.model.instructions.LongConstantInstruction;
+import org.teavm.model.instructions.NegateInstruction;
+import org.teavm.model.instructions.NullConstantInstruction;
+import org.teavm.model.instructions.PutFieldInstruction;
+import org.teavm.model.instructions.StringConstantInstruction;
+import org.teavm.model.instructions.SwitchInstruction;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * Runs simple static initializers at build time and replaces them by initial values of static fields.
+ * Only initializers without loops, exception handlers, method calls, allocations and access to other
+ * classes are evaluated, and only if all fields they write end up with primitive, string or {@code null}
+ * values, which every backend can emit as constant data. Initializers that build arrays or object graphs,
+ * like time zone and CLDR tables of the class library, are left to run at startup.
+ */
+public class StaticInitializerEvaluator {
+    private static final MethodDescriptor CLINIT = new MethodDescriptor("<clinit>", void.class);
+    private ClassLoader classLoader;
+
+    public StaticInitializerEvaluator(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Tries to evaluate static initializer of the given class. On success, stores resulting values as initial
+     * values of static fields and removes the initializer.
+     *
+     * @return {@code true} if initializer was evaluated and removed.
+     */
+    public boolean evaluate(ClassHolder cls) {
+        MethodHolder clinit = cls.getMethod(CLINIT);
+        if (clinit == null || clinit.getProgram() == null || !isSupported(cls, clinit.getProgram())) {
+            return false;
+        }
+
+        var interpreter = new StaticFieldInterpreter(cls);
+        try {
+            interpreter.interpret(clinit.getProgram(), new Object[0]);
+        } catch (InterpretException | RuntimeException e) {
+            return false;
+        }
+
+        var initialValues = new HashMap<String, Object>();
+        for (var entry : interpreter.values.entrySet()) {
+            var type = cls.getField(entry.getKey()).getType();
+            var value = toConstant(entry.getValue());
+            if (!isRepresentable(type, value)) {
+                return false;
+            }
+            initialValues.put(entry.getKey(), value);
+        }
+        for (var entry : initialValues.entrySet()) {
+            cls.getField(entry.getKey()).setInitialValue(entry.getValue());
+        }
+        cls.removeMethod(clinit);
+        return true;
+    }
+
+    private boolean isSupported(ClassHolder cls, Program program) {
+        for (BasicBlock block : program.getBasicBlocks()) {
+            if (!block.getTryCatchBlocks().isEmpty()) {
+                return false;
+            }
+            for (Instruction instruction : block) {
+                if (!isSupported(cls, instruction)) {
+                    return false;
+                }
+            }
+        }
+        return !hasLoops(ProgramUtils.buildControlFlowGraph(program));
+    }
+
+    private boolean isSupported(ClassHolder cls, Instruction instruction) {
+        if (instruction instanceof GetFieldInstruction) {
+            var getField = (GetFieldInstruction) instruction;
+            return getField.getInstance() == null && isOwnStaticField(cls, getField.getField());
+        } else if (instruction instanceof PutFieldInstruction) {
+            var putField = (PutFieldInstruction) instruction;
+            return putField.getInstance() == null && isOwnStaticField(cls, putField.getField());
+        } else if (instruction instanceof ExitInstruction) {
+            return ((ExitInstruction) instruction).getValueToReturn() == null;
+        }
+        return instruction instanceof IntegerConstantInstruction
+                || instruction instanceof LongConstantInstruction
+                || instruction instanceof FloatConstantInstruction
+                || instruction instanceof DoubleConstantInstruction
+                || instruction instanceof StringConstantInstruction
+                || instruction instanceof NullConstantInstruction
+                || instruction instanceof BinaryInstruction
+                || instruction instanceof NegateInstruction
+                || instruction instanceof AssignInstruction
+                || instruction instanceof CastNumberInstruction
+                || instruction instanceof CastIntegerInstruction
+                || instruction instanceof BranchingInstruction
+                || instruction instanceof BinaryBranchingInstruction
+                || instruction instanceof JumpInstruction
+                || instruction instanceof SwitchInstruction
+                || instruction instanceof EmptyInstruction;
+    }
+
+    private static boolean isOwnStaticField(ClassHolder cls, FieldReference field) {
+        if (!field.getClassName().equals(cls.getName())) {
+            return false;
+        }
+        FieldHolder fieldHolder = cls.getField(field.getFieldName());
+        return fieldHolder != null && fieldHolder.hasModifier(ElementModifier.STATIC);
+    }
+
+    private static boolean hasLoops(Graph graph) {
+        int[] incomingCount = new int[graph.size()];
+        int[] queue = new int[graph.size()];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < graph.size(); ++i) {
+            incomingCount[i] = graph.incomingEdgesCount(i);
+            if (incomingCount[i] == 0) {
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int next : graph.outgoingEdges(node)) {
+                if (--incomingCount[next] == 0) {
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail < graph.size();
+    }
+
+    private static boolean isRepresentable(ValueType type, Object value) {
+        if (type instanceof ValueType.Primitive) {
+            switch (((ValueType.Primitive) type).getKind()) {
+                case BOOLEAN:
+                case BYTE:
+                case SHORT:
+                case CHARACTER:
+                case INTEGER:
+                    return value instanceof Integer;
+                case LONG:
+                    return value instanceof Long;
+                case FLOAT:
+                    return value instanceof Float;
+                case DOUBLE:
+                    return value instanceof Double;
+            }
+            return false;
+        }
+        if (value == null) {
+            return true;
+        }
+        return value instanceof String && type.isObject(String.class);
+    }
+
+    private static Object toConstant(Object value) {
+        if (value instanceof Byte || value instanceof Short) {
+            return ((Number) value).intValue();
+        } else if (value instanceof Character) {
+            return (int) (Character) value;
+        }
+        return value;
+    }
+
+    private static Object toInterpreterValue(ValueType type, Object value) {
+        if (type instanceof ValueType.Primitive && value instanceof Integer) {
+            switch (((ValueType.Primitive) type).getKind()) {
+                case BYTE:
+                    return (byte) (int) (Integer) value;
+                case SHORT:
+                    return (short) (int) (Integer) value;
+                case CHARACTER:
+                    return (char) (int) (Integer) value;
+                default:
+                    break;
+            }
+        }
+        return value;
+    }
+
+    private static Object defaultValue(ValueType type) {
+        if (type instanceof ValueType.Primitive) {
+            switch (((ValueType.Primitive) type).getKind()) {
+                case LONG:
+                    return 0L;
+                case FLOAT:
+                    return 0F;
+                case DOUBLE:
+                    return 0.0;
+                default:
+                    return 0;
+            }
+        }
+        return null;
+    }
+
+    class StaticFieldInterpreter extends Interpreter {
+        private ClassHolder cls;
+        Map<String, Object> values = new HashMap<>();
+
+        StaticFieldInterpreter(ClassHolder cls) {
+            super(classLoader);
+            this.cls = cls;
+        }
+
+        @Override
+        protected Object readField(Object instance, FieldReference field) {
+            if (values.containsKey(field.getFieldName())) {
+                return values.get(field.getFieldName());
+            }
+            FieldHolder fieldHolder = cls.getField(field.getFieldName());
+            Object value = fieldHolder.getInitialValue();
+            if (value == null) {
+                value = defaultValue(fieldHolder.getType());
+            }
+            return toInterpreterValue(fieldHolder.getType(), value);
+        }
+
+        @Override
+        protected void writeField(Object instance, FieldReference field, Object value) {
+            values.put(field.getFieldName(), value);
+        }
+    }
+}
@@ -15,13 +15,13 @@
  */
 package org.teavm.model.util;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import org.teavm.common.Graph;
@@ -47,7 +47,7 @@ import org.teavm.model.instructions.MonitorEnterInstruction;
 
 public class AsyncProgramSplitter {
     private List<Part> parts = new ArrayList<>();
-    private Map<Instruction, Integer> partMap = new HashMap<>();
+    private ObjectIntMap<Instruction> partMap = new ObjectIntHashMap<>();
     private ClassReaderSource classSource;
     private Set<MethodReference> asyncMethods;
     private Program program;
@@ -0,0 +1,26 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+public interface ClassDigestProvider {
+    /**
+     * Computes digest of everything the class is produced from, so that equal digests
+     * guarantee equal classes, even when they come from different class paths.
+     *
+     * @return hex-encoded digest or {@code null} if class is not found or digest can't be computed.
+     */
+    String getDigest(String className);
+}
@@ -15,21 +15,43 @@
  */
 package org.teavm.parsing;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.function.Function;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.resource.MapperClassHolderSource;
+import org.teavm.parsing.resource.PrefetchingClassHolderMapper;
 import org.teavm.parsing.resource.ResourceClassHolderMapper;
 import org.teavm.parsing.resource.ResourceProvider;
 
-public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateProvider {
+public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateProvider, ClassDigestProvider,
+        AutoCloseable {
     private MapperClassHolderSource innerClassSource;
     private RenamingResourceMapper classPathMapper;
+    private PrefetchingClassHolderMapper prefetcher;
 
     public ClasspathClassHolderSource(ResourceProvider resourceProvider, ReferenceCache referenceCache) {
-        ResourceClassHolderMapper rawMapper = new ResourceClassHolderMapper(resourceProvider, referenceCache);
+        this(resourceProvider, referenceCache, 0);
+    }
+
+    /**
+     * Creates class source that parses classes in background threads ahead of time.
+     *
+     * @param prefetchThreads number of threads that parse classes, or 0 to parse classes only on request.
+     */
+    public ClasspathClassHolderSource(ResourceProvider resourceProvider, ReferenceCache referenceCache,
+            int prefetchThreads) {
+        Function<String, ClassHolder> rawMapper = new ResourceClassHolderMapper(resourceProvider, referenceCache);
+        if (prefetchThreads > 0) {
+            prefetcher = new PrefetchingClassHolderMapper(rawMapper, prefetchThreads);
+            rawMapper = prefetcher;
+        }
         classPathMapper = new RenamingResourceMapper(resourceProvider, referenceCache, rawMapper);
+        if (prefetcher != null) {
+            prefetcher.setReferenceMapper(classPathMapper::getSourceClassNames);
+        }
         innerClassSource = new MapperClassHolderSource(classPathMapper);
     }
 
@@ -46,4 +68,26 @@ public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateP
     public Date getModificationDate(String className) {
         return classPathMapper.getModificationDate(className);
     }
+
+    @Override
+    public String getDigest(String className) {
+        return classPathMapper.getDigest(className);
+    }
+
+    /**
+     * Schedules parsing of given classes, for example, of classes reached by the previous build.
+     * Does nothing if this source was created without prefetch threads.
+     */
+    public void prefetch(Collection<String> classNames) {
+        if (prefetcher != null) {
+            prefetcher.prefetch(classNames);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+    }
 }
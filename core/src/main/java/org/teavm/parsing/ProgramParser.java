@@ -15,6 +15,10 @@
  */
 package org.teavm.parsing;
 
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ObjectIntMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -107,14 +111,14 @@ public class ProgramParser {
     private StackFrame stack;
     private int index;
     private int[] nextIndexes;
-    private Map<Label, Integer> labelIndexes;
-    private Map<Label, Integer> lineNumbers;
+    private ObjectIntMap<Label> labelIndexes;
+    private ObjectIntMap<Label> lineNumbers;
     private List<List<Instruction>> targetInstructions;
     private List<Instruction> builder = new ArrayList<>();
     private List<BasicBlock> basicBlocks = new ArrayList<>();
     private int minLocal;
     private Program program;
-    private Map<Integer, List<LocalVariableNode>> localVariableMap = new HashMap<>();
+    private IntObjectMap<List<LocalVariableNode>> localVariableMap = new IntObjectHashMap<>();
     private Map<Instruction, Map<Integer, String>> variableDebugNames = new HashMap<>();
 
     public ProgramParser(ReferenceCache methodReferenceCache) {
@@ -239,8 +243,8 @@ public class ProgramParser {
         if ((method.access & Opcodes.ACC_STATIC) != 0) {
             minLocal = 1;
         }
-        labelIndexes = new HashMap<>();
-        lineNumbers = new HashMap<>();
+        labelIndexes = new ObjectIntHashMap<>();
+        lineNumbers = new ObjectIntHashMap<>();
         for (int i = 0; i < instructions.size(); ++i) {
             AbstractInsnNode node = instructions.get(i);
             if (node instanceof LabelNode) {
@@ -253,7 +257,12 @@ public class ProgramParser {
         }
         for (LocalVariableNode localVar : method.localVariables) {
             int location = labelIndexes.get(localVar.start.getLabel());
-            localVariableMap.computeIfAbsent(location, k -> new ArrayList<>()).add(localVar);
+            List<LocalVariableNode> localVarNodes = localVariableMap.get(location);
+            if (localVarNodes == null) {
+                localVarNodes = new ArrayList<>();
+                localVariableMap.put(location, localVarNodes);
+            }
+            localVarNodes.add(localVar);
         }
         targetInstructions = new ArrayList<>(instructions.size());
         targetInstructions.addAll(Collections.nCopies(instructions.size(), null));
@@ -331,7 +340,7 @@ public class ProgramParser {
     private void assemble(MethodNode methodNode) {
         BasicBlock basicBlock = null;
         Map<Integer, String> accumulatedDebugNames = new HashMap<>();
-        Integer lastLineNumber = null;
+        int lastLineNumber = -1;
         TextLocation lastLocation = TextLocation.EMPTY;
         for (int i = 0; i < basicBlocks.size(); ++i) {
             BasicBlock newBasicBlock = basicBlocks.get(i);
@@ -363,8 +372,8 @@ public class ProgramParser {
             AbstractInsnNode insnNode = methodNode.instructions.get(i);
             if (insnNode instanceof LabelNode) {
                 Label label = ((LabelNode) insnNode).getLabel();
-                Integer lineNumber = lineNumbers.get(label);
-                if (lineNumber != null && !lineNumber.equals(lastLineNumber)) {
+                int lineNumber = lineNumbers.getOrDefault(label, -1);
+                if (lineNumber >= 0 && lineNumber != lastLineNumber) {
                     lastLineNumber = lineNumber;
                     lastLocation = new TextLocation(fileName, lastLineNumber);
                 }
@@ -15,7 +15,11 @@
  */
 package org.teavm.parsing;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -36,7 +40,8 @@ import org.teavm.parsing.substitution.OrderedProperties;
 import org.teavm.parsing.substitution.PrefixMapping;
 import org.teavm.vm.spi.ElementFilter;
 
-public class RenamingResourceMapper implements Function<String, ClassHolder>, ClassDateProvider {
+public class RenamingResourceMapper implements Function<String, ClassHolder>, ClassDateProvider,
+        ClassDigestProvider {
     private static final String STRIP_PREFIX_FROM_PREFIX = "stripPrefixFrom";
     private static final String STRIP_PREFIX_FROM_PACKAGE_HIERARCHY_PREFIX =
             STRIP_PREFIX_FROM_PREFIX + "PackageHierarchyClasses";
@@ -61,6 +66,7 @@ public class RenamingResourceMapper implements Function<String, ClassHolder>, Cl
     private ClassExclusions classExclusions = new ClassExclusions();
     private ClassMappings reverseClassMappings = new ClassMappings();
     private ClassMappings reversePackageMappings = new ClassMappings();
+    private MessageDigest configurationDigest = createDigest();
 
     public RenamingResourceMapper(ResourceProvider resourceProvider, ReferenceCache referenceCache,
             Function<String, ClassHolder> provider) {
@@ -69,9 +75,12 @@ public class RenamingResourceMapper implements Function<String, ClassHolder>, Cl
             for (var iter = resourceProvider.getResources("META-INF/teavm.properties"); iter.hasNext();) {
                 var resource = iter.next();
                 Properties properties = new OrderedProperties();
+                byte[] data;
                 try (var input = resource.open()) {
-                    properties.load(input);
+                    data = input.readAllBytes();
                 }
+                configurationDigest.update(data);
+                properties.load(new ByteArrayInputStream(data));
                 loadProperties(properties);
             }
         } catch (IOException e) {
@@ -81,6 +90,7 @@ public class RenamingResourceMapper implements Function<String, ClassHolder>, Cl
 
         for (ElementFilter elementFilter : ServiceLoader.load(ElementFilter.class)) {
             elementFilters.add(elementFilter);
+            configurationDigest.update(elementFilter.getClass().getName().getBytes(StandardCharsets.UTF_8));
         }
 
         this.resourceProvider = resourceProvider;
@@ -152,6 +162,74 @@ public class RenamingResourceMapper implements Function<String, ClassHolder>, Cl
         return cls;
     }
 
+    /**
+     * Returns names of classes, which may be requested from the underlying mapper to produce
+     * the given class, in order of preference.
+     */
+    public List<String> getSourceClassNames(String name) {
+        var result = new ArrayList<String>();
+        for (String mappedClassName : classMappings.apply(name)) {
+            if (!classExclusions.apply(mappedClassName)) {
+                result.add(mappedClassName);
+            }
+        }
+        for (String mappedClassName : packageMappings.apply(name)) {
+            mappedClassName = prefixMapping.apply(mappedClassName);
+            if (!classExclusions.apply(mappedClassName)) {
+                result.add(mappedClassName);
+            }
+        }
+        if (!classExclusions.apply(name)) {
+            result.add(name);
+        }
+        return result;
+    }
+
+    /**
+     * Computes digest of the class file this class is parsed from, combined with renaming rules.
+     */
+    @Override
+    public String getDigest(String className) {
+        if (resourceProvider == null) {
+            return null;
+        }
+        for (var sourceClassName : getSourceClassNames(className)) {
+            var resource = resourceProvider.getResource(sourceClassName.replace('.', '/') + ".class");
+            if (resource == null) {
+                continue;
+            }
+            MessageDigest digest;
+            try {
+                digest = (MessageDigest) configurationDigest.clone();
+            } catch (CloneNotSupportedException e) {
+                return null;
+            }
+            digest.update(className.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(sourceClassName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (var input = resource.open()) {
+                digest.update(input.readAllBytes());
+            } catch (IOException e) {
+                return null;
+            }
+            var sb = new StringBuilder();
+            for (var b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+            }
+            return sb.toString();
+        }
+        return null;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public Date getModificationDate(String className) {
         Date mdate = modificationDates.get(className);
@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing.resource;
+
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.teavm.cache.ProgramDependencyExtractor;
+import org.teavm.model.ClassHolder;
+
+/**
+ * Parses classes ahead of time in background threads. When a class is requested, classes it refers to
+ * are scheduled for parsing, so they are likely to be ready by the time dependency analysis reaches them.
+ * Inner mapper must be safe to call from several threads, which is true for {@link ResourceClassHolderMapper}.
+ *
+ * <p>Every parsed class is handed out only once, since callers are free to modify it. Repeated requests
+ * of the same class parse it again on the calling thread, like the inner mapper would do.</p>
+ *
+ * <p>A request never waits for a prefetch task that has not started yet: such task is claimed by
+ * the calling thread, which parses the class itself. Classes that were prefetched but not requested yet
+ * are only softly reachable, so they don't pin memory when dependency analysis never gets to them.</p>
+ */
+public class PrefetchingClassHolderMapper implements Function<String, ClassHolder>, AutoCloseable {
+    private static final long KEEP_ALIVE_SECONDS = 10;
+    private final Function<String, ClassHolder> innerMapper;
+    private Function<String, ? extends Collection<String>> referenceMapper = List::of;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, PrefetchTask> prefetched = new ConcurrentHashMap<>();
+    private final Set<String> requested = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public PrefetchingClassHolderMapper(Function<String, ClassHolder> innerMapper, int threads) {
+        this.innerMapper = innerMapper;
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "TeaVM class prefetcher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Specifies how names of referenced classes translate to names, which are passed to inner mapper.
+     * This is necessary when requests to inner mapper are made by a renaming mapper.
+     * By default names are passed as is.
+     */
+    public void setReferenceMapper(Function<String, ? extends Collection<String>> referenceMapper) {
+        this.referenceMapper = referenceMapper;
+    }
+
+    @Override
+    public ClassHolder apply(String name) {
+        requested.add(name);
+        var task = prefetched.remove(name);
+        ParsedClass parsed = null;
+        if (task != null) {
+            if (task.claim()) {
+                executor.remove(task);
+            } else {
+                parsed = task.await();
+            }
+        }
+        if (parsed == null) {
+            parsed = parse(name);
+        }
+        for (var reference : parsed.references) {
+            for (var mappedName : referenceMapper.apply(reference)) {
+                prefetch(mappedName);
+            }
+        }
+        return parsed.cls;
+    }
+
+    /**
+     * Schedules parsing of the given class, if it was not requested or scheduled yet.
+     */
+    public void prefetch(String name) {
+        if (closed || requested.contains(name) || prefetched.containsKey(name)) {
+            return;
+        }
+        var task = new PrefetchTask(name);
+        if (prefetched.putIfAbsent(name, task) == null) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                prefetched.remove(name, task);
+            }
+        }
+    }
+
+    /**
+     * Schedules parsing of given classes, for example, of classes reached by the previous build.
+     * Names are translated by reference mapper, like names of referenced classes.
+     */
+    public void prefetch(Collection<String> classNames) {
+        for (var className : classNames) {
+            for (var mappedName : referenceMapper.apply(className)) {
+                prefetch(mappedName);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        prefetched.clear();
+    }
+
+    private ParsedClass parse(String name) {
+        var cls = innerMapper.apply(name);
+        if (cls == null) {
+            return new ParsedClass(null, List.of());
+        }
+        var references = new LinkedHashSet<String>();
+        if (cls.getParent() != null) {
+            references.add(cls.getParent());
+        }
+        references.addAll(cls.getInterfaces());
+        var dependencyExtractor = new ProgramDependencyExtractor();
+        for (var method : cls.getMethods()) {
+            if (method.getProgram() != null) {
+                references.addAll(List.of(dependencyExtractor.extractDependencies(method.getProgram())));
+            }
+        }
+        references.remove(name);
+        return new ParsedClass(cls, references);
+    }
+
+    private class PrefetchTask implements Runnable {
+        final String name;
+        final AtomicBoolean started = new AtomicBoolean();
+        final CompletableFuture<SoftReference<ParsedClass>> result = new CompletableFuture<>();
+
+        PrefetchTask(String name) {
+            this.name = name;
+        }
+
+        boolean claim() {
+            return started.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+            try {
+                result.complete(new SoftReference<>(parse(name)));
+            } catch (Throwable e) {
+                // Let the requesting thread parse the class again and report the error in its own context
+                result.complete(null);
+            }
+        }
+
+        ParsedClass await() {
+            SoftReference<ParsedClass> ref;
+            try {
+                ref = result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                return null;
+            }
+            return ref != null ? ref.get() : null;
+        }
+    }
+
+    private static class ParsedClass {
+        final ClassHolder cls;
+        final Collection<String> references;
+
+        ParsedClass(ClassHolder cls, Collection<String> references) {
+            this.cls = cls;
+            this.references = references;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import org.teavm.interop.Address;
+import org.teavm.interop.Import;
+import org.teavm.interop.StaticInit;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * <p>Sampling allocation profiler. Approximately once per given number of allocated bytes it walks
+ * shadow stack and reports call sites of the current allocation to the host. The host aggregates samples
+ * and writes them as folded stacks, each sample weighted by the number of bytes allocated since
+ * the previous one.</p>
+ *
+ * <p>Distance between samples is randomized around the sampling interval, so that allocation
+ * patterns with a period which is multiple of interval don't skew the profile.</p>
+ */
+@Unmanaged
+@StaticInit
+public final class AllocationProfiler {
+    private static int bytesSinceSample;
+    private static int nextSample;
+    private static int seed = 0x2545F491;
+
+    private AllocationProfiler() {
+    }
+
+    @Import(name = "sampleStarted", module = "teavmAllocationProfile")
+    private static native void sampleStarted(int bytes);
+
+    @Import(name = "sampleFrame", module = "teavmAllocationProfile")
+    private static native void sampleFrame(String className, String methodName, String fileName,
+            int lineNumber);
+
+    @Import(name = "sampleUnknownFrame", module = "teavmAllocationProfile")
+    private static native void sampleUnknownFrame(int callSiteId);
+
+    @Import(name = "sampleCompleted", module = "teavmAllocationProfile")
+    private static native void sampleCompleted();
+
+    static void allocated(int size, int interval) {
+        if (nextSample == 0) {
+            nextSample = nextSampleDistance(interval);
+        }
+        bytesSinceSample += size;
+        if (bytesSinceSample < nextSample) {
+            return;
+        }
+
+        sample(bytesSinceSample);
+        bytesSinceSample = 0;
+        nextSample = nextSampleDistance(interval);
+    }
+
+    private static int nextSampleDistance(int interval) {
+        return interval / 2 + (random() >>> 1) % interval;
+    }
+
+    private static int random() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private static void sample(int bytes) {
+        sampleStarted(bytes);
+        Address stackFrame = ShadowStack.getStackTop();
+        while (stackFrame != null) {
+            int callSiteId = ShadowStack.getCallSiteId(stackFrame);
+            if (callSiteId >= 0) {
+                CallSite callSite = ExceptionHandling.findCallSiteById(callSiteId, stackFrame);
+                CallSiteLocation location = callSite.location;
+                if (location == null) {
+                    sampleUnknownFrame(callSiteId);
+                }
+                while (location != null) {
+                    MethodLocation method = location.method;
+                    if (method != null) {
+                        sampleFrame(method.className != null ? method.className.value : null,
+                                method.methodName != null ? method.methodName.value : null,
+                                method.fileName != null ? method.fileName.value : null,
+                                location.lineNumber);
+                    } else {
+                        sampleUnknownFrame(callSiteId);
+                    }
+                    location = location.next;
+                }
+            }
+            stackFrame = ShadowStack.getNextStackFrame(stackFrame);
+        }
+        sampleCompleted();
+    }
+}
@@ -34,21 +34,34 @@ public final class GC {
     private static final byte CARD_YOUNG_GEN = 2;
     private static final byte CARD_GAP = 4;
     private static final byte CARD_RELOCATABLE = 8;
+    private static final byte CARD_REFERENCES = 16;
     private static final int MIN_CHUNK_SIZE = 8;
+    private static final int INCREMENTAL_STEP_INTERVAL = 64 * 1024;
+    private static final int INCREMENTAL_CLOCK_INTERVAL = 64;
+    private static final int MIN_INCREMENTAL_QUEUE_SIZE = 1024;
 
     static Address currentChunkLimit;
+    static Address currentChunkEnd;
     static FreeChunk currentChunk;
     static FreeChunkHolder currentChunkPointer;
     static int freeChunks;
     static int totalChunks;
     static int freeMemory = (int) availableBytes();
     static RuntimeReference firstWeakReference;
+    private static RuntimeReference lastWeakReference;
     static FreeChunk lastChunk;
 
     static RelocationBlock lastRelocationBlock;
     static boolean isFullGC = true;
     private static int youngGCCount;
     private static RuntimeBuffer firstDirectBuffer;
+    private static boolean incrementalMarking;
+    private static boolean incrementalQueueOverflow;
+    private static Address incrementalAllocationStart;
+
+    private static int pauseCount;
+    private static long totalPauseTime;
+    private static long maxPauseTime;
 
     static native Address gcStorageAddress();
 
@@ -76,6 +89,20 @@ public final class GC {
 
     public static native void writeBarrier(RuntimeObject object);
 
+    private static native boolean isParallelMarkEnabled();
+
+    static native int markParallel(int head, int tail, int limit, boolean full);
+
+    private static native int pauseBudget();
+
+    /**
+     * Monotonic time in nanoseconds, used to measure pauses. Only available when pause budget is set,
+     * otherwise returns zero, so that targets without a high-resolution clock don't need to provide one.
+     */
+    private static native long pauseClock();
+
+    private static native int allocationSamplingInterval();
+
     @Import(name = "teavm_outOfMemory")
     public static native void outOfMemory();
 
@@ -83,11 +110,32 @@ public final class GC {
         return freeMemory;
     }
 
+    public static int getPauseCount() {
+        return pauseCount;
+    }
+
+    /**
+     * Total time the program was stopped by garbage collector, in nanoseconds.
+     * Only measured when pause budget is set.
+     */
+    public static long getTotalPauseTime() {
+        return totalPauseTime;
+    }
+
+    /**
+     * Duration of the longest pause made by garbage collector, in nanoseconds.
+     * Only measured when pause budget is set.
+     */
+    public static long getMaxPauseTime() {
+        return maxPauseTime;
+    }
+
     static {
         currentChunk = heapAddress().toStructure();
         currentChunk.classReference = 0;
         currentChunk.size = (int) availableBytes();
-        currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
+        currentChunkEnd = currentChunk.toAddress().add(currentChunk.size);
+        currentChunkLimit = currentChunkEnd;
         currentChunkPointer = gcStorageAddress().toStructure();
         currentChunkPointer.value = currentChunk;
         freeChunks = 1;
@@ -118,11 +166,18 @@ public final class GC {
         currentChunk = next.toStructure();
         freeMemory -= size;
         MemoryTrace.allocate(current.toAddress(), size);
+        if (allocationSamplingInterval() > 0) {
+            AllocationProfiler.allocated(size, allocationSamplingInterval());
+        }
         return current.toAddress().toStructure();
     }
 
     private static void getNextChunk(int size) {
-        if (getNextChunkIfPossible(size)) {
+        if (incrementalMarking) {
+            if (!markIncrementally() && continueIncrementalAllocation(size)) {
+                return;
+            }
+        } else if (getNextChunkIfPossible(size)) {
             return;
         }
         collectGarbageImpl(size);
@@ -143,9 +198,9 @@ public final class GC {
 
     private static boolean getNextChunkIfPossible(int size) {
         while (true) {
-            if (currentChunk.toAddress().isLessThan(currentChunkLimit)) {
+            if (currentChunk.toAddress().isLessThan(currentChunkEnd)) {
                 currentChunk.classReference = 0;
-                currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
+                currentChunk.size = (int) (currentChunkEnd.toLong() - currentChunk.toAddress().toLong());
             }
             if (--freeChunks == 0) {
                 return false;
@@ -153,7 +208,8 @@ public final class GC {
             currentChunkPointer = Structure.add(FreeChunkHolder.class, currentChunkPointer, 1);
             currentChunk = currentChunkPointer.value;
             if (currentChunk.size >= size + MIN_CHUNK_SIZE || currentChunk.size == size) {
-                currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
+                currentChunkEnd = currentChunk.toAddress().add(currentChunk.size);
+                currentChunkLimit = currentChunkEnd;
                 break;
             }
             freeMemory -= currentChunk.size;
@@ -174,7 +230,9 @@ public final class GC {
     }
 
     private static void collectGarbageFullImpl(int size) {
-        triggerFullGC();
+        if (!incrementalMarking) {
+            triggerFullGC();
+        }
         collectGarbageImpl(size);
     }
 
@@ -186,6 +244,7 @@ public final class GC {
     }
 
     private static void collectGarbageImpl(int size) {
+        long startTime = pauseBudget() > 0 ? pauseClock() : 0;
         doCollectGarbage();
 
         long minRequestedSize = 0;
@@ -193,11 +252,16 @@ public final class GC {
             minRequestedSize = computeMinRequestedSize(size);
         }
 
+        boolean startIncrementalMarking = false;
         if (!isFullGC) {
             var youngGCLimit = canShrinkHeap() ? 2 : 8;
             if (++youngGCCount >= youngGCLimit && isAboutToExpand(minRequestedSize)) {
-                triggerFullGC();
-                doCollectGarbage();
+                if (minRequestedSize == 0 && canMarkIncrementally()) {
+                    startIncrementalMarking = true;
+                } else {
+                    triggerFullGC();
+                    doCollectGarbage();
+                }
                 youngGCCount = 0;
             }
         } else {
@@ -205,11 +269,30 @@ public final class GC {
         }
         isFullGC = false;
 
-        resizeHeapIfNecessary(minRequestedSize);
+        if (!startIncrementalMarking) {
+            resizeHeapIfNecessary(minRequestedSize);
+        }
         currentChunk = currentChunkPointer.value;
-        currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
+        currentChunkEnd = currentChunk.toAddress().add(currentChunk.size);
+        currentChunkLimit = currentChunkEnd;
 
         Address.fill(cardTable(), CARD_VALID, getRegionCount());
+        if (startIncrementalMarking) {
+            startIncrementalMarking();
+        }
+        reportPause(startTime);
+    }
+
+    private static void reportPause(long startTime) {
+        pauseCount++;
+        if (pauseBudget() <= 0) {
+            return;
+        }
+        long duration = pauseClock() - startTime;
+        totalPauseTime += duration;
+        if (duration > maxPauseTime) {
+            maxPauseTime = duration;
+        }
     }
 
     private static void doCollectGarbage() {
@@ -217,7 +300,11 @@ public final class GC {
         if (!isFullGC) {
             storeGapsInCardTable();
         }
-        mark();
+        if (incrementalMarking) {
+            finishIncrementalMarking();
+        } else {
+            mark();
+        }
         processReferences();
         processDirectBuffers();
         sweep();
@@ -252,7 +339,7 @@ public final class GC {
     public static void fixHeap() {
         if (freeChunks > 0) {
             currentChunk.classReference = 0;
-            currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
+            currentChunk.size = (int) (currentChunkEnd.toLong() - currentChunk.toAddress().toLong());
         }
     }
 
@@ -268,6 +355,10 @@ public final class GC {
     private static void mark() {
         MemoryTrace.markStarted();
         firstWeakReference = null;
+        lastWeakReference = null;
+        if (isParallelMarkEnabled()) {
+            MarkQueue.init();
+        }
 
         markFromStaticFields();
         markFromClasses();
@@ -275,6 +366,9 @@ public final class GC {
         if (!isFullGC) {
             markFromOldGeneration();
         }
+        if (isParallelMarkEnabled()) {
+            processMarkQueueParallel();
+        }
 
         MemoryTrace.markCompleted();
     }
@@ -392,12 +486,26 @@ public final class GC {
         if (object == null || isMarked(object)) {
             return;
         }
+        if (incrementalMarking) {
+            enqueueMark(object);
+            return;
+        }
+        if (isParallelMarkEnabled()) {
+            enqueueMark(object);
+            flushMarkQueueParallel();
+            return;
+        }
         MarkQueue.init();
         enqueueMark(object);
         doProcessMarkQueue();
     }
 
     private static boolean doMarkOldGeneration(RuntimeObject object) {
+        if (isParallelMarkEnabled()) {
+            boolean hasObjectsFromYoungGen = markObjectData(object);
+            flushMarkQueueParallel();
+            return hasObjectsFromYoungGen;
+        }
         MarkQueue.init();
         boolean hasObjectsFromYoungGen = markObjectData(object);
         doProcessMarkQueue();
@@ -408,17 +516,248 @@ public final class GC {
         while (!MarkQueue.isEmpty()) {
             RuntimeObject object = MarkQueue.dequeue();
             MemoryTrace.mark(object.toAddress());
+            updateRegion(object);
+            markObjectData(object);
+        }
+    }
+
+    private static Address updateRegion(RuntimeObject object) {
+        long offset = object.toAddress().toLong() - heapAddress().toLong();
+        Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
+        short relativeOffset = (short) (offset % regionSize() + 1);
+        if (region.start == 0 || region.start > relativeOffset) {
+            region.start = relativeOffset;
+        }
+        Address cardTableItem = cardTable().add(offset / regionSize());
+        cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
+        return cardTableItem;
+    }
+
+    /*
+     * In parallel mode roots are collected in the mark queue and traced all at once by native worker threads,
+     * unless the queue gets too large. Workers don't trace references and reference queues, since
+     * they need to maintain lists of weak references, instead they give these objects back, so we trace them
+     * here and pass their children to workers again. Deferred objects that don't fit into the mark queue
+     * are held by native side and given back in the following rounds.
+     */
+
+    private static void flushMarkQueueParallel() {
+        if (MarkQueue.isHalfFull()) {
+            processMarkQueueParallel();
+        }
+    }
 
-            long offset = object.toAddress().toLong() - heapAddress().toLong();
-            Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
-            short relativeOffset = (short) (offset % regionSize() + 1);
-            if (region.start == 0 || region.start > relativeOffset) {
-                region.start = relativeOffset;
+    private static void processMarkQueueParallel() {
+        boolean hasDeferred = false;
+        while (hasDeferred || !MarkQueue.isEmpty()) {
+            int deferredCount = MarkQueue.processParallel(isFullGC);
+            hasDeferred = deferredCount > 0;
+            while (deferredCount-- > 0) {
+                markObjectData(MarkQueue.dequeue());
             }
-            Address cardTableItem = cardTable().add(offset / regionSize());
-            cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
+        }
+    }
 
-            markObjectData(object);
+    /*
+     * When pause budget is set, old generation is marked incrementally. Marking starts after a young collection
+     * that would otherwise be followed by a full one. Then allocation slow path is taken every
+     * INCREMENTAL_STEP_INTERVAL bytes and performs a step that traces objects from the mark queue until
+     * the budget is exhausted. No young collections are performed while marking is in progress.
+     *
+     * Objects allocated during marking are considered live and get marked on the next step. To catch references
+     * that program stores into already traced objects, we rely on write barriers: they clear CARD_VALID bit,
+     * so when marking completes, all marked objects in dirty regions are traced once again, along with roots,
+     * in a single pause, which is followed by usual sweep and defragmentation.
+     *
+     * References and reference queues are not traced incrementally, since they maintain the list of weak
+     * references, which must be built in the final pause. Instead, their regions are flagged
+     * with CARD_REFERENCES bit and traced in the final pause together with dirty regions.
+     *
+     * Mark queue uses the part of GC storage that follows the list of free chunks, so it can overflow.
+     * In this case the rest of marked objects are found by walking the entire heap in the final pause.
+     */
+
+    private static boolean canMarkIncrementally() {
+        return pauseBudget() > 0 && getIncrementalQueueSize() >= MIN_INCREMENTAL_QUEUE_SIZE;
+    }
+
+    private static Address getIncrementalQueueAddress() {
+        return Structure.add(FreeChunkHolder.class, currentChunkPointer, freeChunks).toAddress();
+    }
+
+    private static int getIncrementalQueueSize() {
+        long storageEnd = gcStorageAddress().toLong() + gcStorageSize();
+        return (int) ((storageEnd - getIncrementalQueueAddress().toLong()) / 4);
+    }
+
+    private static void startIncrementalMarking() {
+        isFullGC = true;
+        incrementalMarking = true;
+        incrementalQueueOverflow = false;
+        incrementalAllocationStart = currentChunk.toAddress();
+        Address.fill(regionsAddress().toAddress(), (byte) 0, getRegionCount() * Structure.sizeOf(Region.class));
+        MarkQueue.init(getIncrementalQueueAddress(), getIncrementalQueueSize());
+
+        MemoryTrace.markStarted();
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        limitIncrementalAllocation();
+    }
+
+    private static boolean markIncrementally() {
+        long startTime = pauseClock();
+        markAllocatedObjects();
+        boolean completed = processMarkQueueIncrementally(startTime + pauseBudget() * 1000L);
+        reportPause(startTime);
+        return completed;
+    }
+
+    private static boolean continueIncrementalAllocation(int size) {
+        Address next = currentChunk.toAddress().add(size + Structure.sizeOf(FreeChunk.class));
+        if (!next.isLessThan(currentChunkEnd)) {
+            boolean hasNextChunk = getNextChunkIfPossible(size);
+            incrementalAllocationStart = currentChunk.toAddress();
+            if (!hasNextChunk) {
+                return false;
+            }
+        }
+        limitIncrementalAllocation();
+        return true;
+    }
+
+    private static void limitIncrementalAllocation() {
+        Address stepLimit = currentChunk.toAddress().add(INCREMENTAL_STEP_INTERVAL);
+        currentChunkLimit = stepLimit.isLessThan(currentChunkEnd) ? stepLimit : currentChunkEnd;
+    }
+
+    private static void markAllocatedObjects() {
+        Address limit = currentChunk.toAddress();
+        FreeChunk object = incrementalAllocationStart.toStructure();
+        while (object.toAddress().isLessThan(limit)) {
+            if (object.classReference != 0) {
+                enqueueMark(object.toAddress().toStructure());
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+        incrementalAllocationStart = limit;
+    }
+
+    private static boolean processMarkQueueIncrementally(long deadline) {
+        int count = 0;
+        while (!MarkQueue.isEmpty()) {
+            RuntimeObject object = MarkQueue.dequeue();
+            MemoryTrace.mark(object.toAddress());
+            Address card = updateRegion(object);
+            if (isReference(object)) {
+                card.putByte((byte) (card.getByte() | CARD_REFERENCES));
+            } else {
+                markObjectData(object);
+            }
+            if (++count == INCREMENTAL_CLOCK_INTERVAL) {
+                count = 0;
+                if (pauseClock() >= deadline) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isReference(RuntimeObject object) {
+        RuntimeClass cls = RuntimeClass.getClass(object);
+        if (cls.itemType != null) {
+            return false;
+        }
+        while (cls != null) {
+            int type = (cls.flags >> RuntimeClass.VM_TYPE_SHIFT) & RuntimeClass.VM_TYPE_MASK;
+            if (type != RuntimeClass.VM_TYPE_REGULAR) {
+                return true;
+            }
+            cls = cls.parent;
+        }
+        return false;
+    }
+
+    private static void finishIncrementalMarking() {
+        fixHeap();
+        markAllocatedObjects();
+        processMarkQueueIncrementally(Long.MAX_VALUE);
+        incrementalMarking = false;
+
+        firstWeakReference = null;
+        lastWeakReference = null;
+        if (isParallelMarkEnabled()) {
+            MarkQueue.init();
+        }
+        if (incrementalQueueOverflow) {
+            rescanHeap();
+        }
+        rescanModifiedRegions();
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        if (isParallelMarkEnabled()) {
+            processMarkQueueParallel();
+        }
+
+        int regionsCount = getRegionCount();
+        Address cardPtr = cardTable();
+        for (int i = 0; i < regionsCount; ++i) {
+            boolean hasMarkedObjects = Structure.add(Region.class, regionsAddress(), i).start != 0;
+            cardPtr.putByte(hasMarkedObjects ? CARD_YOUNG_GEN : (byte) 0);
+            cardPtr = cardPtr.add(1);
+        }
+
+        MemoryTrace.markCompleted();
+    }
+
+    private static void rescanHeap() {
+        FreeChunk object = heapAddress().toStructure();
+        Address limit = heapAddress().add(availableBytes());
+        while (object.toAddress().isLessThan(limit)) {
+            if ((object.classReference & RuntimeObject.GC_MARKED) != 0) {
+                RuntimeObject markedObject = object.toAddress().toStructure();
+                updateRegion(markedObject);
+                doMarkOldGeneration(markedObject);
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+    }
+
+    private static void rescanModifiedRegions() {
+        int regionsCount = getRegionCount();
+        Address cardPtr = cardTable();
+        for (int i = 0; i < regionsCount; ++i) {
+            byte card = cardPtr.getByte();
+            if ((card & CARD_VALID) == 0 || (card & CARD_REFERENCES) != 0) {
+                rescanRegion(i);
+            }
+            cardPtr = cardPtr.add(1);
+        }
+    }
+
+    private static void rescanRegion(int regionIndex) {
+        int regionOffset = Structure.add(Region.class, regionsAddress(), regionIndex).start;
+        if (regionOffset == 0) {
+            return;
+        }
+        regionOffset--;
+
+        int regionSize = regionSize();
+        Address regionStart = heapAddress().add(regionIndex * regionSize);
+        Address regionEnd = regionStart.add(regionSize);
+        FreeChunk object = regionStart.add(regionOffset).toStructure();
+        Address heapLimit = heapAddress().add(availableBytes());
+        if (heapLimit.isLessThan(regionEnd)) {
+            regionEnd = heapLimit;
+        }
+
+        while (object.toAddress().isLessThan(regionEnd)) {
+            if ((object.classReference & RuntimeObject.GC_MARKED) != 0) {
+                doMarkOldGeneration(object.toAddress().toStructure());
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
         }
     }
 
@@ -463,7 +802,10 @@ public final class GC {
         }
         if (object.next != null) {
             hasObjectsFromYoungGen |= enqueueMark(object.next);
-        } else if (object.object != null) {
+        } else if (object.object != null && object != lastWeakReference) {
+            if (firstWeakReference == null) {
+                lastWeakReference = object;
+            }
             object.next = firstWeakReference;
             firstWeakReference = object;
         }
@@ -527,7 +869,11 @@ public final class GC {
         } else {
             object.classReference |= RuntimeObject.GC_MARKED;
         }
-        MarkQueue.enqueue(object);
+        if (!incrementalMarking) {
+            MarkQueue.enqueue(object);
+        } else if (!MarkQueue.tryEnqueue(object)) {
+            incrementalQueueOverflow = true;
+        }
     }
 
     private static void processReferences() {
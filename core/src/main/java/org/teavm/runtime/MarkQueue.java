@@ -25,18 +25,24 @@ final class MarkQueue {
     private MarkQueue() {
     }
 
+    private static Address base;
     private static int head;
     private static int tail;
     private static int limit;
 
     static void init() {
+        init(GC.gcStorageAddress(), GC.gcStorageSize() / 4);
+    }
+
+    static void init(Address base, int limit) {
+        MarkQueue.base = base;
+        MarkQueue.limit = limit;
         head = 0;
         tail = 0;
-        limit = GC.gcStorageSize() / 4;
     }
 
     static void enqueue(RuntimeObject object) {
-        GC.gcStorageAddress().add(4 * tail).putInt(pack(object.toAddress()));
+        base.add(4 * tail).putInt(pack(object.toAddress()));
         if (++tail >= limit) {
             tail = 0;
         }
@@ -46,8 +52,21 @@ final class MarkQueue {
         }
     }
 
+    static boolean tryEnqueue(RuntimeObject object) {
+        int next = tail + 1;
+        if (next >= limit) {
+            next = 0;
+        }
+        if (next == head) {
+            return false;
+        }
+        base.add(4 * tail).putInt(pack(object.toAddress()));
+        tail = next;
+        return true;
+    }
+
     static RuntimeObject dequeue() {
-        Address result = unpack(GC.gcStorageAddress().add(4 * head).getInt());
+        Address result = unpack(base.add(4 * head).getInt());
         if (++head >= limit) {
             head = 0;
         }
@@ -65,4 +84,20 @@ final class MarkQueue {
     static boolean isEmpty() {
         return head == tail;
     }
+
+    static boolean isHalfFull() {
+        int size = tail - head;
+        if (size < 0) {
+            size += limit;
+        }
+        return size >= limit / 2;
+    }
+
+    // Native markers read the queue directly from GC storage, so it should be initialized with init()
+    static int processParallel(boolean full) {
+        int deferredCount = GC.markParallel(head, tail, limit, full);
+        head = 0;
+        tail = deferredCount;
+        return deferredCount;
+    }
 }
@@ -26,10 +26,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class IncrementalDirectoryBuildTarget implements BuildTarget {
     private File directory;
@@ -37,22 +39,49 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
     private Set<String> formerWrittenFiles = new HashSet<>();
     private ObjectByteMap<String> knownExistingFiles = new ObjectByteHashMap<>();
     private Map<String, FileDescriptor> knownDescriptors = new HashMap<>();
+    private Set<String> changedFiles = new TreeSet<>();
+    private Set<String> lastChangedFiles = Collections.emptySet();
+    private Set<String> lastRemovedFiles = Collections.emptySet();
 
     public IncrementalDirectoryBuildTarget(File directory) {
         this.directory = directory;
     }
 
     public void reset() {
+        Set<String> removedFiles = new TreeSet<>();
         for (String fileName : formerWrittenFiles) {
             if (!writtenFiles.contains(fileName)) {
                 new File(directory, fileName).delete();
                 knownExistingFiles.put(fileName, (byte) 0);
                 knownDescriptors.remove(fileName);
+                removedFiles.add(fileName);
             }
         }
         formerWrittenFiles.clear();
         formerWrittenFiles.addAll(writtenFiles);
         writtenFiles.clear();
+
+        changedFiles.removeAll(removedFiles);
+        lastChangedFiles = Collections.unmodifiableSet(changedFiles);
+        lastRemovedFiles = Collections.unmodifiableSet(removedFiles);
+        changedFiles = new TreeSet<>();
+    }
+
+    /**
+     * Returns files that were created or got different content since the previous call to {@link #reset()}.
+     * Files written with identical content are not reported, since they were not touched on disk.
+     * Valid after {@link #reset()}, until the next call to it.
+     */
+    public Set<String> getChangedFiles() {
+        return lastChangedFiles;
+    }
+
+    /**
+     * Returns files that were deleted by the last call to {@link #reset()}, since they were not written
+     * during the last build.
+     */
+    public Set<String> getRemovedFiles() {
+        return lastRemovedFiles;
     }
 
     @Override
@@ -99,6 +128,8 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
                 try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
                     output.write(data);
                 }
+                knownExistingFiles.put(name, (byte) 1);
+                changedFiles.add(name);
             }
         }
 
@@ -119,26 +150,26 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
                 descriptor.length = data.length;
             }
 
-            InputStream input = new BufferedInputStream(new FileInputStream(file));
-
-            byte[] buffer = new byte[4096];
-            int index = 0;
-            while (true) {
-                int bytesRead = input.read(buffer);
-                if (bytesRead < 0) {
-                    break;
-                }
-                if (bytesRead + index > data.length) {
-                    return true;
-                }
-                for (int i = 0; i < bytesRead; ++i) {
-                    if (buffer[i] != data[index++]) {
+            try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+                byte[] buffer = new byte[4096];
+                int index = 0;
+                while (true) {
+                    int bytesRead = input.read(buffer);
+                    if (bytesRead < 0) {
+                        break;
+                    }
+                    if (bytesRead + index > data.length) {
                         return true;
                     }
+                    for (int i = 0; i < bytesRead; ++i) {
+                        if (buffer[i] != data[index++]) {
+                            return true;
+                        }
+                    }
                 }
-            }
 
-            return index < data.length;
+                return index < data.length;
+            }
         }
 
         private void checkNotClosed() throws IOException {
@@ -0,0 +1,294 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import java.util.Collection;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.dependency.ClassDependencyInfo;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.FieldDependencyInfo;
+import org.teavm.dependency.MethodDependencyInfo;
+import org.teavm.dependency.ValueDependencyInfo;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+
+/**
+ * Serializes access to dependency information that is shared between optimization workers.
+ * Dependency analyzer populates some of its caches lazily (type sets of nodes, type filters),
+ * so it can't be queried from several threads at once. Method, field and value nodes
+ * returned from here are wrapped as well, so that every query goes through the same lock.
+ */
+class SynchronizedDependencyInfo implements DependencyInfo {
+    private final DependencyInfo underlying;
+    private final ClassReaderSource classSource;
+
+    SynchronizedDependencyInfo(DependencyInfo underlying) {
+        this.underlying = underlying;
+        var underlyingClassSource = underlying.getClassSource();
+        classSource = new ClassReaderSource() {
+            @Override
+            public ClassReader get(String name) {
+                synchronized (underlying) {
+                    return underlyingClassSource.get(name);
+                }
+            }
+        };
+    }
+
+    @Override
+    public ClassReaderSource getClassSource() {
+        return classSource;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return underlying.getClassLoader();
+    }
+
+    @Override
+    public Collection<MethodReference> getReachableMethods() {
+        synchronized (underlying) {
+            return underlying.getReachableMethods();
+        }
+    }
+
+    @Override
+    public Collection<FieldReference> getReachableFields() {
+        synchronized (underlying) {
+            return underlying.getReachableFields();
+        }
+    }
+
+    @Override
+    public Collection<String> getReachableClasses() {
+        synchronized (underlying) {
+            return underlying.getReachableClasses();
+        }
+    }
+
+    @Override
+    public FieldDependencyInfo getField(FieldReference fieldRef) {
+        synchronized (underlying) {
+            return wrap(underlying.getField(fieldRef));
+        }
+    }
+
+    @Override
+    public MethodDependencyInfo getMethod(MethodReference methodRef) {
+        synchronized (underlying) {
+            return wrap(underlying.getMethod(methodRef));
+        }
+    }
+
+    @Override
+    public MethodDependencyInfo getMethodImplementation(MethodReference methodRef) {
+        synchronized (underlying) {
+            return wrap(underlying.getMethodImplementation(methodRef));
+        }
+    }
+
+    @Override
+    public ClassDependencyInfo getClass(String className) {
+        synchronized (underlying) {
+            return underlying.getClass(className);
+        }
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        synchronized (underlying) {
+            return underlying.getCallGraph();
+        }
+    }
+
+    @Override
+    public boolean isPrecise() {
+        return underlying.isPrecise();
+    }
+
+    private FieldDependencyInfo wrap(FieldDependencyInfo field) {
+        return field != null ? new SynchronizedField(field) : null;
+    }
+
+    private MethodDependencyInfo wrap(MethodDependencyInfo method) {
+        return method != null ? new SynchronizedMethod(method) : null;
+    }
+
+    private ValueDependencyInfo wrap(ValueDependencyInfo value) {
+        return value != null ? new SynchronizedValue(value) : null;
+    }
+
+    private class SynchronizedField implements FieldDependencyInfo {
+        private final FieldDependencyInfo field;
+
+        SynchronizedField(FieldDependencyInfo field) {
+            this.field = field;
+        }
+
+        @Override
+        public ValueDependencyInfo getValue() {
+            synchronized (underlying) {
+                return wrap(field.getValue());
+            }
+        }
+
+        @Override
+        public FieldReference getReference() {
+            return field.getReference();
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (underlying) {
+                return field.isMissing();
+            }
+        }
+    }
+
+    private class SynchronizedMethod implements MethodDependencyInfo {
+        private final MethodDependencyInfo method;
+
+        SynchronizedMethod(MethodDependencyInfo method) {
+            this.method = method;
+        }
+
+        @Override
+        public ValueDependencyInfo[] getVariables() {
+            synchronized (underlying) {
+                var variables = method.getVariables();
+                var result = new ValueDependencyInfo[variables.length];
+                for (var i = 0; i < variables.length; ++i) {
+                    result[i] = wrap(variables[i]);
+                }
+                return result;
+            }
+        }
+
+        @Override
+        public int getVariableCount() {
+            synchronized (underlying) {
+                return method.getVariableCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getVariable(int index) {
+            synchronized (underlying) {
+                return wrap(method.getVariable(index));
+            }
+        }
+
+        @Override
+        public int getParameterCount() {
+            synchronized (underlying) {
+                return method.getParameterCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getResult() {
+            synchronized (underlying) {
+                return wrap(method.getResult());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getThrown() {
+            synchronized (underlying) {
+                return wrap(method.getThrown());
+            }
+        }
+
+        @Override
+        public MethodReference getReference() {
+            return method.getReference();
+        }
+
+        @Override
+        public boolean isUsed() {
+            synchronized (underlying) {
+                return method.isUsed();
+            }
+        }
+
+        @Override
+        public boolean isCalled() {
+            synchronized (underlying) {
+                return method.isCalled();
+            }
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (underlying) {
+                return method.isMissing();
+            }
+        }
+    }
+
+    private class SynchronizedValue implements ValueDependencyInfo {
+        private final ValueDependencyInfo value;
+
+        SynchronizedValue(ValueDependencyInfo value) {
+            this.value = value;
+        }
+
+        @Override
+        public ValueType[] getTypes() {
+            synchronized (underlying) {
+                return value.getTypes();
+            }
+        }
+
+        @Override
+        public boolean hasType(ValueType type) {
+            synchronized (underlying) {
+                return value.hasType(type);
+            }
+        }
+
+        @Override
+        public boolean hasMoreTypesThan(int limit) {
+            synchronized (underlying) {
+                return value.hasMoreTypesThan(limit);
+            }
+        }
+
+        @Override
+        public boolean hasArrayType() {
+            synchronized (underlying) {
+                return value.hasArrayType();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getArrayItem() {
+            synchronized (underlying) {
+                return wrap(value.getArrayItem());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getClassValueNode() {
+            synchronized (underlying) {
+                return wrap(value.getClassValueNode());
+            }
+        }
+    }
+}
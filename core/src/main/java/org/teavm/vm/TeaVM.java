@@ -29,6 +29,13 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -44,6 +51,7 @@ import org.teavm.dependency.DependencyAnalyzer;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.dependency.DependencyListener;
 import org.teavm.dependency.DependencyPlugin;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.Linker;
 import org.teavm.dependency.MethodDependencyInfo;
 import org.teavm.diagnostics.AccumulationDiagnostics;
@@ -82,6 +90,9 @@ import org.teavm.model.optimization.DefaultInliningStrategy;
 import org.teavm.model.optimization.Devirtualization;
 import org.teavm.model.optimization.GlobalValueNumbering;
 import org.teavm.model.optimization.Inlining;
+import org.teavm.model.optimization.InliningFilter;
+import org.teavm.model.optimization.InliningFilterFactory;
+import org.teavm.model.optimization.InliningSchedule;
 import org.teavm.model.optimization.InliningStrategy;
 import org.teavm.model.optimization.LoopInvariantMotion;
 import org.teavm.model.optimization.MethodOptimization;
@@ -96,9 +107,11 @@ import org.teavm.model.optimization.UnreachableBasicBlockElimination;
 import org.teavm.model.optimization.UnusedVariableElimination;
 import org.teavm.model.text.ListingBuilder;
 import org.teavm.model.transformation.ClassInitializerInsertionTransformer;
+import org.teavm.model.transformation.StaticInitializerEvaluator;
 import org.teavm.model.util.ModelUtils;
 import org.teavm.model.util.ProgramUtils;
 import org.teavm.model.util.RegisterAllocator;
+import org.teavm.model.util.VariableCategoryProvider;
 import org.teavm.parsing.resource.ResourceProvider;
 import org.teavm.vm.spi.ClassFilter;
 import org.teavm.vm.spi.TeaVMHost;
@@ -162,18 +175,25 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private ProgramDependencyExtractor programDependencyExtractor = new ProgramDependencyExtractor();
     private List<Predicate<MethodReference>> additionalVirtualMethods = new ArrayList<>();
     private int lastKnownClasses;
+    private boolean dependencySnapshotEnabled;
+    private DependencySnapshot dependencySnapshot;
     private int compileProgressReportStart;
     private int compileProgressReportLimit;
     private int compileProgressLimit;
     private int compileProgressValue;
     private ClassSourcePacker classSourcePacker;
     private ClassInitializerInfo classInitializerInfo;
+    private boolean staticInitializerEvaluation;
+    private final int optimizationThreads;
+    private final boolean concurrentInlining;
 
     TeaVM(TeaVMBuilder builder) {
         target = builder.target;
         classLoader = builder.classLoader;
         resourceProvider = builder.resourceProvider;
         classSourcePacker = builder.classSourcePacker;
+        optimizationThreads = builder.optimizationThreads;
+        concurrentInlining = builder.concurrentInlining;
         dependencyAnalyzer = builder.dependencyAnalyzerFactory.create(builder.classSource, resourceProvider,
                 classLoader, this, diagnostics, builder.referenceCache, target.getPlatformTags());
         dependencyAnalyzer.setObfuscated(builder.obfuscated);
@@ -280,6 +300,15 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.optimizationLevel = optimizationLevel;
     }
 
+    /**
+     * Specifies whether static initializers that only compute values of own static fields should be run at build
+     * time, so that resulting values are emitted as initial values of the fields. Has effect only
+     * when optimization level is higher than {@link TeaVMOptimizationLevel#SIMPLE}.
+     */
+    public void setStaticInitializerEvaluation(boolean staticInitializerEvaluation) {
+        this.staticInitializerEvaluation = staticInitializerEvaluation;
+    }
+
     public TeaVMProgressListener getProgressListener() {
         return progressListener;
     }
@@ -379,6 +408,27 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.lastKnownClasses = lastKnownClasses;
     }
 
+    /**
+     * Makes {@link #build(BuildTarget, String)} capture the result of dependency analysis,
+     * which is available via {@link #getDependencySnapshot()} afterwards.
+     */
+    public void setDependencySnapshotEnabled(boolean dependencySnapshotEnabled) {
+        this.dependencySnapshotEnabled = dependencySnapshotEnabled;
+    }
+
+    public DependencySnapshot getDependencySnapshot() {
+        return dependencySnapshot;
+    }
+
+    /**
+     * Supplies the result of dependency analysis of a previous build. Classes that are not stale
+     * according to {@link #setCacheStatus(CacheStatus)} are reached right away, which saves
+     * most of dependency analysis when only few classes change between builds.
+     */
+    public void setDependencySnapshot(DependencySnapshot dependencySnapshot) {
+        this.dependencySnapshot = dependencySnapshot;
+    }
+
     /**
      * <p>Does actual build. Call this method after TeaVM is fully configured and all entry points
      * are specified. This method may fail if there are items (classes, methods and fields)
@@ -410,10 +460,17 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         if (target.needsSystemArrayCopyOptimization()) {
             dependencyAnalyzer.addDependencyListener(new StdlibDependencyListener());
         }
+        if (dependencySnapshot != null) {
+            dependencyAnalyzer.restoreSnapshot(dependencySnapshot, rawCacheStatus);
+            dependencySnapshot = null;
+        }
         dependencyAnalyzer.processDependencies();
         if (wasCancelled() || !diagnostics.getSevereProblems().isEmpty()) {
             return;
         }
+        if (dependencySnapshotEnabled) {
+            dependencySnapshot = dependencyAnalyzer.createSnapshot();
+        }
 
         dependencyAnalyzer.setInterruptor(null);
         dependencyAnalyzer.cleanup(classSourcePacker);
@@ -490,6 +547,9 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                     dependencyAnalyzer.getClassHierarchy(), entryPoint);
             classInitializerAnalysis.analyze(dependencyAnalyzer);
             classInitializerInfo = classInitializerAnalysis;
+            if (staticInitializerEvaluation) {
+                evaluateStaticInitializers(classSet, classInitializerAnalysis);
+            }
             insertClassInit(classSet);
             eliminateClassInit(classSet);
         } else {
@@ -533,6 +593,19 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         return result;
     }
 
+    private void evaluateStaticInitializers(ListableClassHolderSource classes,
+            ClassInitializerAnalysis classInitializerAnalysis) {
+        var evaluator = new StaticInitializerEvaluator(classLoader);
+        var evaluatedClasses = new HashSet<String>();
+        for (var className : classInitializerAnalysis.getInitializationOrder()) {
+            var cls = classes.get(className);
+            if (cls != null && evaluator.evaluate(cls)) {
+                evaluatedClasses.add(className);
+            }
+        }
+        classInitializerAnalysis.removeFromInitializationOrder(evaluatedClasses);
+    }
+
     private void insertClassInit(ListableClassHolderSource classes) {
         var clinitInsertion = new ClassInitializerInsertionTransformer(
                 dependencyAnalyzer.getClassSource(), classInitializerInfo);
@@ -680,17 +753,15 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         if (optimizationLevel == TeaVMOptimizationLevel.SIMPLE) {
             return;
         }
-
-        InliningStrategy inliningStrategy;
-        if (optimizationLevel == TeaVMOptimizationLevel.FULL) {
-            inliningStrategy = new DefaultInliningStrategy(20, 7, 3000, false);
-        } else {
-            inliningStrategy = new DefaultInliningStrategy(100, 7, 300, true);
+        if (optimizationThreads > 1 && concurrentInlining) {
+            inlineConcurrently(classes);
+            return;
         }
 
-        Inlining inlining = new Inlining(new ClassHierarchy(classes), dependencyAnalyzer, inliningStrategy,
-                classes, this::isExternal, optimizationLevel == TeaVMOptimizationLevel.FULL,
-                target.getInliningFilter());
+        Inlining inlining = new Inlining(dependencyAnalyzer, classes, this::isExternal,
+                optimizationLevel == TeaVMOptimizationLevel.FULL, target.getInliningFilter());
+        var worker = inlining.createWorker(new ClassHierarchy(classes));
+        worker.startSequence(createInliningStrategy());
         var methodReferences = inlining.getOrder();
         int classCount = classes.getClassNames().size();
         int initialValue = compileProgressValue;
@@ -712,7 +783,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 } else {
                     Program program = method.getProgram();
                     var context = new MethodOptimizationContextImpl(method);
-                    inlining.apply(program, method.getReference());
+                    worker.apply(program, method.getReference());
                     new UnusedVariableElimination().optimize(context, program);
                 }
             }
@@ -728,7 +799,112 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    /*
+     * Concurrent inlining goes from callers to callees according to InliningSchedule. Groups of the same level
+     * don't depend on each other, so they are distributed between workers. Each group gets its own inlining
+     * strategy, so the result depends neither on the number of threads nor on how groups are distributed
+     * between them. It differs from the result of sequential inlining, which shares strategy between
+     * all methods, that's why it's enabled only on demand.
+     */
+    private void inlineConcurrently(ListableClassHolderSource classes) {
+        DependencyInfo dependencyInfo = new SynchronizedDependencyInfo(dependencyAnalyzer);
+        InliningFilterFactory filterFactory = synchronizedFilterFactory(target.getInliningFilter());
+        Inlining inlining = new Inlining(dependencyInfo, classes, this::isExternal,
+                optimizationLevel == TeaVMOptimizationLevel.FULL, filterFactory);
+        var schedule = inlining.createSchedule(dependencyAnalyzer.getCallGraph());
+        var workers = new ArrayList<Inlining.Worker>();
+        for (int i = 0; i < optimizationThreads; ++i) {
+            workers.add(inlining.createWorker(new ClassHierarchy(classes)));
+        }
+
+        int classCount = classes.getClassNames().size();
+        int initialValue = compileProgressValue;
+        int processedMethods = 0;
+        var pool = new ForkJoinPool(optimizationThreads);
+        try {
+            for (var level : schedule.getLevels()) {
+                if (level.size() == 1) {
+                    inlineGroup(inlining, workers.get(0), level.get(0), classes);
+                } else {
+                    var nextGroup = new AtomicInteger();
+                    var tasks = new ArrayList<ForkJoinTask<?>>();
+                    for (var worker : workers) {
+                        tasks.add(pool.submit(() -> {
+                            int index;
+                            while ((index = nextGroup.getAndIncrement()) < level.size()) {
+                                inlineGroup(inlining, worker, level.get(index), classes);
+                            }
+                        }));
+                    }
+                    for (var task : tasks) {
+                        task.join();
+                    }
+                }
+                for (var group : level) {
+                    processedMethods += group.getMethods().size();
+                }
+
+                int newProgress = initialValue + classCount * processedMethods / schedule.getMethodCount();
+                if (newProgress > compileProgressValue) {
+                    compileProgressValue = newProgress;
+                    reportCompileProgress(compileProgressValue);
+                    if (wasCancelled()) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static InliningFilterFactory synchronizedFilterFactory(InliningFilterFactory filterFactory) {
+        return method -> {
+            InliningFilter filter;
+            synchronized (filterFactory) {
+                filter = filterFactory.createFilter(method);
+            }
+            return invokedMethod -> {
+                synchronized (filterFactory) {
+                    return filter.apply(invokedMethod);
+                }
+            };
+        };
+    }
+
+    private void inlineGroup(Inlining inlining, Inlining.Worker worker, InliningSchedule.Group group,
+            ListableClassHolderSource classes) {
+        worker.startGroup(group, createInliningStrategy());
+        for (var methodReference : group.getMethods()) {
+            ClassHolder cls = classes.get(methodReference.getClassName());
+            MethodHolder method = cls != null ? cls.getMethod(methodReference.getDescriptor()) : null;
+            if (method == null || method.getProgram() == null) {
+                continue;
+            }
+            Program program = method.getProgram();
+            if (!inlining.hasUsages(methodReference)) {
+                inlining.removeUsages(program);
+                method.setProgram(null);
+            } else {
+                worker.apply(program, methodReference);
+                new UnusedVariableElimination().optimize(method, program);
+            }
+        }
+    }
+
+    private InliningStrategy createInliningStrategy() {
+        if (optimizationLevel == TeaVMOptimizationLevel.FULL) {
+            return new DefaultInliningStrategy(20, 7, 3000, false);
+        } else {
+            return new DefaultInliningStrategy(100, 7, 300, true);
+        }
+    }
+
     private void optimize(ListableClassHolderSource classSource) {
+        if (optimizationThreads > 1) {
+            optimizeConcurrently(classSource);
+            return;
+        }
         for (String className : classSource.getClassNames()) {
             ClassHolder cls = classSource.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -741,6 +917,95 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    /*
+     * Target hooks and program cache are not thread-safe, so they are invoked on the calling thread
+     * in the same order as in sequential mode. Only optimization fixpoint and register allocation,
+     * which depend on nothing but the method itself, run in worker threads. This way the output
+     * does not depend on scheduling.
+     */
+    private void optimizeConcurrently(ListableClassHolderSource classSource) {
+        var pool = new ForkJoinPool(optimizationThreads);
+        try {
+            var dependencyInfo = new SynchronizedDependencyInfo(dependencyAnalyzer);
+            var hierarchies = ThreadLocal.withInitial(() -> new ClassHierarchy(dependencyInfo.getClassSource()));
+            var classTasks = new ArrayList<List<MethodOptimizationTask>>();
+            for (String className : classSource.getClassNames()) {
+                ClassHolder cls = classSource.get(className);
+                var tasks = new ArrayList<MethodOptimizationTask>();
+                for (MethodHolder method : cls.getMethods()) {
+                    if (method.getProgram() == null) {
+                        continue;
+                    }
+                    Program cachedProgram = !cacheStatus.isStaleMethod(method.getReference())
+                            ? programCache.get(method.getReference(), cacheStatus)
+                            : null;
+                    if (cachedProgram != null) {
+                        method.setProgram(cachedProgram);
+                        continue;
+                    }
+                    var program = ProgramUtils.copy(method.getProgram());
+                    target.beforeOptimizations(program, method);
+                    var task = new MethodOptimizationTask(method, program);
+                    if (program.basicBlockCount() > 0) {
+                        var context = new ConcurrentMethodOptimizationContext(method, dependencyInfo, hierarchies);
+                        task.future = pool.submit(() -> runOptimizations(context, program));
+                    }
+                    tasks.add(task);
+                }
+                classTasks.add(tasks);
+            }
+
+            for (var tasks : classTasks) {
+                for (var task : tasks) {
+                    if (task.future != null) {
+                        task.future.join();
+                    }
+                }
+                reportCompileProgress(++compileProgressValue);
+                if (wasCancelled()) {
+                    return;
+                }
+            }
+
+            var categoryProvider = target.variableCategoryProvider();
+            for (var tasks : classTasks) {
+                for (var task : tasks) {
+                    if (task.future != null) {
+                        target.afterOptimizations(task.program, task.method);
+                        task.future = categoryProvider != null
+                                ? pool.submit(() -> allocateRegisters(categoryProvider, task.method, task.program))
+                                : null;
+                    }
+                }
+            }
+
+            for (var tasks : classTasks) {
+                for (var task : tasks) {
+                    if (task.future != null) {
+                        task.future.join();
+                    }
+                    Program finalProgram = task.program;
+                    programCache.store(task.method.getReference(), finalProgram,
+                            () -> programDependencyExtractor.extractDependencies(finalProgram));
+                    task.method.setProgram(finalProgram);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static class MethodOptimizationTask {
+        final MethodHolder method;
+        final Program program;
+        ForkJoinTask<?> future;
+
+        MethodOptimizationTask(MethodHolder method, Program program) {
+            this.method = method;
+            this.program = program;
+        }
+    }
+
     private void optimizeMethod(MethodHolder method) {
         if (method.getProgram() == null) {
             return;
@@ -762,40 +1027,46 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         target.beforeOptimizations(optimizedProgram, method);
 
         if (optimizedProgram.basicBlockCount() > 0) {
-            var context = new MethodOptimizationContextImpl(method);
-            boolean changed;
-            do {
-                changed = false;
-                for (MethodOptimization optimization : getOptimizations()) {
-                    try {
-                        changed |= optimization.optimize(context, optimizedProgram);
-                    } catch (Exception | AssertionError e) {
-                        ListingBuilder listingBuilder = new ListingBuilder();
-                        try {
-                            String listing = listingBuilder.buildListing(optimizedProgram, "");
-                            System.err.println("Error optimizing program for method " + method.getReference()
-                                    + ":\n" + listing);
-                        } catch (RuntimeException e2) {
-                            System.err.println("Error optimizing program for method " + method.getReference());
-                            // do nothing
-                        }
-                        throw new RuntimeException(e);
-                    }
-                }
-            } while (changed);
-
+            runOptimizations(new MethodOptimizationContextImpl(method), optimizedProgram);
             target.afterOptimizations(optimizedProgram, method);
             var categoryProvider = target.variableCategoryProvider();
             if (categoryProvider != null) {
-                var allocator = new RegisterAllocator(categoryProvider);
-                allocator.allocateRegisters(method.getReference(), optimizedProgram,
-                        optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+                allocateRegisters(categoryProvider, method, optimizedProgram);
             }
         }
 
         return optimizedProgram;
     }
 
+    private void runOptimizations(MethodOptimizationContext context, Program optimizedProgram) {
+        boolean changed;
+        do {
+            changed = false;
+            for (MethodOptimization optimization : getOptimizations()) {
+                try {
+                    changed |= optimization.optimize(context, optimizedProgram);
+                } catch (Exception | AssertionError e) {
+                    ListingBuilder listingBuilder = new ListingBuilder();
+                    var methodRef = context.getMethod().getReference();
+                    try {
+                        String listing = listingBuilder.buildListing(optimizedProgram, "");
+                        System.err.println("Error optimizing program for method " + methodRef + ":\n" + listing);
+                    } catch (RuntimeException e2) {
+                        System.err.println("Error optimizing program for method " + methodRef);
+                        // do nothing
+                    }
+                    throw new RuntimeException(e);
+                }
+            }
+        } while (changed);
+    }
+
+    private void allocateRegisters(VariableCategoryProvider categoryProvider, MethodReader method, Program program) {
+        var allocator = new RegisterAllocator(categoryProvider);
+        allocator.allocateRegisters(method.getReference(), program,
+                optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+    }
+
     class MethodOptimizationContextImpl implements MethodOptimizationContext {
         private MethodReader method;
 
@@ -824,6 +1095,39 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    static class ConcurrentMethodOptimizationContext implements MethodOptimizationContext {
+        private MethodReader method;
+        private DependencyInfo dependencyInfo;
+        private ThreadLocal<ClassHierarchy> hierarchy;
+
+        ConcurrentMethodOptimizationContext(MethodReader method, DependencyInfo dependencyInfo,
+                ThreadLocal<ClassHierarchy> hierarchy) {
+            this.method = method;
+            this.dependencyInfo = dependencyInfo;
+            this.hierarchy = hierarchy;
+        }
+
+        @Override
+        public MethodReader getMethod() {
+            return method;
+        }
+
+        @Override
+        public DependencyInfo getDependencyInfo() {
+            return dependencyInfo;
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return dependencyInfo.getClassSource();
+        }
+
+        @Override
+        public ClassHierarchy getHierarchy() {
+            return hierarchy.get();
+        }
+    }
+
     private List<MethodOptimization> getOptimizations() {
         List<MethodOptimization> optimizations = new ArrayList<>();
         optimizations.add(new RedundantJumpElimination());
@@ -978,6 +1282,11 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return optimizationLevel == TeaVMOptimizationLevel.SIMPLE;
         }
 
+        @Override
+        public int getOptimizationThreads() {
+            return optimizationThreads;
+        }
+
         @Override
         public boolean isVirtual(MethodReference method) {
             return TeaVM.this.isVirtual(method);
@@ -1008,7 +1317,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
 
     class PostProcessingClassHolderSource implements ListableClassHolderSource {
         private Linker linker = new Linker(dependencyAnalyzer);
-        private Map<String, ClassHolder> cache = new HashMap<>();
+        private ConcurrentMap<String, FutureTask<ClassHolder>> cache = new ConcurrentHashMap<>();
         private Set<String> classNames = Collections.unmodifiableSet(new HashSet<>(
                 dependencyAnalyzer.getReachableClasses().stream()
                         .filter(className -> dependencyAnalyzer.getClassSource().get(className) != null)
@@ -1016,58 +1325,87 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         private ClassInitializerInsertionTransformer clinitInsertion = new ClassInitializerInsertionTransformer(
                 dependencyAnalyzer.getClassSource(), classInitializerInfo);
 
+        /*
+         * Decompilation in worker threads may look up classes, so each class is transformed once
+         * by the first thread that requests it, while other threads requesting the same class wait for the result.
+         * Dependency class source populates its cache lazily, so lookups in it are still serialized.
+         */
         @Override
         public ClassHolder get(String name) {
-            return cache.computeIfAbsent(name, className -> {
-                ClassReader classReader = dependencyAnalyzer.getClassSource().get(className);
-                if (classReader == null) {
-                    return null;
+            var task = cache.get(name);
+            if (task == null) {
+                var newTask = new FutureTask<>(() -> transform(name));
+                task = cache.putIfAbsent(name, newTask);
+                if (task == null) {
+                    task = newTask;
+                    newTask.run();
                 }
-                ClassHolder cls = ModelUtils.copyClass(classReader, false);
-                linker.link(cls);
+            }
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
 
-                for (FieldHolder field : cls.getFields().toArray(new FieldHolder[0])) {
-                    FieldReference fieldRef = new FieldReference(cls.getName(), field.getName());
-                    if (dependencyAnalyzer.getField(fieldRef) == null) {
-                        cls.removeField(field);
-                    }
+        private ClassHolder transform(String className) {
+            ClassReader classReader;
+            synchronized (dependencyAnalyzer) {
+                classReader = dependencyAnalyzer.getClassSource().get(className);
+            }
+            if (classReader == null) {
+                return null;
+            }
+            ClassHolder cls = ModelUtils.copyClass(classReader, false);
+            linker.link(cls);
+
+            for (FieldHolder field : cls.getFields().toArray(new FieldHolder[0])) {
+                FieldReference fieldRef = new FieldReference(cls.getName(), field.getName());
+                if (dependencyAnalyzer.getField(fieldRef) == null) {
+                    cls.removeField(field);
                 }
+            }
 
-                Function<MethodHolder, Program> programSupplier = method -> {
-                    Program program = !cacheStatus.isStaleMethod(method.getReference())
-                            ? programCache.get(method.getReference(), cacheStatus)
-                            : null;
-                    if (program == null) {
-                        program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
-                        clinitInsertion.apply(method, program);
-                        target.beforeInlining(program, method);
-                        program = optimizeMethodCacheMiss(method, program);
-                        Program finalProgram = program;
-                        programCache.store(method.getReference(), finalProgram,
-                                () -> programDependencyExtractor.extractDependencies(finalProgram));
-                    }
-                    return program;
-                };
-
-                for (MethodHolder method : cls.getMethods().toArray(new MethodHolder[0])) {
-                    MethodDependencyInfo methodDep = dependencyAnalyzer.getMethod(method.getReference());
-                    if (methodDep == null || !methodDep.isUsed()) {
-                        if (method.hasModifier(ElementModifier.STATIC)) {
-                            cls.removeMethod(method);
-                        } else {
-                            method.getModifiers().add(ElementModifier.ABSTRACT);
-                            method.getModifiers().remove(ElementModifier.NATIVE);
-                            method.setProgram(null);
-                        }
+            Function<MethodHolder, Program> programSupplier = method -> {
+                Program program = !cacheStatus.isStaleMethod(method.getReference())
+                        ? programCache.get(method.getReference(), cacheStatus)
+                        : null;
+                if (program == null) {
+                    program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
+                    clinitInsertion.apply(method, program);
+                    target.beforeInlining(program, method);
+                    program = optimizeMethodCacheMiss(method, program);
+                    Program finalProgram = program;
+                    programCache.store(method.getReference(), finalProgram,
+                            () -> programDependencyExtractor.extractDependencies(finalProgram));
+                }
+                return program;
+            };
+
+            for (MethodHolder method : cls.getMethods().toArray(new MethodHolder[0])) {
+                MethodDependencyInfo methodDep = dependencyAnalyzer.getMethod(method.getReference());
+                if (methodDep == null || !methodDep.isUsed()) {
+                    if (method.hasModifier(ElementModifier.STATIC)) {
+                        cls.removeMethod(method);
                     } else {
-                        MethodReader methodReader = classReader.getMethod(method.getDescriptor());
-                        if (methodReader != null && methodReader.getProgram() != null) {
-                            method.setProgramSupplier(programSupplier);
-                        }
+                        method.getModifiers().add(ElementModifier.ABSTRACT);
+                        method.getModifiers().remove(ElementModifier.NATIVE);
+                        method.setProgram(null);
+                    }
+                } else {
+                    MethodReader methodReader = classReader.getMethod(method.getDescriptor());
+                    if (methodReader != null && methodReader.getProgram() != null) {
+                        method.setProgramSupplier(programSupplier);
                     }
                 }
-                return cls;
-            });
+            }
+            return cls;
         }
 
         @Override
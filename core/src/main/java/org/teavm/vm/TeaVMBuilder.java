@@ -35,6 +35,8 @@ public class TeaVMBuilder {
     ClassSourcePacker classSourcePacker = (src, names) -> src;
     boolean obfuscated;
     boolean strict;
+    int optimizationThreads = 1;
+    boolean concurrentInlining;
 
     public TeaVMBuilder(TeaVMTarget target) {
         this.target = target;
@@ -101,6 +103,42 @@ public class TeaVMBuilder {
         return this;
     }
 
+    public int getOptimizationThreads() {
+        return optimizationThreads;
+    }
+
+    /**
+     * Sets number of worker threads used to optimize method bodies. Values greater than one
+     * make TeaVM optimize independent methods concurrently, producing same output as a sequential build.
+     * C and JavaScript targets also use these threads to decompile methods ahead of code generation.
+     * Inlining still runs sequentially, unless enabled by {@link #setConcurrentInlining(boolean)}.
+     *
+     * @param optimizationThreads number of threads, must be positive.
+     */
+    public TeaVMBuilder setOptimizationThreads(int optimizationThreads) {
+        if (optimizationThreads < 1) {
+            throw new IllegalArgumentException("Number of optimization threads must be positive: "
+                    + optimizationThreads);
+        }
+        this.optimizationThreads = optimizationThreads;
+        return this;
+    }
+
+    public boolean isConcurrentInlining() {
+        return concurrentInlining;
+    }
+
+    /**
+     * Makes TeaVM inline methods in optimization threads as well. Concurrent inlining visits methods
+     * in a different order than sequential one, so it <b>changes output</b> compared to a build with one thread,
+     * although output still does not depend on the number of threads. Has no effect
+     * unless number of optimization threads is greater than one.
+     */
+    public TeaVMBuilder setConcurrentInlining(boolean concurrentInlining) {
+        this.concurrentInlining = concurrentInlining;
+        return this;
+    }
+
     public TeaVM build() {
         return new TeaVM(this);
     }
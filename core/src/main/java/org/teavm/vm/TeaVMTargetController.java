@@ -50,6 +50,8 @@ public interface TeaVMTargetController {
 
     boolean isFriendlyToDebugger();
 
+    int getOptimizationThreads();
+
     String getEntryPoint();
 
     String getEntryPointName();
@@ -34,7 +34,8 @@ function defaults(imports, userExports, options, module) {
     let context = {
         exports: null,
         userExports: userExports,
-        stackDeobfuscator: null
+        stackDeobfuscator: null,
+        loadSplitModule: null
     };
     if (!hasStringBuiltins()) {
         stringImports(imports);
@@ -50,6 +51,9 @@ function defaults(imports, userExports, options, module) {
         },
         supplyStackDeobfuscator(deobfuscator) {
             context.stackDeobfuscator = deobfuscator;
+        },
+        supplySplitModuleLoader(loader) {
+            context.loadSplitModule = loader;
         }
     }
 }
@@ -206,6 +210,11 @@ function coreImports(imports, context, options, module) {
         },
         linearMemory() {
             return context.exports["teavm.memory"].buffer;
+        },
+        runInSplitModule(moduleIndex, slotIndex, action) {
+            // Failures are left unhandled, so that they reach the host's error reporting
+            context.loadSplitModule(moduleIndex)
+                .then(() => context.exports["teavm.split.slot" + slotIndex].value(action));
         }
     };
     if (module && hasImportedMemory(module)) {
@@ -715,6 +724,8 @@ async function load(src, options) {
     let instance = await WebAssembly.instantiate(module, importObj);
 
     defaultsResult.supplyExports(instance.exports);
+    defaultsResult.supplySplitModuleLoader(createSplitModuleLoader(src, options, isNodeJs, importObj,
+        instance.exports));
     if (deobfuscatorFactory) {
         let moduleToPass = debugInfoLocation === "auto" || debugInfoLocation === "embedded" ? module : null;
         let deobfuscator = createDeobfuscator(moduleToPass, debugInfo, deobfuscatorFactory);
@@ -729,7 +740,7 @@ async function load(src, options) {
     };
     for (let key in instance.exports) {
         let exportObj = instance.exports[key];
-        if (exportObj instanceof WebAssembly.Global) {
+        if (exportObj instanceof WebAssembly.Global && !key.startsWith("teavm.split.")) {
             Object.defineProperty(userExports, key, {
                 get: () => exportObj.value
             });
@@ -738,6 +749,40 @@ async function load(src, options) {
     return teavm;
 }
 
+function createSplitModuleLoader(src, options, isNodeJs, importObj, primaryExports) {
+    let modules = new Map();
+    importObj["teavm.primary"] = primaryExports;
+    return index => {
+        let result = modules.get(index);
+        if (result === void 0) {
+            result = (async () => {
+                try {
+                    let path = typeof options.splitModulePath === "function"
+                        ? options.splitModulePath(index)
+                        : getSplitModulePath(src, index);
+                    let module = await compileModule(path, isNodeJs);
+                    if (!options.noAutoImports) {
+                        await wrapImports(module, importObj);
+                    }
+                    await WebAssembly.instantiate(module, importObj);
+                } catch (e) {
+                    modules.delete(index);
+                    throw e;
+                }
+            })();
+            modules.set(index, result);
+        }
+        return result;
+    };
+}
+
+function getSplitModulePath(src, index) {
+    if (typeof src !== "string") {
+        throw new Error("Location of split module " + index + " is unknown, please provide splitModulePath option");
+    }
+    return src.replace(/\.wasm$/, "") + "-" + index + ".wasm";
+}
+
 async function compileModule(src, isNodeJs) {
     if (typeof src !== "string") {
         return await WebAssembly.compile(src, { builtins: ["js-string"] });
@@ -0,0 +1,201 @@
+#include "allocprofile.h"
+#include "heaptrace.h"
+#include "string.h"
+#include "definitions.h"
+#include <stdint.h>
+#include <inttypes.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+
+#if TEAVM_ALLOCATION_SAMPLING_INTERVAL
+
+#define TEAVM_ALLOCATION_PROFILE_MAX_DEPTH 256
+#define TEAVM_ALLOCATION_PROFILE_INITIAL_BUCKETS 1024
+
+typedef struct {
+    void* className;
+    void* methodName;
+    void* fileName;
+    int32_t lineNumber;
+    int32_t known;
+} TeaVM_AllocationFrame;
+
+typedef struct TeaVM_AllocationStack {
+    struct TeaVM_AllocationStack* next;
+    uint32_t hash;
+    int32_t depth;
+    int64_t bytes;
+    TeaVM_AllocationFrame frames[];
+} TeaVM_AllocationStack;
+
+static TeaVM_AllocationFrame teavm_allocationProfile_frames[TEAVM_ALLOCATION_PROFILE_MAX_DEPTH];
+static int32_t teavm_allocationProfile_depth = 0;
+static int32_t teavm_allocationProfile_bytes = 0;
+
+static TeaVM_AllocationStack** teavm_allocationProfile_buckets = NULL;
+static int32_t teavm_allocationProfile_bucketCount = 0;
+static int32_t teavm_allocationProfile_stackCount = 0;
+
+static void teavm_allocationProfile_addFrame(void* className, void* methodName, void* fileName,
+        int32_t lineNumber, int32_t known) {
+    if (teavm_allocationProfile_depth == TEAVM_ALLOCATION_PROFILE_MAX_DEPTH) {
+        return;
+    }
+    TeaVM_AllocationFrame* frame = &teavm_allocationProfile_frames[teavm_allocationProfile_depth++];
+    frame->className = className;
+    frame->methodName = methodName;
+    frame->fileName = fileName;
+    frame->lineNumber = lineNumber;
+    frame->known = known;
+}
+
+static uint32_t teavm_allocationProfile_hash(TeaVM_AllocationFrame* frames, int32_t depth) {
+    uint32_t hash = 2166136261u;
+    for (int32_t i = 0; i < depth; ++i) {
+        hash = (hash ^ (uint32_t) (uintptr_t) frames[i].className) * 16777619u;
+        hash = (hash ^ (uint32_t) (uintptr_t) frames[i].methodName) * 16777619u;
+        hash = (hash ^ (uint32_t) frames[i].lineNumber) * 16777619u;
+    }
+    return hash;
+}
+
+static void teavm_allocationProfile_rehash(int32_t newBucketCount) {
+    TeaVM_AllocationStack** newBuckets = calloc(newBucketCount, sizeof(TeaVM_AllocationStack*));
+    for (int32_t i = 0; i < teavm_allocationProfile_bucketCount; ++i) {
+        TeaVM_AllocationStack* stack = teavm_allocationProfile_buckets[i];
+        while (stack != NULL) {
+            TeaVM_AllocationStack* next = stack->next;
+            int32_t index = (int32_t) (stack->hash % (uint32_t) newBucketCount);
+            stack->next = newBuckets[index];
+            newBuckets[index] = stack;
+            stack = next;
+        }
+    }
+    free(teavm_allocationProfile_buckets);
+    teavm_allocationProfile_buckets = newBuckets;
+    teavm_allocationProfile_bucketCount = newBucketCount;
+}
+
+static void teavm_allocationProfile_atExit() {
+    teavm_allocationProfile_write();
+}
+
+void teavm_allocationProfile_sampleStarted(int32_t bytes) {
+    if (teavm_allocationProfile_buckets == NULL) {
+        teavm_allocationProfile_rehash(TEAVM_ALLOCATION_PROFILE_INITIAL_BUCKETS);
+        atexit(teavm_allocationProfile_atExit);
+    }
+    teavm_allocationProfile_depth = 0;
+    teavm_allocationProfile_bytes = bytes;
+}
+
+void teavm_allocationProfile_sampleFrame(void* className, void* methodName, void* fileName,
+        int32_t lineNumber) {
+    teavm_allocationProfile_addFrame(className, methodName, fileName, lineNumber, 1);
+}
+
+void teavm_allocationProfile_sampleUnknownFrame(int32_t callSiteId) {
+    teavm_allocationProfile_addFrame(NULL, NULL, NULL, callSiteId, 0);
+}
+
+void teavm_allocationProfile_sampleCompleted() {
+    TeaVM_AllocationFrame* frames = teavm_allocationProfile_frames;
+    int32_t depth = teavm_allocationProfile_depth;
+    uint32_t hash = teavm_allocationProfile_hash(frames, depth);
+    int32_t index = (int32_t) (hash % (uint32_t) teavm_allocationProfile_bucketCount);
+
+    TeaVM_AllocationStack* stack = teavm_allocationProfile_buckets[index];
+    while (stack != NULL) {
+        if (stack->hash == hash && stack->depth == depth
+                && memcmp(stack->frames, frames, depth * sizeof(TeaVM_AllocationFrame)) == 0) {
+            break;
+        }
+        stack = stack->next;
+    }
+
+    if (stack == NULL) {
+        stack = malloc(sizeof(TeaVM_AllocationStack) + depth * sizeof(TeaVM_AllocationFrame));
+        stack->hash = hash;
+        stack->depth = depth;
+        stack->bytes = 0;
+        memcpy(stack->frames, frames, depth * sizeof(TeaVM_AllocationFrame));
+        stack->next = teavm_allocationProfile_buckets[index];
+        teavm_allocationProfile_buckets[index] = stack;
+        if (++teavm_allocationProfile_stackCount > teavm_allocationProfile_bucketCount * 2) {
+            teavm_allocationProfile_rehash(teavm_allocationProfile_bucketCount * 2);
+        }
+    }
+
+    stack->bytes += teavm_allocationProfile_bytes;
+}
+
+static void teavm_allocationProfile_writeString(FILE* out, void* string) {
+    char* mbString = teavm_stringToC(string);
+    if (mbString != NULL) {
+        fputs(mbString, out);
+        free(mbString);
+    }
+}
+
+static void teavm_allocationProfile_writeFrame(FILE* out, TeaVM_AllocationFrame* frame) {
+    if (!frame->known) {
+        fprintf(out, "(unknown:%" PRId32 ")", frame->lineNumber);
+        return;
+    }
+    if (frame->className == NULL || frame->methodName == NULL) {
+        fprintf(out, "(unknown)");
+    } else {
+        teavm_allocationProfile_writeString(out, frame->className);
+        fprintf(out, ".");
+        teavm_allocationProfile_writeString(out, frame->methodName);
+    }
+    if (frame->fileName != NULL && frame->lineNumber >= 0) {
+        fprintf(out, "(");
+        teavm_allocationProfile_writeString(out, frame->fileName);
+        fprintf(out, ":%" PRId32 ")", frame->lineNumber);
+    }
+}
+
+#endif
+
+void teavm_allocationProfile_write() {
+    #if TEAVM_ALLOCATION_SAMPLING_INTERVAL
+        if (teavm_allocationProfile_buckets == NULL) {
+            return;
+        }
+        FILE* out = teavm_gc_openDumpFile(L"teavm-allocation-profile.txt");
+        if (out == NULL) {
+            fprintf(stdout, "Error: could not write allocation profile");
+            return;
+        }
+        for (int32_t i = 0; i < teavm_allocationProfile_bucketCount; ++i) {
+            for (TeaVM_AllocationStack* stack = teavm_allocationProfile_buckets[i]; stack != NULL;
+                    stack = stack->next) {
+                for (int32_t j = stack->depth - 1; j >= 0; --j) {
+                    teavm_allocationProfile_writeFrame(out, &stack->frames[j]);
+                    if (j > 0) {
+                        fprintf(out, ";");
+                    }
+                }
+                fprintf(out, " %" PRId64 "\n", stack->bytes);
+            }
+        }
+        fclose(out);
+    #endif
+}
+
+#if !TEAVM_ALLOCATION_SAMPLING_INTERVAL
+void teavm_allocationProfile_sampleStarted(int32_t bytes) {
+}
+
+void teavm_allocationProfile_sampleFrame(void* className, void* methodName, void* fileName,
+        int32_t lineNumber) {
+}
+
+void teavm_allocationProfile_sampleUnknownFrame(int32_t callSiteId) {
+}
+
+void teavm_allocationProfile_sampleCompleted() {
+}
+#endif
@@ -0,0 +1,10 @@
+#pragma once
+#include <stdint.h>
+#include "definitions.h"
+
+extern void teavm_allocationProfile_sampleStarted(int32_t bytes);
+extern void teavm_allocationProfile_sampleFrame(void* className, void* methodName, void* fileName,
+        int32_t lineNumber);
+extern void teavm_allocationProfile_sampleUnknownFrame(int32_t callSiteId);
+extern void teavm_allocationProfile_sampleCompleted();
+extern void teavm_allocationProfile_write();
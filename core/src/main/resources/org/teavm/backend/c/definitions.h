@@ -67,6 +67,22 @@
     #define TEAVM_GC_STATS 0
 #endif
 
+#ifndef TEAVM_GC_PARALLEL_MARK
+    #define TEAVM_GC_PARALLEL_MARK 0
+#endif
+
+#ifndef TEAVM_GC_MARK_THREADS
+    #define TEAVM_GC_MARK_THREADS 4
+#endif
+
+#ifndef TEAVM_GC_PAUSE_BUDGET
+    #define TEAVM_GC_PAUSE_BUDGET 0
+#endif
+
+#ifndef TEAVM_ALLOCATION_SAMPLING_INTERVAL
+    #define TEAVM_ALLOCATION_SAMPLING_INTERVAL 0
+#endif
+
 #ifndef TEAVM_OBFUSCATED
     #define TEAVM_OBFUSCATED 0
 #endif
\ No newline at end of file
@@ -0,0 +1,407 @@
+#include "gcmark.h"
+#include "core.h"
+#include "memory.h"
+#include "heaptrace.h"
+#include "definitions.h"
+#include <stdlib.h>
+#include <string.h>
+
+#if TEAVM_GC_PARALLEL_MARK
+
+#if TEAVM_UNIX
+    #include <pthread.h>
+#endif
+
+#if TEAVM_WINDOWS
+    #include <Windows.h>
+    #include <intrin.h>
+#endif
+
+#define TEAVM_GC_MARKED ((int32_t) 0x80000000)
+#define TEAVM_GC_OLD_GENERATION ((int32_t) 0x40000000)
+#define TEAVM_GC_CARD_YOUNG_GEN 2
+#define TEAVM_GC_CLASS_PRIMITIVE 2
+#define TEAVM_GC_VM_TYPE_SHIFT 6
+#define TEAVM_GC_VM_TYPE_MASK 7
+#define TEAVM_GC_MARK_PACKET_SIZE 256
+
+#if TEAVM_UNIX
+    static pthread_mutex_t teavm_gc_markMutex = PTHREAD_MUTEX_INITIALIZER;
+    static pthread_cond_t teavm_gc_markCondition = PTHREAD_COND_INITIALIZER;
+
+    #define teavm_gc_markLock() pthread_mutex_lock(&teavm_gc_markMutex)
+    #define teavm_gc_markUnlock() pthread_mutex_unlock(&teavm_gc_markMutex)
+    #define teavm_gc_markWait() pthread_cond_wait(&teavm_gc_markCondition, &teavm_gc_markMutex)
+    #define teavm_gc_markNotifyAll() pthread_cond_broadcast(&teavm_gc_markCondition)
+
+    #define teavm_gc_atomicLoad32(ptr) __atomic_load_n(ptr, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicStore32(ptr, value) __atomic_store_n(ptr, value, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicLoad16(ptr) __atomic_load_n(ptr, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicLoad8(ptr) __atomic_load_n(ptr, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicOr32(ptr, value) __atomic_fetch_or(ptr, value, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicOr8(ptr, value) __atomic_fetch_or(ptr, value, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicAdd32(ptr, value) __atomic_fetch_add(ptr, value, __ATOMIC_RELAXED)
+    #define teavm_gc_atomicCas16(ptr, expected, value) __atomic_compare_exchange_n(ptr, &(expected), value, 0, \
+        __ATOMIC_RELAXED, __ATOMIC_RELAXED)
+#endif
+
+#if TEAVM_WINDOWS
+    static SRWLOCK teavm_gc_markMutex = SRWLOCK_INIT;
+    static CONDITION_VARIABLE teavm_gc_markCondition = CONDITION_VARIABLE_INIT;
+
+    #define teavm_gc_markLock() AcquireSRWLockExclusive(&teavm_gc_markMutex)
+    #define teavm_gc_markUnlock() ReleaseSRWLockExclusive(&teavm_gc_markMutex)
+    #define teavm_gc_markWait() SleepConditionVariableSRW(&teavm_gc_markCondition, &teavm_gc_markMutex, \
+        INFINITE, 0)
+    #define teavm_gc_markNotifyAll() WakeAllConditionVariable(&teavm_gc_markCondition)
+
+    #define teavm_gc_atomicLoad32(ptr) (*(volatile int32_t*) (ptr))
+    #define teavm_gc_atomicStore32(ptr, value) (*(volatile int32_t*) (ptr) = (value))
+    #define teavm_gc_atomicLoad16(ptr) (*(volatile int16_t*) (ptr))
+    #define teavm_gc_atomicLoad8(ptr) (*(volatile uint8_t*) (ptr))
+    #define teavm_gc_atomicOr32(ptr, value) _InterlockedOr((volatile long*) (ptr), (long) (value))
+    #define teavm_gc_atomicOr8(ptr, value) _InterlockedOr8((volatile char*) (ptr), (char) (value))
+    #define teavm_gc_atomicAdd32(ptr, value) _InterlockedExchangeAdd((volatile long*) (ptr), (long) (value))
+
+    static inline int teavm_gc_atomicCas16Impl(int16_t* ptr, int16_t* expected, int16_t value) {
+        int16_t previous = _InterlockedCompareExchange16((volatile short*) ptr, value, *expected);
+        if (previous == *expected) {
+            return 1;
+        }
+        *expected = previous;
+        return 0;
+    }
+    #define teavm_gc_atomicCas16(ptr, expected, value) teavm_gc_atomicCas16Impl(ptr, &(expected), value)
+#endif
+
+typedef struct TeaVM_GcMarkPacket {
+    struct TeaVM_GcMarkPacket* next;
+    int32_t size;
+    TeaVM_Object* objects[TEAVM_GC_MARK_PACKET_SIZE];
+} TeaVM_GcMarkPacket;
+
+typedef struct TeaVM_GcMarkWorker {
+    TeaVM_Object** stack;
+    int32_t size;
+    int32_t capacity;
+} TeaVM_GcMarkWorker;
+
+static TeaVM_GcMarkWorker teavm_gc_markWorkers[TEAVM_GC_MARK_THREADS];
+static int32_t teavm_gc_markThreadsStarted = 0;
+
+// The following fields are guarded by teavm_gc_markMutex
+static TeaVM_GcMarkPacket* teavm_gc_markPool = NULL;
+static TeaVM_GcMarkPacket* teavm_gc_markFreePackets = NULL;
+static int32_t teavm_gc_markEpoch = 0;
+static int32_t teavm_gc_markFinished = 0;
+static int32_t teavm_gc_markDone = 0;
+
+// Written under teavm_gc_markMutex, but also read without it as a hint whether to share work
+static int32_t teavm_gc_markIdle = 0;
+
+static int32_t teavm_gc_markFull = 0;
+static int32_t teavm_gc_markDeferredCount = 0;
+static int32_t teavm_gc_markDeferredLimit = 0;
+
+// Deferred objects that didn't fit into the mark queue, guarded by teavm_gc_markMutex.
+// They are given back to the caller by subsequent calls to teavm_gc_markParallel
+static int32_t* teavm_gc_markOverflow = NULL;
+static int32_t teavm_gc_markOverflowSize = 0;
+static int32_t teavm_gc_markOverflowCapacity = 0;
+
+static TeaVM_GcMarkPacket* teavm_gc_markNewPacket() {
+    TeaVM_GcMarkPacket* packet = teavm_gc_markFreePackets;
+    if (packet != NULL) {
+        teavm_gc_markFreePackets = packet->next;
+    } else {
+        packet = malloc(sizeof(TeaVM_GcMarkPacket));
+        if (packet == NULL) {
+            teavm_outOfMemory();
+        }
+    }
+    packet->next = NULL;
+    packet->size = 0;
+    return packet;
+}
+
+static void teavm_gc_markPush(TeaVM_GcMarkWorker* worker, TeaVM_Object* object) {
+    if (worker->size == worker->capacity) {
+        int32_t newCapacity = worker->capacity > 0 ? worker->capacity * 2 : 4 * TEAVM_GC_MARK_PACKET_SIZE;
+        TeaVM_Object** newStack = realloc(worker->stack, newCapacity * sizeof(TeaVM_Object*));
+        if (newStack == NULL) {
+            teavm_outOfMemory();
+        }
+        worker->stack = newStack;
+        worker->capacity = newCapacity;
+    }
+    worker->stack[worker->size++] = object;
+}
+
+static void teavm_gc_markEnqueue(TeaVM_GcMarkWorker* worker, TeaVM_Object* object) {
+    if (object == NULL) {
+        return;
+    }
+    int32_t header = teavm_gc_atomicLoad32(&object->header);
+    if ((header & TEAVM_GC_MARKED) != 0 || (!teavm_gc_markFull && (header & TEAVM_GC_OLD_GENERATION) != 0)) {
+        return;
+    }
+    int32_t bits = teavm_gc_markFull ? TEAVM_GC_MARKED | TEAVM_GC_OLD_GENERATION : TEAVM_GC_MARKED;
+    if ((teavm_gc_atomicOr32(&object->header, bits) & TEAVM_GC_MARKED) != 0) {
+        return;
+    }
+    teavm_gc_markPush(worker, object);
+}
+
+static void teavm_gc_markOverflowPush(int32_t packed) {
+    if (teavm_gc_markOverflowSize == teavm_gc_markOverflowCapacity) {
+        int32_t newCapacity = teavm_gc_markOverflowCapacity > 0
+                ? teavm_gc_markOverflowCapacity * 2
+                : TEAVM_GC_MARK_PACKET_SIZE;
+        int32_t* newOverflow = realloc(teavm_gc_markOverflow, newCapacity * sizeof(int32_t));
+        if (newOverflow == NULL) {
+            teavm_outOfMemory();
+        }
+        teavm_gc_markOverflow = newOverflow;
+        teavm_gc_markOverflowCapacity = newCapacity;
+    }
+    teavm_gc_markOverflow[teavm_gc_markOverflowSize++] = packed;
+}
+
+static void teavm_gc_markDefer(TeaVM_Object* object) {
+    int32_t packed = (int32_t) (((char*) object - (char*) teavm_gc_heapAddress) >> 2);
+    int32_t index = teavm_gc_atomicAdd32(&teavm_gc_markDeferredCount, 1);
+    if (index >= teavm_gc_markDeferredLimit) {
+        teavm_gc_markLock();
+        teavm_gc_markOverflowPush(packed);
+        teavm_gc_markUnlock();
+        return;
+    }
+    ((int32_t*) teavm_gc_gcStorageAddress)[index] = packed;
+}
+
+static void teavm_gc_markUpdateRegion(TeaVM_Object* object) {
+    intptr_t offset = (char*) object - (char*) teavm_gc_heapAddress;
+    intptr_t regionIndex = offset / teavm_gc_regionSize;
+    int16_t relativeOffset = (int16_t) (offset % teavm_gc_regionSize + 1);
+
+    int16_t* region = (int16_t*) teavm_gc_regionsAddress + regionIndex;
+    int16_t start = teavm_gc_atomicLoad16(region);
+    while (start == 0 || start > relativeOffset) {
+        if (teavm_gc_atomicCas16(region, start, relativeOffset)) {
+            break;
+        }
+    }
+
+    uint8_t* card = (uint8_t*) teavm_gc_cardTable + regionIndex;
+    if ((teavm_gc_atomicLoad8(card) & TEAVM_GC_CARD_YOUNG_GEN) == 0) {
+        teavm_gc_atomicOr8(card, TEAVM_GC_CARD_YOUNG_GEN);
+    }
+}
+
+static void teavm_gc_markVisit(TeaVM_GcMarkWorker* worker, TeaVM_Object* object) {
+    #if TEAVM_MEMORY_TRACE
+        teavm_gc_mark(object);
+    #endif
+    teavm_gc_markUpdateRegion(object);
+
+    TeaVM_Class* cls = TEAVM_CLASS_OF(object);
+    if (cls->itemType != NULL) {
+        if ((cls->itemType->flags & TEAVM_GC_CLASS_PRIMITIVE) != 0) {
+            return;
+        }
+        int32_t size = TEAVM_ARRAY_LENGTH(object);
+        TeaVM_Object** data = TEAVM_ARRAY_DATA(object, TeaVM_Object*);
+        for (int32_t i = 0; i < size; ++i) {
+            teavm_gc_markEnqueue(worker, data[i]);
+        }
+        return;
+    }
+
+    for (TeaVM_Class* c = cls; c != NULL; c = c->superclass) {
+        if (((c->flags >> TEAVM_GC_VM_TYPE_SHIFT) & TEAVM_GC_VM_TYPE_MASK) != 0) {
+            // References and reference queues maintain GC lists, leave them to the single-threaded part
+            teavm_gc_markDefer(object);
+            return;
+        }
+    }
+
+    for (TeaVM_Class* c = cls; c != NULL; c = c->superclass) {
+        int16_t* layout = c->layout;
+        if (layout == NULL) {
+            continue;
+        }
+        int16_t fieldCount = *layout++;
+        while (fieldCount-- > 0) {
+            int16_t fieldOffset = *layout++;
+            teavm_gc_markEnqueue(worker, *(TeaVM_Object**) ((char*) object + fieldOffset));
+        }
+    }
+}
+
+static void teavm_gc_markShare(TeaVM_GcMarkWorker* worker) {
+    teavm_gc_markLock();
+    TeaVM_GcMarkPacket* packet = teavm_gc_markNewPacket();
+    worker->size -= TEAVM_GC_MARK_PACKET_SIZE;
+    memcpy(packet->objects, worker->stack + worker->size, TEAVM_GC_MARK_PACKET_SIZE * sizeof(TeaVM_Object*));
+    packet->size = TEAVM_GC_MARK_PACKET_SIZE;
+    packet->next = teavm_gc_markPool;
+    teavm_gc_markPool = packet;
+    teavm_gc_markNotifyAll();
+    teavm_gc_markUnlock();
+}
+
+static int32_t teavm_gc_markTakeWork(TeaVM_GcMarkWorker* worker) {
+    int32_t result = 0;
+    teavm_gc_markLock();
+    teavm_gc_atomicAdd32(&teavm_gc_markIdle, 1);
+    while (teavm_gc_markPool == NULL && !teavm_gc_markDone) {
+        if (teavm_gc_atomicLoad32(&teavm_gc_markIdle) == TEAVM_GC_MARK_THREADS) {
+            teavm_gc_markDone = 1;
+            teavm_gc_markNotifyAll();
+            break;
+        }
+        teavm_gc_markWait();
+    }
+    if (teavm_gc_markPool != NULL) {
+        TeaVM_GcMarkPacket* packet = teavm_gc_markPool;
+        teavm_gc_markPool = packet->next;
+        for (int32_t i = 0; i < packet->size; ++i) {
+            teavm_gc_markPush(worker, packet->objects[i]);
+        }
+        packet->next = teavm_gc_markFreePackets;
+        teavm_gc_markFreePackets = packet;
+        teavm_gc_atomicAdd32(&teavm_gc_markIdle, -1);
+        result = 1;
+    }
+    teavm_gc_markUnlock();
+    return result;
+}
+
+static void teavm_gc_markRun(TeaVM_GcMarkWorker* worker) {
+    while (teavm_gc_markTakeWork(worker)) {
+        while (worker->size > 0) {
+            TeaVM_Object* object = worker->stack[--worker->size];
+            teavm_gc_markVisit(worker, object);
+            if (worker->size >= 2 * TEAVM_GC_MARK_PACKET_SIZE && teavm_gc_atomicLoad32(&teavm_gc_markIdle) > 0) {
+                teavm_gc_markShare(worker);
+            }
+        }
+    }
+}
+
+static void teavm_gc_markHelper(TeaVM_GcMarkWorker* worker) {
+    int32_t epoch = 0;
+    teavm_gc_markLock();
+    while (1) {
+        while (teavm_gc_markEpoch == epoch) {
+            teavm_gc_markWait();
+        }
+        epoch = teavm_gc_markEpoch;
+        teavm_gc_markUnlock();
+
+        teavm_gc_markRun(worker);
+
+        teavm_gc_markLock();
+        teavm_gc_markFinished++;
+        teavm_gc_markNotifyAll();
+    }
+}
+
+#if TEAVM_UNIX
+    static void* teavm_gc_markThread(void* worker) {
+        teavm_gc_markHelper(worker);
+        return NULL;
+    }
+
+    static void teavm_gc_markStartThread(TeaVM_GcMarkWorker* worker) {
+        pthread_t thread;
+        if (pthread_create(&thread, NULL, teavm_gc_markThread, worker) != 0) {
+            abort();
+        }
+        pthread_detach(thread);
+    }
+#endif
+
+#if TEAVM_WINDOWS
+    static DWORD WINAPI teavm_gc_markThread(LPVOID worker) {
+        teavm_gc_markHelper(worker);
+        return 0;
+    }
+
+    static void teavm_gc_markStartThread(TeaVM_GcMarkWorker* worker) {
+        HANDLE thread = CreateThread(NULL, 0, teavm_gc_markThread, worker, 0, NULL);
+        if (thread == NULL) {
+            abort();
+        }
+        CloseHandle(thread);
+    }
+#endif
+
+static void teavm_gc_markSeed(int32_t head, int32_t tail, int32_t limit) {
+    TeaVM_GcMarkPacket* packet = NULL;
+    while (head != tail) {
+        if (packet == NULL || packet->size == TEAVM_GC_MARK_PACKET_SIZE) {
+            packet = teavm_gc_markNewPacket();
+            packet->next = teavm_gc_markPool;
+            teavm_gc_markPool = packet;
+        }
+        int32_t packed = ((int32_t*) teavm_gc_gcStorageAddress)[head];
+        packet->objects[packet->size++] = (TeaVM_Object*) ((char*) teavm_gc_heapAddress + ((intptr_t) packed << 2));
+        if (++head >= limit) {
+            head = 0;
+        }
+    }
+}
+
+/*
+ * Returns the number of deferred objects written to the beginning of the mark queue. When there are more
+ * deferred objects than the queue can hold, the rest are kept aside and returned by subsequent calls,
+ * so the caller should keep calling this function until it returns 0 and the queue is empty.
+ */
+int32_t teavm_gc_markParallel(int32_t head, int32_t tail, int32_t limit, int32_t full) {
+    if (head == tail && teavm_gc_markOverflowSize == 0) {
+        return 0;
+    }
+    if (!teavm_gc_markThreadsStarted) {
+        teavm_gc_markThreadsStarted = 1;
+        for (int32_t i = 1; i < TEAVM_GC_MARK_THREADS; ++i) {
+            teavm_gc_markStartThread(&teavm_gc_markWorkers[i]);
+        }
+    }
+
+    teavm_gc_markLock();
+    teavm_gc_markFull = full;
+    teavm_gc_markDeferredCount = 0;
+    teavm_gc_markDeferredLimit = limit - 1;
+    teavm_gc_atomicStore32(&teavm_gc_markIdle, 0);
+    teavm_gc_markDone = 0;
+    teavm_gc_markFinished = 0;
+    teavm_gc_markSeed(head, tail, limit);
+    while (teavm_gc_markOverflowSize > 0 && teavm_gc_markDeferredCount < teavm_gc_markDeferredLimit) {
+        ((int32_t*) teavm_gc_gcStorageAddress)[teavm_gc_markDeferredCount++] =
+                teavm_gc_markOverflow[--teavm_gc_markOverflowSize];
+    }
+    teavm_gc_markEpoch++;
+    teavm_gc_markNotifyAll();
+    teavm_gc_markUnlock();
+
+    teavm_gc_markRun(&teavm_gc_markWorkers[0]);
+
+    teavm_gc_markLock();
+    while (teavm_gc_markFinished < TEAVM_GC_MARK_THREADS - 1) {
+        teavm_gc_markWait();
+    }
+    teavm_gc_markUnlock();
+
+    return teavm_gc_markDeferredCount < teavm_gc_markDeferredLimit
+            ? teavm_gc_markDeferredCount
+            : teavm_gc_markDeferredLimit;
+}
+
+#else
+
+int32_t teavm_gc_markParallel(int32_t head, int32_t tail, int32_t limit, int32_t full) {
+    abort();
+}
+
+#endif
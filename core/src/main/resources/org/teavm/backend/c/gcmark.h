@@ -0,0 +1,5 @@
+#pragma once
+#include <stdint.h>
+#include "definitions.h"
+
+extern int32_t teavm_gc_markParallel(int32_t head, int32_t tail, int32_t limit, int32_t full);
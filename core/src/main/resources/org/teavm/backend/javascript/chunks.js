@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+"use strict";
+
+let $rt_chunkBaseUrl = typeof teavm_globals.document === "object" && teavm_globals.document !== null
+    ? (teavm_globals.document.currentScript && teavm_globals.document.currentScript.src
+        ? teavm_globals.document.currentScript.src
+        : teavm_globals.document.baseURI)
+    : typeof teavm_globals.location === "object" ? teavm_globals.location.href : "";
+let $rt_chunkStates = {};
+let $rt_chunkCode = null;
+let $rt_evalChunk = () => teavm_globals.eval($rt_chunkCode);
+let $rt_chunkClasses = data => {
+    for (let i = 0; i < data.length; i += 2) {
+        data[i].$chunk = data[i + 1];
+    }
+}
+let $rt_fetchChunk = (name, callback, errorCallback) => {
+    if (typeof teavm_globals.$rt_loadChunkCustom === "function") {
+        teavm_globals.$rt_loadChunkCustom(name, callback, errorCallback);
+        return;
+    }
+    teavm_globals.fetch(new teavm_globals.URL(name, $rt_chunkBaseUrl))
+        .then(response => {
+            if (!response.ok) {
+                throw new teavm_globals.Error("HTTP status " + response.status);
+            }
+            return response.text();
+        })
+        .then(callback, errorCallback);
+}
+let $rt_runInChunk = action => {
+    let run = () => $rt_startThread(() => action[teavm_javaVirtualMethod('run()V')]());
+    let chunk = action.constructor.$chunk;
+    let state = typeof chunk === "string" ? $rt_chunkStates[chunk] : true;
+    if (state === true) {
+        teavm_globals.Promise.resolve().then(run);
+        return;
+    }
+    if (typeof state === "undefined") {
+        state = [];
+        $rt_chunkStates[chunk] = state;
+        $rt_fetchChunk(chunk, code => {
+            $rt_chunkCode = code;
+            try {
+                $rt_evalChunk();
+            } finally {
+                $rt_chunkCode = null;
+            }
+            $rt_chunkStates[chunk] = true;
+            for (let i = 0; i < state.length; ++i) {
+                state[i]();
+            }
+        }, error => {
+            delete $rt_chunkStates[chunk];
+            $rt_putStderr("Could not load chunk " + chunk + ": " + error + "\n");
+        });
+    }
+    state.push(run);
+}
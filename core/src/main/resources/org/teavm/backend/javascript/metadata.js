@@ -34,66 +34,147 @@ let $rt_metadata = data => {
         cls.$meta = {};
         let m = cls.$meta;
         let className = data[i++];
-
-        m.name = className !== 0 ? className : null;
-        if (m.name !== null) {
+        if (className !== 0) {
             let packageIndex = data[i++];
             if (packageIndex >= 0) {
-                m.name = packages[packageIndex] + m.name;
+                className = packages[packageIndex] + className;
             }
         }
-
-        m.binaryName = "L" + m.name + ";";
         let superclass = data[i++];
-        m.superclass = superclass !== 0 ? superclass : null;
-        m.supertypes = data[i++];
+        let supertypes = data[i++];
+        let flags = data[i++];
+        let accessLevel = data[i++];
+        let innerClassInfo = data[i++];
+        $rt_fillMetadata(m, className, superclass, supertypes, flags, accessLevel, innerClassInfo);
+
         if (m.superclass) {
-            m.supertypes.push(m.superclass);
             cls.prototype = teavm_globals.Object.create(m.superclass.prototype);
         } else {
             cls.prototype = {};
         }
-        let flags = data[i++];
-        m.enum = (flags & 8) !== 0;
-        m.flags = flags;
-        m.primitive = false;
-        m.item = null;
         cls.prototype.constructor = cls;
         cls.classObject = null;
 
-        m.accessLevel = data[i++];
+        let clinit = data[i++];
+        cls.$clinit = clinit !== 0 ? clinit : function() {};
 
-        let innerClassInfo = data[i++];
-        if (innerClassInfo === 0) {
-            m.simpleName = null;
-            m.declaringClass = null;
-            m.enclosingClass = null;
+        let virtualMethods = data[i++];
+        if (virtualMethods !== 0) {
+            $rt_addVirtualMethods(cls, virtualMethods);
+        }
+
+        cls.$array = null;
+    }
+}
+let $rt_lazyMetadata = (data, lazyData) => {
+    let packages = $rt_packageData;
+    let classes = [];
+    let i = 0;
+    while (i < data.length) {
+        let cls = data[i++];
+        let superclass = data[i++];
+        if (superclass !== 0) {
+            cls.prototype = teavm_globals.Object.create(superclass.prototype);
         } else {
-            let enclosingClass = innerClassInfo[0];
-            m.enclosingClass = enclosingClass !== 0 ? enclosingClass : null;
-            let declaringClass = innerClassInfo[1];
-            m.declaringClass = declaringClass !== 0 ? declaringClass : null;
-            let simpleName = innerClassInfo[2];
-            m.simpleName = simpleName !== 0 ? simpleName : null;
+            cls.prototype = {};
         }
+        cls.prototype.constructor = cls;
+        cls.classObject = null;
 
         let clinit = data[i++];
         cls.$clinit = clinit !== 0 ? clinit : function() {};
 
         let virtualMethods = data[i++];
         if (virtualMethods !== 0) {
-            for (let j = 0; j < virtualMethods.length; j += 2) {
-                let name = virtualMethods[j];
-                let func = virtualMethods[j + 1];
-                if (typeof name === 'string') {
-                    name = [name];
-                }
-                for (let k = 0; k < name.length; ++k) {
-                    cls.prototype[name[k]] = func;
+            $rt_addVirtualMethods(cls, virtualMethods);
+        }
+
+        cls.$array = null;
+        classes.push(cls, superclass);
+    }
+
+    let materialized = false;
+    let materialize = () => {
+        if (materialized) {
+            return;
+        }
+        materialized = true;
+        let metadata = lazyData();
+        let i = 0;
+        for (let j = 0; j < classes.length; j += 2) {
+            let m = {};
+            let className = metadata[i++];
+            if (className !== 0) {
+                let packageIndex = metadata[i++];
+                if (packageIndex >= 0) {
+                    className = packages[packageIndex] + className;
                 }
             }
+            let supertypes = metadata[i++];
+            let flags = metadata[i++];
+            let accessLevel = metadata[i++];
+            let innerClassInfo = metadata[i++];
+            $rt_fillMetadata(m, className, classes[j + 1], supertypes, flags, accessLevel, innerClassInfo);
+            teavm_globals.Object.defineProperty(classes[j], "$meta", {
+                value: m,
+                writable: true,
+                enumerable: true,
+                configurable: true
+            });
         }
+    }
+    let descriptor = {
+        get() {
+            materialize();
+            return this.$meta;
+        },
+        set(value) {
+            materialize();
+            this.$meta = value;
+        },
+        enumerable: true,
+        configurable: true
+    };
+    for (let j = 0; j < classes.length; j += 2) {
+        teavm_globals.Object.defineProperty(classes[j], "$meta", descriptor);
+    }
+}
+let $rt_fillMetadata = (m, className, superclass, supertypes, flags, accessLevel, innerClassInfo) => {
+    m.name = className !== 0 ? className : null;
+    m.binaryName = "L" + m.name + ";";
+    m.superclass = superclass !== 0 ? superclass : null;
+    m.supertypes = supertypes;
+    if (m.superclass) {
+        m.supertypes.push(m.superclass);
+    }
+    m.enum = (flags & 8) !== 0;
+    m.flags = flags;
+    m.primitive = false;
+    m.item = null;
+    m.accessLevel = accessLevel;
 
-        cls.$array = null;
+    if (innerClassInfo === 0) {
+        m.simpleName = null;
+        m.declaringClass = null;
+        m.enclosingClass = null;
+    } else {
+        let enclosingClass = innerClassInfo[0];
+        m.enclosingClass = enclosingClass !== 0 ? enclosingClass : null;
+        let declaringClass = innerClassInfo[1];
+        m.declaringClass = declaringClass !== 0 ? declaringClass : null;
+        let simpleName = innerClassInfo[2];
+        m.simpleName = simpleName !== 0 ? simpleName : null;
+    }
+}
+let $rt_addVirtualMethods = (cls, virtualMethods) => {
+    for (let j = 0; j < virtualMethods.length; j += 2) {
+        let name = virtualMethods[j];
+        let func = virtualMethods[j + 1];
+        if (typeof name === 'string') {
+            name = [name];
+        }
+        for (let k = 0; k < name.length; ++k) {
+            cls.prototype[name[k]] = func;
+        }
     }
 }
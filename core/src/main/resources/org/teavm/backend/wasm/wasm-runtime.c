@@ -166,4 +166,16 @@ void teavm_putwcharsErr(int32_t chars, int32_t count) {
     for (int32_t i = 0; i < count; ++i) {
         putc(chars_array[i], stderr);
     }
-}
\ No newline at end of file
+}
+void teavmAllocationProfile_sampleStarted(int32_t bytes) {
+}
+
+void teavmAllocationProfile_sampleFrame(int32_t className, int32_t methodName, int32_t fileName,
+        int32_t lineNumber) {
+}
+
+void teavmAllocationProfile_sampleUnknownFrame(int32_t callSiteId) {
+}
+
+void teavmAllocationProfile_sampleCompleted() {
+}
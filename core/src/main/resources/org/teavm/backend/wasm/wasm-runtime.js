@@ -69,6 +69,49 @@ TeaVM.wasm = function() {
         }
         return result;
     }
+    function decodeString(string, controller) {
+        if (string === 0) {
+            return null;
+        }
+        let instance = controller.instance;
+        let arrayPtr = instance.exports.teavm_stringData(string);
+        let length = instance.exports.teavm_arrayLength(arrayPtr);
+        let arrayData = new Uint16Array(instance.exports.memory.buffer,
+            instance.exports.teavm_charArrayData(arrayPtr), length);
+        let result = "";
+        for (let i = 0; i < length; ++i) {
+            result += String.fromCharCode(arrayData[i]);
+        }
+        return result;
+    }
+    function sampleFrame(controller, className, methodName, fileName, lineNumber) {
+        let profile = controller.allocationProfile;
+        let key = className + ":" + methodName + ":" + lineNumber;
+        let frame = profile.frameCache.get(key);
+        if (typeof frame === "undefined") {
+            className = decodeString(className, controller);
+            methodName = decodeString(methodName, controller);
+            fileName = decodeString(fileName, controller);
+            frame = className !== null && methodName !== null ? className + "." + methodName : "(unknown)";
+            if (fileName !== null && lineNumber >= 0) {
+                frame += "(" + fileName + ":" + lineNumber + ")";
+            }
+            profile.frameCache.set(key, frame);
+        }
+        profile.frames.push(frame);
+    }
+    function sampleCompleted(controller) {
+        let profile = controller.allocationProfile;
+        let stack = profile.frames.reverse().join(";");
+        profile.stacks.set(stack, (profile.stacks.get(stack) || 0) + profile.bytes);
+    }
+    function allocationProfile(controller) {
+        let result = "";
+        for (let [stack, bytes] of controller.allocationProfile.stacks) {
+            result += stack + " " + bytes + "\n";
+        }
+        return result;
+    }
     function logInt(i) {
         lineBuffer += i.toString();
     }
@@ -99,6 +142,7 @@ TeaVM.wasm = function() {
         controller.resolve = null;
         controller.reject = null;
         controller.complete = false;
+        controller.allocationProfile = { frameCache: new Map(), stacks: new Map(), frames: [], bytes: 0 };
         obj.teavm = {
             currentTimeMillis: currentTimeMillis,
             nanoTime: () => performance.now(),
@@ -132,14 +176,26 @@ TeaVM.wasm = function() {
             init: function(maxHeap) {}
         };
 
+        obj.teavmAllocationProfile = {
+            sampleStarted: bytes => {
+                controller.allocationProfile.frames = [];
+                controller.allocationProfile.bytes = bytes;
+            },
+            sampleFrame: (className, methodName, fileName, lineNumber) =>
+                sampleFrame(controller, className, methodName, fileName, lineNumber),
+            sampleUnknownFrame: callSiteId => controller.allocationProfile.frames.push("(unknown:" + callSiteId + ")"),
+            sampleCompleted: () => sampleCompleted(controller)
+        };
+
         return controller;
     }
 
-    function createTeaVM(instance) {
+    function createTeaVM(instance, controller) {
         let teavm = {
             memory: instance.exports.memory,
             instance,
-            catchException: instance.exports.teavm_catchException
+            catchException: instance.exports.teavm_catchException,
+            allocationProfile: () => allocationProfile(controller)
         }
 
         for (const name of ["allocateString", "stringData", "allocateObjectArray", "allocateStringArray",
@@ -186,7 +242,7 @@ TeaVM.wasm = function() {
 
         return WebAssembly.instantiateStreaming(fetch(path), importObj).then((obj => {
             controller.instance = obj.instance;
-            let teavm = createTeaVM(obj.instance);
+            let teavm = createTeaVM(obj.instance, controller);
             teavm.main = createMain(teavm, controller);
             return teavm;
         }));
@@ -206,7 +262,7 @@ TeaVM.wasm = function() {
                 }
                 return WebAssembly.instantiate(module, importObj).then(instance => {
                     controller.instance = instance;
-                    let teavm = createTeaVM(instance);
+                    let teavm = createTeaVM(instance, controller);
                     teavm.main = createMain(teavm, controller);
                     return teavm;
                 });
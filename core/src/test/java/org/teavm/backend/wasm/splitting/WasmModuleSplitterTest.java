@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.splitting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.WasmFunctionTypes;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmGlobal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmStructure;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmStructNewDefault;
+
+public class WasmModuleSplitterTest {
+    private WasmModule module = new WasmModule();
+    private WasmFunctionTypes functionTypes = new WasmFunctionTypes(module);
+    private WasmFunctionType voidType = functionTypes.of(null);
+    private WasmFunctionType actionType = functionTypes.of(null, WasmType.Reference.ANY);
+
+    @Test
+    public void actionsMovedToSecondaryModules() {
+        var main = function("main", voidType);
+        main.setExportName("main");
+        var first = function("first", actionType);
+        var firstOnly = function("firstOnly", voidType);
+        var firstHelper = function("firstHelper", voidType);
+        var second = function("second", actionType);
+        var secondOnly = function("secondOnly", voidType);
+        reference(main, first);
+        reference(main, second);
+        call(first, firstOnly);
+        call(firstOnly, firstHelper);
+        call(second, secondOnly);
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        splitter.addRoot(first);
+        splitter.addRoot(second);
+        var secondaryModules = splitter.split();
+
+        assertEquals(2, secondaryModules.size());
+        var firstModule = moduleOf(secondaryModules, first);
+        var secondModule = moduleOf(secondaryModules, second);
+        assertNotSame(firstModule, secondModule);
+        assertTrue(contains(firstModule, firstOnly));
+        assertTrue(contains(firstModule, firstHelper));
+        assertTrue(contains(secondModule, secondOnly));
+        assertTrue(contains(module, main));
+        assertTrue(!contains(module, first) && !contains(module, firstOnly) && !contains(module, second));
+    }
+
+    @Test
+    public void sharedCodeStaysInPrimaryModule() {
+        var main = function("main", voidType);
+        main.setExportName("main");
+        var mainOnly = function("mainOnly", voidType);
+        var first = function("first", actionType);
+        var second = function("second", actionType);
+        var shared = function("shared", voidType);
+        var usedByMain = function("usedByMain", voidType);
+        call(main, mainOnly);
+        call(mainOnly, usedByMain);
+        reference(main, first);
+        reference(main, second);
+        call(first, shared);
+        call(second, shared);
+        call(first, usedByMain);
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        splitter.addRoot(first);
+        splitter.addRoot(second);
+        var secondaryModules = splitter.split();
+
+        assertTrue(contains(module, shared));
+        assertTrue(contains(module, usedByMain));
+        var firstModule = moduleOf(secondaryModules, first);
+        var sharedImport = findImport(firstModule, shared);
+        assertNotNull(sharedImport);
+        assertEquals(WasmModuleSplitter.PRIMARY_MODULE, sharedImport.getImportModule());
+        assertEquals(shared.getExportName(), sharedImport.getImportName());
+        assertSame(sharedImport, ((WasmCall) first.getBody().get(0)).getFunction());
+    }
+
+    @Test
+    public void movedFunctionsStubbed() {
+        var main = function("main", voidType);
+        main.setExportName("main");
+        var first = function("first", actionType);
+        reference(main, first);
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        splitter.addRoot(first);
+        var secondaryModules = splitter.split();
+
+        var reference = (WasmFunctionReference) ((WasmDrop) main.getBody().get(0)).getOperand();
+        var stub = reference.getFunction();
+        assertEquals("first@stub", stub.getName());
+        assertTrue(contains(module, stub));
+        assertSame(first.getType(), stub.getType());
+
+        var loader = find(module, "teavm.runInSplitModule");
+        assertNotNull(loader);
+        assertEquals("teavm", loader.getImportModule());
+
+        var slots = new ArrayList<WasmGlobal>();
+        for (var global : module.globals) {
+            if (global.getExportName() != null
+                    && global.getExportName().startsWith(WasmModuleSplitter.SLOT_EXPORT_PREFIX)) {
+                slots.add(global);
+            }
+        }
+        assertEquals(1, slots.size());
+
+        var firstModule = secondaryModules.get(0);
+        assertNotNull(firstModule.getStartFunction());
+        assertEquals(WasmModuleSplitter.PRIMARY_MODULE, firstModule.memoryImportModule);
+    }
+
+    @Test
+    public void virtualMethodFollowsInstantiation() {
+        var base = new WasmStructure("Base");
+        var derived = new WasmStructure("Derived");
+        derived.setSupertype(base);
+        module.types.add(base);
+        module.types.add(derived);
+
+        var main = function("main", voidType);
+        main.setExportName("main");
+        var first = function("first", actionType);
+        var method = function("Derived.method", voidType);
+        reference(main, first);
+        var vtable = new WasmGlobal("vtable", WasmType.Reference.FUNC, new WasmFunctionReference(method));
+        module.globals.add(vtable);
+        first.getBody().add(new WasmDrop(new WasmStructNewDefault(derived)));
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        splitter.addRoot(first);
+        splitter.addVirtualMethod(method, derived);
+        var secondaryModules = splitter.split();
+
+        assertTrue(contains(moduleOf(secondaryModules, first), method));
+        assertEquals("Derived.method@stub", ((WasmFunctionReference) vtable.getInitialValue()).getFunction()
+                .getName());
+    }
+
+    @Test
+    public void virtualMethodOfTypeInstantiatedByPrimaryModuleStays() {
+        var derived = new WasmStructure("Derived");
+        module.types.add(derived);
+
+        var main = function("main", voidType);
+        main.setExportName("main");
+        var first = function("first", actionType);
+        var method = function("Derived.method", voidType);
+        reference(main, first);
+        main.getBody().add(new WasmDrop(new WasmStructNewDefault(derived)));
+        module.globals.add(new WasmGlobal("vtable", WasmType.Reference.FUNC, new WasmFunctionReference(method)));
+        first.getBody().add(new WasmDrop(new WasmStructNewDefault(derived)));
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        splitter.addRoot(first);
+        splitter.addVirtualMethod(method, derived);
+        splitter.split();
+
+        assertTrue(contains(module, method));
+    }
+
+    @Test
+    public void noRootsNoModules() {
+        var main = function("main", voidType);
+        main.setExportName("main");
+
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        assertTrue(splitter.split().isEmpty());
+        assertTrue(contains(module, main));
+    }
+
+    private WasmFunction function(String name, WasmFunctionType type) {
+        var function = new WasmFunction(type);
+        function.setName(name);
+        module.functions.add(function);
+        return function;
+    }
+
+    private static void call(WasmFunction caller, WasmFunction callee) {
+        caller.getBody().add(new WasmCall(callee));
+    }
+
+    private static void reference(WasmFunction caller, WasmFunction callee) {
+        caller.getBody().add(new WasmDrop(new WasmFunctionReference(callee)));
+    }
+
+    private static WasmModule moduleOf(List<WasmModule> modules, WasmFunction function) {
+        for (var module : modules) {
+            if (contains(module, function)) {
+                return module;
+            }
+        }
+        throw new AssertionError("Function " + function.getName() + " not found in secondary modules");
+    }
+
+    private static boolean contains(WasmModule module, WasmFunction function) {
+        return module.functions.stream().anyMatch(f -> f == function);
+    }
+
+    private static WasmFunction find(WasmModule module, String name) {
+        return module.functions.stream().filter(f -> name.equals(f.getName())).findFirst().orElse(null);
+    }
+
+    private static WasmFunction findImport(WasmModule module, WasmFunction function) {
+        return module.functions.stream()
+                .filter(f -> f.getImportName() != null && f.getName().equals(function.getName()))
+                .findFirst().orElse(null);
+    }
+}
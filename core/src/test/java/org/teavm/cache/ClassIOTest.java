@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import org.teavm.model.AccessLevel;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.ValueType;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+
+public class ClassIOTest {
+    private static final MethodDescriptor FIRST = new MethodDescriptor("first", ValueType.INTEGER);
+    private static final MethodDescriptor ABSTRACT = new MethodDescriptor("run", ValueType.VOID);
+    private static final MethodDescriptor SECOND = new MethodDescriptor("second", ValueType.INTEGER);
+
+    private ReferenceCache referenceCache = new ReferenceCache();
+    private ClassIO classIO = new ClassIO(referenceCache, new InMemorySymbolTable(), new InMemorySymbolTable(),
+            new InMemorySymbolTable());
+
+    @Test
+    public void roundTrip() throws IOException {
+        var cls = classIO.readClass(write(createClass()), "foo.Bar");
+
+        assertEquals("foo.Bar", cls.getName());
+        assertEquals("java.lang.Object", cls.getParent());
+        assertEquals(ValueType.INTEGER, cls.getField("value").getType());
+        assertEquals(3, cls.getMethods().size());
+        assertEquals(1, cls.getMethod(FIRST).getProgram().basicBlockCount());
+        assertEquals(2, cls.getMethod(FIRST).getProgram().basicBlockAt(0).instructionCount());
+        assertNull(cls.getMethod(ABSTRACT).getProgram());
+        assertEquals(4, cls.getMethod(SECOND).getProgram().basicBlockCount());
+    }
+
+    @Test
+    public void bodiesDecodedOnDemand() throws IOException {
+        var data = write(createClass());
+
+        // Break the last byte of body of the last method, so that decoding can't complete
+        data[data.length - 1] = (byte) 0xFF;
+        var cls = classIO.readClass(data, "foo.Bar");
+
+        assertNotNull(cls.getMethod(SECOND));
+        assertEquals(2, cls.getMethod(FIRST).getProgram().basicBlockAt(0).instructionCount());
+        try {
+            cls.getMethod(SECOND).getProgram();
+            fail("Broken method body should not be decoded");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void truncatedBodiesRejected() throws IOException {
+        var data = write(createClass());
+        try {
+            classIO.readClass(Arrays.copyOf(data, data.length - 1), "foo.Bar");
+            fail("Truncated class should be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void oldFormatRejected() throws IOException {
+        // Former format started with access level and modifiers of class, followed by parent and owner
+        var buffer = new ByteArrayOutputStream();
+        var output = new VarDataOutput(buffer);
+        output.writeUnsigned(AccessLevel.PUBLIC.ordinal());
+        output.writeUnsigned(0);
+        output.writeUnsigned(0);
+        output.writeUnsigned(0);
+        try {
+            classIO.readClass(buffer.toByteArray(), "foo.Bar");
+            fail("Class in old format should be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private byte[] write(ClassReader cls) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        classIO.writeClass(buffer, cls);
+        return buffer.toByteArray();
+    }
+
+    private static ClassReader createClass() {
+        var cls = new ClassHolder("foo.Bar");
+        cls.setParent("java.lang.Object");
+        cls.setLevel(AccessLevel.PUBLIC);
+
+        var field = new FieldHolder("value");
+        field.setType(ValueType.INTEGER);
+        cls.addField(field);
+
+        var first = new MethodHolder(FIRST);
+        first.getModifiers().add(ElementModifier.STATIC);
+        first.setProgram(createProgram(1));
+        cls.addMethod(first);
+
+        var abstractMethod = new MethodHolder(ABSTRACT);
+        abstractMethod.getModifiers().add(ElementModifier.ABSTRACT);
+        cls.addMethod(abstractMethod);
+
+        var second = new MethodHolder(SECOND);
+        second.getModifiers().add(ElementModifier.STATIC);
+        second.setProgram(createProgram(4));
+        cls.addMethod(second);
+
+        return cls;
+    }
+
+    private static Program createProgram(int blockCount) {
+        var program = new Program();
+        for (var i = 0; i < blockCount; ++i) {
+            var block = program.createBasicBlock();
+            var constant = new IntegerConstantInstruction();
+            constant.setConstant(i);
+            constant.setReceiver(program.createVariable());
+            block.add(constant);
+            var exit = new ExitInstruction();
+            exit.setValueToReturn(constant.getReceiver());
+            block.add(exit);
+        }
+        return program;
+    }
+}
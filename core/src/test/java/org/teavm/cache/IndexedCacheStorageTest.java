@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedCacheStorageTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("teavm-cache").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void readsFlushedEntries() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        put(storage, "b", "beta");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), is("alpha"));
+        assertThat(get(storage, "b"), is("beta"));
+        assertThat(get(storage, "c"), nullValue());
+    }
+
+    @Test
+    public void newerSegmentOverridesOlder() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        put(storage, "b", "beta");
+        storage.flush();
+        put(storage, "a", "gamma");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), is("gamma"));
+        assertThat(get(storage, "b"), is("beta"));
+    }
+
+    @Test
+    public void compactsSegments() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        for (int i = 0; i < 20; ++i) {
+            put(storage, "key" + i, "value" + i);
+            storage.flush();
+        }
+        storage.invalidate("key0");
+        storage.flush();
+
+        assertThat(directory.list().length < 20, is(true));
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "key0"), nullValue());
+        for (int i = 1; i < 20; ++i) {
+            assertThat(get(storage, "key" + i), is("value" + i));
+        }
+    }
+
+    @Test
+    public void invalidationSurvivesRestart() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        put(storage, "b", "beta");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        storage.invalidate("a");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), nullValue());
+        assertThat(get(storage, "b"), is("beta"));
+    }
+
+    @Test
+    public void entryStoredAgainAfterInvalidation() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        storage.flush();
+        storage.invalidate("a");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), nullValue());
+        put(storage, "a", "gamma");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), is("gamma"));
+    }
+
+    @Test
+    public void invalidationSurvivesCompaction() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        storage.flush();
+        storage.invalidate("a");
+        for (int i = 0; i < 20; ++i) {
+            put(storage, "key" + i, "value" + i);
+            storage.flush();
+        }
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), nullValue());
+        assertThat(get(storage, "key19"), is("value19"));
+    }
+
+    @Test
+    public void unflushedEntryDroppedOnInvalidation() throws IOException {
+        IndexedCacheStorage storage = new IndexedCacheStorage(directory, "test");
+        put(storage, "a", "alpha");
+        storage.invalidate("a");
+        storage.flush();
+
+        storage = new IndexedCacheStorage(directory, "test");
+        assertThat(get(storage, "a"), nullValue());
+    }
+
+    private static void put(IndexedCacheStorage storage, String key, String value) {
+        storage.put(key, output -> output.write(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String get(IndexedCacheStorage storage, String key) throws IOException {
+        try (InputStream input = storage.get(key)) {
+            return input != null ? new String(input.readAllBytes(), StandardCharsets.UTF_8) : null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LegacyCacheFilesTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("teavm-cache").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (var files = Files.walk(directory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void deletesOnlyLegacyFiles() throws IOException {
+        var methodFile = create("foo/Bar/baz()V.teavm-opt");
+        var otherMethodFile = create("foo/Baz/qux()V.teavm-opt");
+        var classFile = create("foo/Bar.teavm-cls");
+        var segmentFile = create("programs-0.teavm-cache");
+
+        LegacyCacheFiles.delete(directory, "marker", ".teavm-opt");
+
+        assertFalse(methodFile.exists());
+        assertFalse(otherMethodFile.exists());
+        assertFalse("Empty directory should be removed", new File(directory, "foo/Baz").exists());
+        assertTrue(classFile.exists());
+        assertTrue(segmentFile.exists());
+    }
+
+    @Test
+    public void skipsDirectoryWithMarker() throws IOException {
+        LegacyCacheFiles.delete(directory, "marker", ".teavm-opt");
+        assertTrue(new File(directory, "marker").exists());
+
+        var methodFile = create("foo/Bar/baz()V.teavm-opt");
+        LegacyCacheFiles.delete(directory, "marker", ".teavm-opt");
+        assertTrue("Directory should not be walked again", methodFile.exists());
+
+        LegacyCacheFiles.delete(directory, "otherMarker", ".teavm-opt");
+        assertFalse(methodFile.exists());
+    }
+
+    private File create(String path) throws IOException {
+        var file = new File(directory, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[] { 1 });
+        return file;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.teavm.model.AccessLevel;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.ValueType;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+
+public class SharedClassCacheTest {
+    private static final String DIGEST = "0123456789abcdef";
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("teavm-shared-cache").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (var files = Files.walk(directory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        createCache().store(DIGEST, createClass());
+
+        var cls = createCache().get(DIGEST, "foo.Bar");
+        assertNotNull(cls);
+        assertEquals("foo.Bar", cls.getName());
+        assertEquals("java.lang.Object", cls.getParent());
+        assertEquals(AccessLevel.PUBLIC, cls.getLevel());
+
+        var field = cls.getField("value");
+        assertNotNull(field);
+        assertEquals(ValueType.INTEGER, field.getType());
+        assertEquals(23, field.getInitialValue());
+
+        var method = cls.getMethod(new MethodDescriptor("answer", ValueType.INTEGER));
+        assertNotNull(method);
+        assertTrue(method.readModifiers().contains(ElementModifier.STATIC));
+        var program = method.getProgram();
+        assertEquals(1, program.basicBlockCount());
+        assertEquals(2, program.basicBlockAt(0).instructionCount());
+
+        var abstractMethod = cls.getMethod(new MethodDescriptor("run", ValueType.VOID));
+        assertNotNull(abstractMethod);
+        assertNull(abstractMethod.getProgram());
+    }
+
+    @Test
+    public void missingEntry() {
+        assertNull(createCache().get(DIGEST, "foo.Bar"));
+    }
+
+    @Test
+    public void otherClassName() throws IOException {
+        createCache().store(DIGEST, createClass());
+        assertNull(createCache().get(DIGEST, "foo.Baz"));
+    }
+
+    @Test
+    public void corruptedEntry() throws IOException {
+        createCache().store(DIGEST, createClass());
+        var file = entryFile();
+        var data = Files.readAllBytes(file.toPath());
+        for (var i = data.length / 2; i < data.length; ++i) {
+            var corrupted = data.clone();
+            corrupted[i] ^= 0x55;
+            Files.write(file.toPath(), corrupted);
+            var cls = createCache().get(DIGEST, "foo.Bar");
+            if (cls != null) {
+                fail("Corrupted byte " + i + " not detected");
+            }
+        }
+    }
+
+    @Test
+    public void truncatedEntry() throws IOException {
+        createCache().store(DIGEST, createClass());
+        var file = entryFile();
+        var data = Files.readAllBytes(file.toPath());
+        for (var length : new int[] { 0, 3, data.length / 2, data.length - 1 }) {
+            Files.write(file.toPath(), Arrays.copyOf(data, length));
+            assertNull("Entry truncated to " + length + " bytes", createCache().get(DIGEST, "foo.Bar"));
+        }
+    }
+
+    @Test
+    public void otherCompilerVersion() throws IOException {
+        new SharedClassCache(directory, new ReferenceCache(), false, "1.0").store(DIGEST, createClass());
+
+        assertNull(new SharedClassCache(directory, new ReferenceCache(), false, "2.0").get(DIGEST, "foo.Bar"));
+        assertNotNull(new SharedClassCache(directory, new ReferenceCache(), false, "1.0").get(DIGEST, "foo.Bar"));
+    }
+
+    @Test
+    public void readOnly() throws IOException {
+        var readOnlyCache = new SharedClassCache(directory, new ReferenceCache(), true);
+        assertTrue(readOnlyCache.isReadOnly());
+        try {
+            readOnlyCache.store(DIGEST, createClass());
+            fail("Read-only cache should not store entries");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertNull(readOnlyCache.get(DIGEST, "foo.Bar"));
+
+        createCache().store(DIGEST, createClass());
+        assertNotNull(readOnlyCache.get(DIGEST, "foo.Bar"));
+    }
+
+    @Test
+    public void existingEntryNotOverwritten() throws IOException {
+        createCache().store(DIGEST, createClass());
+        var file = entryFile();
+        assertTrue(file.setLastModified(1000));
+
+        createCache().store(DIGEST, createClass());
+        assertEquals(1000, file.lastModified());
+        try (var files = Files.list(file.getParentFile().toPath())) {
+            assertEquals("Temporary files should be removed", 1, files.count());
+        }
+    }
+
+    private SharedClassCache createCache() {
+        return new SharedClassCache(directory, new ReferenceCache(), false);
+    }
+
+    private File entryFile() {
+        return new File(directory, DIGEST.substring(0, 2) + "/" + DIGEST + ".teavm-cls");
+    }
+
+    private static ClassReader createClass() {
+        var cls = new ClassHolder("foo.Bar");
+        cls.setParent("java.lang.Object");
+        cls.setLevel(AccessLevel.PUBLIC);
+
+        var field = new FieldHolder("value");
+        field.setType(ValueType.INTEGER);
+        field.setInitialValue(23);
+        field.getModifiers().add(ElementModifier.STATIC);
+        cls.addField(field);
+
+        var method = new MethodHolder("answer", ValueType.INTEGER);
+        method.getModifiers().add(ElementModifier.STATIC);
+        method.setLevel(AccessLevel.PUBLIC);
+        var program = new Program();
+        var block = program.createBasicBlock();
+        var constant = new IntegerConstantInstruction();
+        constant.setConstant(42);
+        constant.setReceiver(program.createVariable());
+        block.add(constant);
+        var exit = new ExitInstruction();
+        exit.setValueToReturn(constant.getReceiver());
+        block.add(exit);
+        method.setProgram(program);
+        cls.addMethod(method);
+
+        var abstractMethod = new MethodHolder("run", ValueType.VOID);
+        abstractMethod.getModifiers().add(ElementModifier.ABSTRACT);
+        cls.addMethod(abstractMethod);
+
+        return cls;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+public class InterpreterTest {
+    private static final String PREFIX = "model/interpreter/";
+    @Rule
+    public TestName name = new TestName();
+
+    @Test
+    public void intDivide() throws InterpretException {
+        assertEquals(3, run());
+    }
+
+    @Test
+    public void longDivide() throws InterpretException {
+        assertEquals(3L, run());
+    }
+
+    @Test
+    public void floatDivide() throws InterpretException {
+        assertEquals(3F, run());
+    }
+
+    @Test
+    public void doubleDivide() throws InterpretException {
+        assertEquals(3.0, run());
+    }
+
+    @Test
+    public void intShiftLeft() throws InterpretException {
+        assertEquals(48, run());
+    }
+
+    @Test
+    public void intShiftRight() throws InterpretException {
+        assertEquals(-4, run());
+    }
+
+    @Test
+    public void intShiftRightUnsigned() throws InterpretException {
+        assertEquals(15, run());
+    }
+
+    @Test
+    public void longShiftLeft() throws InterpretException {
+        assertEquals(3L << 40, run());
+    }
+
+    @Test
+    public void longShiftRightUnsigned() throws InterpretException {
+        assertEquals(15L, run());
+    }
+
+    @Test
+    public void longCompare() throws InterpretException {
+        assertEquals(-1, run());
+    }
+
+    @Test
+    public void doubleCompare() throws InterpretException {
+        assertEquals(1, run());
+    }
+
+    @Test
+    public void voidReturn() throws InterpretException {
+        assertNull(run());
+    }
+
+    private Object run() throws InterpretException {
+        Program program = ListingParseUtils.parseFromResource(PREFIX + name.getMethodName() + ".txt");
+        return new Interpreter(InterpreterTest.class.getClassLoader()).interpret(program, new Object[0]);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.lowlevel;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Set;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.ValueType;
+
+public class LeafMethodFinderTest {
+    private static final String PREFIX = "model/lowlevel/leaf-method-finder/";
+    private static Set<MethodReference> leafMethods;
+
+    @BeforeClass
+    public static void findLeafMethods() {
+        var cls = new ClassHolder("Foo");
+        addMethod(cls, "leaf", ValueType.INTEGER);
+        addMethod(cls, "allocates", ValueType.VOID);
+        addMethod(cls, "virtualCall", ValueType.INTEGER);
+        addMethod(cls, "raises", ValueType.VOID);
+        addMethod(cls, "callsLeaf", ValueType.INTEGER);
+        addMethod(cls, "callsAllocating", ValueType.VOID);
+        addMethod(cls, "callsTransitively", ValueType.VOID);
+        addMethod(cls, "recursive", ValueType.VOID);
+
+        var classSource = new MutableClassHolderSource();
+        classSource.putClassHolder(cls);
+        leafMethods = new LeafMethodFinder(classSource, new Characteristics(classSource), Set.of()).find();
+    }
+
+    @Test
+    public void arithmeticIsLeaf() {
+        assertTrue(isLeaf("leaf", ValueType.INTEGER));
+    }
+
+    @Test
+    public void allocationIsNotLeaf() {
+        assertFalse(isLeaf("allocates", ValueType.VOID));
+    }
+
+    @Test
+    public void virtualCallIsNotLeaf() {
+        assertFalse(isLeaf("virtualCall", ValueType.INTEGER));
+    }
+
+    @Test
+    public void throwIsNotLeaf() {
+        assertFalse(isLeaf("raises", ValueType.VOID));
+    }
+
+    @Test
+    public void callToLeafIsLeaf() {
+        assertTrue(isLeaf("callsLeaf", ValueType.INTEGER));
+    }
+
+    @Test
+    public void callReachingAllocationIsNotLeaf() {
+        assertFalse(isLeaf("callsAllocating", ValueType.VOID));
+        assertFalse(isLeaf("callsTransitively", ValueType.VOID));
+    }
+
+    @Test
+    public void recursionIsNotLeaf() {
+        assertFalse(isLeaf("recursive", ValueType.VOID));
+    }
+
+    private static boolean isLeaf(String name, ValueType returnType) {
+        return leafMethods.contains(new MethodReference("Foo", name, returnType));
+    }
+
+    private static void addMethod(ClassHolder cls, String name, ValueType returnType) {
+        var method = new MethodHolder(name, returnType);
+        method.getModifiers().add(ElementModifier.STATIC);
+        method.setProgram(ListingParseUtils.parseFromResource(PREFIX + name + ".txt"));
+        cls.addMethod(method);
+    }
+}
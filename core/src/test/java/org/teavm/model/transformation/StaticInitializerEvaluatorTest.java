@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.transformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+
+public class StaticInitializerEvaluatorTest {
+    private static final String PREFIX = "model/transformation/static-initializer-evaluator/";
+    private static final MethodDescriptor CLINIT = new MethodDescriptor("<clinit>", void.class);
+    @Rule
+    public TestName name = new TestName();
+
+    @Test
+    public void simple() {
+        var cls = evaluate(true);
+        assertEquals(42, initialValue(cls, "x"));
+        assertEquals(3L, initialValue(cls, "l"));
+        assertEquals("foo", initialValue(cls, "s"));
+    }
+
+    @Test
+    public void readsOwnField() {
+        var cls = evaluate(true);
+        assertEquals(6, initialValue(cls, "x"));
+        assertEquals(5, initialValue(cls, "y"));
+    }
+
+    @Test
+    public void branches() {
+        var cls = evaluate(true);
+        assertEquals(1, initialValue(cls, "x"));
+    }
+
+    @Test
+    public void smallTypes() {
+        var cls = evaluate(true);
+        assertEquals(-56, initialValue(cls, "b"));
+        assertEquals(65, initialValue(cls, "c"));
+        assertEquals(1, initialValue(cls, "z"));
+    }
+
+    @Test
+    public void loop() {
+        evaluate(false);
+    }
+
+    @Test
+    public void call() {
+        evaluate(false);
+    }
+
+    @Test
+    public void foreignField() {
+        evaluate(false);
+    }
+
+    @Test
+    public void failedEvaluation() {
+        evaluate(false);
+    }
+
+    @Test
+    public void nonRepresentableValue() {
+        evaluate(false);
+    }
+
+    private ClassHolder evaluate(boolean expectedSuccess) {
+        var cls = createClass();
+        Program program = ListingParseUtils.parseFromResource(PREFIX + name.getMethodName() + ".txt");
+        var clinit = new MethodHolder(CLINIT);
+        clinit.getModifiers().add(ElementModifier.STATIC);
+        clinit.setProgram(program);
+        cls.addMethod(clinit);
+
+        var result = new StaticInitializerEvaluator(StaticInitializerEvaluatorTest.class.getClassLoader())
+                .evaluate(cls);
+
+        if (expectedSuccess) {
+            assertTrue("Initializer should be evaluated", result);
+            assertNull("Initializer should be removed", cls.getMethod(CLINIT));
+        } else {
+            assertFalse("Initializer should not be evaluated", result);
+            assertNotNull("Initializer should be kept", cls.getMethod(CLINIT));
+            assertSame("Initializer should not be modified", program, cls.getMethod(CLINIT).getProgram());
+            for (var field : cls.getFields()) {
+                var expected = field.getName().equals("y") ? (Object) 5 : null;
+                assertEquals("Field " + field.getName() + " should not be modified", expected,
+                        field.getInitialValue());
+            }
+        }
+        return cls;
+    }
+
+    private static ClassHolder createClass() {
+        var cls = new ClassHolder("Foo");
+        addField(cls, "x", ValueType.INTEGER);
+        addField(cls, "y", ValueType.INTEGER).setInitialValue(5);
+        addField(cls, "l", ValueType.LONG);
+        addField(cls, "s", ValueType.object("java.lang.String"));
+        addField(cls, "b", ValueType.BYTE);
+        addField(cls, "c", ValueType.CHARACTER);
+        addField(cls, "z", ValueType.BOOLEAN);
+        addField(cls, "o", ValueType.object("java.lang.Object"));
+        return cls;
+    }
+
+    private static FieldHolder addField(ClassHolder cls, String name, ValueType type) {
+        var field = new FieldHolder(name);
+        field.setType(type);
+        field.getModifiers().add(ElementModifier.STATIC);
+        cls.addField(field);
+        return field;
+    }
+
+    private static Object initialValue(ClassHolder cls, String fieldName) {
+        return cls.getField(fieldName).getInitialValue();
+    }
+}
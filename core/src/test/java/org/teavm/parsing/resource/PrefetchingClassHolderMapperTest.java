@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Test;
+import org.teavm.model.ClassHolder;
+
+public class PrefetchingClassHolderMapperTest {
+    private final Map<String, List<Thread>> parsingThreads = new ConcurrentHashMap<>();
+    private final CountDownLatch blockerStarted = new CountDownLatch(1);
+    private final CountDownLatch blockerReleased = new CountDownLatch(1);
+    private final CountDownLatch parentParsed = new CountDownLatch(1);
+    private PrefetchingClassHolderMapper mapper;
+
+    @After
+    public void tearDown() {
+        blockerReleased.countDown();
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void queuedClassParsedOnCallingThread() throws InterruptedException {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        mapper.prefetch("Blocker");
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+        mapper.prefetch("Foo");
+
+        var cls = mapper.apply("Foo");
+
+        assertEquals("Foo", cls.getName());
+        assertEquals(List.of(Thread.currentThread()), parsingThreads.get("Foo"));
+    }
+
+    @Test(timeout = 10000)
+    public void referencesPrefetched() throws InterruptedException {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        mapper.apply("Foo");
+        assertTrue(parentParsed.await(5, TimeUnit.SECONDS));
+
+        var cls = mapper.apply("FooParent");
+
+        assertEquals("FooParent", cls.getName());
+        assertEquals(1, parsingThreads.get("FooParent").size());
+        assertNotSame(Thread.currentThread(), parsingThreads.get("FooParent").get(0));
+    }
+
+    @Test(timeout = 10000)
+    public void classHandedOutOnce() throws InterruptedException {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        mapper.apply("Foo");
+        assertTrue(parentParsed.await(5, TimeUnit.SECONDS));
+
+        var first = mapper.apply("FooParent");
+        var second = mapper.apply("FooParent");
+
+        assertNotSame(first, second);
+        assertEquals(2, parsingThreads.get("FooParent").size());
+        assertSame(Thread.currentThread(), parsingThreads.get("FooParent").get(1));
+    }
+
+    @Test(timeout = 10000)
+    public void referencesMapped() throws InterruptedException {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        Function<String, List<String>> referenceMapper = name -> List.of(name + "Renamed");
+        mapper.setReferenceMapper(referenceMapper);
+        mapper.apply("Foo");
+        mapper.close();
+
+        assertNull(parsingThreads.get("FooParent"));
+    }
+
+    @Test(timeout = 10000)
+    public void classesOfPreviousBuildPrefetched() throws InterruptedException {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        Function<String, List<String>> referenceMapper = name -> List.of(name + "Parent");
+        mapper.setReferenceMapper(referenceMapper);
+        mapper.prefetch(List.of("Foo"));
+        assertTrue(parentParsed.await(5, TimeUnit.SECONDS));
+
+        var cls = mapper.apply("FooParent");
+
+        assertEquals("FooParent", cls.getName());
+        assertEquals(1, parsingThreads.get("FooParent").size());
+        assertNotSame(Thread.currentThread(), parsingThreads.get("FooParent").get(0));
+        assertNull(parsingThreads.get("Foo"));
+    }
+
+    @Test(timeout = 10000)
+    public void missingClass() {
+        mapper = new PrefetchingClassHolderMapper(this::parse, 1);
+        mapper.prefetch("Missing");
+
+        assertNull(mapper.apply("Missing"));
+    }
+
+    private ClassHolder parse(String name) {
+        parsingThreads.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>()).add(Thread.currentThread());
+        switch (name) {
+            case "Blocker":
+                blockerStarted.countDown();
+                try {
+                    blockerReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case "FooParent":
+                parentParsed.countDown();
+                break;
+            case "Missing":
+                return null;
+        }
+        var cls = new ClassHolder(name);
+        cls.setParent(name.equals("Foo") ? "FooParent" : null);
+        return cls;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalDirectoryBuildTargetTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private IncrementalDirectoryBuildTarget target;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot();
+        target = new IncrementalDirectoryBuildTarget(directory);
+    }
+
+    @Test
+    public void reportsOnlyRewrittenFiles() throws IOException {
+        write("a.c", "a");
+        write("b.c", "b");
+        target.reset();
+        assertEquals(Set.of("a.c", "b.c"), target.getChangedFiles());
+        assertEquals(Set.of(), target.getRemovedFiles());
+
+        var unchangedFile = new File(directory, "a.c");
+        assertTrue(unchangedFile.setLastModified(1000));
+        write("a.c", "a");
+        write("b.c", "b2");
+        write("c.c", "c");
+        target.reset();
+        assertEquals(Set.of("b.c", "c.c"), target.getChangedFiles());
+        assertEquals(Set.of(), target.getRemovedFiles());
+        assertEquals(1000, unchangedFile.lastModified());
+        assertEquals("b2", read("b.c"));
+    }
+
+    @Test
+    public void reportsRemovedFiles() throws IOException {
+        write("a.c", "a");
+        write("b.c", "b");
+        write("dir/c.c", "c");
+        target.reset();
+
+        write("a.c", "a");
+        target.reset();
+        assertEquals(Set.of(), target.getChangedFiles());
+        assertEquals(Set.of("b.c", "dir/c.c"), target.getRemovedFiles());
+        assertFalse(new File(directory, "b.c").exists());
+        assertFalse(new File(directory, "dir/c.c").exists());
+
+        write("a.c", "a");
+        write("b.c", "b");
+        target.reset();
+        assertEquals(Set.of("b.c"), target.getChangedFiles());
+        assertEquals(Set.of(), target.getRemovedFiles());
+    }
+
+    @Test
+    public void existingFilesWithSameContentNotReported() throws IOException {
+        Files.writeString(new File(directory, "a.c").toPath(), "a");
+        Files.writeString(new File(directory, "b.c").toPath(), "b");
+
+        write("a.c", "a");
+        write("b.c", "other");
+        target.reset();
+        assertEquals(Set.of("b.c"), target.getChangedFiles());
+    }
+
+    private void write(String name, String content) throws IOException {
+        try (var output = target.createResource(name)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String read(String name) throws IOException {
+        return Files.readString(new File(directory, name).toPath());
+    }
+}
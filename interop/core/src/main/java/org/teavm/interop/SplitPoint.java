@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.interop;
+
+/**
+ * <p>Marks places where a program can be split into separately loaded parts.</p>
+ *
+ * <p>When code splitting is enabled, JavaScript backend moves code that is reachable only from actions passed
+ * to {@link #run(Runnable)} out of the main file into separate chunks. A chunk is downloaded and evaluated when
+ * an action that needs it is run for the first time. Code used by several chunks stays in the main file.
+ * WebAssembly GC backend splits code into secondary modules in a similar way.</p>
+ *
+ * <p>Actions are always run asynchronously in JavaScript, even if their code is already loaded or code splitting
+ * is disabled. WebAssembly GC backend runs an action asynchronously only when its module is not loaded yet.
+ * Other backends run them immediately. Callers should not rely on either behaviour.</p>
+ */
+public final class SplitPoint {
+    private SplitPoint() {
+    }
+
+    /**
+     * Runs given action, loading its code first if necessary. The action must not be run by other means,
+     * otherwise its code may be missing.
+     *
+     * @param action action to run.
+     */
+    public static void run(Runnable action) {
+        action.run();
+    }
+}
@@ -63,6 +63,8 @@ tasks.test {
     systemProperty("teavm.junit.optimized", providers.gradleProperty("teavm.tests.optimized").orElse("true").get())
     systemProperty("teavm.junit.js.decodeStack", providers.gradleProperty("teavm.tests.decodeStack")
             .orElse("false").get())
+    systemProperty("teavm.junit.js.lazyMetadata", providers.gradleProperty("teavm.tests.js.lazyMetadata")
+            .orElse("false").get())
 
     systemProperty("teavm.junit.wasm", providers.gradleProperty("teavm.tests.wasm").orElse("true").get())
     systemProperty("teavm.junit.wasm.runner", browser)
@@ -81,6 +83,10 @@ tasks.test {
     systemProperty("teavm.junit.c", providers.gradleProperty("teavm.tests.c").orElse("true").get())
     systemProperty("teavm.junit.c.compiler", providers.gradleProperty("teavm.tests.c.compiler")
             .orElse("compile-c-unix-fast.sh").get())
+    systemProperty("teavm.junit.c.gcMarkThreads", providers.gradleProperty("teavm.tests.c.gcMarkThreads")
+            .orElse("1").get())
+    systemProperty("teavm.junit.c.gcPauseBudget", providers.gradleProperty("teavm.tests.c.gcPauseBudget")
+            .orElse("0").get())
 
     val dependencies = configurations.testRuntimeClasspath.get()
             .incoming.resolutionResult.allDependencies
@@ -102,4 +108,33 @@ tasks.test {
 
     maxParallelForks = (Runtime.getRuntime().availableProcessors() * 2 / 3).coerceAtLeast(1)
     maxHeapSize = "800m"
-}
\ No newline at end of file
+}
+
+val testParallelGc by tasks.registering(Test::class) {
+    description = "Runs GC tests in C with parallel and incremental marking enabled. Not a part of check, " +
+            "run explicitly when changing GC"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter {
+        includeTestsMatching("org.teavm.runtime.gc.*")
+    }
+
+    systemProperty("teavm.junit.target", layout.buildDirectory.dir("teavm-tests-parallel-gc").get().asFile
+            .absolutePath)
+    systemProperty("teavm.junit.js", "false")
+    systemProperty("teavm.junit.wasm", "false")
+    systemProperty("teavm.junit.wasm-gc", "false")
+    systemProperty("teavm.junit.wasi", "false")
+    systemProperty("teavm.junit.optimized", providers.gradleProperty("teavm.tests.optimized").orElse("true").get())
+    systemProperty("teavm.junit.c", "true")
+    systemProperty("teavm.junit.c.compiler", providers.gradleProperty("teavm.tests.c.compiler")
+            .orElse("compile-c-unix-fast.sh").get())
+    systemProperty("teavm.junit.c.gcMarkThreads", providers.gradleProperty("teavm.tests.c.gcMarkThreads")
+            .orElse("4").get())
+    systemProperty("teavm.junit.c.gcPauseBudget", providers.gradleProperty("teavm.tests.c.gcPauseBudget")
+            .orElse("500").get())
+
+    maxParallelForks = (Runtime.getRuntime().availableProcessors() / 3).coerceAtLeast(1)
+    maxHeapSize = "800m"
+}
@@ -42,6 +42,7 @@ import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.Undefined;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.javascript.rendering.RenderedClassCache;
 import org.teavm.cache.AlwaysStaleCacheStatus;
 import org.teavm.cache.AstCacheEntry;
 import org.teavm.cache.CacheStatus;
@@ -49,12 +50,14 @@ import org.teavm.cache.InMemoryMethodNodeCache;
 import org.teavm.cache.InMemoryProgramCache;
 import org.teavm.cache.InMemorySymbolTable;
 import org.teavm.callgraph.CallGraph;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.FastDependencyAnalyzer;
 import org.teavm.diagnostics.DefaultProblemTextConsumer;
 import org.teavm.diagnostics.Problem;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.ClassReader;
+import org.teavm.model.FieldReference;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
 import org.teavm.model.ReferenceCache;
@@ -71,6 +74,7 @@ public class IncrementalTest {
     private static final String OLD_FILE = "classes-old.js";
     private static final String NEW_FILE = "classes-new.js";
     private static final String REFRESHED_FILE = "classes-refreshed.js";
+    private static final String CLEAN_FILE = "classes-clean.js";
     private static ClassHolderSource oldClassSource = new ClasspathClassHolderSource(
             new ClasspathResourceProvider(IncrementalTest.class.getClassLoader()), new ReferenceCache());
     private static Context rhinoContext;
@@ -78,6 +82,7 @@ public class IncrementalTest {
     private String[] updatedMethods;
     private String oldResult;
     private String newResult;
+    private Builder builder;
 
     @Rule
     public TestName name = new TestName();
@@ -131,14 +136,86 @@ public class IncrementalTest {
         assertEquals("meta: ok", newResult);
     }
 
+    @Test
+    public void newMethodReachable() {
+        run();
+        assertEquals("first", oldResult);
+        assertEquals("first, second", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    @Test
+    public void snapshot() {
+        run("snapshot", true, false);
+        assertEquals("circle", oldResult);
+        assertEquals("circle, square", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    @Test
+    public void simpleCachedRender() {
+        run("simple", false, true);
+        checkUpdatedMethods("Foo.get", "Main.callFoo");
+        assertEquals("old", oldResult);
+        assertEquals("new", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    @Test
+    public void lambdaCachedRender() {
+        run("lambda", false, true);
+        assertEquals("Foo: bar-old", oldResult);
+        assertEquals("Foo: bar-new", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    @Test
+    public void lambdaUnchangedCachedRender() {
+        run("lambdaUnchanged", false, true);
+        checkUpdatedMethods();
+        assertEquals("Foo: main", oldResult);
+        assertEquals("Foo: main", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    @Test
+    public void newMethodReachableCachedRender() {
+        run("newMethodReachable", false, true);
+        assertEquals("first", oldResult);
+        assertEquals("first, second", newResult);
+        checkSameAsCleanBuild();
+    }
+
+    private void checkSameAsCleanBuild() {
+        var cleanBuilder = new Builder(builder.entryPoint);
+        cleanBuilder.build(new ClassHolderSourceImpl(oldClassSource, true), AlwaysStaleCacheStatus.INSTANCE,
+                CLEAN_FILE);
+        assertEquals("Reachable classes must be the same as after clean build", cleanBuilder.reachableClasses,
+                builder.reachableClasses);
+        assertEquals("Reachable methods must be the same as after clean build", cleanBuilder.reachableMethods,
+                builder.reachableMethods);
+        assertEquals("Reachable fields must be the same as after clean build", cleanBuilder.reachableFields,
+                builder.reachableFields);
+        assertEquals("Script must be the same as after clean build", cleanBuilder.buildTarget.get(CLEAN_FILE),
+                builder.buildTarget.get(NEW_FILE));
+    }
+
     private void checkUpdatedMethods(String... methods) {
         assertEquals("Unexpected set of updated methods", new HashSet<>(Arrays.asList(methods)),
                 new HashSet<>(Arrays.asList(updatedMethods)));
     }
 
     private void run() {
-        String entryPoint = "org.teavm.incremental.data." + name.getMethodName().toLowerCase() + ".Main";
-        Builder builder = new Builder(entryPoint);
+        run(name.getMethodName(), false, false);
+    }
+
+    private void run(String data, boolean dependencySnapshots, boolean renderedClassCache) {
+        String entryPoint = "org.teavm.incremental.data." + data.toLowerCase() + ".Main";
+        builder = new Builder(entryPoint);
+        builder.dependencySnapshots = dependencySnapshots;
+        if (renderedClassCache) {
+            builder.renderedClassCache = new RenderedClassCache();
+        }
 
         ClassHolderSourceImpl newClassSource = new ClassHolderSourceImpl(oldClassSource, true);
         ClassHolderSourceImpl refreshedClassSource = new ClassHolderSourceImpl(oldClassSource, false);
@@ -180,7 +257,13 @@ public class IncrementalTest {
         String entryPoint;
         CapturingMethodNodeCache astCache = new CapturingMethodNodeCache();
         CapturingProgramCache programCache = new CapturingProgramCache();
+        RenderedClassCache renderedClassCache;
         BuildTargetImpl buildTarget = new BuildTargetImpl();
+        boolean dependencySnapshots;
+        DependencySnapshot dependencySnapshot;
+        Set<String> reachableClasses;
+        Set<MethodReference> reachableMethods;
+        Set<FieldReference> reachableFields;
 
         Builder(String entryPoint) {
             this.entryPoint = entryPoint;
@@ -203,18 +286,35 @@ public class IncrementalTest {
             vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
             vm.setProgramCache(programCache);
             target.setAstCache(astCache);
+            if (renderedClassCache != null) {
+                target.setRenderedClassCache(renderedClassCache);
+            }
             target.setObfuscated(false);
             target.setStrict(true);
             vm.add(new EntryPointTransformer(entryPoint));
             vm.setEntryPoint(EntryPoint.class.getName());
+            if (dependencySnapshots) {
+                vm.setDependencySnapshotEnabled(true);
+                vm.setDependencySnapshot(dependencySnapshot);
+            }
             vm.installPlugins();
             vm.build(buildTarget, name);
             List<Problem> problems = vm.getProblemProvider().getSevereProblems();
             if (!problems.isEmpty()) {
                 fail("Compiler error generating file '" + name + "'\n" + buildErrorMessage(vm));
             }
+            if (dependencySnapshots) {
+                dependencySnapshot = vm.getDependencySnapshot();
+            }
+            var dependencyInfo = vm.getDependencyInfo();
+            reachableClasses = new HashSet<>(dependencyInfo.getReachableClasses());
+            reachableMethods = new HashSet<>(dependencyInfo.getReachableMethods());
+            reachableFields = new HashSet<>(dependencyInfo.getReachableFields());
             astCache.commit();
             programCache.commit();
+            if (renderedClassCache != null) {
+                renderedClassCache.commit();
+            }
         }
 
         private String buildErrorMessage(TeaVM vm) {
@@ -0,0 +1,27 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.incremental.data.snapshot;
+
+public final class MainNew {
+    private MainNew() {
+    }
+
+    public static String run() {
+        Holder.shape = new Circle();
+        Holder.other = new Square();
+        return Holder.describe(Holder.shape) + ", " + Holder.describe(Holder.other);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import static org.junit.Assert.assertTrue;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.interop.Import;
+import org.teavm.interop.c.Include;
+import org.teavm.junit.AllocationSamplingInterval;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform(TestPlatform.C)
+@SkipJVM
+@AllocationSamplingInterval(AllocationProfilerTest.INTERVAL)
+public class AllocationProfilerTest {
+    static final int INTERVAL = 4096;
+    private static final String PROFILE_FILE = "teavm-allocation-profile.txt";
+    private static final int CHUNK_SIZE = 1024;
+    private static final int CHUNK_COUNT = 8192;
+
+    @Test
+    public void foldedStacksWeightedByAllocatedBytes() throws IOException {
+        new File(PROFILE_FILE).delete();
+        writeProfile();
+        var weightBefore = readTotalWeight();
+
+        var allocated = allocateChunks();
+        writeProfile();
+        var weightAfter = readTotalWeight();
+
+        assertTrue("Profile file not written", new File(PROFILE_FILE).exists());
+        var weight = weightAfter - weightBefore;
+        var tolerance = allocated / 10 + 2 * INTERVAL;
+        assertTrue("Samples weigh " + weight + " bytes, " + allocated + " bytes allocated",
+                Math.abs(weight - allocated) <= tolerance);
+    }
+
+    private static long allocateChunks() {
+        List<byte[]> chunks = new ArrayList<>();
+        long allocated = 0;
+        for (var i = 0; i < CHUNK_COUNT; ++i) {
+            chunks.add(new byte[CHUNK_SIZE]);
+            allocated += CHUNK_SIZE;
+            if (chunks.size() >= 64) {
+                chunks.clear();
+            }
+        }
+        return allocated;
+    }
+
+    private static long readTotalWeight() throws IOException {
+        var file = new File(PROFILE_FILE);
+        if (!file.exists()) {
+            return 0;
+        }
+        var result = 0L;
+        try (var reader = new BufferedReader(new FileReader(file))) {
+            while (true) {
+                var line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (line.isEmpty()) {
+                    continue;
+                }
+                result += Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+        return result;
+    }
+
+    @Import(name = "teavm_allocationProfile_write")
+    @Include(value = "allocprofile.h", isSystem = false)
+    private static native void writeProfile();
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+/**
+ * Calls methods that are and are not expected to be leaf methods, i.e. methods that don't reach
+ * any call site, and checks that objects held by callers survive garbage collection that happens
+ * around such calls. Wrong guess about a leaf method either fails compilation or loses GC roots.
+ */
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform(TestPlatform.C)
+public class LeafMethodTest {
+    @Test
+    public void leafStaticCall() {
+        var node = new Node(1);
+        var sum = 0;
+        for (var i = 0; i < 100; ++i) {
+            sum = add(sum, i);
+        }
+        allocateGarbage();
+        System.gc();
+
+        assertEquals(4950, sum);
+        assertEquals(1, node.value);
+    }
+
+    @Test
+    public void nonLeafStaticCall() {
+        var node = new Node(2);
+        var created = createAndCollect(3);
+
+        assertEquals(2, node.value);
+        assertEquals(3, created.value);
+        assertEquals(4, created.next.value);
+    }
+
+    @Test
+    public void thisFieldAccess() {
+        var node = new Node(5);
+        var other = new Node(6);
+        for (var i = 0; i < 10; ++i) {
+            node.increment();
+        }
+        node.next = other;
+        node.collect();
+
+        assertEquals(15, node.value);
+        assertSame(other, node.next);
+        assertEquals(6, node.next.value);
+    }
+
+    @Test
+    public void staticFieldOfClassWithInitializer() {
+        var node = new Node(7);
+        var value = readInitialized();
+        var secondValue = readInitialized();
+
+        assertEquals(42, value);
+        assertEquals(42, secondValue);
+        assertEquals(1, Initialized.initCount);
+        assertEquals(7, node.value);
+        assertEquals(8, Initialized.node.value);
+    }
+
+    @Test
+    public void staticMethodOfClassWithInitializer() {
+        var node = new Node(9);
+
+        assertEquals(43, Initialized.next());
+        assertEquals(9, node.value);
+        assertEquals(8, Initialized.node.value);
+    }
+
+    @Test
+    public void inlinedLeafCallee() {
+        var nodes = new Node[16];
+        for (var i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(square(i));
+        }
+        allocateGarbage();
+        System.gc();
+
+        for (var i = 0; i < nodes.length; ++i) {
+            assertEquals(square(i), nodes[i].value);
+        }
+    }
+
+    @Test
+    public void leafCalleeOfNonLeafMethod() {
+        var node = new Node(10);
+        var result = addAndCollect(node, 5);
+
+        assertEquals(15, result.value);
+        assertEquals(10, node.value);
+    }
+
+    private static int add(int a, int b) {
+        return a + b;
+    }
+
+    private static int square(int a) {
+        return a * a;
+    }
+
+    private static Node createAndCollect(int value) {
+        var node = new Node(value);
+        node.next = new Node(value + 1);
+        allocateGarbage();
+        System.gc();
+        return node;
+    }
+
+    private static Node addAndCollect(Node node, int delta) {
+        var result = new Node(add(node.value, delta));
+        allocateGarbage();
+        System.gc();
+        return result;
+    }
+
+    private static int readInitialized() {
+        return Initialized.value;
+    }
+
+    private static void allocateGarbage() {
+        for (var i = 0; i < 10_000; ++i) {
+            new Node(i).next = new Node(-i);
+        }
+    }
+
+    static class Node {
+        int value;
+        Node next;
+
+        Node(int value) {
+            this.value = value;
+        }
+
+        void increment() {
+            value = add(value, 1);
+        }
+
+        void collect() {
+            allocateGarbage();
+            System.gc();
+        }
+    }
+
+    static class Initialized {
+        static int initCount;
+        static int value;
+        static Node node;
+
+        static {
+            ++initCount;
+            node = new Node(8);
+            allocateGarbage();
+            System.gc();
+            value = 42;
+        }
+
+        static int next() {
+            return value + 1;
+        }
+    }
+}
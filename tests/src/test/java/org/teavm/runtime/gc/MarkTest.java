@@ -0,0 +1,217 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime.gc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.runtime.GC;
+
+/**
+ * Builds object graphs of different shapes and checks that they survive garbage collection.
+ * Intended to be run with single-threaded, parallel and incremental marking.
+ */
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform(TestPlatform.C)
+public class MarkTest {
+    @Test
+    public void wideGraphSurvives() {
+        var roots = new Node[64];
+        var nodes = new ArrayList<Node>();
+        for (var i = 0; i < 200_000; ++i) {
+            var node = new Node(i);
+            var root = roots[i % roots.length];
+            node.next = root;
+            if (!nodes.isEmpty()) {
+                node.other = nodes.get((i * 31) % nodes.size());
+            }
+            roots[i % roots.length] = node;
+            if (i % 7 == 0) {
+                nodes.add(node);
+            }
+        }
+        nodes = null;
+        var expected = sum(roots);
+
+        for (var i = 0; i < 5; ++i) {
+            allocateGarbage();
+            System.gc();
+            assertEquals(expected, sum(roots));
+        }
+    }
+
+    @Test
+    public void deepListSurvives() {
+        Node head = null;
+        for (var i = 0; i < 500_000; ++i) {
+            var node = new Node(i);
+            node.next = head;
+            head = node;
+        }
+
+        allocateGarbage();
+        System.gc();
+
+        var count = 0;
+        for (var node = head; node != null; node = node.next) {
+            assertEquals(500_000 - ++count, node.value);
+        }
+        assertEquals(500_000, count);
+    }
+
+    @Test
+    public void weakReferencesInsideGraph() {
+        var strong = new ArrayList<Node>();
+        var holders = createHolders(strong);
+
+        allocateGarbage();
+        System.gc();
+
+        for (var i = 0; i < holders.size(); ++i) {
+            var node = holders.get(i).ref.get();
+            if (i % 2 == 0) {
+                assertNotNull(node);
+                assertEquals(i, node.value);
+            } else {
+                assertNull(node);
+            }
+        }
+        assertEquals(5_000, strong.size());
+    }
+
+    @Test
+    public void moreWeakReferencesThanMarkQueueHolds() {
+        var strong = new ArrayList<Node>();
+        var refs = new ArrayList<WeakReference<Node>>();
+        for (var i = 0; i < 300_000; ++i) {
+            var node = new Node(i);
+            if (i % 3 == 0) {
+                strong.add(node);
+            }
+            refs.add(new WeakReference<>(node));
+        }
+
+        allocateGarbage();
+        System.gc();
+
+        for (var i = 0; i < refs.size(); i += 3) {
+            var node = refs.get(i).get();
+            assertNotNull(node);
+            assertEquals(i, node.value);
+        }
+        assertEquals(100_000, strong.size());
+    }
+
+    @Test
+    public void graphMutatedDuringCollectionSurvives() {
+        var roots = new Node[256];
+        for (var i = 0; i < 100_000; ++i) {
+            var node = new Node(i);
+            node.next = roots[i % roots.length];
+            roots[i % roots.length] = node;
+        }
+        var expected = sum(roots);
+
+        for (var i = 0; i < 200; ++i) {
+            allocateGarbage();
+            var source = (i * 17) % roots.length;
+            var target = (i * 31 + 1) % roots.length;
+            var node = roots[source];
+            if (node != null) {
+                roots[source] = node.next;
+                node.next = roots[target];
+                roots[target] = node;
+            }
+        }
+
+        assertEquals(expected, sum(roots));
+        System.gc();
+        assertEquals(expected, sum(roots));
+    }
+
+    @Test
+    public void pausesReported() {
+        var pauseCount = GC.getPauseCount();
+        allocateGarbage();
+        System.gc();
+
+        assertTrue(GC.getPauseCount() > pauseCount);
+        assertTrue(GC.getMaxPauseTime() >= 0);
+        assertTrue(GC.getTotalPauseTime() >= GC.getMaxPauseTime());
+    }
+
+    private static List<Holder> createHolders(List<Node> strong) {
+        var holders = new ArrayList<Holder>();
+        for (var i = 0; i < 10_000; ++i) {
+            var node = new Node(i);
+            if (i % 2 == 0) {
+                strong.add(node);
+            }
+            holders.add(new Holder(new WeakReference<>(node)));
+        }
+        return holders;
+    }
+
+    private static long sum(Node[] roots) {
+        var result = 0L;
+        for (var root : roots) {
+            for (var node = root; node != null; node = node.next) {
+                result += node.value;
+                if (node.other != null) {
+                    result += node.other.value;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void allocateGarbage() {
+        List<int[]> garbage = new ArrayList<>();
+        for (var i = 0; i < 1000; ++i) {
+            garbage.add(new int[100]);
+            if (garbage.size() > 10) {
+                garbage.clear();
+            }
+        }
+    }
+
+    static class Node {
+        final int value;
+        Node next;
+        Node other;
+
+        Node(int value) {
+            this.value = value;
+        }
+    }
+
+    static class Holder {
+        final WeakReference<Node> ref;
+
+        Holder(WeakReference<Node> ref) {
+            this.ref = ref;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.BaseFunction;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+import org.teavm.backend.javascript.JSModuleType;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.splitting.data.Main;
+import org.teavm.vm.TestCompiler;
+
+public class CodeSplittingTest {
+    private Context rhinoContext;
+    private ScriptableObject scope;
+    private StringBuilder stdout = new StringBuilder();
+    private List<String> requestedChunks = new ArrayList<>();
+    private List<Function> pendingCallbacks = new ArrayList<>();
+
+    @Before
+    public void initContext() {
+        rhinoContext = Context.enter();
+        rhinoContext.setOptimizationLevel(-1);
+        rhinoContext.setLanguageVersion(Context.VERSION_ES6);
+        scope = rhinoContext.initStandardObjects();
+        scope.put("$rt_putStdoutCustom", scope, new BaseFunction() {
+            @Override
+            public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+                stdout.append(Context.toString(args[0]));
+                return Undefined.instance;
+            }
+        });
+        scope.put("$rt_loadChunkCustom", scope, new BaseFunction() {
+            @Override
+            public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+                requestedChunks.add(Context.toString(args[0]));
+                pendingCallbacks.add((Function) args[1]);
+                return Undefined.instance;
+            }
+        });
+    }
+
+    @After
+    public void exitContext() {
+        Context.exit();
+    }
+
+    @Test
+    public void chunksContainCodeOfTheirActionsOnly() {
+        var files = build();
+        assertEquals(List.of("classes-1.js", "classes-2.js", "classes.js"), new ArrayList<>(files.keySet()));
+
+        var firstChunk = findFileContaining(files, "First_describe");
+        var secondChunk = findFileContaining(files, "Second_describe");
+        assertTrue(firstChunk.startsWith("classes-"));
+        assertTrue(secondChunk.startsWith("classes-"));
+        assertFalse(firstChunk.equals(secondChunk));
+
+        assertFalse(files.get(firstChunk).contains("Second_describe"));
+        assertFalse(files.get(secondChunk).contains("First_describe"));
+    }
+
+    @Test
+    public void sharedCodeHoistedToMainFile() {
+        var files = build();
+        assertEquals("classes.js", findFileContaining(files, "Shared_describe"));
+        assertTrue(files.get("classes.js").contains("$rt_chunkClasses"));
+    }
+
+    @Test
+    public void chunksLoadedLazily() {
+        var files = build();
+        var firstChunk = findFileContaining(files, "First_describe");
+        var secondChunk = findFileContaining(files, "Second_describe");
+
+        runMain(files.get("classes.js"));
+        assertEquals("main\n", stdout.toString());
+        assertEquals("Each chunk must be requested once", List.of(firstChunk, secondChunk), requestedChunks);
+
+        completeLoading(0, files.get(firstChunk));
+        assertEquals("main\nfirst: first-only #1, shared\nfirst: first-only #2, shared\n", stdout.toString());
+
+        completeLoading(1, files.get(secondChunk));
+        assertEquals("main\nfirst: first-only #1, shared\nfirst: first-only #2, shared\n"
+                + "second: second-only, shared\n", stdout.toString());
+        assertEquals(2, requestedChunks.size());
+    }
+
+    @Test
+    public void moduleLoadsChunksRelativeToItsUrl() {
+        var files = build(JSModuleType.ES2015);
+        assertTrue(files.get("classes.js").contains("$rt_chunkBaseUrl = import.meta.url;"));
+        assertFalse(build().get("classes.js").contains("import.meta"));
+    }
+
+    private Map<String, String> build() {
+        return build(JSModuleType.UMD);
+    }
+
+    private Map<String, String> build(JSModuleType moduleType) {
+        var target = new JavaScriptTarget();
+        target.setObfuscated(false);
+        target.setCodeSplitting(true);
+        target.setModuleType(moduleType);
+        return TestCompiler.build(target, Main.class, "classes.js");
+    }
+
+    private static String findFileContaining(Map<String, String> files, String text) {
+        String result = null;
+        for (var entry : files.entrySet()) {
+            if (entry.getValue().contains(text)) {
+                assertEquals("Code '" + text + "' found in several files", null, result);
+                result = entry.getKey();
+            }
+        }
+        assertNotNull("Code '" + text + "' not found", result);
+        return result;
+    }
+
+    private void runMain(String script) {
+        rhinoContext.evaluateString(scope, script, "classes.js", 1, null);
+        var main = (Function) scope.get("main", scope);
+        ScriptRuntime.doTopCall(main, rhinoContext, scope, scope,
+                new Object[] { new NativeArray(0), Undefined.instance });
+        rhinoContext.processMicrotasks();
+    }
+
+    private void completeLoading(int index, String code) {
+        pendingCallbacks.get(index).call(rhinoContext, scope, scope, new Object[] { code });
+        rhinoContext.processMicrotasks();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.splitting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.junit.WasmModuleSplitting;
+
+/**
+ * Runs tests from a secondary WebAssembly module, which calls functions, reads globals and catches exceptions
+ * of the primary module.
+ */
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform(TestPlatform.WEBASSEMBLY_GC)
+@WasmModuleSplitting
+public class WasmModuleSplittingTest {
+    private static int counter;
+
+    @Test
+    public void callsPrimaryModule() {
+        var list = new ArrayList<String>();
+        list.add("a");
+        list.add("b");
+        assertEquals("[a, b]", list.toString());
+        assertEquals("ab", String.join("", list));
+    }
+
+    @Test
+    public void virtualCallsOfMovedClasses() {
+        List<Shape> shapes = List.of(new Square(2), new Circle(1));
+        var sb = new StringBuilder();
+        for (var shape : shapes) {
+            sb.append(shape.describe()).append(";");
+        }
+        assertEquals("square 4;circle 3;", sb.toString());
+    }
+
+    @Test
+    public void staticFieldsShared() {
+        var before = counter;
+        increment();
+        increment();
+        assertEquals(before + 2, counter);
+    }
+
+    @Test
+    public void exceptionsCaught() {
+        try {
+            Integer.parseInt("not a number");
+            fail("Exception expected");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            throw new CustomException("custom");
+        } catch (CustomException e) {
+            assertEquals("custom", e.getMessage());
+        }
+    }
+
+    private static void increment() {
+        counter++;
+    }
+
+    interface Shape {
+        String describe();
+    }
+
+    static class Square implements Shape {
+        private final int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+
+        @Override
+        public String describe() {
+            return "square " + side * side;
+        }
+    }
+
+    static class Circle implements Shape {
+        private final int radius;
+
+        Circle(int radius) {
+            this.radius = radius;
+        }
+
+        @Override
+        public String describe() {
+            return "circle " + 3 * radius * radius;
+        }
+    }
+
+    static class CustomException extends RuntimeException {
+        CustomException(String message) {
+            super(message);
+        }
+    }
+}
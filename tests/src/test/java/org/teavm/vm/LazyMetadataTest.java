@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.BaseFunction;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.vm.data.metadata.Main;
+
+public class LazyMetadataTest {
+    private static final String PREFIX = "org.teavm.vm.data.metadata.Main$";
+    private static final String EXPECTED_OUTPUT = "true true false\n"
+            + PREFIX + "Circle Circle " + PREFIX + "AbstractShape true false\n"
+            + PREFIX + "Square Square " + PREFIX + "AbstractShape true false\n"
+            + PREFIX + "Circle Circle " + PREFIX + "AbstractShape true false\n"
+            + "true false GREEN " + PREFIX + "Color java.lang.Enum\n"
+            + "true true\n";
+    private static final String LAZY_CALL = "$rt_lazyMetadata([";
+    private static final String EAGER_CALL = "$rt_metadata([";
+    private Context rhinoContext;
+    private ScriptableObject scope;
+    private StringBuilder stdout = new StringBuilder();
+
+    @Before
+    public void initContext() {
+        rhinoContext = Context.enter();
+        rhinoContext.setOptimizationLevel(-1);
+        rhinoContext.setLanguageVersion(Context.VERSION_ES6);
+        scope = rhinoContext.initStandardObjects();
+        scope.put("$rt_putStdoutCustom", scope, new BaseFunction() {
+            @Override
+            public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+                stdout.append(Context.toString(args[0]));
+                return Undefined.instance;
+            }
+        });
+    }
+
+    @After
+    public void exitContext() {
+        Context.exit();
+    }
+
+    @Test
+    public void lazyMetadata() {
+        var script = build(true, 0);
+        assertTrue(script.contains(LAZY_CALL));
+        assertFalse(script.contains(EAGER_CALL));
+        run(script);
+        assertEquals(EXPECTED_OUTPUT, stdout.toString());
+    }
+
+    @Test
+    public void eagerMetadata() {
+        var script = build(false, 0);
+        assertTrue(script.contains(EAGER_CALL));
+        assertFalse(script.contains(LAZY_CALL));
+        run(script);
+        assertEquals(EXPECTED_OUTPUT, stdout.toString());
+    }
+
+    @Test
+    public void smallProgramKeepsEagerMetadata() {
+        var script = build(true, Integer.MAX_VALUE);
+        assertTrue(script.contains(EAGER_CALL));
+        assertFalse(script.contains(LAZY_CALL));
+    }
+
+    @Test
+    public void metadataDecodedOnFirstAccess() {
+        var script = build(true, 0);
+        rhinoContext.evaluateString(scope, ""
+                + "var $materialized = 0;"
+                + "(function() {"
+                + "  let define = Object.defineProperty;"
+                + "  Object.defineProperty = function(o, p, d) {"
+                + "    if (p === '$meta' && 'value' in d) { $materialized++; }"
+                + "    return define(o, p, d);"
+                + "  };"
+                + "})();", "counter.js", 1, null);
+        rhinoContext.evaluateString(scope, script, "classes.js", 1, null);
+        assertEquals("Metadata decoded before first access", 0, materializedCount());
+
+        callMain();
+        assertTrue("Metadata was not decoded", materializedCount() > 0);
+        assertEquals(EXPECTED_OUTPUT, stdout.toString());
+    }
+
+    private int materializedCount() {
+        return (int) Context.toNumber(scope.get("$materialized", scope));
+    }
+
+    private void run(String script) {
+        rhinoContext.evaluateString(scope, script, "classes.js", 1, null);
+        callMain();
+    }
+
+    private void callMain() {
+        var main = (Function) scope.get("main", scope);
+        ScriptRuntime.doTopCall(main, rhinoContext, scope, scope,
+                new Object[] { new NativeArray(0), Undefined.instance });
+    }
+
+    private static String build(boolean lazy, int minClasses) {
+        var target = new JavaScriptTarget();
+        target.setObfuscated(false);
+        target.setLazyMetadata(lazy);
+        target.setLazyMetadataMinClasses(minClasses);
+        return TestCompiler.build(target, Main.class, "classes.js").get("classes.js");
+    }
+}
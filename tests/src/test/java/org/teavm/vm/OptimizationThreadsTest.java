@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Map;
+import org.junit.Test;
+import org.mozilla.javascript.BaseFunction;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.Undefined;
+import org.teavm.backend.c.CTarget;
+import org.teavm.backend.c.generate.CNameProvider;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.vm.data.inlining.Main;
+
+/**
+ * Checks that output of the compiler does not depend on the number of optimization threads and that
+ * both sequential and concurrent optimization produce working code. Concurrent inlining, which
+ * visits methods in a different order, is opt-in, so it's only checked to be independent of the number
+ * of threads.
+ */
+public class OptimizationThreadsTest {
+    private static final String EXPECTED_OUTPUT = "total=566\na:3,b:2,c:1\ntrue true 610 285\n";
+
+    @Test
+    public void javaScriptAdvanced() {
+        checkJavaScript(TeaVMOptimizationLevel.ADVANCED);
+    }
+
+    @Test
+    public void javaScriptFull() {
+        checkJavaScript(TeaVMOptimizationLevel.FULL);
+    }
+
+    @Test
+    public void javaScriptSimple() {
+        checkJavaScript(TeaVMOptimizationLevel.SIMPLE);
+    }
+
+    @Test
+    public void cSimple() {
+        checkC(TeaVMOptimizationLevel.SIMPLE);
+    }
+
+    @Test
+    public void cAdvanced() {
+        checkC(TeaVMOptimizationLevel.ADVANCED);
+    }
+
+    @Test
+    public void cFull() {
+        checkC(TeaVMOptimizationLevel.FULL);
+    }
+
+    @Test
+    public void javaScriptConcurrentInlining() {
+        var concurrent = buildJavaScript(TeaVMOptimizationLevel.FULL, 2, true);
+        assertEquals("Concurrent build produces wrong output", EXPECTED_OUTPUT, run(concurrent.get("classes.js")));
+        for (int threads : new int[] { 3, 4 }) {
+            assertSameOutput(concurrent, buildJavaScript(TeaVMOptimizationLevel.FULL, threads, true), threads);
+        }
+    }
+
+    @Test
+    public void cConcurrentInlining() {
+        var concurrent = buildC(TeaVMOptimizationLevel.FULL, 2, true);
+        for (int threads : new int[] { 3, 4 }) {
+            assertSameOutput(concurrent, buildC(TeaVMOptimizationLevel.FULL, threads, true), threads);
+        }
+    }
+
+    private void checkJavaScript(TeaVMOptimizationLevel level) {
+        var sequential = buildJavaScript(level, 1, false);
+        assertEquals("Sequential build produces wrong output", EXPECTED_OUTPUT, run(sequential.get("classes.js")));
+        for (int threads : new int[] { 2, 4 }) {
+            assertSameOutput(sequential, buildJavaScript(level, threads, false), threads);
+        }
+    }
+
+    private void checkC(TeaVMOptimizationLevel level) {
+        var sequential = buildC(level, 1, false);
+        assertTrue(sequential.containsKey("all.c"));
+        for (int threads : new int[] { 2, 4 }) {
+            assertSameOutput(sequential, buildC(level, threads, false), threads);
+        }
+    }
+
+    private static void assertSameOutput(Map<String, String> expected, Map<String, String> actual, int threads) {
+        assertEquals("Set of files differs for " + threads + " threads", expected.keySet(), actual.keySet());
+        for (var fileName : expected.keySet()) {
+            var expectedLines = expected.get(fileName).split("\n", -1);
+            var actualLines = actual.get(fileName).split("\n", -1);
+            for (int i = 0; i < Math.min(expectedLines.length, actualLines.length); ++i) {
+                assertEquals("File " + fileName + " differs at line " + (i + 1) + " for " + threads + " threads",
+                        expectedLines[i], actualLines[i]);
+            }
+            assertEquals("File " + fileName + " has different number of lines for " + threads + " threads",
+                    expectedLines.length, actualLines.length);
+        }
+    }
+
+    private static String run(String script) {
+        var stdout = new StringBuilder();
+        var rhinoContext = Context.enter();
+        try {
+            rhinoContext.setOptimizationLevel(-1);
+            rhinoContext.setLanguageVersion(Context.VERSION_ES6);
+            var scope = rhinoContext.initStandardObjects();
+            scope.put("$rt_putStdoutCustom", scope, new BaseFunction() {
+                @Override
+                public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+                    stdout.append(Context.toString(args[0]));
+                    return Undefined.instance;
+                }
+            });
+            rhinoContext.evaluateString(scope, script, "classes.js", 1, null);
+            var main = (Function) scope.get("main", scope);
+            ScriptRuntime.doTopCall(main, rhinoContext, scope, scope,
+                    new Object[] { new NativeArray(0), Undefined.instance });
+        } finally {
+            Context.exit();
+        }
+        return stdout.toString();
+    }
+
+    private Map<String, String> buildJavaScript(TeaVMOptimizationLevel level, int threads,
+            boolean concurrentInlining) {
+        var target = new JavaScriptTarget();
+        target.setObfuscated(false);
+        return build(target, level, threads, concurrentInlining, "classes.js");
+    }
+
+    private Map<String, String> buildC(TeaVMOptimizationLevel level, int threads, boolean concurrentInlining) {
+        return build(new CTarget(new CNameProvider()), level, threads, concurrentInlining, "classes.c");
+    }
+
+    private Map<String, String> build(TeaVMTarget target, TeaVMOptimizationLevel level, int threads,
+            boolean concurrentInlining, String outputName) {
+        return TestCompiler.build(target, Main.class, outputName, level, builder -> builder
+                .setOptimizationThreads(threads)
+                .setConcurrentInlining(concurrentInlining));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.fail;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.parsing.ClasspathResourceProvider;
+
+/**
+ * Compiles programs from the test class path to memory. Returns generated files sorted by name.
+ */
+public final class TestCompiler {
+    private static final ClassLoader CLASS_LOADER = TestCompiler.class.getClassLoader();
+    private static final ClassHolderSource CLASS_SOURCE = new ClasspathClassHolderSource(
+            new ClasspathResourceProvider(CLASS_LOADER), new ReferenceCache());
+
+    private TestCompiler() {
+    }
+
+    public static Map<String, String> build(TeaVMTarget target, Class<?> mainClass, String outputName) {
+        return build(target, mainClass, outputName, TeaVMOptimizationLevel.SIMPLE, builder -> { });
+    }
+
+    public static Map<String, String> build(TeaVMTarget target, Class<?> mainClass, String outputName,
+            TeaVMOptimizationLevel level, Consumer<TeaVMBuilder> configuration) {
+        var builder = new TeaVMBuilder(target)
+                .setClassLoader(CLASS_LOADER)
+                .setClassSource(CLASS_SOURCE)
+                .setResourceProvider(new ClasspathResourceProvider(CLASS_LOADER));
+        configuration.accept(builder);
+        var vm = builder.build();
+        vm.setOptimizationLevel(level);
+        vm.setEntryPoint(mainClass.getName());
+        vm.installPlugins();
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, outputName);
+        if (!vm.getProblemProvider().getSevereProblems().isEmpty()) {
+            fail("Compiler error");
+        }
+        var files = new TreeMap<String, String>();
+        for (var name : buildTarget.getNames()) {
+            files.put(name, new String(buildTarget.getContent(name), StandardCharsets.UTF_8));
+        }
+        return files;
+    }
+}
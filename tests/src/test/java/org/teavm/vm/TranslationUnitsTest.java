@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.teavm.backend.c.CTarget;
+import org.teavm.backend.c.generate.CNameProvider;
+import org.teavm.vm.data.inlining.Main;
+
+public class TranslationUnitsTest {
+    private static final Pattern INCLUDE = Pattern.compile("#include \"([^\"]+\\.c)\"");
+
+    @Test
+    public void eachFileInExactlyOneUnit() {
+        var files = build(4);
+        var units = lines(files.get("units.txt"));
+        assertEquals(4, units.size());
+
+        var occurrences = new HashMap<String, Integer>();
+        for (var unit : units) {
+            assertTrue("Unit " + unit + " not generated", files.containsKey(unit));
+            var included = includes(files.get(unit));
+            assertFalse("Unit " + unit + " is empty", included.isEmpty());
+            for (var file : included) {
+                occurrences.merge(file, 1, Integer::sum);
+            }
+        }
+
+        var allFiles = lines(files.get("all.txt"));
+        for (var file : allFiles) {
+            assertEquals("File " + file + " should be included by exactly one unit", Integer.valueOf(1),
+                    occurrences.getOrDefault(file, 0));
+        }
+        assertEquals(allFiles.size(), occurrences.size());
+    }
+
+    @Test
+    public void allFileUnchanged() {
+        var withoutUnits = build(0);
+        var withUnits = build(4);
+
+        assertFalse(withoutUnits.containsKey("units.txt"));
+        assertEquals(withoutUnits.get("all.c"), withUnits.get("all.c"));
+        assertEquals(withoutUnits.get("all.txt"), withUnits.get("all.txt"));
+        assertEquals(lines(withoutUnits.get("all.txt")), includes(withoutUnits.get("all.c")));
+    }
+
+    @Test
+    public void singleUnit() {
+        var files = build(1);
+        assertEquals(List.of("unit0.c"), lines(files.get("units.txt")));
+        assertEquals(lines(files.get("all.txt")).size(), includes(files.get("unit0.c")).size());
+    }
+
+    private static List<String> lines(String text) {
+        var result = new ArrayList<String>();
+        for (var line : text.split("\n")) {
+            if (!line.isBlank()) {
+                result.add(line.trim());
+            }
+        }
+        return result;
+    }
+
+    private static List<String> includes(String text) {
+        var result = new ArrayList<String>();
+        var matcher = INCLUDE.matcher(text);
+        while (matcher.find()) {
+            result.add(matcher.group(1));
+        }
+        return result;
+    }
+
+    private Map<String, String> build(int unitCount) {
+        var target = new CTarget(new CNameProvider());
+        target.setTranslationUnitCount(unitCount);
+        return TestCompiler.build(target, Main.class, "classes.c");
+    }
+}
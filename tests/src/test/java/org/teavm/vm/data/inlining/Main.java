@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.data.inlining;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class Main {
+    private Main() {
+    }
+
+    public static void main(String[] args) {
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            shapes.add(i % 2 == 0 ? new Circle(i) : new Rect(i, i + 1));
+        }
+        double total = 0;
+        for (Shape shape : shapes) {
+            total += shape.area();
+        }
+        System.out.println("total=" + (int) total);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : "a b c a b a".split(" ")) {
+            counts.merge(word, 1, (a, b) -> a + b);
+        }
+        System.out.println(counts.entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue())
+                .sorted()
+                .collect(Collectors.joining(",")));
+
+        System.out.println(isEven(10) + " " + isOdd(7) + " " + fib(15) + " " + sumSquares(10));
+    }
+
+    private static boolean isEven(int n) {
+        return n == 0 || isOdd(n - 1);
+    }
+
+    private static boolean isOdd(int n) {
+        return n != 0 && isEven(n - 1);
+    }
+
+    private static int fib(int n) {
+        return n < 2 ? n : fib(n - 1) + fib(n - 2);
+    }
+
+    private static int square(int x) {
+        return x * x;
+    }
+
+    private static int sumSquares(int n) {
+        int result = 0;
+        for (int i = 0; i < n; ++i) {
+            result += square(i);
+        }
+        return result;
+    }
+
+    interface Shape {
+        double area();
+    }
+
+    static class Circle implements Shape {
+        private double r;
+
+        Circle(double r) {
+            this.r = r;
+        }
+
+        @Override
+        public double area() {
+            return Math.PI * r * r;
+        }
+    }
+
+    static class Rect implements Shape {
+        private double w;
+        private double h;
+
+        Rect(double w, double h) {
+            this.w = w;
+            this.h = h;
+        }
+
+        @Override
+        public double area() {
+            return w * h;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.data.metadata;
+
+public final class Main {
+    private Main() {
+    }
+
+    public static void main(String[] args) {
+        // Type checks go first, so that they run before metadata is decoded
+        Object circle = new Circle();
+        var typeChecks = Shape.class.isInstance(circle) + " " + AbstractShape.class.isInstance(circle) + " "
+                + Color.class.isInstance(circle);
+        System.out.println(typeChecks);
+
+        describe(circle);
+        describe(new Square());
+        describe(circle);
+
+        System.out.println(Color.class.isEnum() + " " + Shape.class.isEnum() + " " + Color.GREEN.name() + " "
+                + Color.GREEN.getDeclaringClass().getName() + " " + Color.class.getSuperclass().getName());
+        System.out.println(Shape.class.isInstance(new Square()) + " " + Color.class.isInstance(Color.RED));
+    }
+
+    private static void describe(Object o) {
+        var cls = o.getClass();
+        System.out.println(cls.getName() + " " + cls.getSimpleName() + " " + cls.getSuperclass().getName() + " "
+                + Shape.class.isInstance(o) + " " + cls.isEnum());
+    }
+
+    interface Shape {
+        int corners();
+    }
+
+    abstract static class AbstractShape implements Shape {
+    }
+
+    static class Circle extends AbstractShape {
+        @Override
+        public int corners() {
+            return 0;
+        }
+    }
+
+    static class Square extends AbstractShape {
+        @Override
+        public int corners() {
+            return 4;
+        }
+    }
+
+    enum Color {
+        RED,
+        GREEN
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+plugins {
+    java
+}
+
+description = "JMH benchmarks of compiler phases"
+
+dependencies {
+    implementation(project(":core"))
+    implementation(project(":classlib"))
+    implementation(project(":jso:impl"))
+    implementation(libs.jbox2d)
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+val jmh by tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs compiler benchmarks and writes results to build/reports/jmh/results.json"
+    dependsOn(tasks["relocateJar"])
+    classpath = configurations.runtimeClasspath.get() + tasks["relocateJar"].outputs.files
+    mainClass = "org.openjdk.jmh.Main"
+    outputs.file(jmhResults)
+    outputs.upToDateWhen { false }
+    doFirst {
+        jmhResults.get().asFile.parentFile.mkdirs()
+    }
+    args("-rf", "json", "-rff", jmhResults.get().asFile.absolutePath)
+    providers.gradleProperty("teavm.jmh.include").orNull?.let { args(it) }
+    providers.gradleProperty("teavm.jmh.args").orNull?.let { args(it.split(" ")) }
+}
+
+val cCallOverhead by tasks.register<JavaExec>("cCallOverhead") {
+    group = "benchmark"
+    description = "Compares per-call overhead of C code generated with and without shadow stack spills " +
+            "around calls to leaf methods"
+    dependsOn(tasks["relocateJar"])
+    classpath = configurations.runtimeClasspath.get() + tasks["relocateJar"].outputs.files
+    mainClass = "org.teavm.benchmarks.CallOverheadBenchmark"
+    outputs.upToDateWhen { false }
+    args(layout.buildDirectory.dir("c-call-overhead").get().asFile.absolutePath)
+    providers.gradleProperty("teavm.benchmarks.cc").orNull?.let { systemProperty("teavm.benchmarks.cc", it) }
+}
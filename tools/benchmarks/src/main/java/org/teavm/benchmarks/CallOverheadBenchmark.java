@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.teavm.backend.c.CTarget;
+import org.teavm.backend.c.generate.CNameProvider;
+import org.teavm.vm.DirectoryBuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Compares cost of a call to a leaf method in code generated by C backend in shadow stack mode, where
+ * caller stores its GC roots before every call, and with {@link CTarget#setLeafCallsOptimized(boolean)}.
+ * Unlike other benchmarks, it measures generated code rather than compiler, so it needs a C compiler,
+ * which is taken from <code>teavm.benchmarks.cc</code> system property (<code>cc</code> by default).
+ * Best of several runs is reported.
+ */
+public final class CallOverheadBenchmark {
+    private CallOverheadBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var outputDir = new File(args.length > 0 ? args[0] : "c-call-overhead");
+        var compiler = System.getProperty("teavm.benchmarks.cc", "cc");
+        var runs = Integer.getInteger("teavm.benchmarks.runs", 5);
+        var fixture = new CompilerFixture();
+
+        for (var leafCallsOptimized : new boolean[] { false, true }) {
+            var name = leafCallsOptimized ? "leaf-calls" : "shadow-stack";
+            var dir = new File(outputDir, name);
+            dir.mkdirs();
+            build(fixture, dir, leafCallsOptimized);
+            exec(dir, List.of(compiler, "-O2", "all.c", "-o", "benchmark", "-lm", "-lpthread"));
+
+            var best = Double.MAX_VALUE;
+            for (var i = 0; i < runs; ++i) {
+                var output = exec(dir, List.of(new File(dir, "benchmark").getAbsolutePath())).trim().split(" ");
+                best = Math.min(best, Double.parseDouble(output[1]) / Long.parseLong(output[0]));
+            }
+            System.out.printf("%-12s %8.3f ns/call%n", name, best);
+        }
+    }
+
+    private static void build(CompilerFixture fixture, File dir, boolean leafCallsOptimized) {
+        var target = new CTarget(new CNameProvider());
+        target.setLeafCallsOptimized(leafCallsOptimized);
+        var vm = fixture.createVM(target, Corpus.LEAF_CALLS, TeaVMOptimizationLevel.ADVANCED);
+        vm.build(new DirectoryBuildTarget(dir), "");
+        CompilerFixture.checkProblems(vm);
+    }
+
+    private static String exec(File dir, List<String> command) throws IOException, InterruptedException {
+        var process = new ProcessBuilder(command)
+                .directory(dir)
+                .redirectErrorStream(true)
+                .start();
+        var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command " + command + " failed:\n" + output);
+        }
+        return output;
+    }
+}
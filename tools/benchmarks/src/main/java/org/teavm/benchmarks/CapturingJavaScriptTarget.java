@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.vm.BuildTarget;
+
+/**
+ * JavaScript target that remembers intermediate state of compilation: programs as they enter
+ * optimization phase and classes as they enter emission phase. Emission itself is postponed until
+ * {@link #emitCaptured()} is called, which lets benchmarks measure it in isolation.
+ */
+public class CapturingJavaScriptTarget extends JavaScriptTarget {
+    private final boolean captureProgramsBeforeOptimizations;
+    private final List<CapturedProgram> programsBeforeOptimizations = new ArrayList<>();
+    private ListableClassHolderSource classes;
+    private BuildTarget buildTarget;
+    private String outputName;
+
+    public CapturingJavaScriptTarget(boolean captureProgramsBeforeOptimizations) {
+        this.captureProgramsBeforeOptimizations = captureProgramsBeforeOptimizations;
+    }
+
+    @Override
+    public void beforeOptimizations(Program program, MethodReader method) {
+        super.beforeOptimizations(program, method);
+        if (captureProgramsBeforeOptimizations) {
+            programsBeforeOptimizations.add(new CapturedProgram(method, ProgramUtils.copy(program)));
+        }
+    }
+
+    @Override
+    public void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) {
+        this.classes = classes;
+        this.buildTarget = buildTarget;
+        this.outputName = outputName;
+    }
+
+    public void emitCaptured() {
+        super.emit(classes, buildTarget, outputName);
+    }
+
+    public List<CapturedProgram> getProgramsBeforeOptimizations() {
+        return programsBeforeOptimizations;
+    }
+
+    public ListableClassHolderSource getClasses() {
+        return classes;
+    }
+}
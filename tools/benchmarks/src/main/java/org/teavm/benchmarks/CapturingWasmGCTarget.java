@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.io.IOException;
+import org.teavm.backend.wasm.WasmGCTarget;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.vm.BuildTarget;
+
+/**
+ * WebAssembly GC target that postpones emission until {@link #emitCaptured()} is called.
+ */
+public class CapturingWasmGCTarget extends WasmGCTarget {
+    private ListableClassHolderSource classes;
+    private BuildTarget buildTarget;
+    private String outputName;
+
+    @Override
+    public void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) {
+        this.classes = classes;
+        this.buildTarget = buildTarget;
+        this.outputName = outputName;
+    }
+
+    public void emitCaptured() throws IOException {
+        super.emit(classes, buildTarget, outputName);
+    }
+}
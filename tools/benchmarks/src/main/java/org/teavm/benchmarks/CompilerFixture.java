@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.parsing.ClasspathResourceProvider;
+import org.teavm.parsing.resource.ResourceProvider;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.TeaVMTarget;
+
+/**
+ * Creates TeaVM instances that compile corpus programs. Parsed classes are shared between builds,
+ * so that class file parsing does not contribute to results after warmup.
+ */
+public class CompilerFixture {
+    private final ClassLoader classLoader = CompilerFixture.class.getClassLoader();
+    private final ReferenceCache referenceCache = new ReferenceCache();
+    private final ResourceProvider resourceProvider = new ClasspathResourceProvider(classLoader);
+    private final ClassReaderSource classSource = new PreOptimizingClassHolderSource(
+            new ClasspathClassHolderSource(resourceProvider, referenceCache));
+
+    public TeaVM createVM(TeaVMTarget target, Corpus corpus, TeaVMOptimizationLevel optimizationLevel) {
+        var vm = new TeaVMBuilder(target)
+                .setClassLoader(classLoader)
+                .setClassSource(classSource)
+                .setResourceProvider(resourceProvider)
+                .setReferenceCache(referenceCache)
+                .build();
+        vm.setOptimizationLevel(optimizationLevel);
+        vm.installPlugins();
+        vm.setEntryPoint(corpus.getMainClass());
+        return vm;
+    }
+
+    public static void checkProblems(TeaVM vm) {
+        var severeProblems = vm.getProblemProvider().getSevereProblems();
+        if (!severeProblems.isEmpty()) {
+            throw new IllegalStateException("Corpus compiled with " + severeProblems.size() + " error(s), "
+                    + "first one: " + severeProblems.get(0).getText());
+        }
+    }
+}
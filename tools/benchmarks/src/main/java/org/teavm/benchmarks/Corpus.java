@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import org.teavm.benchmarks.corpus.CollectionsCorpus;
+import org.teavm.benchmarks.corpus.LeafCallsCorpus;
+import org.teavm.benchmarks.corpus.PhysicsCorpus;
+
+/**
+ * Fixed programs that benchmarks compile. Changing existing corpus makes results of previous runs incomparable,
+ * so prefer adding new entries instead.
+ */
+public enum Corpus {
+    PHYSICS(PhysicsCorpus.class.getName()),
+    COLLECTIONS(CollectionsCorpus.class.getName()),
+    LEAF_CALLS(LeafCallsCorpus.class.getName());
+
+    private final String mainClass;
+
+    Corpus(String mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teavm.ast.decompilation.Decompiler;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.util.ModelUtils;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Measures decompilation of optimized programs into AST, the way JavaScript backend does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DecompilerBenchmark {
+    @Param({ "PHYSICS", "COLLECTIONS" })
+    public Corpus corpus;
+
+    private ListableClassHolderSource optimizedClasses;
+    private MutableClassHolderSource classes;
+    private List<MethodHolder> methods;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        var target = new CapturingJavaScriptTarget(false);
+        var vm = new CompilerFixture().createVM(target, corpus, TeaVMOptimizationLevel.ADVANCED);
+        vm.build(new MemoryBuildTarget(), "classes.js");
+        CompilerFixture.checkProblems(vm);
+        optimizedClasses = target.getClasses();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyClasses() {
+        classes = new MutableClassHolderSource();
+        methods = new ArrayList<>();
+        for (var className : optimizedClasses.getClassNames()) {
+            var cls = ModelUtils.copyClass(optimizedClasses.get(className));
+            classes.putClassHolder(cls);
+            for (var method : cls.getMethods()) {
+                if (method.getProgram() != null && !method.hasModifier(ElementModifier.NATIVE)) {
+                    methods.add(method);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void decompile(Blackhole blackhole) {
+        var decompiler = new Decompiler(classes, Set.of(), false);
+        for (var method : methods) {
+            blackhole.consume(decompiler.decompileRegular(method));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Measures {@code JavaScriptTarget.emit}, i.e. decompilation, AST optimization and rendering of
+ * already optimized classes. Since emission modifies classes, the whole pipeline runs before every
+ * invocation, outside of measured region.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class JavaScriptEmitBenchmark {
+    @Param({ "PHYSICS", "COLLECTIONS" })
+    public Corpus corpus;
+
+    @Param({ "SIMPLE", "ADVANCED", "FULL" })
+    public TeaVMOptimizationLevel optimizationLevel;
+
+    private final CompilerFixture fixture = new CompilerFixture();
+    private CapturingJavaScriptTarget target;
+    private MemoryBuildTarget buildTarget;
+
+    @Setup(Level.Invocation)
+    public void compile() {
+        target = new CapturingJavaScriptTarget(false);
+        buildTarget = new MemoryBuildTarget();
+        var vm = fixture.createVM(target, corpus, optimizationLevel);
+        vm.build(buildTarget, "classes.js");
+        CompilerFixture.checkProblems(vm);
+    }
+
+    @Benchmark
+    public MemoryBuildTarget emit() {
+        target.emitCaptured();
+        return buildTarget;
+    }
+}
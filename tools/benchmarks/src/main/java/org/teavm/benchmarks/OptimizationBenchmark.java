@@ -0,0 +1,192 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.ArrayUnwrapMotion;
+import org.teavm.model.optimization.ClassInitElimination;
+import org.teavm.model.optimization.ConstantConditionElimination;
+import org.teavm.model.optimization.GlobalValueNumbering;
+import org.teavm.model.optimization.LoopInvariantMotion;
+import org.teavm.model.optimization.MethodOptimization;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.optimization.RedundantJumpElimination;
+import org.teavm.model.optimization.RedundantNullCheckElimination;
+import org.teavm.model.optimization.RedundantPhiElimination;
+import org.teavm.model.optimization.RepeatedFieldReadElimination;
+import org.teavm.model.optimization.ScalarReplacement;
+import org.teavm.model.optimization.SystemArrayCopyOptimization;
+import org.teavm.model.optimization.UnreachableBasicBlockElimination;
+import org.teavm.model.optimization.UnusedVariableElimination;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Measures a single pass of each optimization that {@code TeaVM.getOptimizations()} may run, applied to
+ * every method of a corpus. Programs are taken in the state they have before optimization phase,
+ * i.e. after inlining.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class OptimizationBenchmark {
+    @Param({ "PHYSICS", "COLLECTIONS" })
+    public Corpus corpus;
+
+    @Param({
+            "RedundantJumpElimination",
+            "ArrayUnwrapMotion",
+            "ScalarReplacement",
+            "LoopInvariantMotion",
+            "RepeatedFieldReadElimination",
+            "GlobalValueNumbering",
+            "RedundantNullCheckElimination",
+            "ConstantConditionElimination",
+            "UnusedVariableElimination",
+            "ClassInitElimination",
+            "UnreachableBasicBlockElimination",
+            "SystemArrayCopyOptimization",
+            "RedundantPhiElimination"
+    })
+    public String optimization;
+
+    private Supplier<MethodOptimization> optimizationFactory;
+    private List<CapturedProgram> capturedPrograms;
+    private DependencyInfo dependencyInfo;
+    private ClassHierarchy hierarchy;
+    private List<Program> programs;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        optimizationFactory = createOptimization(optimization);
+        var target = new CapturingJavaScriptTarget(true);
+        var vm = new CompilerFixture().createVM(target, corpus, TeaVMOptimizationLevel.ADVANCED);
+        vm.build(new MemoryBuildTarget(), "classes.js");
+        CompilerFixture.checkProblems(vm);
+        capturedPrograms = target.getProgramsBeforeOptimizations();
+        dependencyInfo = vm.getDependencyInfo();
+        hierarchy = new ClassHierarchy(vm.getDependencyClassSource());
+    }
+
+    @Setup(Level.Invocation)
+    public void copyPrograms() {
+        programs = new ArrayList<>();
+        for (var captured : capturedPrograms) {
+            programs.add(ProgramUtils.copy(captured.getProgram()));
+        }
+    }
+
+    @Benchmark
+    public int optimize() {
+        var instance = optimizationFactory.get();
+        int changed = 0;
+        for (int i = 0; i < programs.size(); ++i) {
+            var program = programs.get(i);
+            if (program.basicBlockCount() > 0) {
+                var context = new Context(capturedPrograms.get(i).getMethod());
+                if (instance.optimize(context, program)) {
+                    ++changed;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static Supplier<MethodOptimization> createOptimization(String name) {
+        switch (name) {
+            case "RedundantJumpElimination":
+                return RedundantJumpElimination::new;
+            case "ArrayUnwrapMotion":
+                return ArrayUnwrapMotion::new;
+            case "ScalarReplacement":
+                return ScalarReplacement::new;
+            case "LoopInvariantMotion":
+                return LoopInvariantMotion::new;
+            case "RepeatedFieldReadElimination":
+                return RepeatedFieldReadElimination::new;
+            case "GlobalValueNumbering":
+                return () -> new GlobalValueNumbering(false);
+            case "RedundantNullCheckElimination":
+                return RedundantNullCheckElimination::new;
+            case "ConstantConditionElimination":
+                return ConstantConditionElimination::new;
+            case "UnusedVariableElimination":
+                return UnusedVariableElimination::new;
+            case "ClassInitElimination":
+                return ClassInitElimination::new;
+            case "UnreachableBasicBlockElimination":
+                return UnreachableBasicBlockElimination::new;
+            case "SystemArrayCopyOptimization":
+                return SystemArrayCopyOptimization::new;
+            case "RedundantPhiElimination":
+                return RedundantPhiElimination::new;
+            default:
+                throw new IllegalArgumentException("Unknown optimization: " + name);
+        }
+    }
+
+    class Context implements MethodOptimizationContext {
+        private final MethodReader method;
+
+        Context(MethodReader method) {
+            this.method = method;
+        }
+
+        @Override
+        public MethodReader getMethod() {
+            return method;
+        }
+
+        @Override
+        public DependencyInfo getDependencyInfo() {
+            return dependencyInfo;
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return dependencyInfo.getClassSource();
+        }
+
+        @Override
+        public ClassHierarchy getHierarchy() {
+            return hierarchy;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.corpus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Program that exercises large part of class library: collections, streams, string formatting
+ * and boxing.
+ */
+public final class CollectionsCorpus {
+    private CollectionsCorpus() {
+    }
+
+    public static void main(String[] args) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            words.add(Integer.toString(i * 7919 % 1000, 36));
+        }
+
+        Map<Character, List<String>> byFirstLetter = words.stream()
+                .collect(Collectors.groupingBy(word -> word.charAt(0)));
+        Map<String, Integer> lengths = new TreeMap<>();
+        for (var entry : byFirstLetter.entrySet()) {
+            lengths.put(String.valueOf(entry.getKey()), entry.getValue().size());
+        }
+
+        Map<Integer, Double> averages = new HashMap<>();
+        for (var word : words) {
+            averages.merge(word.length(), (double) word.hashCode(), (a, b) -> (a + b) / 2);
+        }
+
+        var sb = new StringBuilder();
+        for (var entry : lengths.entrySet()) {
+            sb.append(String.format("%s=%d;", entry.getKey(), entry.getValue()));
+        }
+        System.out.println(sb);
+        System.out.println(averages.values().stream().mapToDouble(Double::doubleValue).sum());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.corpus;
+
+/**
+ * Program that calls a small static method in a loop, while the caller keeps an object reference alive,
+ * so that in shadow stack mode every call stores a GC root. The method is called from two sites,
+ * so TeaVM does not inline it. Prints number of calls and time they took, in nanoseconds.
+ */
+public final class LeafCallsCorpus {
+    private static final int ITERATIONS = 100_000_000;
+
+    private LeafCallsCorpus() {
+    }
+
+    public static void main(String[] args) {
+        var roots = new Object[] { new Object() };
+        run(roots, ITERATIONS / 10);
+
+        long start = System.nanoTime();
+        long result = run(roots, ITERATIONS);
+        long duration = System.nanoTime() - start;
+        System.out.println(ITERATIONS * 2L + " " + duration + " " + result);
+    }
+
+    private static long run(Object[] roots, int iterations) {
+        int a = 0;
+        int b = 1;
+        for (int i = 0; i < iterations; ++i) {
+            a = mix(a, i);
+            b = mix(b, ~i);
+        }
+        return a + b + roots.length;
+    }
+
+    private static int mix(int a, int b) {
+        return a * 31 + (b ^ (a >>> 7));
+    }
+}
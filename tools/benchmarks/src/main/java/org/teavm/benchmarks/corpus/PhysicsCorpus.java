@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.corpus;
+
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.BodyType;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Physics simulation similar to the one from {@code samples/benchmark}. Pulls in JBox2D, which is
+ * a good example of numeric code with lots of small virtual methods.
+ */
+public final class PhysicsCorpus {
+    private PhysicsCorpus() {
+    }
+
+    public static void main(String[] args) {
+        var world = new World(new Vec2(0, -9.8f));
+
+        var groundDef = new BodyDef();
+        groundDef.type = BodyType.STATIC;
+        var ground = world.createBody(groundDef);
+        var groundShape = new PolygonShape();
+        groundShape.setAsBox(20, 0.5f);
+        ground.createFixture(groundShape, 0);
+
+        for (int i = 0; i < 50; ++i) {
+            var ballDef = new BodyDef();
+            ballDef.type = BodyType.DYNAMIC;
+            ballDef.position = new Vec2(i % 10, 2 + i / 10);
+            var ball = world.createBody(ballDef);
+            var ballShape = new CircleShape();
+            ballShape.setRadius(0.3f);
+            var fixture = new FixtureDef();
+            fixture.shape = ballShape;
+            fixture.density = 1;
+            fixture.restitution = 0.5f;
+            ball.createFixture(fixture);
+        }
+
+        for (int i = 0; i < 600; ++i) {
+            world.step(1 / 60f, 3, 3);
+        }
+        System.out.println(world.getBodyCount());
+    }
+}
@@ -17,8 +17,11 @@ package org.teavm.tooling.c.incremental;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -39,6 +42,7 @@ import org.teavm.cache.InMemoryMethodNodeCache;
 import org.teavm.cache.InMemoryProgramCache;
 import org.teavm.cache.InMemorySymbolTable;
 import org.teavm.cache.MemoryCachedClassReaderSource;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.FastDependencyAnalyzer;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassReader;
@@ -62,6 +66,9 @@ import org.teavm.vm.TeaVMProgressFeedback;
 import org.teavm.vm.TeaVMProgressListener;
 
 public class IncrementalCBuilder {
+    public static final String CHANGES_FILE_NAME = "teavm-changes.txt";
+    public static final String CHANGES_FILE_VARIABLE = "TEAVM_CHANGES_FILE";
+
     private String mainClass;
     private String[] classPath;
     private int minHeapSize = 4;
@@ -89,6 +96,7 @@ public class IncrementalCBuilder {
     private final CNameProvider nameProvider = new CNameProvider();
 
     private int lastReachedClasses;
+    private DependencySnapshot dependencySnapshot;
     private final Object statusLock = new Object();
     private volatile boolean cancelRequested;
     private volatile boolean stopped;
@@ -173,6 +181,7 @@ public class IncrementalCBuilder {
             astCache.invalidate();
             programCache.invalidate();
             classSource.invalidate();
+            dependencySnapshot = null;
             symbolTable.invalidate();
             fileSymbolTable.invalidate();
         }
@@ -348,6 +357,8 @@ public class IncrementalCBuilder {
         vm.installPlugins();
 
         vm.setLastKnownClasses(lastReachedClasses);
+        vm.setDependencySnapshotEnabled(true);
+        vm.setDependencySnapshot(dependencySnapshot);
         vm.setEntryPoint(mainClass);
         if (mainFunctionName != null) {
             vm.setEntryPointName(mainFunctionName);
@@ -373,6 +384,7 @@ public class IncrementalCBuilder {
             if (vm.getProblemProvider().getSevereProblems().isEmpty()) {
                 log.info("Build complete successfully");
                 lastReachedClasses = vm.getDependencyInfo().getReachableClasses().size();
+                dependencySnapshot = vm.getDependencySnapshot();
                 classSource.commit();
                 programCache.commit();
                 astCache.commit();
@@ -394,10 +406,28 @@ public class IncrementalCBuilder {
         programCache.discard();
         if (!vm.wasCancelled() && !hasErrors) {
             buildTarget.reset();
+            writeChanges();
         }
         cancelRequested = false;
     }
 
+    private void writeChanges() {
+        log.info("Changed files: " + buildTarget.getChangedFiles().size()
+                + ", removed files: " + buildTarget.getRemovedFiles().size());
+        File file = new File(targetPath, CHANGES_FILE_NAME);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            for (String fileName : buildTarget.getChangedFiles()) {
+                writer.println("+ " + fileName);
+            }
+            for (String fileName : buildTarget.getRemovedFiles()) {
+                writer.println("- " + fileName);
+            }
+        } catch (IOException e) {
+            log.error("Could not write list of changed files", e);
+        }
+    }
+
     private void printStats(TeaVM vm, long startTime) {
         if (vm.getWrittenClasses() != null) {
             int classCount = vm.getWrittenClasses().getClassNames().size();
@@ -426,6 +456,7 @@ public class IncrementalCBuilder {
             if (externalToolWorkingDir != null) {
                 pb.directory(new File(externalToolWorkingDir));
             }
+            pb.environment().put(CHANGES_FILE_VARIABLE, new File(targetPath, CHANGES_FILE_NAME).getAbsolutePath());
             Process process = pb.start();
             BufferedReader stdoutReader = new BufferedReader(new InputStreamReader(process.getInputStream(),
                     StandardCharsets.UTF_8));
@@ -77,7 +77,8 @@ public class TeaVMCBuilderRunner {
                 .longOpt("external-tool")
                 .argName("path")
                 .hasArg()
-                .desc("Process to run after successful build")
+                .desc("Process to run after successful build. Path to the list of changed files "
+                        + "is passed in TEAVM_CHANGES_FILE environment variable")
                 .build());
         options.addOption(Option.builder()
                 .longOpt("external-tool-workdir")
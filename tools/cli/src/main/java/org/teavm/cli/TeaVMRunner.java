@@ -83,11 +83,33 @@ public final class TeaVMRunner {
                 .desc("causes TeaVM to produce code that is as close to Java semantics as possible "
                         + "(in cost of performance)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("js-code-splitting")
+                .desc("moves code reachable only through SplitPoint into separate lazily loaded files")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("js-lazy-metadata")
+                .desc("decodes class metadata of large programs on first use instead of on startup")
+                .build());
         options.addOption(Option.builder("O")
                 .desc("optimization level (1-3)")
                 .hasArg()
                 .argName("number")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("optimization-threads")
+                .desc("number of threads used to optimize methods")
+                .hasArg()
+                .argName("number")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("concurrent-inlining")
+                .desc("inline methods in optimization threads; changes output compared to a single-threaded build")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("evaluate-static-initializers")
+                .desc("runs simple static initializers at build time and emits resulting field values (-O2 and -O3)")
+                .build());
         options.addOption(Option.builder("g")
                 .desc("Generate debug information")
                 .longOpt("debug")
@@ -106,6 +128,16 @@ public final class TeaVMRunner {
                 .desc("Incremental build cache directory")
                 .longOpt("cachedir")
                 .build());
+        options.addOption(Option.builder()
+                .argName("directory")
+                .hasArg()
+                .desc("Directory of parsed class cache shared between projects (used with incremental build)")
+                .longOpt("shared-class-cache")
+                .build());
+        options.addOption(Option.builder()
+                .desc("Don't write new classes to shared class cache")
+                .longOpt("shared-class-cache-read-only")
+                .build());
         options.addOption(Option.builder("w")
                 .desc("Wait for command after compilation, in order to enable hot recompilation")
                 .longOpt("wait")
@@ -132,6 +164,11 @@ public final class TeaVMRunner {
                 .longOpt("wasm-use-exceptions")
                 .desc("Specifies that WebAssembly exception handling instructions can be used")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-module-splitting")
+                .desc("moves code reachable only through SplitPoint into separate lazily instantiated "
+                        + "WebAssembly GC modules")
+                .build());
         options.addOption(Option.builder("e")
                 .longOpt("entry-point")
                 .argName("name")
@@ -150,6 +187,19 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("Maximum heap size in megabytes (for C and WebAssembly)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("allocation-sampling-interval")
+                .argName("bytes")
+                .hasArg()
+                .desc("Enable allocation profiler that samples allocations approximately once per given "
+                        + "number of bytes (for C and WebAssembly)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("c-translation-units")
+                .argName("number")
+                .hasArg()
+                .desc("Group generated C files into given number of translation units")
+                .build());
         options.addOption(Option.builder()
                 .longOpt("js-module-type")
                 .argName("module-type")
@@ -245,6 +295,8 @@ public final class TeaVMRunner {
     private void parseGenerationOptions() {
         tool.setObfuscated(commandLine.hasOption("m"));
         tool.setStrict(commandLine.hasOption("strict"));
+        tool.setJsCodeSplitting(commandLine.hasOption("js-code-splitting"));
+        tool.setJsLazyMetadata(commandLine.hasOption("js-lazy-metadata"));
         parseJsModuleOption();
 
         if (commandLine.hasOption("max-toplevel-names")) {
@@ -320,6 +372,16 @@ public final class TeaVMRunner {
                     printUsage();
             }
         }
+        if (commandLine.hasOption("optimization-threads")) {
+            try {
+                tool.setOptimizationThreads(Integer.parseInt(commandLine.getOptionValue("optimization-threads")));
+            } catch (NumberFormatException e) {
+                System.err.println("'--optimization-threads' must be integer number");
+                printUsage();
+            }
+        }
+        tool.setConcurrentInlining(commandLine.hasOption("concurrent-inlining"));
+        tool.setStaticInitializerEvaluation(commandLine.hasOption("evaluate-static-initializers"));
     }
 
     private void parseIncrementalOptions() {
@@ -331,6 +393,10 @@ public final class TeaVMRunner {
         } else {
             tool.setCacheDirectory(new File(tool.getTargetDirectory(), "teavm-cache"));
         }
+        if (commandLine.hasOption("shared-class-cache")) {
+            tool.setSharedClassCacheDirectory(new File(commandLine.getOptionValue("shared-class-cache")));
+        }
+        tool.setSharedClassCacheReadOnly(commandLine.hasOption("shared-class-cache-read-only"));
     }
 
     private void parseClassPathOptions() {
@@ -360,12 +426,23 @@ public final class TeaVMRunner {
         if (commandLine.hasOption("wasm-use-exceptions")) {
             tool.setWasmExceptionsUsed(true);
         }
+        if (commandLine.hasOption("wasm-module-splitting")) {
+            tool.setWasmModuleSplitting(true);
+        }
     }
 
     private void parseCOptions() {
         if (commandLine.hasOption("heap-dump")) {
             tool.setHeapDump(true);
         }
+        if (commandLine.hasOption("c-translation-units")) {
+            try {
+                tool.setTranslationUnitCount(Integer.parseInt(commandLine.getOptionValue("c-translation-units")));
+            } catch (NumberFormatException e) {
+                System.err.println("'--c-translation-units' must be integer number");
+                printUsage();
+            }
+        }
     }
 
     private void parseHeap() {
@@ -391,6 +468,17 @@ public final class TeaVMRunner {
             }
             tool.setMaxHeapSize(size * 1024 * 1024);
         }
+        if (commandLine.hasOption("allocation-sampling-interval")) {
+            int interval;
+            try {
+                interval = Integer.parseInt(commandLine.getOptionValue("allocation-sampling-interval"));
+            } catch (NumberFormatException e) {
+                System.err.print("Wrong allocation sampling interval");
+                printUsage();
+                return;
+            }
+            tool.setAllocationSamplingInterval(interval);
+        }
     }
 
     private void setUp() {
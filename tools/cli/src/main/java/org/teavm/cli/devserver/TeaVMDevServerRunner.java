@@ -121,6 +121,12 @@ public final class TeaVMDevServerRunner {
                 .desc("delegate requests from path")
                 .longOpt("proxy-path")
                 .build());
+        options.addOption(Option.builder()
+                .argName("number")
+                .hasArg()
+                .desc("number of threads that parse classes ahead of time")
+                .longOpt("class-prefetch-threads")
+                .build());
         options.addOption(Option.builder()
                 .desc("don't watch file system changes")
                 .longOpt("no-watch")
@@ -208,6 +214,15 @@ public final class TeaVMDevServerRunner {
         if (commandLine.hasOption("proxy-path")) {
             devServer.setProxyPath(commandLine.getOptionValue("proxy-path"));
         }
+        if (commandLine.hasOption("class-prefetch-threads")) {
+            try {
+                devServer.setClassPrefetchThreads(Integer.parseInt(
+                        commandLine.getOptionValue("class-prefetch-threads")));
+            } catch (NumberFormatException e) {
+                System.err.println("class-prefetch-threads must be numeric");
+                printUsage();
+            }
+        }
         if (commandLine.hasOption("no-watch")) {
             devServer.setFileSystemWatched(false);
         }
@@ -52,6 +52,7 @@ import org.teavm.cache.DiskMethodNodeCache;
 import org.teavm.cache.DiskProgramCache;
 import org.teavm.cache.EmptyProgramCache;
 import org.teavm.cache.FileSymbolTable;
+import org.teavm.cache.SharedClassCache;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.debugging.information.SourceMapsWriter;
@@ -72,6 +73,7 @@ import org.teavm.tooling.sources.DefaultSourceFileResolver;
 import org.teavm.tooling.sources.SourceFileProvider;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.DirectoryBuildTarget;
+import org.teavm.vm.IncrementalDirectoryBuildTarget;
 import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMBuilder;
 import org.teavm.vm.TeaVMOptimizationLevel;
@@ -85,6 +87,8 @@ public class TeaVMTool {
     private boolean obfuscated = true;
     private JSModuleType jsModuleType = JSModuleType.UMD;
     private boolean strict;
+    private boolean jsCodeSplitting;
+    private boolean jsLazyMetadata;
     private int maxTopLevelNames = 80_000;
     private String mainClass;
     private String entryPointName = "main";
@@ -94,6 +98,8 @@ public class TeaVMTool {
     private TeaVMSourceFilePolicy sourceFilePolicy = TeaVMSourceFilePolicy.DO_NOTHING;
     private boolean incremental;
     private File cacheDirectory = new File("./teavm-cache");
+    private File sharedClassCacheDirectory;
+    private boolean sharedClassCacheReadOnly;
     private List<String> transformers = new ArrayList<>();
     private List<String> classesToPreserve = new ArrayList<>();
     private TeaVMToolLog log = new EmptyTeaVMToolLog();
@@ -110,6 +116,9 @@ public class TeaVMTool {
     private TeaVM vm;
     private boolean fastDependencyAnalysis;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private int optimizationThreads = 1;
+    private boolean concurrentInlining;
+    private boolean staticInitializerEvaluation;
     private List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private DebugInformationBuilder debugEmitter;
     private JavaScriptTarget javaScriptTarget;
@@ -126,9 +135,12 @@ public class TeaVMTool {
     private int minDirectBuffersSize = 2 * (1 << 20);
     private int maxDirectBuffersSize = 32 * (1 << 20);
     private boolean importedWasmMemory;
+    private boolean wasmModuleSplitting;
     private ReferenceCache referenceCache;
     private boolean heapDump;
+    private int allocationSamplingInterval;
     private boolean shortFileNames;
+    private int translationUnitCount;
     private boolean assertionsRemoved;
     private SourceMapBuilder wasmSourceMapWriter;
 
@@ -156,6 +168,14 @@ public class TeaVMTool {
         this.strict = strict;
     }
 
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        this.jsCodeSplitting = jsCodeSplitting;
+    }
+
+    public void setJsLazyMetadata(boolean jsLazyMetadata) {
+        this.jsLazyMetadata = jsLazyMetadata;
+    }
+
     public void setMaxTopLevelNames(int maxTopLevelNames) {
         this.maxTopLevelNames = maxTopLevelNames;
     }
@@ -196,6 +216,26 @@ public class TeaVMTool {
         this.cacheDirectory = cacheDirectory;
     }
 
+    public File getSharedClassCacheDirectory() {
+        return sharedClassCacheDirectory;
+    }
+
+    /**
+     * Sets directory of parsed class cache, which is shared between different projects. Only used in
+     * incremental mode, as a fallback for classes missing in the project's own cache.
+     */
+    public void setSharedClassCacheDirectory(File sharedClassCacheDirectory) {
+        this.sharedClassCacheDirectory = sharedClassCacheDirectory;
+    }
+
+    public boolean isSharedClassCacheReadOnly() {
+        return sharedClassCacheReadOnly;
+    }
+
+    public void setSharedClassCacheReadOnly(boolean sharedClassCacheReadOnly) {
+        this.sharedClassCacheReadOnly = sharedClassCacheReadOnly;
+    }
+
     public boolean isSourceMapsFileGenerated() {
         return sourceMapsFileGenerated;
     }
@@ -259,6 +299,26 @@ public class TeaVMTool {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getOptimizationThreads() {
+        return optimizationThreads;
+    }
+
+    public void setOptimizationThreads(int optimizationThreads) {
+        this.optimizationThreads = optimizationThreads;
+    }
+
+    public boolean isConcurrentInlining() {
+        return concurrentInlining;
+    }
+
+    public void setConcurrentInlining(boolean concurrentInlining) {
+        this.concurrentInlining = concurrentInlining;
+    }
+
+    public void setStaticInitializerEvaluation(boolean staticInitializerEvaluation) {
+        this.staticInitializerEvaluation = staticInitializerEvaluation;
+    }
+
     public boolean isFastDependencyAnalysis() {
         return fastDependencyAnalysis;
     }
@@ -287,6 +347,10 @@ public class TeaVMTool {
         this.importedWasmMemory = importedWasmMemory;
     }
 
+    public void setWasmModuleSplitting(boolean wasmModuleSplitting) {
+        this.wasmModuleSplitting = wasmModuleSplitting;
+    }
+
     public ClassLoader getClassLoader() {
         return classLoader;
     }
@@ -327,10 +391,18 @@ public class TeaVMTool {
         this.heapDump = heapDump;
     }
 
+    public void setAllocationSamplingInterval(int allocationSamplingInterval) {
+        this.allocationSamplingInterval = allocationSamplingInterval;
+    }
+
     public void setShortFileNames(boolean shortFileNames) {
         this.shortFileNames = shortFileNames;
     }
 
+    public void setTranslationUnitCount(int translationUnitCount) {
+        this.translationUnitCount = translationUnitCount;
+    }
+
     public void setAssertionsRemoved(boolean assertionsRemoved) {
         this.assertionsRemoved = assertionsRemoved;
     }
@@ -397,6 +469,8 @@ public class TeaVMTool {
                 ? new DebugInformationBuilder(referenceCache) : null;
         javaScriptTarget.setDebugEmitter(debugEmitter);
         javaScriptTarget.setModuleType(jsModuleType);
+        javaScriptTarget.setCodeSplitting(jsCodeSplitting);
+        javaScriptTarget.setLazyMetadata(jsLazyMetadata);
 
         return javaScriptTarget;
     }
@@ -410,6 +484,7 @@ public class TeaVMTool {
         webAssemblyTarget.setWasm64(wasm64);
         webAssemblyTarget.setMinHeapSize(minHeapSize);
         webAssemblyTarget.setMaxHeapSize(maxHeapSize);
+        webAssemblyTarget.setAllocationSamplingInterval(allocationSamplingInterval);
         webAssemblyTarget.setObfuscated(obfuscated);
         webAssemblyTarget.setExceptionsUsed(wasmExceptionsUsed);
         return webAssemblyTarget;
@@ -437,6 +512,7 @@ public class TeaVMTool {
         target.setBufferHeapMinSize(minDirectBuffersSize);
         target.setBufferHeapMaxSize(maxDirectBuffersSize);
         target.setImportedMemory(importedWasmMemory);
+        target.setModuleSplitting(wasmModuleSplitting);
         if (sourceMapsFileGenerated) {
             wasmSourceMapWriter = new SourceMapBuilder();
             target.setSourceMapBuilder(wasmSourceMapWriter);
@@ -451,6 +527,8 @@ public class TeaVMTool {
         cTarget.setMaxHeapSize(maxHeapSize);
         cTarget.setLineNumbersGenerated(debugInformationGenerated);
         cTarget.setHeapDump(heapDump);
+        cTarget.setAllocationSamplingInterval(allocationSamplingInterval);
+        cTarget.setTranslationUnitCount(translationUnitCount);
         cTarget.setObfuscated(obfuscated);
         cTarget.setFileNames(shortFileNames
                 ? new ShorteningFileNameProvider(new SimpleFileNameProvider())
@@ -459,10 +537,12 @@ public class TeaVMTool {
     }
 
     public void generate() throws TeaVMToolException {
-        try (var resourceProvider = createResourceProvider()) {
+        referenceCache = new ReferenceCache();
+        try (var resourceProvider = createResourceProvider();
+                var classPathSource = new ClasspathClassHolderSource(resourceProvider, referenceCache,
+                        optimizationThreads > 1 ? optimizationThreads : 0)) {
             cancelled = false;
             log.info("Running TeaVM");
-            referenceCache = new ReferenceCache();
             TeaVMBuilder vmBuilder = new TeaVMBuilder(prepareTarget());
             CacheStatus cacheStatus;
             vmBuilder.setReferenceCache(referenceCache);
@@ -471,11 +551,13 @@ public class TeaVMTool {
                 symbolTable = new FileSymbolTable(new File(cacheDirectory, "symbols"));
                 fileTable = new FileSymbolTable(new File(cacheDirectory, "files"));
                 variableTable = new FileSymbolTable(new File(cacheDirectory, "variables"));
-                ClasspathClassHolderSource innerClassSource = new ClasspathClassHolderSource(resourceProvider,
-                        referenceCache);
-                ClassHolderSource classSource = new PreOptimizingClassHolderSource(innerClassSource);
+                ClassHolderSource classSource = new PreOptimizingClassHolderSource(classPathSource);
                 cachedClassSource = new DiskCachedClassReaderSource(cacheDirectory, referenceCache, symbolTable,
-                        fileTable, variableTable, classSource, innerClassSource);
+                        fileTable, variableTable, classSource, classPathSource);
+                if (sharedClassCacheDirectory != null) {
+                    cachedClassSource.setSharedCache(new SharedClassCache(sharedClassCacheDirectory, referenceCache,
+                            sharedClassCacheReadOnly), classPathSource);
+                }
                 programCache = new DiskProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
                         variableTable);
                 if (targetType == TeaVMTargetType.JAVASCRIPT) {
@@ -494,7 +576,7 @@ public class TeaVMTool {
                 cacheStatus = cachedClassSource;
             } else {
                 vmBuilder.setClassLoader(classLoader).setClassSource(new PreOptimizingClassHolderSource(
-                        new ClasspathClassHolderSource(resourceProvider, referenceCache)));
+                        classPathSource));
                 cacheStatus = AlwaysStaleCacheStatus.INSTANCE;
             }
 
@@ -504,6 +586,8 @@ public class TeaVMTool {
                     : PreciseDependencyAnalyzer::new);
             vmBuilder.setObfuscated(obfuscated);
             vmBuilder.setStrict(strict);
+            vmBuilder.setOptimizationThreads(optimizationThreads);
+            vmBuilder.setConcurrentInlining(concurrentInlining);
 
             vm = vmBuilder.build();
             if (progressListener != null) {
@@ -520,6 +604,7 @@ public class TeaVMTool {
             vm.setOptimizationLevel(!fastDependencyAnalysis && !incremental
                     ? optimizationLevel
                     : TeaVMOptimizationLevel.SIMPLE);
+            vm.setStaticInitializerEvaluation(staticInitializerEvaluation);
             if (incremental) {
                 vm.addVirtualMethods(m -> true);
             }
@@ -541,7 +626,10 @@ public class TeaVMTool {
                 System.exit(-1);
             }
 
-            BuildTarget buildTarget = new DirectoryBuildTarget(targetDirectory);
+            // Leave unchanged C files untouched, so that make or ccache only rebuild modified ones
+            BuildTarget buildTarget = targetType == TeaVMTargetType.C
+                    ? new IncrementalDirectoryBuildTarget(targetDirectory)
+                    : new DirectoryBuildTarget(targetDirectory);
             String outputName = getResolvedTargetFileName();
             vm.build(buildTarget, outputName);
             if (vm.wasCancelled()) {
@@ -36,6 +36,8 @@ dependencies {
     implementation(libs.httpclient)
     implementation(libs.commons.io)
 
+    testImplementation(libs.junit)
+
     "js"(project(":tools:deobfuscator-js", "js"))
 }
 
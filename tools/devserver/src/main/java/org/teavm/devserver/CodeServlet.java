@@ -71,12 +71,14 @@ import org.eclipse.jetty.websocket.client.io.UpgradeListener;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
 import org.teavm.backend.javascript.JSModuleType;
 import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.javascript.rendering.RenderedClassCache;
 import org.teavm.cache.InMemoryMethodNodeCache;
 import org.teavm.cache.InMemoryProgramCache;
 import org.teavm.cache.InMemorySymbolTable;
 import org.teavm.cache.MemoryCachedClassReaderSource;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.FastDependencyAnalyzer;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassReader;
@@ -84,6 +86,7 @@ import org.teavm.model.ClassReaderSource;
 import org.teavm.model.PreOptimizingClassHolderSource;
 import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.RenamingResourceMapper;
+import org.teavm.parsing.resource.PrefetchingClassHolderMapper;
 import org.teavm.parsing.resource.ResourceClassHolderMapper;
 import org.teavm.parsing.resource.ResourceProvider;
 import org.teavm.tooling.EmptyTeaVMToolLog;
@@ -126,6 +129,7 @@ public class CodeServlet extends HttpServlet {
     private Map<String, String> properties = new LinkedHashMap<>();
     private List<String> preservedClasses = new ArrayList<>();
     private JSModuleType jsModuleType;
+    private int classPrefetchThreads;
 
     private Map<String, Supplier<InputStream>> sourceFileCache = new HashMap<>();
 
@@ -134,11 +138,13 @@ public class CodeServlet extends HttpServlet {
     private MemoryCachedClassReaderSource classSource;
     private InMemoryProgramCache programCache;
     private InMemoryMethodNodeCache astCache;
+    private RenderedClassCache renderedClassCache;
     private int lastReachedClasses;
+    private DependencySnapshot dependencySnapshot;
     private boolean firstTime = true;
 
     private final Object contentLock = new Object();
-    private final Map<String, byte[]> content = new HashMap<>();
+    private final Map<String, GeneratedFile> content = new HashMap<>();
     private MemoryBuildTarget buildTarget = new MemoryBuildTarget();
 
     private final Set<ProgressHandler> progressHandlers = new LinkedHashSet<>();
@@ -231,6 +237,14 @@ public class CodeServlet extends HttpServlet {
         this.jsModuleType = jsModuleType;
     }
 
+    /**
+     * Specifies number of threads that parse classes ahead of time. Rebuilds start with parsing of changed
+     * classes reached by the previous build. 0 means that classes are parsed only on request.
+     */
+    public void setClassPrefetchThreads(int classPrefetchThreads) {
+        this.classPrefetchThreads = classPrefetchThreads;
+    }
+
     public void setLogBuildErrors(boolean logBuildErrors) {
         this.logBuildErrors = logBuildErrors;
     }
@@ -267,8 +281,10 @@ public class CodeServlet extends HttpServlet {
                 return;
             }
             astCache.invalidate();
+            renderedClassCache.invalidate();
             programCache.invalidate();
             classSource.invalidate();
+            dependencySnapshot = null;
             symbolTable.invalidate();
             fileSymbolTable.invalidate();
         }
@@ -369,24 +385,14 @@ public class CodeServlet extends HttpServlet {
                     serveDeobfuscator(req, resp, hasBody);
                     return;
                 } else {
-                    byte[] fileContent;
+                    GeneratedFile fileContent;
                     boolean firstTime;
                     synchronized (contentLock) {
                         fileContent = content.get(fileName);
                         firstTime = this.firstTime;
                     }
                     if (fileContent != null) {
-                        resp.setStatus(hasBody ? HttpServletResponse.SC_OK : HttpServletResponse.SC_NO_CONTENT);
-                        resp.setCharacterEncoding("UTF-8");
-                        allowOrigin(req, resp);
-                        if (!hasBody) {
-                            resp.setHeader("Access-Control-Allow-Methods", "GET");
-                        } else {
-                            resp.setContentType(chooseContentType(fileName));
-                            noCache(resp);
-                            resp.getOutputStream().write(fileContent);
-                        }
-                        resp.getOutputStream().flush();
+                        serveGeneratedFile(fileContent, fileName, req, resp, hasBody);
                         log.debug("File " + path + " served as generated file");
                         return;
                     } else if (fileName.equals(this.fileName) && indicator && firstTime) {
@@ -410,6 +416,36 @@ public class CodeServlet extends HttpServlet {
         resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
     }
 
+    private void serveGeneratedFile(GeneratedFile file, String fileName, HttpServletRequest req,
+            HttpServletResponse resp, boolean hasBody) throws IOException {
+        allowOrigin(req, resp);
+        resp.addHeader("Vary", "Accept-Encoding");
+        if (!hasBody) {
+            resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            resp.setHeader("Access-Control-Allow-Methods", "GET");
+            resp.getOutputStream().flush();
+            return;
+        }
+
+        var representation = file.select(req.getHeader("Accept-Encoding"));
+        resp.setHeader("Cache-Control", "no-cache");
+        resp.setHeader("ETag", representation.etag);
+        if (GeneratedFile.matches(req.getHeader("If-None-Match"), representation.etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setCharacterEncoding("UTF-8");
+        resp.setContentType(chooseContentType(fileName));
+        if (representation.gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+        }
+        resp.setContentLength(representation.data.length);
+        resp.getOutputStream().write(representation.data);
+        resp.getOutputStream().flush();
+    }
+
     private String chooseContentType(String name) {
         if (name.endsWith(".js")) {
             return "application/javascript";
@@ -835,6 +871,7 @@ public class CodeServlet extends HttpServlet {
 
         classSource = createCachedSource();
         astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
+        renderedClassCache = new RenderedClassCache();
         programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
     }
 
@@ -852,7 +889,9 @@ public class CodeServlet extends HttpServlet {
         classSource = null;
         watcher = null;
         astCache = null;
+        renderedClassCache = null;
         programCache = null;
+        dependencySnapshot = null;
         synchronized (content) {
             content.clear();
         }
@@ -868,10 +907,24 @@ public class CodeServlet extends HttpServlet {
         DebugInformationBuilder debugInformationBuilder = new DebugInformationBuilder(referenceCache);
         ClassLoader classLoader = initClassLoader();
         var reader = ResourceProvider.ofClassPath(Stream.of(classPath).map(File::new).collect(Collectors.toList()));
-        ResourceClassHolderMapper rawMapper = new ResourceClassHolderMapper(reader, referenceCache);
-        Function<String, ClassHolder> classPathMapper = new RenamingResourceMapper(reader, referenceCache,
-                rawMapper);
+        Function<String, ClassHolder> rawMapper = new ResourceClassHolderMapper(reader, referenceCache);
+        PrefetchingClassHolderMapper prefetcher = null;
+        if (classPrefetchThreads > 0) {
+            prefetcher = new PrefetchingClassHolderMapper(rawMapper, classPrefetchThreads);
+            rawMapper = prefetcher;
+        }
+        var renamingMapper = new RenamingResourceMapper(reader, referenceCache, rawMapper);
+        Function<String, ClassHolder> classPathMapper = renamingMapper;
         classSource.setProvider(name -> PreOptimizingClassHolderSource.optimize(classPathMapper, name));
+        if (prefetcher != null) {
+            // Classes that are still in memory cache won't be parsed anyway
+            prefetcher.setReferenceMapper(name -> classSource.isStaleClass(name)
+                    ? renamingMapper.getSourceClassNames(name)
+                    : List.of());
+            if (dependencySnapshot != null) {
+                prefetcher.prefetch(dependencySnapshot.getClassNames());
+            }
+        }
 
         long startTime = System.currentTimeMillis();
         JavaScriptTarget jsTarget = new JavaScriptTarget();
@@ -890,6 +943,7 @@ public class CodeServlet extends HttpServlet {
         jsTarget.setStackTraceIncluded(true);
         jsTarget.setObfuscated(false);
         jsTarget.setAstCache(astCache);
+        jsTarget.setRenderedClassCache(renderedClassCache);
         jsTarget.setDebugEmitter(debugInformationBuilder);
         if (jsModuleType != null) {
             jsTarget.setModuleType(jsModuleType);
@@ -907,6 +961,8 @@ public class CodeServlet extends HttpServlet {
         vm.getProperties().putAll(properties);
 
         vm.setLastKnownClasses(lastReachedClasses);
+        vm.setDependencySnapshotEnabled(true);
+        vm.setDependencySnapshot(dependencySnapshot);
         vm.setEntryPoint(mainClass);
 
         log.info("Starting build");
@@ -917,6 +973,9 @@ public class CodeServlet extends HttpServlet {
         generateDebug(debugInformationBuilder);
 
         postBuild(vm, startTime);
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
         reader.close();
     }
 
@@ -992,9 +1051,11 @@ public class CodeServlet extends HttpServlet {
                 log.info("Build complete successfully");
                 saveNewResult();
                 lastReachedClasses = vm.getDependencyInfo().getReachableClasses().size();
+                dependencySnapshot = vm.getDependencySnapshot();
                 classSource.commit();
                 programCache.commit();
                 astCache.commit();
+                renderedClassCache.commit();
                 reportCompilationComplete(true);
             } else {
                 log.info("Build complete with errors");
@@ -1011,6 +1072,7 @@ public class CodeServlet extends HttpServlet {
         }
 
         astCache.discard();
+        renderedClassCache.discard();
         programCache.discard();
         buildTarget.clear();
         cancelRequested = false;
@@ -1033,12 +1095,18 @@ public class CodeServlet extends HttpServlet {
     }
 
     private void saveNewResult() {
+        Map<String, GeneratedFile> previousContent;
+        synchronized (contentLock) {
+            previousContent = new HashMap<>(content);
+        }
+        Map<String, GeneratedFile> newContent = new HashMap<>();
+        for (String name : buildTarget.getNames()) {
+            newContent.put(name, GeneratedFile.create(buildTarget.getContent(name), previousContent.get(name)));
+        }
         synchronized (contentLock) {
             firstTime = false;
             content.clear();
-            for (String name : buildTarget.getNames()) {
-                content.put(name, buildTarget.getContent(name));
-            }
+            content.putAll(newContent);
         }
     }
 
@@ -42,6 +42,7 @@ public class DevServer {
     private Map<String, String> properties = new LinkedHashMap<>();
     private List<String> preservedClasses = new ArrayList<>();
     private JSModuleType jsModuleType;
+    private int classPrefetchThreads;
     private boolean compileOnStartup;
     private boolean logBuildErrors = true;
 
@@ -129,6 +130,10 @@ public class DevServer {
         this.jsModuleType = jsModuleType;
     }
 
+    public void setClassPrefetchThreads(int classPrefetchThreads) {
+        this.classPrefetchThreads = classPrefetchThreads;
+    }
+
     public void invalidateCache() {
         servlet.invalidateCache();
     }
@@ -177,6 +182,7 @@ public class DevServer {
         servlet.getProperties().putAll(properties);
         servlet.getPreservedClasses().addAll(preservedClasses);
         servlet.setJsModuleType(jsModuleType);
+        servlet.setClassPrefetchThreads(classPrefetchThreads);
         for (DevServerListener listener : listeners) {
             servlet.addListener(listener);
         }
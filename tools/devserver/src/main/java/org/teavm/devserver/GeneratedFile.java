@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.devserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+class GeneratedFile {
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    final byte[] content;
+    final byte[] gzipContent;
+    final String etag;
+    final String gzipEtag;
+
+    private GeneratedFile(byte[] content, byte[] gzipContent, String etag) {
+        this.content = content;
+        this.gzipContent = gzipContent;
+        this.etag = etag;
+        // Compressed and uncompressed representations differ byte-wise, so they need different strong validators
+        gzipEtag = etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    static GeneratedFile create(byte[] content, GeneratedFile previous) {
+        var etag = computeEtag(content);
+        if (previous != null && previous.etag.equals(etag) && Arrays.equals(previous.content, content)) {
+            return previous;
+        }
+        return new GeneratedFile(content, compress(content), etag);
+    }
+
+    /**
+     * Chooses representation according to <code>Accept-Encoding</code> header. Compressed one is chosen
+     * when client accepts gzip either explicitly or by <code>*</code>, and explicit <code>gzip;q=0</code>
+     * always takes precedence.
+     */
+    Representation select(String acceptEncoding) {
+        if (gzipContent != null && acceptsGzip(acceptEncoding)) {
+            return new Representation(gzipContent, gzipEtag, true);
+        }
+        return new Representation(content, etag, false);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        var gzipQuality = -1.0;
+        var wildcardQuality = -1.0;
+        for (var item : acceptEncoding.split(",")) {
+            var parts = item.split(";");
+            var coding = parts[0].trim().toLowerCase();
+            var quality = parseQuality(parts);
+            switch (coding) {
+                case "gzip":
+                case "x-gzip":
+                    gzipQuality = gzipQuality < 0 ? quality : Math.min(gzipQuality, quality);
+                    break;
+                case "*":
+                    wildcardQuality = Math.max(wildcardQuality, quality);
+                    break;
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+    }
+
+    private static double parseQuality(String[] parts) {
+        for (var i = 1; i < parts.length; ++i) {
+            var param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String computeEtag(byte[] content) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        var sb = new StringBuilder("\"");
+        for (var i = 0; i < 16; ++i) {
+            sb.append(HEX_DIGITS[(digest[i] >> 4) & 15]).append(HEX_DIGITS[digest[i] & 15]);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static byte[] compress(byte[] content) {
+        if (content.length < MIN_COMPRESSED_SIZE) {
+            return null;
+        }
+        var output = new ByteArrayOutputStream(content.length / 4);
+        try (var gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return output.size() < content.length ? output.toByteArray() : null;
+    }
+
+    static class Representation {
+        final byte[] data;
+        final String etag;
+        final boolean gzip;
+
+        Representation(byte[] data, String etag, boolean gzip) {
+            this.data = data;
+            this.etag = etag;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.devserver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class GeneratedFileTest {
+    private static final byte[] CONTENT = "function foo() { return 23; }\n".repeat(100)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void gzipNegotiation() {
+        assertFalse(GeneratedFile.acceptsGzip(null));
+        assertFalse(GeneratedFile.acceptsGzip(""));
+        assertFalse(GeneratedFile.acceptsGzip("br, deflate"));
+        assertTrue(GeneratedFile.acceptsGzip("gzip"));
+        assertTrue(GeneratedFile.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(GeneratedFile.acceptsGzip("x-gzip"));
+        assertTrue(GeneratedFile.acceptsGzip("*"));
+        assertTrue(GeneratedFile.acceptsGzip("br;q=1.0, *;q=0.1"));
+        assertFalse(GeneratedFile.acceptsGzip("*;q=0"));
+        assertFalse(GeneratedFile.acceptsGzip("gzip;q=0"));
+        assertFalse(GeneratedFile.acceptsGzip("*, gzip;q=0"));
+        assertFalse(GeneratedFile.acceptsGzip("gzip;q=0, *"));
+        assertFalse(GeneratedFile.acceptsGzip("gzip, gzip;q=0"));
+        assertTrue(GeneratedFile.acceptsGzip("*;q=0, gzip"));
+        assertFalse(GeneratedFile.acceptsGzip("gzip;q=foo"));
+    }
+
+    @Test
+    public void selectsRepresentation() throws IOException {
+        var file = GeneratedFile.create(CONTENT, null);
+
+        var identity = file.select("br");
+        assertFalse(identity.gzip);
+        assertSame(CONTENT, identity.data);
+
+        var gzip = file.select("gzip, deflate");
+        assertTrue(gzip.gzip);
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(gzip.data))) {
+            assertArrayEquals(CONTENT, input.readAllBytes());
+        }
+    }
+
+    @Test
+    public void smallFileNotCompressed() {
+        var file = GeneratedFile.create("foo".getBytes(StandardCharsets.UTF_8), null);
+        assertNull(file.gzipContent);
+        assertFalse(file.select("gzip").gzip);
+    }
+
+    @Test
+    public void distinctEtags() {
+        var file = GeneratedFile.create(CONTENT, null);
+        var identityEtag = file.select(null).etag;
+        var gzipEtag = file.select("gzip").etag;
+        assertNotNull(identityEtag);
+        assertNotEquals(identityEtag, gzipEtag);
+        assertTrue(identityEtag.startsWith("\"") && identityEtag.endsWith("\""));
+        assertTrue(gzipEtag.startsWith("\"") && gzipEtag.endsWith("\""));
+
+        var changed = GeneratedFile.create("function bar() {}\n".repeat(100).getBytes(StandardCharsets.UTF_8), file);
+        assertNotEquals(identityEtag, changed.etag);
+        assertSame(file, GeneratedFile.create(CONTENT.clone(), file));
+    }
+
+    @Test
+    public void notModifiedOnMatchingEtag() {
+        var file = GeneratedFile.create(CONTENT, null);
+        var identityEtag = file.select(null).etag;
+        var gzipEtag = file.select("gzip").etag;
+
+        assertTrue(GeneratedFile.matches(identityEtag, identityEtag));
+        assertTrue(GeneratedFile.matches("\"foo\", W/" + identityEtag, identityEtag));
+        assertTrue(GeneratedFile.matches("*", identityEtag));
+        assertFalse(GeneratedFile.matches(null, identityEtag));
+        assertFalse(GeneratedFile.matches("\"foo\"", identityEtag));
+        assertFalse("Cached gzip representation must not validate identity one",
+                GeneratedFile.matches(gzipEtag, identityEtag));
+        assertFalse(GeneratedFile.matches(identityEtag, gzipEtag));
+    }
+}
@@ -17,6 +17,8 @@ package org.teavm.junit;
 
 import static org.teavm.junit.PropertyNames.C_COMPILER;
 import static org.teavm.junit.PropertyNames.C_ENABLED;
+import static org.teavm.junit.PropertyNames.C_GC_MARK_THREADS;
+import static org.teavm.junit.PropertyNames.C_GC_PAUSE_BUDGET;
 import static org.teavm.junit.PropertyNames.C_LINE_NUMBERS;
 import static org.teavm.junit.PropertyNames.OPTIMIZED;
 import static org.teavm.junit.TestUtil.resourceToFile;
@@ -92,7 +94,9 @@ class CPlatformSupport extends TestPlatformSupport<CTarget> {
                 throw new RuntimeException(e);
             }
         };
-        var result = compile(configuration, this::createCTarget, TestNativeEntryPoint.class.getName(), path, "",
+        var samplingInterval = getAllocationSamplingInterval(element);
+        var result = compile(configuration, () -> createCTarget(samplingInterval),
+                TestNativeEntryPoint.class.getName(), path, "",
                 postBuild, additionalProcessing, baseName);
         if (result.success) {
             includeAndAttachAdditionalFiles(element, result.file);
@@ -143,9 +147,20 @@ class CPlatformSupport extends TestPlatformSupport<CTarget> {
         }
     }
 
-    private CTarget createCTarget() {
+    private int getAllocationSamplingInterval(AnnotatedElement element) {
+        var annot = element.getAnnotation(AllocationSamplingInterval.class);
+        if (annot == null && element instanceof Method) {
+            annot = ((Method) element).getDeclaringClass().getAnnotation(AllocationSamplingInterval.class);
+        }
+        return annot != null ? annot.value() : 0;
+    }
+
+    private CTarget createCTarget(int allocationSamplingInterval) {
         CTarget cTarget = new CTarget(new CNameProvider());
         cTarget.setLineNumbersGenerated(Boolean.parseBoolean(System.getProperty(C_LINE_NUMBERS, "false")));
+        cTarget.setGcMarkThreads(Integer.parseInt(System.getProperty(C_GC_MARK_THREADS, "1")));
+        cTarget.setGcPauseBudget(Integer.parseInt(System.getProperty(C_GC_PAUSE_BUDGET, "0")));
+        cTarget.setAllocationSamplingInterval(allocationSamplingInterval);
         return cTarget;
     }
 
@@ -18,6 +18,7 @@ package org.teavm.junit;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.teavm.junit.PropertyNames.JS_DECODE_STACK;
 import static org.teavm.junit.PropertyNames.JS_ENABLED;
+import static org.teavm.junit.PropertyNames.JS_LAZY_METADATA;
 import static org.teavm.junit.PropertyNames.JS_RUNNER;
 import static org.teavm.junit.PropertyNames.MINIFIED;
 import static org.teavm.junit.PropertyNames.OPTIMIZED;
@@ -93,6 +94,7 @@ class JSPlatformSupport extends TestPlatformSupport<JavaScriptTarget> {
     CompileResult compile(Consumer<TeaVM> additionalProcessing, String baseName,
             TeaVMTestConfiguration<JavaScriptTarget> configuration, File path, AnnotatedElement element) {
         boolean decodeStack = Boolean.parseBoolean(System.getProperty(JS_DECODE_STACK, "true"));
+        boolean lazyMetadata = Boolean.getBoolean(JS_LAZY_METADATA);
         var debugEmitter = new DebugInformationBuilder(new ReferenceCache());
         Supplier<JavaScriptTarget> targetSupplier = () -> {
             JavaScriptTarget target = new JavaScriptTarget();
@@ -104,6 +106,11 @@ class JSPlatformSupport extends TestPlatformSupport<JavaScriptTarget> {
             if (isModule(element)) {
                 target.setModuleType(JSModuleType.ES2015);
             }
+            if (lazyMetadata) {
+                // Test programs are small, so lazy metadata must be forced
+                target.setLazyMetadata(true);
+                target.setLazyMetadataMinClasses(0);
+            }
             return target;
         };
         CompilePostProcessor postBuild = null;
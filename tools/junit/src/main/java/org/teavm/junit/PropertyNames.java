@@ -21,6 +21,7 @@ final class PropertyNames {
     static final String WASM_RUNNER = "teavm.junit.wasm.runner";
     static final String JS_ENABLED = "teavm.junit.js";
     static final String JS_DECODE_STACK = "teavm.junit.js.decodeStack";
+    static final String JS_LAZY_METADATA = "teavm.junit.js.lazyMetadata";
     static final String C_ENABLED = "teavm.junit.c";
     static final String WASM_ENABLED = "teavm.junit.wasm";
     static final String WASM_DISASM = "teavm.junit.wasm.disasm";
@@ -31,6 +32,8 @@ final class PropertyNames {
     static final String WASM_GC_DISASM = "teavm.junit.wasm-gc.disasm";
     static final String C_COMPILER = "teavm.junit.c.compiler";
     static final String C_LINE_NUMBERS = "teavm.junit.c.lineNumbers";
+    static final String C_GC_MARK_THREADS = "teavm.junit.c.gcMarkThreads";
+    static final String C_GC_PAUSE_BUDGET = "teavm.junit.c.gcPauseBudget";
     static final String MINIFIED = "teavm.junit.minified";
     static final String OPTIMIZED = "teavm.junit.optimized";
     static final String SOURCE_DIRS = "teavm.junit.sourceDirs";
@@ -23,9 +23,13 @@ final class TestWasmGCEntryPoint {
     private TestWasmGCEntryPoint() {
     }
 
-    public static void main(String[] args) throws Throwable {
+    public static void main(String[] args) {
+        run(args.length > 0 ? args[0] : null);
+    }
+
+    static void run(String argument) {
         try {
-            TestEntryPoint.run(args.length > 0 ? args[0] : null);
+            TestEntryPoint.run(argument);
             reportSuccess();
         } catch (Throwable e) {
             var out = new JSConsoleStringPrintStream();
@@ -90,6 +90,7 @@ class WebAssemblyGCPlatformSupport extends TestPlatformSupport<WasmGCTarget> {
             TeaVMTestConfiguration<WasmGCTarget> configuration, File path, AnnotatedElement element) {
         var sourceMapBuilder = new SourceMapBuilder();
         var sourceMapFile = getOutputFile(path, baseName, configuration.getSuffix(), ".wasm.map");
+        var moduleSplitting = isModuleSplitting(element);
         Supplier<WasmGCTarget> targetSupplier = () -> {
             var target = new WasmGCTarget();
             target.setObfuscated(false);
@@ -98,6 +99,7 @@ class WebAssemblyGCPlatformSupport extends TestPlatformSupport<WasmGCTarget> {
             target.setDebugInfoLevel(WasmDebugInfoLevel.DEOBFUSCATION);
             target.setDebugInfoLocation(WasmDebugInfoLocation.EMBEDDED);
             target.setSourceMapBuilder(sourceMapBuilder);
+            target.setModuleSplitting(moduleSplitting);
             target.setSourceMapLocation(getOutputSimpleNameFile(baseName, configuration.getSuffix(), ".wasm.map"));
             var sourceDirs = System.getProperty(SOURCE_DIRS);
             if (sourceDirs != null) {
@@ -126,10 +128,24 @@ class WebAssemblyGCPlatformSupport extends TestPlatformSupport<WasmGCTarget> {
                 throw new RuntimeException(e);
             }
         };
-        return compile(configuration, targetSupplier, TestWasmGCEntryPoint.class.getName(), path,
+        var entryPoint = moduleSplitting ? TestWasmGCSplitEntryPoint.class : TestWasmGCEntryPoint.class;
+        return compile(configuration, targetSupplier, entryPoint.getName(), path,
                 ".wasm", postBuild, additionalProcessing, baseName);
     }
 
+    private boolean isModuleSplitting(AnnotatedElement element) {
+        if (element.isAnnotationPresent(WasmModuleSplitting.class)) {
+            return true;
+        }
+        if (element instanceof Method) {
+            var cls = ((Method) element).getDeclaringClass();
+            if (cls.isAnnotationPresent(WasmModuleSplitting.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     TestPlatform getPlatform() {
         return TestPlatform.WEBASSEMBLY_GC;